@@ -9,7 +9,13 @@ import com.global.api.terminals.abstractions.IDisposable;
 import lombok.Getter;
 import lombok.Setter;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
 
 public class ConfiguredServices implements IDisposable {
     private IPaymentGateway gatewayConnector;
@@ -93,6 +99,18 @@ public class ConfiguredServices implements IDisposable {
     }
 
     public void dispose() {
-        deviceController.dispose();
+        if(deviceController != null)
+            deviceController.dispose();
+
+        // one connector often fills several roles, so each is disposed once
+        Set<Object> disposed = Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>());
+        List<Object> services = new ArrayList<Object>(Arrays.asList(gatewayConnector, recurringConnector, reportingService,
+                tableServiceConnector, payrollConnector, fraudService, billingProvider, openBankingProvider, payFacProvider));
+        services.addAll(secure3dProviders.values());
+        for(Object service: services) {
+            if(service instanceof IDisposable && disposed.add(service)) {
+                ((IDisposable)service).dispose();
+            }
+        }
     }
 }
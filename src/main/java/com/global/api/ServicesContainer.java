@@ -9,41 +9,60 @@ import com.global.api.terminals.DeviceController;
 import com.global.api.terminals.abstractions.IDeviceInterface;
 import com.global.api.terminals.abstractions.IDisposable;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
 
 public class ServicesContainer implements IDisposable {
 
-    private ConcurrentHashMap<String, ConfiguredServices> configurations;
-    private static ServicesContainer instance;
+    private ConcurrentHashMap<String, Registration> registrations;
+    // tenants with their connectors built; guarded by itself, and only touched when a tenant is
+    // built or evicted, so lookups of a built tenant never take the lock
+    private final HashMap<String, TenantServices> activeTenants = new HashMap<>();
+    private volatile long tenantIdleTimeoutNanos;
+    private volatile int maxActiveTenants;
+    private static final ServicesContainer instance = new ServicesContainer();
 
     public IDeviceInterface getDeviceInterface(String configName) throws ApiException {
-        if(configurations.containsKey(configName))
-            return configurations.get(configName).getDeviceInterface();
+        ConfiguredServices cs = getServices(configName);
+        if(cs != null)
+            return cs.getDeviceInterface();
         throw new ApiException("The specified configuration has not been configured for terminal interaction.");
     }
     public DeviceController getDeviceController(String configName) throws ApiException {
-        if(configurations.containsKey(configName))
-            return configurations.get(configName).getDeviceController();
+        ConfiguredServices cs = getServices(configName);
+        if(cs != null)
+            return cs.getDeviceController();
         throw new ApiException("The specified configuration has not been configured for terminal interaction.");
     }
     public IPaymentGateway getGateway(String configName) throws ApiException {
-        if(configurations.containsKey(configName))
-            return configurations.get(configName).getGatewayConnector();
+        ConfiguredServices cs = getServices(configName);
+        if(cs != null)
+            return cs.getGatewayConnector();
         throw new ApiException("The specified configuration has not been configured for card processing.");
     }
     public PayrollConnector getPayroll(String configName) throws ApiException {
-        if(configurations.containsKey(configName))
-            return configurations.get(configName).getPayrollConnector();
+        ConfiguredServices cs = getServices(configName);
+        if(cs != null)
+            return cs.getPayrollConnector();
         throw new ApiException("The specified configuration has not been configured for payroll.");
     }
     public IRecurringGateway getRecurring(String configName) throws ApiException {
-        if(configurations.containsKey(configName))
-            return configurations.get(configName).getRecurringConnector();
+        ConfiguredServices cs = getServices(configName);
+        if(cs != null)
+            return cs.getRecurringConnector();
         throw new ApiException("The specified configuration has not been configured for recurring processing.");
     }
     public ISecure3dProvider getSecure3d(String configName, Secure3dVersion version) throws ApiException {
-        if(configurations.containsKey(configName)) {
-            ISecure3dProvider provider = configurations.get(configName).getSecure3dProvider(version);
+        ConfiguredServices cs = getServices(configName);
+        if(cs != null) {
+            ISecure3dProvider provider = cs.getSecure3dProvider(version);
             if(provider != null) {
                 return provider;
             }
@@ -52,43 +71,46 @@ public class ServicesContainer implements IDisposable {
         throw new ConfigurationException("Secure 3d is not configured on the connector");
     }
     public TableServiceConnector getTableService(String configName) throws ApiException {
-        if(configurations.containsKey(configName))
-            return configurations.get(configName).getTableServiceConnector();
+        ConfiguredServices cs = getServices(configName);
+        if(cs != null)
+            return cs.getTableServiceConnector();
         throw new ApiException("The specified configuration has not been configured for payroll.");
     }
     public IBillingProvider getBillingClient(String configName) throws ApiException {
-        if (configurations.containsKey(configName)) {
-            return configurations.get(configName).getBillingProvider();
+        ConfiguredServices cs = getServices(configName);
+        if (cs != null) {
+            return cs.getBillingProvider();
         }
 
         throw new ConfigurationException("The specified configuration has not been configured for gateway processing.");
     }
 
     public IFraudCheckService getFraudCheckClient(String configName) throws ApiException {
-        if (configurations.containsKey(configName)) {
-            return configurations.get(configName).getFraudService();
+        ConfiguredServices cs = getServices(configName);
+        if (cs != null) {
+            return cs.getFraudService();
         }
 
         throw new ApiException("The specified configuration has not been configured for fraud check.");
     }
 
     public IOpenBankingProvider getOpenBankingClient(String configName) throws ConfigurationException {
-        if (configurations.containsKey(configName))
-            return configurations.get(configName).getOpenBankingProvider();
+        ConfiguredServices cs = getServices(configName);
+        if (cs != null)
+            return cs.getOpenBankingProvider();
 
         throw new ConfigurationException("OpenBankingProvider is not configured.");
     }
 
     public IPayFacProvider getPayFac(String configName) throws ConfigurationException {
-        if (configurations.containsKey(configName))
-            return configurations.get(configName).getPayFacProvider();
+        ConfiguredServices cs = getServices(configName);
+        if (cs != null)
+            return cs.getPayFacProvider();
 
         throw new ConfigurationException("PayFacProvider is not configured");
     }
 
     public static ServicesContainer getInstance() {
-        if(instance == null)
-            instance = new ServicesContainer();
         return instance;
     }
 
@@ -137,33 +159,228 @@ public class ServicesContainer implements IDisposable {
         getInstance().addConfiguration(configName, cs);
     }
 
+    /**
+     * Registers a configuration without building its connectors, for applications that hold a
+     * configuration per merchant. The configuration is validated and its connectors are created
+     * the first time the name is used, and are dropped again when the tenant is evicted (see
+     * {@link #setTenantIdleTimeout(long, TimeUnit)} and {@link #setMaxActiveTenants(int)}), to be
+     * rebuilt on the next use. Registering several configurations under one name combines them,
+     * as {@link #configureService(Configuration, String)} does. Passing null removes the name.
+     */
+    public static <T extends Configuration> void registerService(T config, String configName) throws ConfigurationException {
+        if(config == null) {
+            getInstance().removeConfiguration(configName);
+            return;
+        }
+        getInstance().addTenant(configName, config);
+    }
+
+    /**
+     * Evicts tenants whose connectors have not been used for the given time. Zero, the default,
+     * turns idle eviction off.
+     */
+    public void setTenantIdleTimeout(long timeout, TimeUnit unit) {
+        tenantIdleTimeoutNanos = unit.toNanos(timeout);
+    }
+
+    /**
+     * Evicts the least recently used tenants once more than this many have their connectors
+     * built. Zero, the default, means no limit.
+     */
+    public void setMaxActiveTenants(int maxActiveTenants) {
+        this.maxActiveTenants = maxActiveTenants;
+    }
+
+    public int getActiveTenantCount() {
+        synchronized (activeTenants) {
+            return activeTenants.size();
+        }
+    }
+
+    /**
+     * Evicts idle tenants now. Eviction also runs whenever a tenant's connectors are built, so
+     * this is only needed to release idle tenants when no new tenants are being used.
+     */
+    public void evictIdleTenants() {
+        List<TenantServices> evicted = new ArrayList<TenantServices>();
+        long timeout = tenantIdleTimeoutNanos;
+        int max = maxActiveTenants;
+        synchronized (activeTenants) {
+            if(timeout > 0) {
+                long now = System.nanoTime();
+                Iterator<TenantServices> iterator = activeTenants.values().iterator();
+                while(iterator.hasNext()) {
+                    TenantServices tenant = iterator.next();
+                    if(now - tenant.lastAccess > timeout) {
+                        iterator.remove();
+                        evicted.add(tenant);
+                    }
+                }
+            }
+
+            if(max > 0 && activeTenants.size() > max) {
+                // least recently used first, by the stamp each lookup leaves on its tenant
+                List<TenantServices> tenants = new ArrayList<TenantServices>(activeTenants.values());
+                Collections.sort(tenants, new Comparator<TenantServices>() {
+                    public int compare(TenantServices a, TenantServices b) {
+                        return Long.signum(a.lastAccess - b.lastAccess);
+                    }
+                });
+                for(int i = 0; i < tenants.size() - max; i++) {
+                    activeTenants.remove(tenants.get(i).name);
+                    evicted.add(tenants.get(i));
+                }
+            }
+        }
+
+        for(TenantServices tenant: evicted) {
+            release(tenant.evict());
+        }
+    }
+
     private ServicesContainer() {
-        configurations = new ConcurrentHashMap<>();
+        registrations = new ConcurrentHashMap<>();
+    }
+
+    private ConfiguredServices getServices(String configName) throws ConfigurationException {
+        Registration registration = registrations.get(configName);
+        return registration != null ? registration.getServices() : null;
     }
 
     private ConfiguredServices getConfiguration(String configName) {
-        if(configurations.containsKey(configName))
-            return configurations.get(configName);
+        Registration registration = registrations.get(configName);
+        if(registration != null && !(registration instanceof TenantServices)) {
+            return registration.services;
+        }
         return new ConfiguredServices();
     }
 
-    private void addConfiguration(String configName, ConfiguredServices cs) throws ConfigurationException {
-        System.out.println(String.format("[Add Configuration] - %s", configName));
-        if(configurations.containsKey(configName)) {
-            configurations.remove(configName);
+    private synchronized void addConfiguration(String configName, ConfiguredServices cs) {
+        Registration previous = registrations.put(configName, new Registration(configName, cs));
+        if(previous instanceof TenantServices) {
+            remove((TenantServices)previous);
         }
-        configurations.put(configName, cs);
     }
 
-    private void removeConfiguration(String configName) throws ConfigurationException {
-        System.out.println(String.format("[Remove Configuration] - %s", configName));
-        if(configurations.containsKey(configName)) {
-            configurations.remove(configName);
+    private synchronized void removeConfiguration(String configName) {
+        Registration previous = registrations.remove(configName);
+        if(previous instanceof TenantServices) {
+            remove((TenantServices)previous);
         }
     }
 
-    public void dispose() {
-        for(ConfiguredServices cs : configurations.values())
+    private synchronized void addTenant(String configName, Configuration config) {
+        Registration registration = registrations.get(configName);
+        if(registration instanceof TenantServices) {
+            TenantServices tenant = (TenantServices)registration;
+            tenant.configs.add(config);
+            // rebuilt with the added configuration on its next use
+            release(tenant.evict());
+            deactivate(tenant);
+        }
+        else {
+            registrations.put(configName, new TenantServices(configName, config));
+        }
+    }
+
+    // drops a tenant that is no longer registered; a build already under way is not kept
+    private void remove(TenantServices tenant) {
+        tenant.removed = true;
+        // evict waits for a build in progress, which may still mark the tenant active
+        release(tenant.evict());
+        deactivate(tenant);
+    }
+
+    private void deactivate(TenantServices tenant) {
+        synchronized (activeTenants) {
+            if(activeTenants.get(tenant.name) == tenant) {
+                activeTenants.remove(tenant.name);
+            }
+        }
+    }
+
+    private void release(ConfiguredServices cs) {
+        if(cs != null) {
             cs.dispose();
+        }
+    }
+
+    public void dispose() {
+        for(Registration registration : registrations.values()) {
+            if(registration instanceof TenantServices) {
+                TenantServices tenant = (TenantServices)registration;
+                release(tenant.evict());
+                deactivate(tenant);
+            }
+            else {
+                release(registration.services);
+            }
+        }
+    }
+
+    // services configured up front through configureService
+    private class Registration {
+        final String name;
+        volatile ConfiguredServices services;
+
+        private Registration(String name, ConfiguredServices services) {
+            this.name = name;
+            this.services = services;
+        }
+
+        ConfiguredServices getServices() throws ConfigurationException {
+            return services;
+        }
+    }
+
+    // a registered tenant, whose connectors are built on first use and dropped when it is evicted
+    private class TenantServices extends Registration {
+        private final List<Configuration> configs = new CopyOnWriteArrayList<Configuration>();
+        private volatile long lastAccess;
+        private volatile boolean removed;
+
+        private TenantServices(String name, Configuration config) {
+            super(name, null);
+            configs.add(config);
+        }
+
+        ConfiguredServices getServices() throws ConfigurationException {
+            lastAccess = System.nanoTime();
+            ConfiguredServices cs = services;
+            if(cs != null) {
+                return cs;
+            }
+
+            // only the first caller builds, others for the same tenant wait for it
+            synchronized (this) {
+                if(services == null) {
+                    cs = new ConfiguredServices();
+                    for(Configuration config: configs) {
+                        if(!config.isValidated()) {
+                            config.validate();
+                        }
+                        config.configureContainer(cs);
+                    }
+                    if(removed) {
+                        return cs;
+                    }
+                    services = cs;
+                    // a build can be slow; count the tenant as used from when it is ready
+                    lastAccess = System.nanoTime();
+                    synchronized (activeTenants) {
+                        activeTenants.put(name, this);
+                    }
+                }
+                cs = services;
+            }
+            evictIdleTenants();
+            return cs;
+        }
+
+        synchronized ConfiguredServices evict() {
+            ConfiguredServices cs = services;
+            services = null;
+            return cs;
+        }
     }
 }
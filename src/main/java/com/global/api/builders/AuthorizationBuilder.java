@@ -1,6 +1,7 @@
 package com.global.api.builders;
 
 import com.global.api.ServicesContainer;
+import com.global.api.builders.validations.Validations;
 import com.global.api.entities.*;
 import com.global.api.entities.billing.Bill;
 import com.global.api.entities.enums.*;
@@ -892,6 +893,10 @@ public class AuthorizationBuilder extends TransactionBuilder<Transaction> {
         super(type);
         withPaymentMethod(paymentMethod);
     }
+    AuthorizationBuilder(TransactionType type, IPaymentMethod paymentMethod, Validations validations) {
+        super(type, null, validations);
+        withPaymentMethod(paymentMethod);
+    }
 
     public Transaction execute(String configName) throws ApiException {
         super.execute(configName);
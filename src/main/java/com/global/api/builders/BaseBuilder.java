@@ -18,6 +18,14 @@ public abstract class BaseBuilder<TResult> {
         setupValidations();
     }
 
+    /**
+     * Uses validations already set up for this type of builder, such as those held by a
+     * {@link TransactionTemplate}, rather than setting them up again.
+     */
+    protected BaseBuilder(Validations validations) {
+        this.validations = validations;
+    }
+
     public TResult execute() throws ApiException {
         return execute("default");
     }
@@ -1,5 +1,6 @@
 package com.global.api.builders;
 
+import com.global.api.builders.validations.Validations;
 import com.global.api.entities.PayLinkData;
 import com.global.api.entities.enums.Host;
 import com.global.api.entities.enums.HostError;
@@ -173,6 +174,11 @@ public abstract class TransactionBuilder<TResult> extends BaseBuilder<TResult> {
         this.transactionType = type;
         this.paymentMethod = paymentMethod;
     }
+    protected TransactionBuilder(TransactionType type, IPaymentMethod paymentMethod, Validations validations) {
+        super(validations);
+        this.transactionType = type;
+        this.paymentMethod = paymentMethod;
+    }
 
     public TransactionBuilder<TResult> withServiceCode(String serviceCode) {
         this.serviceCode = serviceCode;
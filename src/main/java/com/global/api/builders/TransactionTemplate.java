@@ -0,0 +1,125 @@
+package com.global.api.builders;
+
+import com.global.api.builders.validations.Validations;
+import com.global.api.entities.EcommerceInfo;
+import com.global.api.entities.StoredCredential;
+import com.global.api.entities.enums.TransactionType;
+import com.global.api.paymentMethods.IPaymentMethod;
+
+import java.math.BigDecimal;
+
+/**
+ * Merchant-level fields shared by many authorizations, applied to each new {@link AuthorizationBuilder}.
+ *
+ * A template is immutable; each {@code with} method returns a new template. The builders it creates
+ * share one set of validation rules, set up once when the template is created, rather than each
+ * setting up its own. The ecommerce info and stored credential are shared by every builder as well,
+ * so they shouldn't be changed once they are on a template.
+ *
+ * <pre>
+ * TransactionTemplate template = new TransactionTemplate()
+ *         .withCurrency("USD")
+ *         .withDynamicDescriptor("MERCHANT*STORE 12");
+ *
+ * Transaction response = template.charge(card, amount)
+ *         .withInvoiceNumber(invoiceNumber)
+ *         .execute();
+ * </pre>
+ */
+public final class TransactionTemplate {
+    private final Validations validations;
+    private final String currency;
+    private final String dynamicDescriptor;
+    private final EcommerceInfo ecommerceInfo;
+    private final StoredCredential storedCredential;
+    private final boolean allowDuplicates;
+    private final boolean allowPartialAuth;
+
+    public TransactionTemplate() {
+        this(new AuthorizationBuilder(TransactionType.Sale).getValidations(), null, null, null, null, false, false);
+    }
+
+    private TransactionTemplate(
+            Validations validations,
+            String currency,
+            String dynamicDescriptor,
+            EcommerceInfo ecommerceInfo,
+            StoredCredential storedCredential,
+            boolean allowDuplicates,
+            boolean allowPartialAuth) {
+        this.validations = validations;
+        this.currency = currency;
+        this.dynamicDescriptor = dynamicDescriptor;
+        this.ecommerceInfo = ecommerceInfo;
+        this.storedCredential = storedCredential;
+        this.allowDuplicates = allowDuplicates;
+        this.allowPartialAuth = allowPartialAuth;
+    }
+
+    public String getCurrency() {
+        return currency;
+    }
+    public String getDynamicDescriptor() {
+        return dynamicDescriptor;
+    }
+    public EcommerceInfo getEcommerceInfo() {
+        return ecommerceInfo;
+    }
+    public StoredCredential getStoredCredential() {
+        return storedCredential;
+    }
+    public boolean isAllowDuplicates() {
+        return allowDuplicates;
+    }
+    public boolean isAllowPartialAuth() {
+        return allowPartialAuth;
+    }
+
+    public TransactionTemplate withCurrency(String value) {
+        return new TransactionTemplate(validations, value, dynamicDescriptor, ecommerceInfo, storedCredential, allowDuplicates, allowPartialAuth);
+    }
+    public TransactionTemplate withDynamicDescriptor(String value) {
+        return new TransactionTemplate(validations, currency, value, ecommerceInfo, storedCredential, allowDuplicates, allowPartialAuth);
+    }
+    public TransactionTemplate withEcommerceInfo(EcommerceInfo value) {
+        return new TransactionTemplate(validations, currency, dynamicDescriptor, value, storedCredential, allowDuplicates, allowPartialAuth);
+    }
+    public TransactionTemplate withStoredCredential(StoredCredential value) {
+        return new TransactionTemplate(validations, currency, dynamicDescriptor, ecommerceInfo, value, allowDuplicates, allowPartialAuth);
+    }
+    public TransactionTemplate withAllowDuplicates(boolean value) {
+        return new TransactionTemplate(validations, currency, dynamicDescriptor, ecommerceInfo, storedCredential, value, allowPartialAuth);
+    }
+    public TransactionTemplate withAllowPartialAuth(boolean value) {
+        return new TransactionTemplate(validations, currency, dynamicDescriptor, ecommerceInfo, storedCredential, allowDuplicates, value);
+    }
+
+    public AuthorizationBuilder authorize(IPaymentMethod paymentMethod, BigDecimal amount) {
+        return newBuilder(TransactionType.Auth, paymentMethod).withAmount(amount);
+    }
+
+    public AuthorizationBuilder charge(IPaymentMethod paymentMethod, BigDecimal amount) {
+        return newBuilder(TransactionType.Sale, paymentMethod).withAmount(amount);
+    }
+
+    public AuthorizationBuilder refund(IPaymentMethod paymentMethod, BigDecimal amount) {
+        return newBuilder(TransactionType.Refund, paymentMethod).withAmount(amount);
+    }
+
+    public AuthorizationBuilder verify(IPaymentMethod paymentMethod) {
+        return newBuilder(TransactionType.Verify, paymentMethod);
+    }
+
+    /**
+     * @return a builder with the template's fields set; any of them can still be overridden on it
+     */
+    public AuthorizationBuilder newBuilder(TransactionType type, IPaymentMethod paymentMethod) {
+        return new AuthorizationBuilder(type, paymentMethod, validations)
+                .withCurrency(currency)
+                .withDynamicDescriptor(dynamicDescriptor)
+                .withEcommerceInfo(ecommerceInfo)
+                .withStoredCredential(storedCredential)
+                .withAllowDuplicates(allowDuplicates)
+                .withAllowPartialAuth(allowPartialAuth);
+    }
+}
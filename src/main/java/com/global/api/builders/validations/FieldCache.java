@@ -0,0 +1,57 @@
+package com.global.api.builders.validations;
+
+import java.lang.reflect.Field;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Field lookups for the validation rules, which read the same few fields of every builder they check.
+ */
+final class FieldCache {
+    private static final Field MISSING;
+    static {
+        try {
+            MISSING = FieldCache.class.getDeclaredField("MISSING");
+        }
+        catch(NoSuchFieldException exc) {
+            throw new IllegalStateException(exc);
+        }
+    }
+
+    private static final ConcurrentHashMap<Class<?>, ConcurrentHashMap<String, Field>> fields = new ConcurrentHashMap<Class<?>, ConcurrentHashMap<String, Field>>();
+
+    private FieldCache() {
+    }
+
+    /**
+     * @return the accessible field declared by {@code clazz} or one of its superclasses, or null if there is none
+     */
+    static Field find(Class<?> clazz, String name) {
+        ConcurrentHashMap<String, Field> classFields = fields.get(clazz);
+        if(classFields == null) {
+            classFields = new ConcurrentHashMap<String, Field>();
+            ConcurrentHashMap<String, Field> existing = fields.putIfAbsent(clazz, classFields);
+            if(existing != null) {
+                classFields = existing;
+            }
+        }
+
+        Field rvalue = classFields.get(name);
+        if(rvalue == null) {
+            rvalue = lookup(clazz, name);
+            classFields.put(name, rvalue == null ? MISSING : rvalue);
+        }
+        return rvalue == MISSING ? null : rvalue;
+    }
+
+    private static Field lookup(Class<?> clazz, String name) {
+        for(Class<?> current = clazz; current != null; current = current.getSuperclass()) {
+            for(Field field: current.getDeclaredFields()) {
+                if(field.getName().equals(name)) {
+                    field.setAccessible(true);
+                    return field;
+                }
+            }
+        }
+        return null;
+    }
+}
@@ -195,18 +195,9 @@ public class ValidationClause {
     }
 
     private Field getField(Class clazz, String fieldName) throws NoSuchFieldException {
-        try{
-            Field f = clazz.getDeclaredField(fieldName);
-            f.setAccessible(true);
-            return f;
-        }
-        catch(NoSuchFieldException e) {
-            Class superClass = clazz.getSuperclass();
-            if(superClass == null)
-                throw e;
-            else {
-                return getField(superClass, fieldName);
-            }
-        }
+        Field f = FieldCache.find(clazz, fieldName);
+        if(f == null)
+            throw new NoSuchFieldException(fieldName);
+        return f;
     }
-}
\ No newline at end of file
+}
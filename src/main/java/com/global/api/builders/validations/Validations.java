@@ -27,12 +27,18 @@ public class Validations {
             this.value = value;
         }
 
+        // looked up once; the rules are read by every validate call
+        private volatile Set<?> set;
+
         Set<?> getSet() {
-            try {
-                Method method = type.getMethod("getSet", long.class);
-                return (Set<?>)method.invoke(this.type, this.value);
+            if(set == null) {
+                try {
+                    Method method = type.getMethod("getSet", long.class);
+                    set = (Set<?>)method.invoke(this.type, this.value);
+                }
+                catch(Exception exc) { return null; }
             }
-            catch(Exception exc) { return null; }
+            return set;
         }
     }
 
@@ -106,19 +112,6 @@ public class Validations {
         }
     }
 
-    private Field getField(Class clazz, String name) throws NoSuchFieldException {
-        try {
-            Field field = clazz.getDeclaredField(name);
-            field.setAccessible(true);
-            return field;
-        }
-        catch(NoSuchFieldException e) {
-            Class superClazz = clazz.getSuperclass();
-            if(superClazz != null)
-                return getField(superClazz, name);
-            else throw e;
-        }
-    }
     private IFlag getPropertyValue(Object obj, Object comp) {
         if(obj == null) return null;
 
@@ -126,8 +119,8 @@ public class Validations {
         name = name.substring(0, 1).toLowerCase() + name.substring(1);
 
         try{
-            Field field = getField(obj.getClass(), name);
-            return (IFlag)field.get(obj);
+            Field field = FieldCache.find(obj.getClass(), name);
+            return field == null ? null : (IFlag)field.get(obj);
         }
         catch(Exception e) {
             return null;
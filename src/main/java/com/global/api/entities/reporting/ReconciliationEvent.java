@@ -0,0 +1,26 @@
+package com.global.api.entities.reporting;
+
+import com.global.api.entities.TransactionSummary;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.experimental.Accessors;
+
+import java.math.BigDecimal;
+
+/**
+ * One outcome of a reconciliation run. The ID is a transaction, batch or deposit ID depending on
+ * the type; the expected amount comes from the merchant's records, or from the deposit for deposit
+ * events, and the settled amount from the settlement transactions.
+ */
+@Accessors(chain = true)
+@Getter
+@Setter
+public class ReconciliationEvent {
+    private ReconciliationEventType type;
+    private String id;
+    private BigDecimal expectedAmount;
+    private BigDecimal settledAmount;
+    private ReconciliationRecord record;
+    private TransactionSummary settlement;
+    private DepositSummary deposit;
+}
@@ -0,0 +1,20 @@
+package com.global.api.entities.reporting;
+
+public enum ReconciliationEventType {
+    // settlement transaction with the recorded amount
+    Matched,
+    // settlement transaction with a different amount than recorded
+    AmountMismatch,
+    // settlement transaction missing from the records
+    UnmatchedSettlement,
+    // recorded transaction missing from the settlement
+    UnmatchedRecord,
+    // settled batch total equal to the recorded batch total
+    BatchMatched,
+    BatchMismatch,
+    // deposit whose sales, refunds and chargebacks add up to its settlement transactions and disputes
+    DepositMatched,
+    DepositMismatch,
+    // settlement transactions or disputes referring to a deposit that wasn't reported
+    UnmatchedDeposit
+}
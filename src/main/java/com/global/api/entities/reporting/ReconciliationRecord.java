@@ -0,0 +1,19 @@
+package com.global.api.entities.reporting;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.experimental.Accessors;
+
+import java.math.BigDecimal;
+
+/**
+ * A transaction from the merchant's own records. Refunds carry a negative amount.
+ */
+@Accessors(chain = true)
+@Getter
+@Setter
+public class ReconciliationRecord {
+    private String transactionId;
+    private String batchId;
+    private BigDecimal amount;
+}
@@ -0,0 +1,107 @@
+package com.global.api.gateways;
+
+import com.global.api.gateways.events.GatewayEventType;
+
+/**
+ * Failure state of one endpoint. Every state change starts a new generation; a request is tagged
+ * with the generation it was admitted in, and its outcome is ignored once that generation has
+ * passed, so a request sent before the circuit opened cannot close it again. The state changing
+ * methods return the event type of the change they caused, or null if the state did not change.
+ */
+class CircuitBreaker {
+    private final int failureThreshold;
+    private final long openDuration;
+
+    private GatewayEventType state = GatewayEventType.CircuitClosed;
+    private long generation;
+    private int failures;
+    private long openedAt;
+    private boolean trialInFlight;
+
+    CircuitBreaker(int failureThreshold, long openDuration) {
+        this.failureThreshold = failureThreshold;
+        this.openDuration = openDuration;
+    }
+
+    /**
+     * Admits a request, moving an open circuit to half open once it has been open for the open
+     * duration. A half open circuit admits a single trial request.
+     */
+    synchronized Admission tryAcquire() {
+        GatewayEventType event = null;
+        if(state == GatewayEventType.CircuitOpened && System.currentTimeMillis() - openedAt >= openDuration) {
+            trialInFlight = false;
+            event = changeState(GatewayEventType.CircuitHalfOpened);
+        }
+
+        boolean allowed;
+        if(state == GatewayEventType.CircuitHalfOpened) {
+            allowed = !trialInFlight;
+            trialInFlight = true;
+        }
+        else {
+            allowed = state == GatewayEventType.CircuitClosed;
+        }
+        return new Admission(allowed, generation, event);
+    }
+
+    synchronized GatewayEventType onSuccess(long admittedGeneration) {
+        if(admittedGeneration != generation) {
+            return null;
+        }
+        failures = 0;
+        trialInFlight = false;
+        return changeState(GatewayEventType.CircuitClosed);
+    }
+
+    synchronized GatewayEventType onFailure(long admittedGeneration) {
+        if(admittedGeneration != generation) {
+            return null;
+        }
+        trialInFlight = false;
+        if(state == GatewayEventType.CircuitHalfOpened || ++failures >= failureThreshold) {
+            openedAt = System.currentTimeMillis();
+            return changeState(GatewayEventType.CircuitOpened);
+        }
+        return null;
+    }
+
+    private GatewayEventType changeState(GatewayEventType newState) {
+        if(state == newState) {
+            return null;
+        }
+        state = newState;
+        generation++;
+        return newState;
+    }
+
+    static class Admission {
+        private final boolean allowed;
+        private final long generation;
+        private final GatewayEventType event;
+
+        private Admission(boolean allowed, long generation, GatewayEventType event) {
+            this.allowed = allowed;
+            this.generation = generation;
+            this.event = event;
+        }
+
+        /**
+         * @return false if the request should fail without being sent
+         */
+        boolean isAllowed() {
+            return allowed;
+        }
+
+        long getGeneration() {
+            return generation;
+        }
+
+        /**
+         * @return the state change caused by admitting the request, or null
+         */
+        GatewayEventType getEvent() {
+            return event;
+        }
+    }
+}
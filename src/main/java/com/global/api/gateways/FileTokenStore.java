@@ -0,0 +1,186 @@
+package com.global.api.gateways;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+/**
+ * Shares tokens between the processes of one host through the given directory.
+ *
+ * Each key has a {@code .token} file that every process maps into memory, so reading the current
+ * token doesn't touch the disk, and a {@code .lock} file whose exclusive lock is the refresh lock.
+ * The operating system drops the lock when its process exits, so a process that dies mid sign-in
+ * doesn't leave the others waiting. A record is its length, a CRC32 of its contents and the
+ * contents; a read that races a write sees a CRC mismatch and reads again.
+ * <p>
+ * Tokens are stored in plaintext. Token files are created readable and writable by their owner
+ * only; on file systems without POSIX permissions the owner-only read and write flags are set
+ * where the platform supports them. The directory should still only be reachable by the account
+ * the processes run as.
+ */
+public class FileTokenStore implements ITokenStore {
+    private static final int FILE_SIZE = 4096;
+    private static final int HEADER_SIZE = 12;
+    private static final int READ_ATTEMPTS = 5;
+
+    // file locks belong to the process, so threads of one process also lock in memory
+    private static final ConcurrentHashMap<String, ReentrantLock> processLocks = new ConcurrentHashMap<String, ReentrantLock>();
+
+    private final File directory;
+    private final ConcurrentHashMap<String, MappedByteBuffer> buffers = new ConcurrentHashMap<String, MappedByteBuffer>();
+
+    public FileTokenStore(String directory) {
+        this.directory = new File(directory);
+        if(!this.directory.exists() && !this.directory.mkdirs()) {
+            throw new IllegalArgumentException("Unable to create token directory: " + directory);
+        }
+    }
+
+    public StoredToken read(String key) throws IOException {
+        MappedByteBuffer buffer = bufferFor(key);
+        for(int attempt = 0; attempt < READ_ATTEMPTS; attempt++) {
+            byte[] data;
+            long crc;
+            synchronized(buffer) {
+                int length = buffer.getInt(0);
+                if(length == 0) {
+                    return null;
+                }
+                if(length < 0 || length > FILE_SIZE - HEADER_SIZE) {
+                    continue;
+                }
+
+                crc = buffer.getLong(4);
+                data = new byte[length];
+                buffer.position(HEADER_SIZE);
+                buffer.get(data);
+            }
+
+            if(crcOf(data) == crc) {
+                return StoredToken.parse(new String(data, StandardCharsets.UTF_8));
+            }
+            Thread.yield();
+        }
+        return null;
+    }
+
+    public void write(String key, StoredToken token) throws IOException {
+        byte[] data = token.serialize().getBytes(StandardCharsets.UTF_8);
+        if(data.length > FILE_SIZE - HEADER_SIZE) {
+            throw new IOException("Token is too large to store.");
+        }
+
+        MappedByteBuffer buffer = bufferFor(key);
+        synchronized(buffer) {
+            buffer.putInt(0, data.length);
+            buffer.putLong(4, crcOf(data));
+            buffer.position(HEADER_SIZE);
+            buffer.put(data);
+        }
+    }
+
+    public Closeable tryLock(String key) throws IOException {
+        File file = fileFor(key, ".lock");
+        final ReentrantLock processLock = InMemoryTokenStore.lockFor(processLocks, file.getCanonicalPath());
+        if(!processLock.tryLock()) {
+            return null;
+        }
+
+        RandomAccessFile raf = null;
+        try {
+            raf = new RandomAccessFile(file, "rw");
+            final FileChannel channel = raf.getChannel();
+            final FileLock lock = channel.tryLock();
+            if(lock == null) {
+                raf.close();
+                processLock.unlock();
+                return null;
+            }
+
+            return () -> {
+                try {
+                    lock.release();
+                    channel.close();
+                }
+                finally {
+                    processLock.unlock();
+                }
+            };
+        }
+        catch(IOException | OverlappingFileLockException exc) {
+            if(raf != null) {
+                raf.close();
+            }
+            processLock.unlock();
+            if(exc instanceof IOException) {
+                throw (IOException)exc;
+            }
+            return null;
+        }
+    }
+
+    private MappedByteBuffer bufferFor(String key) throws IOException {
+        MappedByteBuffer rvalue = buffers.get(key);
+        if(rvalue == null) {
+            File file = fileFor(key, ".token");
+            createOwnerOnly(file);
+            RandomAccessFile raf = new RandomAccessFile(file, "rw");
+            try {
+                // the mapping stays valid once the channel is closed
+                rvalue = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, FILE_SIZE);
+            }
+            finally {
+                raf.close();
+            }
+
+            MappedByteBuffer current = buffers.putIfAbsent(key, rvalue);
+            if(current != null) {
+                rvalue = current;
+            }
+        }
+        return rvalue;
+    }
+
+    private static void createOwnerOnly(File file) throws IOException {
+        try {
+            Files.createFile(file.toPath(), PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")));
+        }
+        catch(FileAlreadyExistsException exc) {
+            // created by another process or an earlier run
+        }
+        catch(UnsupportedOperationException exc) {
+            if(file.createNewFile()) {
+                file.setReadable(false, false);
+                file.setReadable(true, true);
+                file.setWritable(false, false);
+                file.setWritable(true, true);
+            }
+        }
+    }
+
+    private File fileFor(String key, String extension) {
+        StringBuilder sb = new StringBuilder(key.length() + extension.length());
+        for(char c: key.toCharArray()) {
+            sb.append(Character.isLetterOrDigit(c) || c == '-' || c == '_' ? c : '_');
+        }
+        return new File(directory, sb.append(extension).toString());
+    }
+
+    private static long crcOf(byte[] data) {
+        CRC32 crc = new CRC32();
+        crc.update(data, 0, data.length);
+        return crc.getValue();
+    }
+}
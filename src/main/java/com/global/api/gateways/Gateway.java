@@ -32,7 +32,6 @@ public abstract class Gateway {
     private String contentType;
     private boolean enableLogging;
     private IRequestLogger requestLogger;
-    private StringBuilder logEntry = new StringBuilder();
     private final String lSChar = System.getProperty("line.separator");
     protected HashMap<String, String> headers;
     protected HashMap<String, String> dynamicHeaders;
@@ -53,7 +52,11 @@ public abstract class Gateway {
         return sendRequest(verb, endpoint, data, null);
     }
     protected GatewayResponse sendRequest(String verb, String endpoint, String data, HashMap<String, String> queryStringParams) throws GatewayException {
+        return sendRequest(verb, endpoint, data, queryStringParams, RequestOptions.DEFAULT);
+    }
+    protected GatewayResponse sendRequest(String verb, String endpoint, String data, HashMap<String, String> queryStringParams, RequestOptions options) throws GatewayException {
         HttpsURLConnection conn = null;
+        StringBuilder logEntry = new StringBuilder();
         try{
             String queryString = buildQueryString(queryStringParams);
             if (webProxy != null) {
@@ -62,7 +65,8 @@ public abstract class Gateway {
                 conn = (HttpsURLConnection) new URL((serviceUrl + endpoint + queryString).trim()).openConnection();
             }
             conn.setSSLSocketFactory(new SSLSocketFactoryEx());
-            conn.setConnectTimeout(timeout);
+            conn.setConnectTimeout(options.getConnectTimeout() > 0 ? options.getConnectTimeout() : timeout);
+            conn.setReadTimeout(options.getReadTimeout() > 0 ? options.getReadTimeout() : timeout);
             conn.setDoInput(true);
             // ----------------------------------------------------------------------
             // Fix: Supports PATCH requests in HttpsURLConnection on JAVA & Android
@@ -89,6 +93,14 @@ public abstract class Gateway {
                 }
             }
 
+            // per-request headers go on this connection only, never into the shared maps
+            for (Map.Entry<String, String> header : options.getHeaders().entrySet()) {
+                conn.setRequestProperty(header.getKey(), header.getValue());
+            }
+            if (!StringUtils.isNullOrEmpty(options.getIdempotencyKey()) && getIdempotencyHeader() != null) {
+                conn.setRequestProperty(getIdempotencyHeader(), options.getIdempotencyKey());
+            }
+
             if (this.enableLogging || this.requestLogger != null) {
                 logEntry.append("Endpoint:       ").append(verb).append(" ").append(serviceUrl).append(endpoint).append(lSChar);
                 logEntry.append("Proxy:          ").append((webProxy != null) ? webProxy.toString() : "none").append(lSChar).append(lSChar);
@@ -112,7 +124,7 @@ public abstract class Gateway {
                         logEntry.append(StringUtils.mask(data));
                     }
 
-                    generateRequestLog();
+                    generateRequestLog(logEntry);
                 }
                 try (DataOutputStream requestStream = new DataOutputStream(conn.getOutputStream())) {
                     requestStream.write(request);
@@ -135,7 +147,7 @@ public abstract class Gateway {
                     logEntry.append(rawResponse);
                 }
 
-                generateResponseLog();
+                generateResponseLog(logEntry);
             }
 
             GatewayResponse response = new GatewayResponse();
@@ -147,7 +159,7 @@ public abstract class Gateway {
             if (this.enableLogging || this.requestLogger != null) {
                 logEntry.append("Exception:").append(lSChar).append(exc.getMessage());
 
-                generateResponseLog();
+                generateResponseLog(logEntry);
             }
 
             try {
@@ -201,10 +213,12 @@ public abstract class Gateway {
 
     protected GatewayResponse sendRequest(String endpoint, MultipartEntity content) throws GatewayException {
         HttpsURLConnection conn;
+        StringBuilder logEntry = new StringBuilder();
         try{
             conn = (HttpsURLConnection)new URL((serviceUrl + endpoint).trim()).openConnection();
             conn.setSSLSocketFactory(new SSLSocketFactoryEx());
             conn.setConnectTimeout(timeout);
+            conn.setReadTimeout(timeout);
             conn.setDoInput(true);
             conn.setDoOutput(true);
             conn.setRequestMethod("POST");
@@ -217,7 +231,7 @@ public abstract class Gateway {
                 if (this.enableLogging || this.requestLogger != null) {
                     logEntry.append("Request: ").append(content).append(lSChar);
 
-                    generateRequestLog();
+                    generateRequestLog(logEntry);
                 }
                 content.writeTo(out);
                 out.flush();
@@ -226,7 +240,7 @@ public abstract class Gateway {
                 if (this.enableLogging || this.requestLogger != null) {
                     logEntry.append(content).append(lSChar);
 
-                    generateResponseLog();
+                    generateResponseLog(logEntry);
                 }
 
                 GatewayResponse response = new GatewayResponse();
@@ -258,6 +272,13 @@ public abstract class Gateway {
         return sb.toString();
     }
 
+    /**
+     * @return the header that carries {@link RequestOptions#getIdempotencyKey()}, or null if the gateway has none
+     */
+    protected String getIdempotencyHeader() {
+        return null;
+    }
+
     private void setRequestMethod(final HttpURLConnection c, final String value) {
         try {
             Object target = c;
@@ -317,7 +338,7 @@ public abstract class Gateway {
                 ) || serviceUrl.endsWith("paygateway.com/transactions");
     }
 
-    private void generateRequestLog() {
+    private void generateRequestLog(StringBuilder logEntry) {
         if (enableLogging) {    // At least we need to print in console
             if (requestLogger == null) {
                 new RequestConsoleLogger().RequestSent(logEntry.toString());
@@ -346,7 +367,7 @@ public abstract class Gateway {
         logEntry.delete(0, logEntry.length());
     }
 
-    private void generateResponseLog() {
+    private void generateResponseLog(StringBuilder logEntry) {
         if (enableLogging) {    // At least we need to print in console
             if (requestLogger == null) {
                 new RequestConsoleLogger().ResponseReceived(logEntry.toString());
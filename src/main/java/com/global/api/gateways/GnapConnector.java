@@ -11,6 +11,8 @@ import com.global.api.entities.enums.*;
 import com.global.api.entities.exceptions.ApiException;
 import com.global.api.entities.exceptions.GatewayException;
 import com.global.api.entities.exceptions.GatewayTimeoutException;
+import com.global.api.logging.LogLevel;
+import com.global.api.logging.MessageTracer;
 import com.global.api.network.enums.gnap.*;
 import com.global.api.network.NetworkMessageHeader;
 import com.global.api.network.enums.gnap.CardType;
@@ -27,13 +29,31 @@ import com.global.api.utils.*;
 import org.joda.time.DateTime;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 
 public class GnapConnector extends GatewayConnectorConfig {
     boolean isCreditCard;
     boolean isDebitCard;
     boolean isEmvDataPresent;
-    final String fs = String.valueOf((char) 0x1C);
-    final String rs = String.valueOf((char) 0x1E);
+    private static final byte FS = 0x1C;
+    private static final byte RS = 0x1E;
+    private static final ReverseStringEnumMap<GnapFIDS> FIDS = ReverseStringEnumMap.forType(GnapFIDS.class);
+    private static final ReverseStringEnumMap<GnapSubFids> SUB_FIDS = ReverseStringEnumMap.forType(GnapSubFids.class);
+    private static final RecordLayout<GnapMessageHeader> RESPONSE_HEADER_LAYOUT = RecordLayout.<GnapMessageHeader>builder()
+            .string(2, GnapMessageHeader::setDeviceType)
+            .string(2, GnapMessageHeader::setTransmissionNumber)
+            .string(16, GnapMessageHeader::setTerminalId)
+            .skip(6)
+            .string(6, GnapMessageHeader::setCurrentDate)
+            .string(6, GnapMessageHeader::setCurrentTime)
+            .constant(1, MessageType.class, GnapMessageHeader::setMessageType)
+            .constant(1, MessageSubType.class, GnapMessageHeader::setMessageSubType)
+            .skip(2)
+            .integer(1, GnapMessageHeader::setProcessingFlag1)
+            .integer(1, GnapMessageHeader::setProcessingFlag2)
+            .integer(1, GnapMessageHeader::setProcessingFlag3)
+            .string(3, GnapMessageHeader::setResponseCode)
+            .build();
     private TransactionCode transCode=null;
 
     @Override
@@ -54,6 +74,12 @@ public class GnapConnector extends GatewayConnectorConfig {
     }
 
     public Transaction processAuthorization(AuthorizationBuilder builder) throws ApiException {
+        try(MessageTracer.Scope scope = beginTrace()) {
+            return authorize(builder);
+        }
+    }
+
+    private Transaction authorize(AuthorizationBuilder builder) throws ApiException {
 
         MessageWriter mr = new MessageWriter();
         GnapRequestData reqData = builder.getGnapRequestData();
@@ -85,7 +111,9 @@ public class GnapConnector extends GatewayConnectorConfig {
 
         GnapUtils.log("***************Request Header*****************", "*****");
         MessageWriter headerWriter = buildRequestHeader(header, acceptorConfig);
-        GnapUtils.log("Final Request Header", new String(headerWriter.toArray()));
+        if (GnapUtils.isLogging()) {
+            GnapUtils.log("Final Request Header", new String(headerWriter.toArray()));
+        }
         MapGnapFids mapFids = new MapGnapFids(mr);
         mr.addRange(headerWriter.toArray());
 
@@ -255,13 +283,20 @@ public class GnapConnector extends GatewayConnectorConfig {
         }
 
         mr.add(ControlCodes.ETX);
-        IDeviceMessage buildMessage = new DeviceMessage(mr.toArray());
-        GnapUtils.log("Final Request", buildMessage.toString());
+        if (MessageTracer.isLogging(LogLevel.Debug)) {
+            GnapUtils.log(LogLevel.Debug, "Final Request", new DeviceMessage(mr.toArray()));
+        }
 
         return sendRequest(mr, builder);
     }
 
     public Transaction manageTransaction(ManagementBuilder builder) throws ApiException {
+        try(MessageTracer.Scope scope = beginTrace()) {
+            return manage(builder);
+        }
+    }
+
+    private Transaction manage(ManagementBuilder builder) throws ApiException {
 
         MessageWriter mr = new MessageWriter();
         GnapRequestData reqData = builder.getGnapRequestData();
@@ -302,7 +337,9 @@ public class GnapConnector extends GatewayConnectorConfig {
 
         GnapUtils.log("***************Request Header*****************", "*****");
         MessageWriter headerWriter = buildRequestHeader(header, acceptorConfig);
-        GnapUtils.log("Final Request Header", new String(headerWriter.toArray()));
+        if (GnapUtils.isLogging()) {
+            GnapUtils.log("Final Request Header", new String(headerWriter.toArray()));
+        }
         MapGnapFids mapFids = new MapGnapFids(mr);
         mr.addRange(headerWriter.toArray());
 
@@ -522,8 +559,9 @@ public class GnapConnector extends GatewayConnectorConfig {
         }
 
         mr.add(ControlCodes.ETX);
-        IDeviceMessage buildMessage = new DeviceMessage(mr.toArray());
-        GnapUtils.log("Final Request", buildMessage.toString());
+        if (MessageTracer.isLogging(LogLevel.Debug)) {
+            GnapUtils.log(LogLevel.Debug, "Final Request", new DeviceMessage(mr.toArray()));
+        }
 
         return sendRequest(mr, builder);
     }
@@ -532,12 +570,12 @@ public class GnapConnector extends GatewayConnectorConfig {
 
         try {
             int messageLength = messageData.length();
-            GnapUtils.log("Message Length ", String.valueOf(messageLength));
+            GnapUtils.log(LogLevel.Debug, "Message Length ", messageLength);
             MessageWriter req = new MessageWriter();
             req.add(messageLength, 2);
             req.addRange(messageData.toArray());
             IDeviceMessage buildMessage = new DeviceMessage(req.toArray());
-            GnapUtils.log("Final Request with header and data", buildMessage.toString());
+            GnapUtils.log(LogLevel.Debug, "Final Request with header and data", buildMessage);
             byte[] responseBuffer = send(buildMessage);
             return mapResponse(responseBuffer, builder);
 
@@ -554,17 +592,17 @@ public class GnapConnector extends GatewayConnectorConfig {
     private <T extends TransactionBuilder<Transaction>> Transaction mapResponse(byte[] buffer, T builder) throws Exception {
 
         Transaction result = new Transaction();
-        String response = new String(buffer);
-        GnapUtils.log("Response ", response);
-        String header = response.substring(0, 48);
-        String data = response.substring(48,response.length()-1);
+        if (MessageTracer.isLogging(LogLevel.Debug)) {
+            String response = new String(buffer);
+            GnapUtils.log(LogLevel.Debug, "Response ", response);
+            GnapUtils.log(LogLevel.Debug, "Response Header", response.substring(0, 48));
+        }
         TransactionReference reference = new TransactionReference();
-
-        GnapUtils.log("Response Header", header);
         GnapResponse gnapResponse = new GnapResponse();
 
-        GnapMessageHeader gnapMessageHeader = buildResponseHeader(header);
-        GnapResponseData gnapResponseData = buildResponseData(data, reference);
+        // the header is fixed width; the data after it runs to the trailing ETX
+        GnapMessageHeader gnapMessageHeader = buildResponseHeader(new RecordReader(buffer, 0, 48));
+        GnapResponseData gnapResponseData = buildResponseData(new RecordReader(buffer, 48, buffer.length - 1), reference);
 
         gnapResponse.setGnapMessageHeader(gnapMessageHeader);
         gnapResponse.setGnapResponseData(gnapResponseData);
@@ -611,32 +649,24 @@ public class GnapConnector extends GatewayConnectorConfig {
         return false;
     }
 
-    private GnapResponseData buildResponseData(String sData, TransactionReference transactionReference) throws Exception {
+    private GnapResponseData buildResponseData(RecordReader reader, TransactionReference transactionReference) throws Exception {
 
         GnapResponseData gnapData = new GnapResponseData();
         GnapProdSubFids gnapProdSubFids = new GnapProdSubFids();
 
-        String fidString = "";
-        String subFidString = "";
-
-        if (sData.contains(fs)) {
-            fidString = sData.substring(sData.indexOf(fs)).substring(1);
-        }
-
-        if (sData.contains(rs)) {
-            subFidString = sData.substring(sData.indexOf(rs)).substring(1);
-        }
-        String[] fidValues = fidString.split(fs);
-        String[] subFidValues = subFidString.split(rs);
-
         GnapUtils.log("*************** Response FIDs *****************", "*****");
 
-        for (String splt : fidValues) {
+        // one pass over the FS separated FIDs; the sub-FIDs are read from the FID 6 field alone
+        reader.skipPast(FS);
+        while (reader.hasRemaining()) {
+            String splt = reader.readTo(FS);
             if (!(splt.isEmpty())) {
-                GnapFIDS gnapFIDS = readFidEnum(String.valueOf(splt.charAt(0)),GnapFIDS.class);
+                GnapFIDS gnapFIDS = FIDS.get(splt.charAt(0));
                 String fid = splt.substring(1);
 
-                GnapUtils.log("FID : " + gnapFIDS.getValue(),fid);
+                if (GnapUtils.isLogging()) {
+                    GnapUtils.log("FID : " + gnapFIDS.getValue(), fid);
+                }
 
                 switch (gnapFIDS) {
 
@@ -737,10 +767,18 @@ public class GnapConnector extends GatewayConnectorConfig {
 
                     //FID_6("Product Sub-FIDs")
                     case FID_6:
-                        for (String sf : subFidValues) {
-                            GnapSubFids gnapSubFIDS = readFidEnum(String.valueOf(sf.charAt(0)),GnapSubFids.class);
+                        RecordReader subFids = new RecordReader(fid.getBytes(StandardCharsets.ISO_8859_1));
+                        subFids.skipPast(RS);
+                        while (subFids.hasRemaining()) {
+                            String sf = subFids.readTo(RS);
+                            if (sf.isEmpty()) {
+                                continue;
+                            }
+                            GnapSubFids gnapSubFIDS = SUB_FIDS.get(sf.charAt(0));
                             String subFid = sf.substring(1);
-                            GnapUtils.log("  SUBFID : " + gnapSubFIDS.getValue(), subFid);
+                            if (GnapUtils.isLogging()) {
+                                GnapUtils.log("  SUBFID : " + gnapSubFIDS.getValue(), subFid);
+                            }
                             switch (gnapSubFIDS) {
 
                                 //subFID_E("POS Entry Mode")
@@ -784,26 +822,10 @@ public class GnapConnector extends GatewayConnectorConfig {
         return gnapData;
     }
 
-    private GnapMessageHeader buildResponseHeader(String header) {
-        GnapMessageHeader gnapMessageHeader = new GnapMessageHeader();
-
-        StringParser sp = new StringParser(header);
-
-        gnapMessageHeader.setDeviceType(sp.readString(2));
-        gnapMessageHeader.setTransmissionNumber(sp.readString(2));
-        gnapMessageHeader.setTerminalId(sp.readString(16));
-        sp.readString(6); //Filler
-        gnapMessageHeader.setCurrentDate(sp.readString(6));
-        gnapMessageHeader.setCurrentTime(sp.readString(6));
-        gnapMessageHeader.setMessageType(sp.readStringConstant(1, MessageType.class));
-        gnapMessageHeader.setMessageSubType(sp.readStringConstant(1, MessageSubType.class));
-        sp.readString(2);
+    private GnapMessageHeader buildResponseHeader(RecordReader reader) {
+        GnapMessageHeader gnapMessageHeader = RESPONSE_HEADER_LAYOUT.decode(reader, new GnapMessageHeader());
         gnapMessageHeader.setTransactionCode(transCode);
-        gnapMessageHeader.setProcessingFlag1(sp.readInt(1));
-        gnapMessageHeader.setProcessingFlag2(sp.readInt(1));
-        GnapUtils.log("Processing Flag", String.valueOf(gnapMessageHeader.getProcessingFlag2()));
-        gnapMessageHeader.setProcessingFlag3(sp.readInt(1));
-        gnapMessageHeader.setResponseCode(sp.readString(3));
+        GnapUtils.log("Processing Flag", gnapMessageHeader.getProcessingFlag2());
         GnapUtils.log("Response Code", gnapMessageHeader.getResponseCode());
 
         return gnapMessageHeader;
@@ -32,6 +32,7 @@ public class Gp3DSProvider extends RestGateway implements ISecure3dProvider {
     private String merchantId;
     private String methodNotificationUrl;
     private String sharedSecret;
+    private Secure3dVersionCache versionCache;
 
     public Secure3dVersion getVersion() { return Secure3dVersion.TWO; }
 
@@ -49,8 +50,19 @@ public class Gp3DSProvider extends RestGateway implements ISecure3dProvider {
                     .set("method_notification_url", methodNotificationUrl);
 
             String hashValue = "";
+            String cardNumber = null;
             if(paymentMethod instanceof CreditCardData) {
                 CreditCardData cardData = (CreditCardData)paymentMethod;
+                cardNumber = cardData.getNumber();
+                if(versionCache != null) {
+                    ThreeDSecure cached = versionCache.lookup(cardNumber);
+                    if(cached != null && !cached.isEnrolled()) {
+                        Transaction response = new Transaction();
+                        response.setThreeDsecure(cached);
+                        return response;
+                    }
+                }
+
                 request
                         .set("number", cardData.getNumber())
                         .set("scheme", mapCardScheme(CardUtils.getBaseCardType(cardData.getCardType()).toUpperCase(Locale.ENGLISH)));
@@ -64,20 +76,23 @@ public class Gp3DSProvider extends RestGateway implements ISecure3dProvider {
             }
 
             String hash = GenerationUtils.generateHash(sharedSecret, timestamp, merchantId, hashValue);
-            setAuthHeader(hash);
 
-            String rawResponse = doTransaction("POST", "protocol-versions", request.toString());
-            return mapResponse(rawResponse);
+            String rawResponse = doTransaction("POST", "protocol-versions", request.toString(), null, authOptions(hash));
+            Transaction response = mapResponse(rawResponse);
+            // without an enrolled flag the result would read as not enrolled
+            if(versionCache != null && cardNumber != null && JsonDoc.parse(rawResponse).has("enrolled")) {
+                versionCache.put(cardNumber, response.getThreeDsecure());
+            }
+            return response;
         }
         else  if(transType.equals(TransactionType.VerifySignature)) {
             String hash = GenerationUtils.generateHash(sharedSecret, timestamp, merchantId, builder.getServerTransactionId());
-            setAuthHeader(hash);
 
             HashMap<String, String> queryValues = new HashMap<>();
             queryValues.put("merchant_id", merchantId);
             queryValues.put("request_timestamp", timestamp);
 
-            String rawResponse = doTransaction("GET", String.format("authentications/%s", builder.getServerTransactionId()), request.toString(), queryValues);
+            String rawResponse = doTransaction("GET", String.format("authentications/%s", builder.getServerTransactionId()), request.toString(), queryValues, authOptions(hash));
             return mapResponse(rawResponse);
         }
         else if(transType.equals(TransactionType.InitiateAuthentication)) {
@@ -293,18 +308,18 @@ public class Gp3DSProvider extends RestGateway implements ISecure3dProvider {
             }
 
             String hash = GenerationUtils.generateHash(sharedSecret, timestamp, merchantId, hashValue, secureEcom.getServerTransactionId());
-            setAuthHeader(hash);
 
-            String rawResponse = doTransaction("POST", "authentications", request.toString());
+            String rawResponse = doTransaction("POST", "authentications", request.toString(), null, authOptions(hash));
             return mapResponse(rawResponse);
         }
 
         throw new ApiException(String.format("Unknown transaction type %s.", transType));
     }
 
-    private void setAuthHeader(String value) {
-        headers.put("Authorization", String.format("securehash %s", value));
-        headers.put("X-GP-Version", "2.2.0");
+    private RequestOptions authOptions(String value) {
+        return RequestOptions.DEFAULT
+                .withHeader("Authorization", String.format("securehash %s", value))
+                .withHeader("X-GP-Version", "2.2.0");
     }
 
     private Transaction mapResponse(String rawResponse) {
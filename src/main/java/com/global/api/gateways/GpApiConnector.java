@@ -15,27 +15,28 @@ import com.global.api.network.NetworkMessageHeader;
 import com.global.api.paymentMethods.AlternativePaymentMethod;
 import com.global.api.paymentMethods.TransactionReference;
 import com.global.api.serviceConfigs.GpApiConfig;
+import com.global.api.terminals.abstractions.IDisposable;
 import com.global.api.utils.JsonDoc;
+import com.global.api.utils.SdkVersion;
 import com.global.api.utils.StringUtils;
+import com.global.api.utils.ThreadSafeDateFormat;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.var;
+import org.apache.commons.codec.digest.DigestUtils;
 import org.joda.time.DateTime;
 import org.joda.time.format.DateTimeFormat;
 import org.joda.time.format.DateTimeFormatter;
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
 
-import javax.xml.parsers.DocumentBuilderFactory;
-import java.io.File;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.HashMap;
 
 import static com.global.api.utils.StringUtils.isNullOrEmpty;
 
-public class GpApiConnector extends RestGateway implements IPaymentGateway, IReportingService, ISecure3dProvider, IPayFacProvider, IFraudCheckService {
+public class GpApiConnector extends RestGateway implements IPaymentGateway, IReportingService, ISecure3dProvider, IPayFacProvider, IFraudCheckService, IDisposable {
     public static final String DATE_PATTERN = "yyyy-MM-dd";
 
     public static final String DATE_TIME_PATTERN   = "yyyy-MM-dd'T'HH:mm:ss.SSS'Z'";// Standard expected GP API DateTime format
@@ -49,7 +50,12 @@ public class GpApiConnector extends RestGateway implements IPaymentGateway, IRep
     public static final String DATE_TIME_PATTERN_9 = "yyyy-mm-dd";                   // Another slightly different GP API DateTime format
 
 
+    /**
+     * @deprecated SimpleDateFormat is not thread-safe; use {@link #DATE_FORMAT} instead.
+     */
+    @Deprecated
     public static final SimpleDateFormat DATE_SDF = new SimpleDateFormat(DATE_PATTERN);
+    public static final ThreadSafeDateFormat DATE_FORMAT = new ThreadSafeDateFormat(DATE_PATTERN);
 
     public static final DateTimeFormatter DATE_TIME_DTF = DateTimeFormat.forPattern(DATE_TIME_PATTERN);
     public static final DateTimeFormatter DATE_TIME_DTF_2 = DateTimeFormat.forPattern(DATE_TIME_PATTERN_2);
@@ -61,10 +67,23 @@ public class GpApiConnector extends RestGateway implements IPaymentGateway, IRep
     public static final DateTimeFormatter DATE_TIME_DTF_8 = DateTimeFormat.forPattern(DATE_TIME_PATTERN_8);
     public static final DateTimeFormatter DATE_TIME_DTF_9 = DateTimeFormat.forPattern(DATE_TIME_PATTERN_9);
 
+    // Every supported format in order of preference. Used only when a value's shape does not match its format.
+    private static final DateTimeFormatter[] DATE_TIME_FORMATTERS = {
+            DATE_TIME_DTF, DATE_TIME_DTF_2, DATE_TIME_DTF_3, DATE_TIME_DTF_4, DATE_TIME_DTF_5,
+            DATE_TIME_DTF_6, DATE_TIME_DTF_7, DATE_TIME_DTF_8, DATE_TIME_DTF_9
+    };
+
     private static final String GP_API_VERSION = "2021-03-22";
     private static final String IDEMPOTENCY_HEADER = "x-gp-idempotency";
 
-    private String accessToken;
+    // used when a sign-in response doesn't say how long the token lasts
+    private static final int DEFAULT_SECONDS_TO_EXPIRE = 600;
+
+    private volatile String accessToken;
+    private volatile StoredToken storedToken;
+    private volatile TokenRefresher tokenRefresher;
+    // the token this connector put on the config's AccessTokenInfo, cleared again on dispose
+    private volatile String signedInToken;
     @Getter GpApiConfig gpApiConfig; // Contains: appId, appKey, secondsToExpire, intervalToExpire, channel and language
 
     public String getMerchantUrl() {
@@ -92,75 +111,131 @@ public class GpApiConnector extends RestGateway implements IPaymentGateway, IRep
         headers.put(org.apache.http.HttpHeaders.ACCEPT_ENCODING, "gzip");
         headers.put("X-GP-Version", GP_API_VERSION);
         if (!gpApiConfig.isAndroid()) {
-            headers.put("x-gp-sdk", "java;version=" + getReleaseVersion());
+            headers.put("x-gp-sdk", "java;version=" + SdkVersion.getVersion());
         }
 
         dynamicHeaders = gpApiConfig.getDynamicHeaders();
     }
 
-    // Get the SDK release version
-    private String getReleaseVersion() {
-        String version = "";
-        try {
-            Document pomXml = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(new File("pom.xml"));
-            Element pomRoot = (Element) pomXml.getElementsByTagName("project").item(0);
-            version = pomRoot.getElementsByTagName("version").item(0).getTextContent();
-        } catch (Exception ex) {
-            if (gpApiConfig.isEnableLogging())
-                System.out.println("JAVA SDK version could not be extracted from pom.xml file.");
-        }
-        return version;
+    void signIn() throws GatewayException {
+        signIn(null);
     }
 
-    void signIn() throws GatewayException {
+    private void signIn(String rejectedToken) throws GatewayException {
         AccessTokenInfo accessTokenInfo = gpApiConfig.getAccessTokenInfo();
+        ITokenStore tokenStore = gpApiConfig.getTokenStore();
 
-        if (accessTokenInfo != null && !isNullOrEmpty(accessTokenInfo.getAccessToken())) {
+        if (tokenStore == null && accessTokenInfo != null && !isNullOrEmpty(accessTokenInfo.getAccessToken())) {
             accessToken = accessTokenInfo.getAccessToken();
-            headers.put("Authorization", String.format("Bearer %s", accessToken));
             return;
         }
 
-        GpApiTokenResponse response = getAccessToken();
+        StoredToken token;
+        if (tokenStore == null) {
+            token = toStoredToken(getAccessToken());
+        }
+        else {
+            token = getTokenRefresher(tokenStore).getToken(getTokenKey(), rejectedToken, () -> toStoredToken(getAccessToken()));
+        }
 
-        accessToken = response.getToken();
-        headers.put("Authorization", String.format("Bearer %s", accessToken));
+        accessToken = token.getToken();
+        storedToken = token;
 
         if (accessTokenInfo == null) {
             accessTokenInfo = new AccessTokenInfo();
         }
 
-        if (isNullOrEmpty(accessTokenInfo.getAccessToken())) {
-            accessTokenInfo.setAccessToken(response.getToken());
+        if (tokenStore != null || isNullOrEmpty(accessTokenInfo.getAccessToken())) {
+            accessTokenInfo.setAccessToken(token.getToken());
+            signedInToken = token.getToken();
         }
 
         if (isNullOrEmpty(accessTokenInfo.getDataAccountName()) && isNullOrEmpty(accessTokenInfo.getDataAccountID())) {
-            accessTokenInfo.setDataAccountID(response.getDataAccountID());
+            accessTokenInfo.setDataAccountID(token.getDataAccountID());
         }
 
         if (isNullOrEmpty(accessTokenInfo.getTokenizationAccountName()) &&
                 isNullOrEmpty(accessTokenInfo.getTokenizationAccountID())) {
-            accessTokenInfo.setTokenizationAccountID(response.getTokenizationAccountID());
+            accessTokenInfo.setTokenizationAccountID(token.getTokenizationAccountID());
         }
 
         if (isNullOrEmpty(accessTokenInfo.getDisputeManagementAccountName()) &&
                 isNullOrEmpty(accessTokenInfo.getDisputeManagementAccountID())) {
-            accessTokenInfo.setDisputeManagementAccountID(response.getDisputeManagementAccountID());
+            accessTokenInfo.setDisputeManagementAccountID(token.getDisputeManagementAccountID());
         }
 
         if (isNullOrEmpty(accessTokenInfo.getTransactionProcessingAccountName()) &&
                 isNullOrEmpty(accessTokenInfo.getTransactionProcessingAccountID())) {
-            accessTokenInfo.setTransactionProcessingAccountID(response.getTransactionProcessingAccountID());
+            accessTokenInfo.setTransactionProcessingAccountID(token.getTransactionProcessingAccountID());
         }
         if (isNullOrEmpty(accessTokenInfo.getRiskAssessmentAccountName()) &&
                 isNullOrEmpty(accessTokenInfo.getRiskAssessmentAccountID())) {
-            accessTokenInfo.setRiskAssessmentAccountID(response.getRiskAssessmentAccountID());
+            accessTokenInfo.setRiskAssessmentAccountID(token.getRiskAssessmentAccountID());
         }
 
 
         gpApiConfig.setAccessTokenInfo(accessTokenInfo);
     }
 
+    /**
+     * True when there is no token yet or, with a token store, when the shared token is due for a refresh.
+     */
+    private boolean needsSignIn() {
+        if (isNullOrEmpty(accessToken)) {
+            return true;
+        }
+        ITokenStore tokenStore = gpApiConfig.getTokenStore();
+        return tokenStore != null && getTokenRefresher(tokenStore).isDue(storedToken);
+    }
+
+    private TokenRefresher getTokenRefresher(ITokenStore tokenStore) {
+        TokenRefresher rvalue = tokenRefresher;
+        if (rvalue == null || rvalue.getStore() != tokenStore) {
+            rvalue = new TokenRefresher(tokenStore);
+            tokenRefresher = rvalue;
+        }
+        return rvalue;
+    }
+
+    /**
+     * Tokens are only shared between configs that would sign in for the same token: same
+     * environment and app, and the same lifetime and permissions.
+     */
+    private String getTokenKey() {
+        String[] permissions = gpApiConfig.getPermissions() == null ? new String[0] : gpApiConfig.getPermissions().clone();
+        Arrays.sort(permissions);
+        String signIn = gpApiConfig.getSecondsToExpire() + "|" + gpApiConfig.getIntervalToExpire() + "|" + String.join(",", permissions);
+        return gpApiConfig.getEnvironment() + "-" + gpApiConfig.getAppId() + "-" + DigestUtils.sha256Hex(signIn).substring(0, 16);
+    }
+
+    private StoredToken toStoredToken(GpApiTokenResponse response) {
+        int secondsToExpire = response.getSecondsToExpire() > 0 ? response.getSecondsToExpire() : DEFAULT_SECONDS_TO_EXPIRE;
+        return new StoredToken()
+                .setToken(response.getToken())
+                .setExpiresAt(System.currentTimeMillis() + secondsToExpire * 1000L)
+                .setDataAccountID(response.getDataAccountID())
+                .setTokenizationAccountID(response.getTokenizationAccountID())
+                .setDisputeManagementAccountID(response.getDisputeManagementAccountID())
+                .setTransactionProcessingAccountID(response.getTransactionProcessingAccountID())
+                .setRiskAssessmentAccountID(response.getRiskAssessmentAccountID());
+    }
+
+    /**
+     * Drops the token this connector signed in with, including the copy it put on the config, so a
+     * connector rebuilt from the same config signs in again instead of reusing it.
+     */
+    public void dispose() {
+        AccessTokenInfo accessTokenInfo = gpApiConfig.getAccessTokenInfo();
+        String token = signedInToken;
+        if (accessTokenInfo != null && token != null && token.equals(accessTokenInfo.getAccessToken())) {
+            accessTokenInfo.setAccessToken(null);
+        }
+        signedInToken = null;
+        accessToken = null;
+        storedToken = null;
+        tokenRefresher = null;
+    }
+
     public GpApiRequest signOut() throws UnsupportedTransactionException {
         return GpApiSessionInfo.signOut();
     }
@@ -180,20 +255,19 @@ public class GpApiConnector extends RestGateway implements IPaymentGateway, IRep
     }
 
     private String doTransactionWithIdempotencyKey(GpApiRequest.HttpMethod verb, String endpoint, String data, HashMap<String, String> queryStringParams, String idempotencyKey) throws GatewayException {
-        if (!StringUtils.isNullOrEmpty(idempotencyKey)) {
-            headers.put(IDEMPOTENCY_HEADER, idempotencyKey);
-        }
-        try {
-            return super.doTransaction(verb.getValue(), endpoint, data, queryStringParams);
-        } catch (GatewayException ex) {
-            throw ex;
-        } finally {
-            headers.remove(IDEMPOTENCY_HEADER);
-        }
+        RequestOptions options = RequestOptions.DEFAULT
+                .withHeader("Authorization", String.format("Bearer %s", accessToken))
+                .withIdempotencyKey(idempotencyKey);
+        return super.doTransaction(verb.getValue(), endpoint, data, queryStringParams, options);
+    }
+
+    @Override
+    protected String getIdempotencyHeader() {
+        return IDEMPOTENCY_HEADER;
     }
 
     public String doTransaction(GpApiRequest.HttpMethod verb, String endpoint, String data, HashMap<String, String> queryStringParams, String idempotencyKey) throws GatewayException {
-        if (isNullOrEmpty(accessToken)) {
+        if (needsSignIn()) {
             signIn();
         }
 
@@ -205,7 +279,7 @@ public class GpApiConnector extends RestGateway implements IPaymentGateway, IRep
                     !isNullOrEmpty(gpApiConfig.getAppId())              &&
                     !isNullOrEmpty(gpApiConfig.getAppKey())
             ) {
-                signIn();
+                signIn(accessToken);
 
                 return doTransactionWithIdempotencyKey(verb, endpoint, data, queryStringParams, idempotencyKey);
             }
@@ -242,7 +316,7 @@ public class GpApiConnector extends RestGateway implements IPaymentGateway, IRep
     }
 
     public Transaction processAuthorization(AuthorizationBuilder builder) throws ApiException {
-        if (isNullOrEmpty(accessToken)) {
+        if (needsSignIn()) {
             signIn();
         }
 
@@ -261,7 +335,7 @@ public class GpApiConnector extends RestGateway implements IPaymentGateway, IRep
     }
 
     public Transaction manageTransaction(ManagementBuilder builder) throws GatewayException, BuilderException {
-        if (StringUtils.isNullOrEmpty(accessToken)) {
+        if (needsSignIn()) {
             signIn();
         }
 
@@ -281,7 +355,7 @@ public class GpApiConnector extends RestGateway implements IPaymentGateway, IRep
 
     @SuppressWarnings("unchecked")
     public <T> T processReport(ReportBuilder<T> builder, Class<T> clazz) throws ApiException {
-        if (StringUtils.isNullOrEmpty(accessToken)) {
+        if (needsSignIn()) {
             signIn();
         }
 
@@ -300,7 +374,7 @@ public class GpApiConnector extends RestGateway implements IPaymentGateway, IRep
     }
 
     public Transaction processSecure3d(Secure3dBuilder builder) throws ApiException {
-        if (StringUtils.isNullOrEmpty(accessToken)) {
+        if (needsSignIn()) {
             signIn();
         }
 
@@ -317,7 +391,7 @@ public class GpApiConnector extends RestGateway implements IPaymentGateway, IRep
     @SuppressWarnings("unchecked")
     @Override
     public <T> T processBoardingUser(PayFacBuilder<T> builder) throws ApiException {
-        if (StringUtils.isNullOrEmpty(accessToken)) {
+        if (needsSignIn()) {
             signIn();
         }
 
@@ -371,7 +445,7 @@ public class GpApiConnector extends RestGateway implements IPaymentGateway, IRep
     }
 
     public static String getDateIfNotNull(Date obj) {
-        return (obj != null) ? DATE_SDF.format(obj) : "";
+        return (obj != null) ? DATE_FORMAT.format(obj) : "";
     }
 
     public static String getDateIfNotNull(DateTime obj) {
@@ -387,7 +461,7 @@ public class GpApiConnector extends RestGateway implements IPaymentGateway, IRep
             if (StringUtils.isNullOrEmpty(dateValue)) {
                 return null;
             }
-            return GpApiConnector.DATE_SDF.parse(dateValue);
+            return GpApiConnector.DATE_FORMAT.parse(dateValue);
         } catch (ParseException ex) {
             throw new GatewayException("Date format is not supported.", ex);
         }
@@ -398,53 +472,85 @@ public class GpApiConnector extends RestGateway implements IPaymentGateway, IRep
             return null;
         }
 
-        try {
-            return GpApiConnector.DATE_TIME_DTF.parseDateTime(dateValue);
-        } catch (IllegalArgumentException ex) {
-            // Some Date values are returned with these slightly different formats:
-            // yyyy-MM-dd'T'HH:mm:ss.SSS or yyyy-MM-dd'T'HH:mm:ss
-            // instead of expected: yyyy-MM-dd'T'HH:mm:ss.SSS'Z'
-            // Because the difference is not significant, they are supported too.
+        // Some Date values are returned in slightly different formats from the expected yyyy-MM-dd'T'HH:mm:ss.SSS'Z'.
+        // Because the difference is not significant, they are supported too. The format is picked from the shape of
+        // the value so a well formed value is parsed exactly once.
+        DateTimeFormatter formatter = detectDateTimeFormatter(dateValue);
+        if (formatter != null) {
+            try {
+                return formatter.parseDateTime(dateValue);
+            } catch (IllegalArgumentException ex) {
+                /* fall through to the other formats */
+            }
+        }
+
+        IllegalArgumentException lastException = null;
+        for (DateTimeFormatter fallback : DATE_TIME_FORMATTERS) {
+            if (fallback == formatter) {
+                continue;
+            }
             try {
-                return GpApiConnector.DATE_TIME_DTF_2.parseDateTime(dateValue);
-            } catch (IllegalArgumentException ex2) {
-                try {
-                    return GpApiConnector.DATE_TIME_DTF_3.parseDateTime(dateValue);
-                } catch (IllegalArgumentException ex3) {
-                    try {
-                        return GpApiConnector.DATE_TIME_DTF_4.parseDateTime(dateValue);
-                    } catch (IllegalArgumentException ex4) {
-                        try {
-                            return GpApiConnector.DATE_TIME_DTF_5.parseDateTime(dateValue);
-                        } catch (IllegalArgumentException ex5) {
-                            try {
-                                return GpApiConnector.DATE_TIME_DTF_6.parseDateTime(dateValue);
-                            } catch (IllegalArgumentException ex6) {
-                                try {
-                                    return GpApiConnector.DATE_TIME_DTF_7.parseDateTime(dateValue);
-                                } catch (IllegalArgumentException ex7) {
-                                    try {
-                                        return GpApiConnector.DATE_TIME_DTF_8.parseDateTime(dateValue);
-                                    } catch (IllegalArgumentException ex8) {
-                                        try {
-                                            return GpApiConnector.DATE_TIME_DTF_9.parseDateTime(dateValue);
-                                        } catch (IllegalArgumentException ex9) {
-                                            throw new GatewayException("DateTime format is not supported.", ex9);
-                                        }
-                                    }
-                                }
-                            }
-                        }
-                    }
-                }
+                return fallback.parseDateTime(dateValue);
+            } catch (IllegalArgumentException ex) {
+                lastException = ex;
+            }
+        }
+        throw new GatewayException("DateTime format is not supported.", lastException);
+    }
+
+    /**
+     * Picks the first of the supported formats that can match the value, from its separators alone:
+     * <pre>
+     * yyyy-MM-dd                          DATE_TIME_DTF_6
+     * yyyy-MM-dd'T'HH:mm                  DATE_TIME_DTF_5
+     * yyyy-MM-dd'T'HH:mm:ss               DATE_TIME_DTF_4
+     * yyyy-MM-dd'T'HH:mm:ss'Z'            DATE_TIME_DTF_3
+     * yyyy-MM-dd'T'HH:mm:ss.SSS           DATE_TIME_DTF_2
+     * yyyy-MM-dd'T'HH:mm:ss.SSS'Z'        DATE_TIME_DTF   (up to nine fraction digits)
+     * yyyy-MM-dd'T'HH:mm:ss+SS:SS         DATE_TIME_DTF_8
+     * </pre>
+     * @return the formatter, or null if the value has none of these shapes
+     */
+    static DateTimeFormatter detectDateTimeFormatter(String dateValue) {
+        int timeStart = dateValue.indexOf('T');
+        if (timeStart < 0) {
+            return DATE_TIME_DTF_6;
+        }
+
+        int colons = 0;
+        boolean fraction = false;
+        boolean offset = false;
+        for (int i = timeStart + 1; i < dateValue.length(); i++) {
+            char c = dateValue.charAt(i);
+            if (c == ':') {
+                colons++;
+            } else if (c == '.') {
+                fraction = true;
+            } else if (c == '+') {
+                offset = true;
             }
         }
+        boolean zulu = dateValue.charAt(dateValue.length() - 1) == 'Z';
+
+        if (offset) {
+            return colons == 3 && !fraction && !zulu ? DATE_TIME_DTF_8 : null;
+        }
+        if (colons == 1) {
+            return !fraction && !zulu ? DATE_TIME_DTF_5 : null;
+        }
+        if (colons != 2) {
+            return null;
+        }
+        if (fraction) {
+            return zulu ? DATE_TIME_DTF : DATE_TIME_DTF_2;
+        }
+        return zulu ? DATE_TIME_DTF_3 : DATE_TIME_DTF_4;
     }
 
     @Override
     public <T> RiskAssessment processFraud(FraudBuilder<T> builder) throws ApiException {
 
-        if (isNullOrEmpty(accessToken)) {
+        if (needsSignIn()) {
             signIn();
         }
 
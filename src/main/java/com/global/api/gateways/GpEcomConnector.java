@@ -19,7 +19,6 @@ import lombok.var;
 import org.joda.time.format.DateTimeFormat;
 
 import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.util.*;
 
 import static com.global.api.utils.CardUtils.getBaseCardType;
@@ -31,7 +30,7 @@ public class GpEcomConnector extends XmlGateway implements IPaymentGateway, IRec
     private static HashMap<String, String> mapCardType = new HashMap<String, String>() {{
         put("DinersClub", "Diners");
     }};
-    private static final SimpleDateFormat SDF = new SimpleDateFormat("yyyyMMdd");
+    private static final ThreadSafeDateFormat SDF = new ThreadSafeDateFormat("yyyyMMdd");
 
     private String merchantId;
     private String accountId;
@@ -0,0 +1,26 @@
+package com.global.api.gateways;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Access token storage shared by every connector, and every process, signing in with the same
+ * credentials. Used by {@link TokenRefresher} so that only one of them signs in when the token
+ * runs out.
+ */
+public interface ITokenStore {
+    /**
+     * @return the stored token for the key, or null if there isn't one
+     */
+    StoredToken read(String key) throws IOException;
+
+    void write(String key, StoredToken token) throws IOException;
+
+    /**
+     * Takes the refresh lock for the key without waiting.
+     *
+     * @return a handle that releases the lock when closed, or null if another thread or process
+     * holds it
+     */
+    Closeable tryLock(String key) throws IOException;
+}
@@ -0,0 +1,41 @@
+package com.global.api.gateways;
+
+import java.io.Closeable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Shares tokens between the connectors of one JVM.
+ */
+public class InMemoryTokenStore implements ITokenStore {
+    private final ConcurrentHashMap<String, StoredToken> tokens = new ConcurrentHashMap<String, StoredToken>();
+    private final ConcurrentHashMap<String, ReentrantLock> locks = new ConcurrentHashMap<String, ReentrantLock>();
+
+    public StoredToken read(String key) {
+        return tokens.get(key);
+    }
+
+    public void write(String key, StoredToken token) {
+        tokens.put(key, token);
+    }
+
+    public Closeable tryLock(String key) {
+        final ReentrantLock lock = lockFor(locks, key);
+        if(!lock.tryLock()) {
+            return null;
+        }
+        return lock::unlock;
+    }
+
+    static ReentrantLock lockFor(ConcurrentHashMap<String, ReentrantLock> locks, String key) {
+        ReentrantLock rvalue = locks.get(key);
+        if(rvalue == null) {
+            ReentrantLock lock = new ReentrantLock();
+            rvalue = locks.putIfAbsent(key, lock);
+            if(rvalue == null) {
+                rvalue = lock;
+            }
+        }
+        return rvalue;
+    }
+}
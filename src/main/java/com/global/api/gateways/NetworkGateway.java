@@ -6,10 +6,11 @@ import com.global.api.entities.enums.Target;
 import com.global.api.entities.exceptions.GatewayComsException;
 import com.global.api.entities.exceptions.GatewayTimeoutException;
 import com.global.api.gateways.events.*;
+import com.global.api.logging.LogLevel;
+import com.global.api.logging.MessageConsoleLogger;
+import com.global.api.logging.MessageTracer;
 import com.global.api.terminals.abstractions.IDeviceMessage;
-import com.global.api.utils.NtsUtils;
 import com.global.api.utils.StringUtils;
-import com.global.api.utils.GnapUtils;
 import lombok.Getter;
 import lombok.Setter;
 import org.joda.time.DateTime;
@@ -37,6 +38,9 @@ public class NetworkGateway {
     protected Host currentHost;
 
     private boolean enableLogging = false;
+    private MessageTracer messageTracer;
+    // the console tracer created by setEnableLogging(true), the only one setEnableLogging(false) removes
+    private MessageTracer consoleTracer;
     private HashMap<Host, ArrayList<HostError>> simulatedHostErrors;
     private int timeout;
 
@@ -80,12 +84,28 @@ public class NetworkGateway {
     }
     public void setEnableLogging(boolean enableLogging) {
         this.enableLogging = enableLogging;
-        if(target.equals(Target.GNAP))
-        {
-            GnapUtils.enableLogging(enableLogging);
-        }else if(target.equals(Target.NTS)){
-            NtsUtils.enableLogging();
+        if(enableLogging && messageTracer == null) {
+            messageTracer = new MessageTracer(new MessageConsoleLogger(), LogLevel.Trace);
+            consoleTracer = messageTracer;
         }
+        else if(!enableLogging && messageTracer == consoleTracer) {
+            // a tracer set through setMessageTracer stays in place
+            messageTracer = null;
+            consoleTracer = null;
+        }
+    }
+    public MessageTracer getMessageTracer() {
+        return messageTracer;
+    }
+    public void setMessageTracer(MessageTracer messageTracer) {
+        this.messageTracer = messageTracer;
+    }
+
+    /**
+     * Binds this connector's tracer to the current thread for one transaction.
+     */
+    protected MessageTracer.Scope beginTrace() {
+        return MessageTracer.begin(messageTracer);
     }
     public void setGatewayEventHandler(IGatewayEventHandler eventHandler) { this.gatewayEventHandler = eventHandler; }
     public HashMap<Host, ArrayList<HostError>> getSimulatedHostErrors() {
@@ -313,10 +333,13 @@ public class NetworkGateway {
 
     private void raiseGatewayEvent(final IGatewayEvent event) {
         if(gatewayEventHandler != null) {
+            final MessageTracer tracer = messageTracer;
             new Thread(new Runnable() {
                 public void run() {
                     gatewayEventHandler.eventRaised(event);
-                    NtsUtils.log(event.getEventMessage());
+                    if(tracer != null) {
+                        tracer.log(LogLevel.Info, event.getEventMessage());
+                    }
                 }
             }).start();
         }
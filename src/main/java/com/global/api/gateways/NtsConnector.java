@@ -11,6 +11,8 @@ import com.global.api.entities.exceptions.ApiException;
 import com.global.api.entities.exceptions.BatchFullException;
 import com.global.api.entities.exceptions.GatewayException;
 import com.global.api.entities.payroll.PayrollEncoder;
+import com.global.api.logging.LogLevel;
+import com.global.api.logging.MessageTracer;
 import com.global.api.network.NetworkMessageHeader;
 import com.global.api.network.abstractions.IBatchProvider;
 import com.global.api.network.entities.NTSUserData;
@@ -169,6 +171,12 @@ public class NtsConnector extends GatewayConnectorConfig {
     }
 
     public Transaction processAuthorization(AuthorizationBuilder builder) throws ApiException {
+        try(MessageTracer.Scope scope = beginTrace()) {
+            return authorize(builder);
+        }
+    }
+
+    private Transaction authorize(AuthorizationBuilder builder) throws ApiException {
         messageCode = builder.getNtsRequestMessageHeader().getNtsMessageCode();
         if(builder.getTimestamp()!=null)
         builder.getNtsTag16().setTimeStamp(NtsUtils.getDateObject(builder.getTimestamp()));
@@ -221,6 +229,12 @@ public class NtsConnector extends GatewayConnectorConfig {
         return userData;
     }
     public Transaction resubmitTransaction(ResubmitBuilder builder) throws ApiException {
+        try(MessageTracer.Scope scope = beginTrace()) {
+            return resubmit(builder);
+        }
+    }
+
+    private Transaction resubmit(ResubmitBuilder builder) throws ApiException {
         String transactionToken = builder.getTransactionToken();
         Transaction result = null;
         if (transactionToken != null) {
@@ -301,8 +315,8 @@ public class NtsConnector extends GatewayConnectorConfig {
     }
 
     private <T extends TransactionBuilder<Transaction>> Transaction sendRequest(MessageWriter messageData, T builder) throws ApiException {
-        NtsUtils.log("--------------------- FINAL REQUEST ---------------------");
-        NtsUtils.log("Request length:", String.valueOf(messageData.getMessageRequest().length()));
+        NtsUtils.log(LogLevel.Debug, "--------------------- FINAL REQUEST ---------------------");
+        NtsUtils.log(LogLevel.Debug, "Request length:", messageData.getMessageRequest().length());
 
         try {
             int messageLength = messageData.getMessageRequest().length() + messageRequestLength;
@@ -311,7 +325,7 @@ public class NtsConnector extends GatewayConnectorConfig {
             req.add(messageData.getMessageRequest().toString());
 
             IDeviceMessage buildMessage = new DeviceMessage(req.toArray());
-            NtsUtils.log("Request", buildMessage.toString());
+            NtsUtils.log(LogLevel.Debug, "Request", buildMessage);
             byte[] responseBuffer = send(buildMessage);
             Transaction response =mapResponse(responseBuffer, builder, messageData);
 
@@ -337,8 +351,8 @@ public class NtsConnector extends GatewayConnectorConfig {
         NTSCardTypes cardType = NtsUtils.mapCardType(paymentMethod);
         StringParser sp = new StringParser(buffer);
         String transactionToken =  encodeRequest(messageData);
-        NtsUtils.log("--------------------- RESPONSE ---------------------");
-        NtsUtils.log("Response", sp.getBuffer());
+        NtsUtils.log(LogLevel.Debug, "--------------------- RESPONSE ---------------------");
+        NtsUtils.log(LogLevel.Debug, "Response", sp.getBuffer());
         NtsResponse ntsResponse = NtsResponseObjectFactory.getNtsResponseObject(mr.readBytes((int) mr.getLength()), builder);
 
         if (Boolean.FALSE.equals(isAllowedResponseCode(ntsResponse.getNtsResponseMessageHeader().getNtsNetworkMessageHeader().getResponseCode()))) {
@@ -385,6 +399,12 @@ public class NtsConnector extends GatewayConnectorConfig {
     }
 
     public Transaction manageTransaction(ManagementBuilder builder) throws ApiException {
+        try(MessageTracer.Scope scope = beginTrace()) {
+            return manage(builder);
+        }
+    }
+
+    private Transaction manage(ManagementBuilder builder) throws ApiException {
         //message header section
         messageCode = builder.getNtsRequestMessageHeader().getNtsMessageCode();
         if(builder.getTimestamp()!=null)
@@ -12,12 +12,12 @@ import com.global.api.paymentMethods.BankPayment;
 import com.global.api.utils.GenerationUtils;
 import com.global.api.utils.JsonDoc;
 import com.global.api.utils.StringUtils;
+import com.global.api.utils.ThreadSafeDateFormat;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.experimental.Accessors;
 import lombok.var;
 import org.apache.http.HttpStatus;
-import java.text.SimpleDateFormat;
 import java.util.HashMap;
 
 @Accessors(chain = true)
@@ -25,7 +25,7 @@ import java.util.HashMap;
 @Setter
 public class OpenBankingProvider extends RestGateway implements IOpenBankingProvider, IReportingService {
     static final String DATE_TIME_PATTERN = "yyyyMMddHHmmss";
-    static final SimpleDateFormat DATE_SDF = new SimpleDateFormat(DATE_TIME_PATTERN);
+    static final ThreadSafeDateFormat DATE_SDF = new ThreadSafeDateFormat(DATE_TIME_PATTERN);
 
     private String merchantId;
     private String accountId;
@@ -52,6 +52,7 @@ public class OpenBankingProvider extends RestGateway implements IOpenBankingProv
         JsonDoc request = new JsonDoc();
 
         BankPayment paymentMethod = (BankPayment) builder.getPaymentMethod();
+        RequestOptions options = RequestOptions.DEFAULT;
 
         switch (builder.getTransactionType()) {
             case Sale:
@@ -65,7 +66,7 @@ public class OpenBankingProvider extends RestGateway implements IOpenBankingProv
                                 paymentMethod.getAccountNumber() : "",
                         !StringUtils.isNullOrEmpty(paymentMethod.getIban()) && BankPaymentType.SEPA.equals(bankPaymentType) ? paymentMethod.getIban() : "");
 
-                setAuthorizationHeader(hash);
+                options = authorizationOptions(hash);
 
                 request
                         .set("request_timestamp", timestamp)
@@ -114,7 +115,7 @@ public class OpenBankingProvider extends RestGateway implements IOpenBankingProv
         }
 
         try {
-            String rawResponse = doTransaction("POST", "/payments", request.toString());
+            String rawResponse = doTransaction("POST", "/payments", request.toString(), null, options);
 
             return OpenBankingMapping.mapResponse(rawResponse);
         } catch (GatewayException gatewayException) {
@@ -125,6 +126,7 @@ public class OpenBankingProvider extends RestGateway implements IOpenBankingProv
     public <T> T processReport(ReportBuilder<T> builder, Class<T> clazz) throws ApiException {
         HashMap<String, String> queryParams = new HashMap<>();
         String timestamp = GenerationUtils.generateTimestamp();
+        RequestOptions options = RequestOptions.DEFAULT;
 
         switch (builder.getReportType()) {
 
@@ -144,7 +146,7 @@ public class OpenBankingProvider extends RestGateway implements IOpenBankingProv
                             searchBuilder.getEndDate() != null ? DATE_SDF.format(searchBuilder.getEndDate()) : "",
                             searchBuilder.getReturnPII() != null ? (searchBuilder.getReturnPII().booleanValue() ? "True" : "False") : "");
 
-                    setAuthorizationHeader(hash);
+                    options = authorizationOptions(hash);
 
                     queryParams.put("timestamp", timestamp);
                     queryParams.put("merchantId", merchantId);
@@ -179,7 +181,7 @@ public class OpenBankingProvider extends RestGateway implements IOpenBankingProv
         }
 
         try {
-            String response = doTransaction("GET", "/payments", null, queryParams);
+            String response = doTransaction("GET", "/payments", null, queryParams, options);
 
             return OpenBankingMapping.mapReportResponse(response, builder.getReportType());
         } catch (GatewayException ex) {
@@ -191,8 +193,8 @@ public class OpenBankingProvider extends RestGateway implements IOpenBankingProv
         }
     }
 
-    private void setAuthorizationHeader(String value) {
-        headers.put("Authorization", this.shaHashType + " " + value);
+    private RequestOptions authorizationOptions(String value) {
+        return RequestOptions.DEFAULT.withHeader("Authorization", this.shaHashType + " " + value);
     }
 
     public static BankPaymentType getBankPaymentType(String currency) {
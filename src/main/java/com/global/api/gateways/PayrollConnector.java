@@ -13,6 +13,7 @@ public class PayrollConnector extends RestGateway {
     private String apiKey;
     private String sessionToken;
     private PayrollEncoder encoder;
+    private volatile String authorization;
 
     public String getUsername() {
         return username;
@@ -60,7 +61,7 @@ public class PayrollConnector extends RestGateway {
         // Build the basic request header
         String credentials = String.format("%s|%s", sessionToken, username);
         String basicAuth = Base64.encodeBase64String(credentials.getBytes());
-        headers.put("Authorization", String.format("Basic %s", basicAuth));
+        authorization = String.format("Basic %s", basicAuth);
     }
     public void signOut() throws ApiException {
         sendEncryptedRequest(SessionInfo.signOut(), SessionInfo.class);
@@ -75,7 +76,11 @@ public class PayrollConnector extends RestGateway {
             if(clazz != SessionInfo.class && StringUtils.isNullOrEmpty(sessionToken))
                 throw new ApiException("Payroll connector is not signed in, please check your configuration.");
 
-            String response = doTransaction("POST", request.getEndpoint(), request.getRequestBody());
+            RequestOptions options = RequestOptions.DEFAULT;
+            if(authorization != null)
+                options = options.withHeader("Authorization", authorization);
+
+            String response = doTransaction("POST", request.getEndpoint(), request.getRequestBody(), null, options);
             return new PayrollResponse<T>(response, getEncoder(), clazz);
         }
         catch(Exception exc) {
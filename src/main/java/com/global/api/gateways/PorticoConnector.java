@@ -15,14 +15,12 @@ import com.global.api.utils.Element;
 import com.global.api.utils.ElementTree;
 import com.global.api.utils.EnumUtils;
 import com.global.api.utils.ReverseStringEnumMap;
+import com.global.api.utils.SdkVersion;
 import com.global.api.utils.StringUtils;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.experimental.Accessors;
-import org.w3c.dom.Document;
 
-import javax.xml.parsers.DocumentBuilderFactory;
-import java.io.File;
 import java.math.BigDecimal;
 import java.text.FieldPosition;
 import java.text.ParsePosition;
@@ -719,7 +717,7 @@ public class PorticoConnector extends XmlGateway implements IPaymentGateway, IRe
             et.subElement(header, "SDKNameVersion", sdkNameVersion);
         }
         else{
-            et.subElement(header, "SDKNameVersion", "java;version=" + getReleaseVersion());
+            et.subElement(header, "SDKNameVersion", "java;version=" + SdkVersion.getVersion());
         }
 
         // Transaction
@@ -1160,8 +1158,7 @@ public class PorticoConnector extends XmlGateway implements IPaymentGateway, IRe
             LodgingData lodgingData = new LodgingData();
 
             String advancedDepositType = root.getString("AdvancedDepositType");
-            ReverseStringEnumMap<AdvancedDepositType> map = new ReverseStringEnumMap<AdvancedDepositType>(AdvancedDepositType.class);
-            lodgingData.setAdvancedDepositType(map.get(advancedDepositType));
+            lodgingData.setAdvancedDepositType(ReverseStringEnumMap.forType(AdvancedDepositType.class).get(advancedDepositType));
             lodgingData.setLodgingDataEdit(root.getString("LodgingDataEdit"));
             summary.setLodgingData(lodgingData);
         }
@@ -1203,18 +1200,6 @@ public class PorticoConnector extends XmlGateway implements IPaymentGateway, IRe
         return summary;
     }
 
-    // Get the SDK release version
-    private String getReleaseVersion() {
-        String version = "";
-        try {
-            Document pomXml = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(new File("pom.xml"));
-            org.w3c.dom.Element pomRoot = (org.w3c.dom.Element) pomXml.getElementsByTagName("project").item(0);
-            version = pomRoot.getElementsByTagName("version").item(0).getTextContent();
-        } catch (Exception ex) {
-            System.out.println("JAVA SDK version could not be extracted from pom.xml file.");
-        }
-        return version;
-    }
     public NetworkMessageHeader sendKeepAlive() throws ApiException {
     	throw new ApiException("Portico does not support KeepAlive.");
     }
@@ -0,0 +1,73 @@
+package com.global.api.gateways;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Settings for a single gateway request: extra headers, timeouts and an idempotency key.
+ * Instances never change; each {@code with} method returns a copy, so options can be built
+ * per request without touching the connector's shared headers.
+ */
+public final class RequestOptions {
+    public static final RequestOptions DEFAULT = new RequestOptions(Collections.<String, String>emptyMap(), 0, 0, null);
+
+    private final Map<String, String> headers;
+    private final int connectTimeout;
+    private final int readTimeout;
+    private final String idempotencyKey;
+
+    private RequestOptions(Map<String, String> headers, int connectTimeout, int readTimeout, String idempotencyKey) {
+        this.headers = headers;
+        this.connectTimeout = connectTimeout;
+        this.readTimeout = readTimeout;
+        this.idempotencyKey = idempotencyKey;
+    }
+
+    /**
+     * @return headers sent with this request, replacing any connector header of the same name
+     */
+    public Map<String, String> getHeaders() {
+        return headers;
+    }
+
+    /**
+     * @return the connect timeout for this request in milliseconds, or 0 to use the connector's timeout
+     */
+    public int getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    /**
+     * @return the read timeout for this request in milliseconds, or 0 to use the connector's timeout
+     */
+    public int getReadTimeout() {
+        return readTimeout;
+    }
+
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+
+    public RequestOptions withHeader(String name, String value) {
+        Map<String, String> copy = new LinkedHashMap<String, String>(headers);
+        copy.put(name, value);
+        return new RequestOptions(Collections.unmodifiableMap(copy), connectTimeout, readTimeout, idempotencyKey);
+    }
+
+    public RequestOptions withTimeout(int timeout) {
+        return new RequestOptions(headers, timeout, timeout, idempotencyKey);
+    }
+
+    public RequestOptions withConnectTimeout(int connectTimeout) {
+        return new RequestOptions(headers, connectTimeout, readTimeout, idempotencyKey);
+    }
+
+    public RequestOptions withReadTimeout(int readTimeout) {
+        return new RequestOptions(headers, connectTimeout, readTimeout, idempotencyKey);
+    }
+
+    public RequestOptions withIdempotencyKey(String idempotencyKey) {
+        return new RequestOptions(headers, connectTimeout, readTimeout, idempotencyKey);
+    }
+}
@@ -0,0 +1,45 @@
+package com.global.api.gateways;
+
+import com.global.api.gateways.events.IGatewayEventHandler;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.experimental.Accessors;
+
+/**
+ * How a {@link RestGateway} times out, retries, hedges and fails fast. Times are in milliseconds
+ * and a value of 0 turns the feature off, so the defaults send each request once, bounded only by
+ * the gateway's timeout.
+ */
+@Accessors(chain = true)
+@Getter
+@Setter
+public class ResiliencePolicy {
+    // Time allowed to open the connection, 0 uses the gateway's timeout
+    private int connectTimeout;
+
+    // Time allowed between bytes of the response, 0 uses the gateway's timeout
+    private int readTimeout;
+
+    // Deadline for the whole call including retries; each attempt's timeouts are cut to what is left
+    private int totalTimeout;
+
+    // Extra attempts after a transient failure. Only GET, HEAD, PUT, DELETE and OPTIONS requests,
+    // or requests sent with an idempotency key, are retried.
+    private int maxRetries;
+
+    // Backoff before retry n is a random time between half and all of min(retryMaxDelay, retryBaseDelay * 2^n)
+    private int retryBaseDelay = 100;
+    private int retryMaxDelay = 2000;
+
+    // When a GET has not answered after this long, the same request is sent again and the first answer wins
+    private int hedgeDelay;
+
+    // Consecutive transient failures on one endpoint that open its circuit
+    private int failureThreshold;
+
+    // How long an open circuit fails fast before one trial request is let through
+    private int openDuration = 30000;
+
+    // Receives retry, hedge and circuit state events on the thread making the request
+    private IGatewayEventHandler eventHandler;
+}
@@ -1,11 +1,43 @@
 package com.global.api.gateways;
 
 import com.global.api.entities.exceptions.GatewayException;
+import com.global.api.entities.exceptions.GatewayTimeoutException;
+import com.global.api.gateways.events.CircuitBreakerEvent;
+import com.global.api.gateways.events.GatewayEventType;
+import com.global.api.gateways.events.IGatewayEvent;
+import com.global.api.gateways.events.RetryEvent;
 import com.global.api.utils.JsonDoc;
+import com.global.api.utils.StringUtils;
+import lombok.Getter;
+import lombok.Setter;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class RestGateway extends Gateway {
+    private static final List<String> IDEMPOTENT_VERBS = Arrays.asList("GET", "HEAD", "PUT", "DELETE", "OPTIONS");
+    private static final List<String> TRANSIENT_STATUS_CODES = Arrays.asList("408", "429", "502", "503", "504");
+
+    @Getter @Setter
+    private ResiliencePolicy resiliencePolicy = new ResiliencePolicy();
+    private final ConcurrentMap<String, CircuitBreaker> circuitBreakers = new ConcurrentHashMap<String, CircuitBreaker>();
+
     public RestGateway() {
         super("application/json");
     }
@@ -17,7 +49,10 @@ public class RestGateway extends Gateway {
         return doTransaction(verb, endpoint, data, null);
     }
     public String doTransaction(String verb, String endpoint, String data, HashMap<String, String> queryStringParams) throws GatewayException {
-        GatewayResponse response = sendRequest(verb, endpoint, data, queryStringParams);
+        return doTransaction(verb, endpoint, data, queryStringParams, RequestOptions.DEFAULT);
+    }
+    public String doTransaction(String verb, String endpoint, String data, HashMap<String, String> queryStringParams, RequestOptions options) throws GatewayException {
+        GatewayResponse response = sendWithPolicy(verb, endpoint, data, queryStringParams, options);
         return handleResponse(response);
     }
     protected String handleResponse(GatewayResponse response) throws GatewayException {
@@ -31,4 +66,249 @@ public class RestGateway extends Gateway {
         }
         return response.getRawResponse();
     }
+
+    private GatewayResponse sendWithPolicy(String verb, String endpoint, String data, HashMap<String, String> queryStringParams, RequestOptions options) throws GatewayException {
+        ResiliencePolicy policy = resiliencePolicy;
+        long deadline = policy.getTotalTimeout() > 0 ? System.currentTimeMillis() + policy.getTotalTimeout() : 0;
+        String endpointKey = endpointKey(endpoint);
+        CircuitBreaker circuitBreaker = getCircuitBreaker(policy, endpointKey);
+        boolean hedge = policy.getHedgeDelay() > 0 && (verb.equals("GET") || verb.equals("HEAD"));
+
+        for(int attempt = 1; ; attempt++) {
+            RequestOptions attemptOptions = attemptOptions(policy, options, deadline);
+            CircuitBreaker.Admission admission = null;
+            if(circuitBreaker != null) {
+                admission = circuitBreaker.tryAcquire();
+                raiseCircuitEvent(policy, admission.getEvent(), endpointKey);
+                if(!admission.isAllowed()) {
+                    throw new GatewayException(String.format("The circuit for %s is open, the request was not sent.", endpointKey));
+                }
+            }
+
+            GatewayException failure;
+            boolean transientFailure = true;
+            try {
+                GatewayResponse response = hedge
+                        ? sendHedged(policy, verb, endpoint, endpointKey, data, queryStringParams, attemptOptions, deadline)
+                        : sendRequest(verb, endpoint, data, queryStringParams, attemptOptions);
+                transientFailure = false;
+                return response;
+            }
+            catch(GatewayException exc) {
+                transientFailure = isTransient(exc);
+                failure = exc;
+            }
+            finally {
+                // a decline or validation error still means the endpoint is up
+                if(admission != null) {
+                    long generation = admission.getGeneration();
+                    raiseCircuitEvent(policy, transientFailure ? circuitBreaker.onFailure(generation) : circuitBreaker.onSuccess(generation), endpointKey);
+                }
+            }
+
+            if(!transientFailure || attempt > policy.getMaxRetries() || !isRetryable(verb, options)) {
+                throw failure;
+            }
+            long delay = backoff(policy, attempt);
+            if(deadline > 0 && System.currentTimeMillis() + delay >= deadline) {
+                throw failure;
+            }
+            raiseEvent(policy, new RetryEvent(getClass().getSimpleName(), GatewayEventType.Retry, endpointKey, attempt, delay));
+            try {
+                Thread.sleep(delay);
+            }
+            catch(InterruptedException exc) {
+                Thread.currentThread().interrupt();
+                throw failure;
+            }
+        }
+    }
+
+    private GatewayResponse sendHedged(ResiliencePolicy policy, final String verb, final String endpoint, String endpointKey, final String data, final HashMap<String, String> queryStringParams, final RequestOptions options, long deadline) throws GatewayException {
+        Callable<GatewayResponse> request = new Callable<GatewayResponse>() {
+            public GatewayResponse call() throws Exception {
+                return sendRequest(verb, endpoint, data, queryStringParams, options);
+            }
+        };
+
+        CompletionService<GatewayResponse> completionService = new ExecutorCompletionService<GatewayResponse>(HedgeExecutor.executor);
+        List<Future<GatewayResponse>> requests = new ArrayList<Future<GatewayResponse>>();
+        try {
+            try {
+                requests.add(completionService.submit(request));
+            }
+            catch(RejectedExecutionException exc) {
+                return sendRequest(verb, endpoint, data, queryStringParams, options);
+            }
+
+            Future<GatewayResponse> completed = completionService.poll(waitTime(policy.getHedgeDelay(), deadline), TimeUnit.MILLISECONDS);
+            if(completed == null && !isExpired(deadline)) {
+                try {
+                    requests.add(completionService.submit(request));
+                    raiseEvent(policy, new RetryEvent(getClass().getSimpleName(), GatewayEventType.Hedge, endpointKey, 2, policy.getHedgeDelay()));
+                }
+                catch(RejectedExecutionException exc) {
+                    // no thread for the hedge, keep waiting on the first request
+                }
+            }
+
+            GatewayException failure = null;
+            for(int pending = requests.size(); pending > 0; pending--) {
+                if(completed == null) {
+                    completed = deadline > 0
+                            ? completionService.poll(waitTime(Long.MAX_VALUE, deadline), TimeUnit.MILLISECONDS)
+                            : completionService.take();
+                    if(completed == null) {
+                        throw new GatewayTimeoutException();
+                    }
+                }
+                try {
+                    return completed.get();
+                }
+                catch(ExecutionException exc) {
+                    failure = asGatewayException(exc.getCause());
+                }
+                completed = null;
+            }
+            throw failure;
+        }
+        catch(InterruptedException exc) {
+            Thread.currentThread().interrupt();
+            throw new GatewayException("Interrupted while waiting for the gateway.", exc);
+        }
+        finally {
+            for(Future<GatewayResponse> future: requests) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    private RequestOptions attemptOptions(ResiliencePolicy policy, RequestOptions options, long deadline) throws GatewayTimeoutException {
+        int connectTimeout = firstPositive(options.getConnectTimeout(), policy.getConnectTimeout(), timeout);
+        int readTimeout = firstPositive(options.getReadTimeout(), policy.getReadTimeout(), timeout);
+        if(deadline > 0) {
+            long remaining = deadline - System.currentTimeMillis();
+            if(remaining <= 0) {
+                throw new GatewayTimeoutException();
+            }
+            connectTimeout = (int)Math.min(connectTimeout > 0 ? connectTimeout : Integer.MAX_VALUE, remaining);
+            readTimeout = (int)Math.min(readTimeout > 0 ? readTimeout : Integer.MAX_VALUE, remaining);
+        }
+        return options.withConnectTimeout(connectTimeout).withReadTimeout(readTimeout);
+    }
+
+    private boolean isRetryable(String verb, RequestOptions options) {
+        return IDEMPOTENT_VERBS.contains(verb)
+                || (!StringUtils.isNullOrEmpty(options.getIdempotencyKey()) && getIdempotencyHeader() != null);
+    }
+
+    // no response at all (connection refused, reset or timed out), or a status that asks to try again
+    private boolean isTransient(GatewayException exc) {
+        return exc instanceof GatewayTimeoutException
+                || exc.getResponseCode() == null
+                || TRANSIENT_STATUS_CODES.contains(exc.getResponseCode());
+    }
+
+    private CircuitBreaker getCircuitBreaker(ResiliencePolicy policy, String endpointKey) {
+        if(policy.getFailureThreshold() <= 0) {
+            return null;
+        }
+
+        CircuitBreaker rvalue = circuitBreakers.get(endpointKey);
+        if(rvalue == null) {
+            CircuitBreaker created = new CircuitBreaker(policy.getFailureThreshold(), policy.getOpenDuration());
+            rvalue = circuitBreakers.putIfAbsent(endpointKey, created);
+            if(rvalue == null) {
+                rvalue = created;
+            }
+        }
+        return rvalue;
+    }
+
+    private void raiseCircuitEvent(ResiliencePolicy policy, GatewayEventType stateChange, String endpointKey) {
+        if(stateChange != null) {
+            raiseEvent(policy, new CircuitBreakerEvent(getClass().getSimpleName(), stateChange, endpointKey));
+        }
+    }
+
+    private void raiseEvent(ResiliencePolicy policy, IGatewayEvent event) {
+        if(policy.getEventHandler() != null) {
+            policy.getEventHandler().eventRaised(event);
+        }
+    }
+
+    // path segments holding ids are collapsed, so /transactions/TRN_123/capture and /transactions/TRN_456/capture share a circuit
+    static String endpointKey(String endpoint) {
+        String path = endpoint == null ? "" : endpoint;
+        int query = path.indexOf('?');
+        if(query >= 0) {
+            path = path.substring(0, query);
+        }
+
+        StringBuilder rvalue = new StringBuilder();
+        for(String segment: path.split("/")) {
+            if(segment.isEmpty()) {
+                continue;
+            }
+            rvalue.append('/').append(segment.matches(".*\\d.*") ? "{id}" : segment);
+        }
+        return rvalue.length() == 0 ? "/" : rvalue.toString();
+    }
+
+    private static long backoff(ResiliencePolicy policy, int attempt) {
+        long ceiling = Math.min(policy.getRetryMaxDelay(), (long)policy.getRetryBaseDelay() << Math.min(attempt - 1, 30));
+        if(ceiling <= 1) {
+            return Math.max(ceiling, 0);
+        }
+        return ceiling / 2 + ThreadLocalRandom.current().nextLong(ceiling / 2 + 1);
+    }
+
+    private static long waitTime(long wait, long deadline) {
+        if(deadline <= 0) {
+            return wait;
+        }
+        return Math.max(0, Math.min(wait, deadline - System.currentTimeMillis()));
+    }
+
+    private static boolean isExpired(long deadline) {
+        return deadline > 0 && System.currentTimeMillis() >= deadline;
+    }
+
+    private static int firstPositive(int... values) {
+        for(int value: values) {
+            if(value > 0) {
+                return value;
+            }
+        }
+        return 0;
+    }
+
+    private static GatewayException asGatewayException(Throwable cause) {
+        if(cause instanceof GatewayException) {
+            return (GatewayException)cause;
+        }
+        if(cause instanceof Error) {
+            throw (Error)cause;
+        }
+        return new GatewayException("Error occurred while communicating with gateway.", (Exception)cause);
+    }
+
+    // daemon threads for hedged requests, shared by every connector and created only when hedging is used
+    private static class HedgeExecutor {
+        private static final ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                0,
+                64,
+                60L,
+                TimeUnit.SECONDS,
+                new SynchronousQueue<Runnable>(),
+                new ThreadFactory() {
+                    private final AtomicInteger count = new AtomicInteger();
+
+                    public Thread newThread(Runnable runnable) {
+                        Thread thread = new Thread(runnable, "gateway-hedge-" + count.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+    }
 }
@@ -0,0 +1,258 @@
+package com.global.api.gateways;
+
+import com.global.api.entities.ThreeDSecure;
+import com.global.api.utils.StringUtils;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.experimental.Accessors;
+import org.apache.commons.codec.digest.DigestUtils;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Remembers the 3DS2 check-version result for each BIN, so that cards from a range the
+ * directory server doesn't cover can be answered without calling the protocol-versions endpoint.
+ *
+ * Results are learned from check-version responses and can also be preloaded from the card
+ * ranges a 3DS server publishes. When the preloaded ranges are marked complete, a card outside
+ * every range is known to be not enrolled. Entries expire after {@code timeToLive} and at most
+ * {@code maxEntries} learned results are kept, least recently used first out.
+ *
+ * Directory server card ranges can split below any BIN length, so a learned not-enrolled result
+ * only answers for the card it was learned from; it is keyed by a SHA-256 digest of the card
+ * number, never the number itself. Enrolled results are kept for the card's BIN.
+ *
+ * Only not-enrolled cards skip the network call: the check-version response for an enrolled card
+ * carries the server transaction ID and method data the authentication that follows depends on.
+ */
+@Accessors(chain = true)
+@Getter
+@Setter
+public class Secure3dVersionCache {
+    private static final int MAX_PAN_LENGTH = 19;
+
+    // how long learned and preloaded results are used, in milliseconds
+    private long timeToLive = 24 * 60 * 60 * 1000L;
+    private int maxEntries = 10000;
+    private int binLength = 8;
+
+    @Getter(lombok.AccessLevel.NONE) @Setter(lombok.AccessLevel.NONE)
+    private final LinkedHashMap<String, Entry> bins = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > maxEntries;
+        }
+    };
+    @Getter(lombok.AccessLevel.NONE) @Setter(lombok.AccessLevel.NONE)
+    private volatile Ranges ranges = new Ranges(new TreeMap<String, CardRange>(), false, 0L);
+
+    /**
+     * @return a copy of the cached check-version result for the card, or null if the card has to
+     * be checked with the directory server.
+     */
+    public ThreeDSecure lookup(String cardNumber) {
+        String bin = binFor(cardNumber);
+        if(bin == null) {
+            return null;
+        }
+
+        long now = currentTimeMillis();
+        synchronized(bins) {
+            for(String key: new String[] { cardKey(cardNumber), bin }) {
+                Entry entry = bins.get(key);
+                if(entry != null) {
+                    if(entry.expires > now) {
+                        return entry.toThreeDSecure();
+                    }
+                    bins.remove(key);
+                }
+            }
+        }
+
+        Ranges current = ranges;
+        if(current.expires <= now) {
+            return null;
+        }
+
+        String pan = StringUtils.padRight(cardNumber, MAX_PAN_LENGTH, '0');
+        Map.Entry<String, CardRange> floor = current.byStart.floorEntry(pan);
+        if(floor != null && pan.compareTo(floor.getValue().paddedEnd) <= 0) {
+            return floor.getValue().toThreeDSecure();
+        }
+        if(current.complete) {
+            return new Entry(false, null, null, null, null, null, 0L).toThreeDSecure();
+        }
+        return null;
+    }
+
+    /**
+     * Records the check-version result: for the card's BIN when it is enrolled, and for the card
+     * alone when it is not. Only pass results whose response said whether the card is enrolled.
+     */
+    public void put(String cardNumber, ThreeDSecure secureEcom) {
+        String bin = binFor(cardNumber);
+        if(bin == null || secureEcom == null) {
+            return;
+        }
+
+        Entry entry = new Entry(
+                secureEcom.isEnrolled(),
+                secureEcom.getAcsStartVersion(),
+                secureEcom.getAcsEndVersion(),
+                secureEcom.getDirectoryServerStartVersion(),
+                secureEcom.getDirectoryServerEndVersion(),
+                secureEcom.getIssuerAcsUrl(),
+                currentTimeMillis() + timeToLive
+        );
+        synchronized(bins) {
+            bins.put(entry.enrolled ? bin : cardKey(cardNumber), entry);
+        }
+    }
+
+    /**
+     * Replaces the preloaded card ranges. Ranges must not overlap.
+     *
+     * @param complete true when the ranges cover every 3DS2 card, so a card outside all of them
+     *                 is not enrolled
+     */
+    public void preload(Collection<CardRange> cardRanges, boolean complete) {
+        TreeMap<String, CardRange> byStart = new TreeMap<String, CardRange>();
+        if(cardRanges != null) {
+            for(CardRange range: cardRanges) {
+                byStart.put(range.paddedStart, range);
+            }
+        }
+        ranges = new Ranges(byStart, complete, currentTimeMillis() + timeToLive);
+    }
+
+    /**
+     * Forgets the learned results for the card and its BIN.
+     */
+    public void invalidate(String cardNumber) {
+        String bin = binFor(cardNumber);
+        if(bin != null) {
+            synchronized(bins) {
+                bins.remove(cardKey(cardNumber));
+                bins.remove(bin);
+            }
+        }
+    }
+
+    /**
+     * Forgets every learned result and the preloaded ranges.
+     */
+    public void invalidateAll() {
+        synchronized(bins) {
+            bins.clear();
+        }
+        ranges = new Ranges(new TreeMap<String, CardRange>(), false, 0L);
+    }
+
+    public int size() {
+        synchronized(bins) {
+            return bins.size();
+        }
+    }
+
+    protected long currentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+
+    private String binFor(String cardNumber) {
+        if(StringUtils.isNullOrEmpty(cardNumber) || cardNumber.length() < binLength) {
+            return null;
+        }
+        return cardNumber.substring(0, binLength);
+    }
+
+    // 64 hex characters, so it can't be mistaken for a BIN
+    private static String cardKey(String cardNumber) {
+        return DigestUtils.sha256Hex(cardNumber);
+    }
+
+    /**
+     * A range of card numbers from the directory server's card range data, with the protocol
+     * versions its issuers support.
+     */
+    @Accessors(chain = true)
+    @Getter
+    @Setter
+    public static class CardRange {
+        private final String start;
+        private final String end;
+        private String acsStartVersion;
+        private String acsEndVersion;
+        private String directoryServerStartVersion;
+        private String directoryServerEndVersion;
+        private String methodUrl;
+
+        @Getter(lombok.AccessLevel.NONE)
+        private final String paddedStart;
+        @Getter(lombok.AccessLevel.NONE)
+        private final String paddedEnd;
+
+        public CardRange(String start, String end) {
+            if(StringUtils.isNullOrEmpty(start) || StringUtils.isNullOrEmpty(end)) {
+                throw new IllegalArgumentException("A card range needs a start and an end.");
+            }
+            this.start = start;
+            this.end = end;
+            this.paddedStart = StringUtils.padRight(start, MAX_PAN_LENGTH, '0');
+            this.paddedEnd = StringUtils.padRight(end, MAX_PAN_LENGTH, '9');
+            if(paddedStart.compareTo(paddedEnd) > 0) {
+                throw new IllegalArgumentException("A card range can't end before it starts.");
+            }
+        }
+
+        private ThreeDSecure toThreeDSecure() {
+            return new Entry(true, acsStartVersion, acsEndVersion, directoryServerStartVersion, directoryServerEndVersion, methodUrl, 0L).toThreeDSecure();
+        }
+    }
+
+    private static class Entry {
+        private final boolean enrolled;
+        private final String acsStartVersion;
+        private final String acsEndVersion;
+        private final String directoryServerStartVersion;
+        private final String directoryServerEndVersion;
+        private final String methodUrl;
+        private final long expires;
+
+        Entry(boolean enrolled, String acsStartVersion, String acsEndVersion, String directoryServerStartVersion, String directoryServerEndVersion, String methodUrl, long expires) {
+            this.enrolled = enrolled;
+            this.acsStartVersion = acsStartVersion;
+            this.acsEndVersion = acsEndVersion;
+            this.directoryServerStartVersion = directoryServerStartVersion;
+            this.directoryServerEndVersion = directoryServerEndVersion;
+            this.methodUrl = methodUrl;
+            this.expires = expires;
+        }
+
+        ThreeDSecure toThreeDSecure() {
+            ThreeDSecure rvalue = new ThreeDSecure();
+            rvalue.setEnrolled(enrolled);
+            rvalue.setAcsStartVersion(acsStartVersion);
+            rvalue.setAcsEndVersion(acsEndVersion);
+            rvalue.setDirectoryServerStartVersion(directoryServerStartVersion);
+            rvalue.setDirectoryServerEndVersion(directoryServerEndVersion);
+            rvalue.setIssuerAcsUrl(methodUrl);
+            return rvalue;
+        }
+    }
+
+    private static class Ranges {
+        private final NavigableMap<String, CardRange> byStart;
+        private final boolean complete;
+        private final long expires;
+
+        Ranges(TreeMap<String, CardRange> byStart, boolean complete, long expires) {
+            this.byStart = Collections.unmodifiableNavigableMap(byStart);
+            this.complete = complete;
+            this.expires = expires;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.global.api.gateways;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.experimental.Accessors;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * An access token, when it expires and the account IDs that came with it.
+ */
+@Accessors(chain = true)
+@Getter
+@Setter
+public class StoredToken {
+    private String token;
+    // milliseconds since the epoch
+    private long expiresAt;
+    private String dataAccountID;
+    private String disputeManagementAccountID;
+    private String tokenizationAccountID;
+    private String transactionProcessingAccountID;
+    private String riskAssessmentAccountID;
+
+    /**
+     * One {@code name=value} line per field.
+     */
+    String serialize() {
+        StringBuilder sb = new StringBuilder();
+        for(Map.Entry<String, String> field: fields().entrySet()) {
+            if(field.getValue() != null) {
+                sb.append(field.getKey()).append('=').append(field.getValue()).append('\n');
+            }
+        }
+        return sb.toString();
+    }
+
+    static StoredToken parse(String value) {
+        StoredToken rvalue = new StoredToken();
+        for(String line: value.split("\n")) {
+            int index = line.indexOf('=');
+            if(index < 0) {
+                continue;
+            }
+
+            String fieldValue = line.substring(index + 1);
+            switch(line.substring(0, index)) {
+                case "token": rvalue.token = fieldValue; break;
+                case "expiresAt": rvalue.expiresAt = Long.parseLong(fieldValue); break;
+                case "dataAccountID": rvalue.dataAccountID = fieldValue; break;
+                case "disputeManagementAccountID": rvalue.disputeManagementAccountID = fieldValue; break;
+                case "tokenizationAccountID": rvalue.tokenizationAccountID = fieldValue; break;
+                case "transactionProcessingAccountID": rvalue.transactionProcessingAccountID = fieldValue; break;
+                case "riskAssessmentAccountID": rvalue.riskAssessmentAccountID = fieldValue; break;
+                default: break;
+            }
+        }
+        return rvalue.token == null ? null : rvalue;
+    }
+
+    private Map<String, String> fields() {
+        Map<String, String> rvalue = new LinkedHashMap<String, String>();
+        rvalue.put("token", token);
+        rvalue.put("expiresAt", String.valueOf(expiresAt));
+        rvalue.put("dataAccountID", dataAccountID);
+        rvalue.put("disputeManagementAccountID", disputeManagementAccountID);
+        rvalue.put("tokenizationAccountID", tokenizationAccountID);
+        rvalue.put("transactionProcessingAccountID", transactionProcessingAccountID);
+        rvalue.put("riskAssessmentAccountID", riskAssessmentAccountID);
+        return rvalue;
+    }
+}
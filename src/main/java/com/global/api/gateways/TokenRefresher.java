@@ -0,0 +1,145 @@
+package com.global.api.gateways;
+
+import com.global.api.entities.exceptions.GatewayException;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.experimental.Accessors;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Hands out the token in an {@link ITokenStore}, signing in only when it is about to run out.
+ *
+ * A token is refreshed once less than {@code refreshBeforeExpiry} of it remains. The caller that
+ * gets the store's refresh lock signs in and writes the new token; the others keep using the
+ * current token until it expires, and wait for the new one after that. If no new token shows up
+ * within {@code waitTimeout} the caller signs in by itself.
+ */
+@Accessors(chain = true)
+@Getter
+@Setter
+public class TokenRefresher {
+    public interface ISignIn {
+        StoredToken signIn() throws GatewayException;
+    }
+
+    private final ITokenStore store;
+    private long refreshBeforeExpiry = 5 * 60 * 1000L;
+    private long waitTimeout = 30 * 1000L;
+    private long pollInterval = 50L;
+
+    public TokenRefresher(ITokenStore store) {
+        if(store == null) {
+            throw new IllegalArgumentException("A token store is required.");
+        }
+        this.store = store;
+    }
+
+    /**
+     * @param rejectedToken a token the gateway has turned down, which is replaced even if it
+     *                      hasn't expired; null if there isn't one
+     */
+    public StoredToken getToken(String key, String rejectedToken, ISignIn signIn) throws GatewayException {
+        long deadline = currentTimeMillis() + waitTimeout;
+        while(true) {
+            StoredToken current = read(key);
+            long now = currentTimeMillis();
+            if(isFresh(current, rejectedToken, now)) {
+                return current;
+            }
+
+            Closeable lock = tryLock(key);
+            if(lock != null) {
+                try {
+                    // another process may have finished its refresh after the read above
+                    current = read(key);
+                    if(isFresh(current, rejectedToken, currentTimeMillis())) {
+                        return current;
+                    }
+
+                    StoredToken rvalue = signIn.signIn();
+                    write(key, rvalue);
+                    return rvalue;
+                }
+                finally {
+                    close(lock);
+                }
+            }
+
+            if(isUsable(current, rejectedToken, now)) {
+                return current;
+            }
+            if(now >= deadline) {
+                return signIn.signIn();
+            }
+
+            try {
+                Thread.sleep(pollInterval);
+            }
+            catch(InterruptedException exc) {
+                Thread.currentThread().interrupt();
+                return signIn.signIn();
+            }
+        }
+    }
+
+    /**
+     * @return true when the token should be replaced before it is used again
+     */
+    public boolean isDue(StoredToken token) {
+        return !isFresh(token, null, currentTimeMillis());
+    }
+
+    protected long currentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+
+    private boolean isFresh(StoredToken token, String rejectedToken, long now) {
+        return isUsable(token, rejectedToken, now) && now < token.getExpiresAt() - refreshBeforeExpiry;
+    }
+
+    private boolean isUsable(StoredToken token, String rejectedToken, long now) {
+        return token != null
+                && token.getToken() != null
+                && !token.getToken().equals(rejectedToken)
+                && now < token.getExpiresAt();
+    }
+
+    private StoredToken read(String key) {
+        try {
+            return store.read(key);
+        }
+        catch(IOException exc) {
+            // an unreadable token is replaced
+            return null;
+        }
+    }
+
+    private void write(String key, StoredToken token) {
+        try {
+            store.write(key, token);
+        }
+        catch(IOException exc) {
+            // the token is still used by this connector; the others sign in for themselves
+        }
+    }
+
+    private Closeable tryLock(String key) {
+        try {
+            return store.tryLock(key);
+        }
+        catch(IOException exc) {
+            return null;
+        }
+    }
+
+    private static void close(Closeable lock) {
+        try {
+            lock.close();
+        }
+        catch(IOException exc) {
+            // released when the process exits
+        }
+    }
+}
@@ -35,7 +35,6 @@ public class TransactionApiConnector extends RestGateway implements IPaymentGate
     private static final String TRANSACTION_API_VERSION = "2021-04-08";
     private static final String TRANSACTION_API_PARTNER_APP_NAME = "mobile_sdk";
     private static final String TRANSACTION_API_PARTNER_APP_VERSION = "1";
-    private String token;
     @Getter
     private final TransactionApiConfig apiConfig;
 
@@ -56,7 +55,7 @@ public class TransactionApiConnector extends RestGateway implements IPaymentGate
         dynamicHeaders = apiConfig.getDynamicHeaders();
     }
 
-    private void generateToken() throws NoSuchAlgorithmException, InvalidKeyException {
+    private String generateToken() throws NoSuchAlgorithmException, InvalidKeyException {
         String accountCredential = apiConfig.getAccountCredential();
         String region = apiConfig.getRegion().getValue();
         String apiSecret = apiConfig.getAppSecret();
@@ -100,17 +99,17 @@ public class TransactionApiConnector extends RestGateway implements IPaymentGate
          * payload and signature
          */
 
-        this.token = jwtHeaderATBase64 + "." + jwtPayloadATBase64 +
+        String token = jwtHeaderATBase64 + "." + jwtPayloadATBase64 +
                 "." + hashSignature;
-        log("Generated AuthtokenV2: " + this.token);
+        log("Generated AuthtokenV2: " + token);
+        return token;
 
     }
 
     public String doTransaction(TransactionApiRequest.HttpMethod verb, String endpoint, String data, HashMap<String, String> queryStringParams) throws GatewayException {
         try {
-            generateToken();
-            headers.put("Authorization", "AuthToken " + token);
-            return super.doTransaction(verb.getValue(), endpoint, data, queryStringParams);
+            RequestOptions options = RequestOptions.DEFAULT.withHeader("Authorization", "AuthToken " + generateToken());
+            return super.doTransaction(verb.getValue(), endpoint, data, queryStringParams, options);
         } catch (GatewayException ex) {
             // Handling error response messages
             if(ex.getResponseCode() != null
@@ -1373,7 +1373,7 @@ public class VapsConnector extends GatewayConnectorConfig {
             // parse the message
             if(!header.getMessageType().equals(MessageType.NoMessage)) {
                 String messageTransactionIndicator = mr.readString(4);
-                NetworkMessage message = NetworkMessage.parse(mr.readBytes(buffer.length), Iso8583MessageType.CompleteMessage);
+                NetworkMessage message = NetworkMessage.parseView(buffer, mr.getPosition(), Iso8583MessageType.CompleteMessage);
                 message.setMessageTypeIndicator(messageTransactionIndicator);
 
                 // log out the breakdown
@@ -1419,7 +1419,7 @@ public class VapsConnector extends GatewayConnectorConfig {
                 // EMV response
                 byte[] emvResponse = message.getByteArray(DataElementId.DE_055);
                 if(emvResponse != null){
-                    EmvData emvData = EmvUtils.parseTagData(StringUtils.hexFromBytes(emvResponse), isEnableLogging());
+                    EmvData emvData = EmvUtils.parseTagData(emvResponse, isEnableLogging());
                     result.setEmvIssuerResponse(emvData.getAcceptedTagData());
                 }
 
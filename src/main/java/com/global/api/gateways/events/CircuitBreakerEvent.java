@@ -0,0 +1,26 @@
+package com.global.api.gateways.events;
+
+public class CircuitBreakerEvent extends GatewayEvent {
+    private String endpoint;
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    public String getEventMessage() {
+        String rvalue = super.getEventMessage();
+        switch(getEventType()) {
+            case CircuitOpened:
+                return rvalue.concat(String.format("Circuit for %s opened, requests will fail fast.", endpoint));
+            case CircuitHalfOpened:
+                return rvalue.concat(String.format("Circuit for %s half open, sending a trial request.", endpoint));
+            default:
+                return rvalue.concat(String.format("Circuit for %s closed.", endpoint));
+        }
+    }
+
+    public CircuitBreakerEvent(String connectorName, GatewayEventType eventType, String endpoint) {
+        super(connectorName, eventType);
+        this.endpoint = endpoint;
+    }
+}
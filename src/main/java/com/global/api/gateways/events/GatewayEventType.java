@@ -8,5 +8,10 @@ public enum GatewayEventType {
     Timeout,
     TimeoutFailOver,
     SslHandshake,
-    FailOver
+    FailOver,
+    Retry,
+    Hedge,
+    CircuitOpened,
+    CircuitHalfOpened,
+    CircuitClosed
 }
@@ -0,0 +1,36 @@
+package com.global.api.gateways.events;
+
+public class RetryEvent extends GatewayEvent {
+    private String endpoint;
+    private int attempt;
+    private long delay;
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+    public int getAttempt() {
+        return attempt;
+    }
+    public long getDelay() {
+        return delay;
+    }
+
+    public String getEventMessage() {
+        String rvalue = super.getEventMessage();
+        if(getEventType().equals(GatewayEventType.Hedge)) {
+            rvalue = rvalue.concat(String.format("No response from %s after %sms, sending a hedged request.", endpoint, delay));
+        }
+        else {
+            rvalue = rvalue.concat(String.format("Attempt %s to %s failed, retrying in %sms.", attempt, endpoint, delay));
+        }
+
+        return rvalue;
+    }
+
+    public RetryEvent(String connectorName, GatewayEventType eventType, String endpoint, int attempt, long delay) {
+        super(connectorName, eventType);
+        this.endpoint = endpoint;
+        this.attempt = attempt;
+        this.delay = delay;
+    }
+}
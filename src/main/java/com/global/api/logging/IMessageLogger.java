@@ -0,0 +1,5 @@
+package com.global.api.logging;
+
+public interface IMessageLogger {
+    void log(LogLevel level, String message);
+}
@@ -0,0 +1,13 @@
+package com.global.api.logging;
+
+/**
+ * Detail of network message logging, from least to most verbose.
+ */
+public enum LogLevel {
+    // Connection, failover and timeout events
+    Info,
+    // Each complete request and response message
+    Debug,
+    // Each field as it is written or read
+    Trace
+}
@@ -0,0 +1,7 @@
+package com.global.api.logging;
+
+public class MessageConsoleLogger implements IMessageLogger {
+    public void log(LogLevel level, String message) {
+        System.out.println(message);
+    }
+}
@@ -0,0 +1,118 @@
+package com.global.api.logging;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sends one connector's network message logs to its {@link IMessageLogger}.
+ * <p>
+ * A connector opens a {@link Scope} for the duration of each transaction. Code that builds and
+ * parses messages logs through the static methods, which only find the tracer bound to the
+ * current thread, so logging for one connector never slows down threads working for another.
+ * Only one in every {@code sampleRate} transactions is traced at the {@link LogLevel#Debug}
+ * and {@link LogLevel#Trace} levels; {@link LogLevel#Info} events are always logged.
+ */
+public class MessageTracer {
+    private static final ThreadLocal<Scope> currentScope = new ThreadLocal<Scope>();
+    private static volatile MessageTracer defaultTracer;
+
+    private final IMessageLogger logger;
+    private final LogLevel level;
+    private final int sampleRate;
+    private final AtomicLong transactions = new AtomicLong();
+
+    public MessageTracer(IMessageLogger logger, LogLevel level) {
+        this(logger, level, 1);
+    }
+    public MessageTracer(IMessageLogger logger, LogLevel level, int sampleRate) {
+        this.logger = logger;
+        this.level = level;
+        this.sampleRate = Math.max(sampleRate, 1);
+    }
+
+    public IMessageLogger getLogger() {
+        return logger;
+    }
+    public LogLevel getLevel() {
+        return level;
+    }
+    public int getSampleRate() {
+        return sampleRate;
+    }
+
+    public boolean isEnabled(LogLevel level) {
+        return level.compareTo(this.level) <= 0;
+    }
+
+    public void log(LogLevel level, String message) {
+        if(isEnabled(level)) {
+            logger.log(level, message);
+        }
+    }
+
+    /**
+     * Binds a tracer to the current thread until the scope is closed. Passing null stops an
+     * enclosing scope's tracer from logging for a connector that has no tracer of its own.
+     */
+    public static Scope begin(MessageTracer tracer) {
+        boolean sampled = tracer != null && tracer.transactions.getAndIncrement() % tracer.sampleRate == 0;
+        Scope rvalue = new Scope(tracer, sampled, currentScope.get());
+        currentScope.set(rvalue);
+        return rvalue;
+    }
+
+    /**
+     * @return true if a message at this level would be logged on the current thread; check this
+     * before building a message that is expensive to format
+     */
+    public static boolean isLogging(LogLevel level) {
+        return activeTracer(level) != null;
+    }
+
+    public static void trace(LogLevel level, String message) {
+        MessageTracer tracer = activeTracer(level);
+        if(tracer != null) {
+            tracer.logger.log(level, message);
+        }
+    }
+
+    private static MessageTracer activeTracer(LogLevel level) {
+        Scope scope = currentScope.get();
+        if(scope != null && scope.tracer != null) {
+            boolean enabled = (scope.sampled || level == LogLevel.Info) && scope.tracer.isEnabled(level);
+            return enabled ? scope.tracer : null;
+        }
+
+        MessageTracer tracer = defaultTracer;
+        return tracer != null && tracer.isEnabled(level) ? tracer : null;
+    }
+
+    /**
+     * Sets the tracer used when the current scope has none. This is JVM wide and only backs the
+     * deprecated {@code NtsUtils.enableLogging()} and {@code GnapUtils.enableLogging(Boolean)}
+     * switches; configure a tracer on the connector instead.
+     */
+    public static void setDefaultTracer(MessageTracer tracer) {
+        defaultTracer = tracer;
+    }
+
+    public static class Scope implements AutoCloseable {
+        private final MessageTracer tracer;
+        private final boolean sampled;
+        private final Scope previous;
+
+        private Scope(MessageTracer tracer, boolean sampled, Scope previous) {
+            this.tracer = tracer;
+            this.sampled = sampled;
+            this.previous = previous;
+        }
+
+        public void close() {
+            if(previous == null) {
+                currentScope.remove();
+            }
+            else {
+                currentScope.set(previous);
+            }
+        }
+    }
+}
@@ -49,6 +49,10 @@ public class Iso8583Bitmap {
         return dataElementMap.get(currIndex + offset);
     }
 
+    void reset() {
+        currIndex = -1;
+    }
+
     void setDataElement(DataElementId element) {
         StringBuilder sb = new StringBuilder(binaryValue);
         sb.setCharAt(element.getValue() - offset, '1');
@@ -13,6 +13,11 @@ public class Iso8583Element {
     private String description;
     private Integer length;
     private byte[] buffer;
+    // view mode: the value lives in source[offset, offset + valueLength) until a copy is requested
+    private byte[] source;
+    private int offset;
+    private int valueLength;
+    private Object concrete;
 
     public DataElementId getId() {
         return id;
@@ -27,9 +32,20 @@ public class Iso8583Element {
         return length;
     }
     public byte[] getBuffer() {
+        if(buffer == null && source != null) {
+            buffer = new byte[valueLength];
+            System.arraycopy(source, offset, buffer, 0, valueLength);
+        }
         return buffer;
     }
+    String getStringValue() {
+        if(buffer == null && source != null) {
+            return new String(source, offset, valueLength);
+        }
+        return buffer == null ? null : new String(buffer);
+    }
     byte[] getSendBuffer() {
+        byte[] buffer = getBuffer();
         if(buffer == null) {
             return new byte[0];
         }
@@ -87,11 +103,44 @@ public class Iso8583Element {
 
         return element;
     }
+    static Iso8583Element inflateView(DataElementId id, DataElementType type, String description, Integer length, MessageReader mr) {
+        Iso8583Element element = new Iso8583Element();
+        element.id = id;
+        element.type = type;
+        element.description = description;
+        element.length = length;
+
+        int actualLength = length;
+        switch (type) {
+            case LVAR:
+            case LLVAR:
+            case LLLVAR: {
+                String lengthStr = mr.readString(type.equals(DataElementType.LVAR) ? 1 : type.equals(DataElementType.LLVAR) ? 2 : 3);
+                actualLength = Integer.parseInt(lengthStr);
+            }
+            break;
+        }
+
+        element.source = mr.getBuffer();
+        element.offset = mr.getPosition();
+        element.valueLength = mr.skip(actualLength);
+
+        return element;
+    }
 
     <TResult extends IDataElement<TResult>> TResult getConcrete(Class<TResult> clazz) {
+        // view elements belong to parsed responses, decode them once and hand back the same instance
+        if(source != null && clazz.isInstance(concrete)) {
+            return clazz.cast(concrete);
+        }
+
         try {
             TResult rvalue = clazz.newInstance();
-            return rvalue.fromByteArray(buffer);
+            rvalue = rvalue.fromByteArray(getBuffer());
+            if(source != null) {
+                concrete = rvalue;
+            }
+            return rvalue;
         }
         catch(Exception exc) {
             return null;
@@ -132,6 +132,13 @@ class Iso8583ElementFactory {
 
         return Iso8583Element.inflate(id, type, description, length, messageReader);
     }
+    Iso8583Element createElementView(DataElementId id) {
+        DataElementType type = elementTypes.get(id);
+        String description = elementDescriptions.get(id);
+        Integer length = elementLengths.get(id);
+
+        return Iso8583Element.inflateView(id, type, description, length, messageReader);
+    }
     Iso8583Element createElement(DataElementId id, byte[] buffer) {
         DataElementType type = elementTypes.get(id);
         String description = elementDescriptions.get(id);
@@ -23,6 +23,8 @@ public class NetworkMessage {
     private Iso8583Bitmap secondaryBitmap;
     private Iso8583MessageType messageType;
     private Iso8583ElementFactory factory;
+    private boolean bitmapsCurrent;
+    private byte[] messageBuffer;
 
     public boolean isDataCollect(PaymentMethodType paymentMethodType) {
         String functionCode = getString(DataElementId.DE_024);
@@ -49,6 +51,7 @@ public class NetworkMessage {
     }
     public void setMessageTypeIndicator(String messageTypeIndicator) {
         this.messageTypeIndicator = messageTypeIndicator;
+        messageBuffer = null;
     }
     public Iso8583Bitmap getBitmap() {
         return bitmap;
@@ -76,7 +79,7 @@ public class NetworkMessage {
     public BigDecimal getAmount(DataElementId id) {
         if(elements.containsKey(id)) {
             Iso8583Element element = elements.get(id);
-            return StringUtils.toAmount(new String(element.getBuffer()));
+            return StringUtils.toAmount(element.getStringValue());
         }
         return null;
     }
@@ -102,7 +105,7 @@ public class NetworkMessage {
     public String getString(DataElementId id) {
         if(elements.containsKey(id)) {
             Iso8583Element element = elements.get(id);
-            return new String(element.getBuffer());
+            return element.getStringValue();
         }
         return null;
     }
@@ -117,7 +120,7 @@ public class NetworkMessage {
     public <TResult extends Enum<TResult> & IStringConstant> TResult getStringConstant(DataElementId id, Class<TResult> clazz) {
         if(elements.containsKey(id)) {
             Iso8583Element element = elements.get(id);
-            String value = new String(element.getBuffer());
+            String value = element.getStringValue();
 
             TResult rvalue = ReverseStringEnumMap.parse(StringUtils.trim(value), clazz);
             if(rvalue == null) {
@@ -138,6 +141,7 @@ public class NetworkMessage {
     public NetworkMessage remove(DataElementId id) {
         if(has(id)) {
             elements.remove(id);
+            invalidate();
         }
         return this;
     }
@@ -169,13 +173,28 @@ public class NetworkMessage {
     public NetworkMessage set(DataElementId id, byte[] buffer) {
         Iso8583Element element = factory.createElement(id, buffer);
         elements.put(id, element);
+        invalidate();
         return this;
     }
 
+    private void invalidate() {
+        bitmapsCurrent = false;
+        messageBuffer = null;
+    }
+
+    /**
+     * The encoded message is cached until the next set/remove, so repeated calls (logging,
+     * data-collect tokenization, LRC retries) return the same buffer without re-encoding.
+     * Callers must not modify the returned array.
+     */
     public byte[] buildMessage() {
         return buildMessage(false);
     }
     public byte[] buildMessage(boolean addBitmapAsString) {
+        if(!addBitmapAsString && messageBuffer != null) {
+            return messageBuffer;
+        }
+
         MessageWriter mw = new MessageWriter();
 
         // put the MTI
@@ -213,10 +232,23 @@ public class NetworkMessage {
             }
         }
 
-        return mw.toArray();
+        byte[] rvalue = mw.toArray();
+        if(!addBitmapAsString) {
+            messageBuffer = rvalue;
+        }
+        return rvalue;
     }
 
     private void generateBitmaps() {
+        // the elements haven't changed, just rewind the existing maps
+        if(bitmapsCurrent) {
+            bitmap.reset();
+            if(secondaryBitmap != null) {
+                secondaryBitmap.reset();
+            }
+            return;
+        }
+
         bitmap = new Iso8583Bitmap(new byte[8]);
 
         // check if we need a secondary bitmap
@@ -236,23 +268,36 @@ public class NetworkMessage {
 
         // put the finished secondary bitmap to the elements
         if(messageType.equals(Iso8583MessageType.CompleteMessage)) {
-            set(DataElementId.DE_001, secondaryBitmap.toByteArray());
+            elements.put(DataElementId.DE_001, factory.createElement(DataElementId.DE_001, secondaryBitmap.toByteArray()));
         }
+        bitmapsCurrent = true;
     }
 
     public static NetworkMessage parse(String input, Iso8583MessageType messageType) {
         MessageReader mr = new MessageReader(input.getBytes());
         Iso8583Bitmap bitmap = new Iso8583Bitmap(StringUtils.bytesFromHex(mr.readString(16)));
 
-        return parseMessage(bitmap, mr, messageType);
+        return parseMessage(bitmap, mr, messageType, false);
     }
     public static NetworkMessage parse(byte[] input, Iso8583MessageType messageType) {
         MessageReader mr = new MessageReader(input);
         Iso8583Bitmap bitmap = new Iso8583Bitmap(mr.readBytes(8));
 
-        return parseMessage(bitmap, mr, messageType);
+        return parseMessage(bitmap, mr, messageType, false);
     }
-    private static NetworkMessage parseMessage(Iso8583Bitmap bitmap, MessageReader mr, Iso8583MessageType messageType) {
+    /**
+     * Parses the message starting at {@code offset} without copying the data elements out of the input.
+     * Each element is a view over {@code input} (which must not be modified afterwards), and composite
+     * elements read through {@link #getDataElement} are decoded on first access and then reused.
+     */
+    public static NetworkMessage parseView(byte[] input, int offset, Iso8583MessageType messageType) {
+        MessageReader mr = new MessageReader(input);
+        mr.skip(offset);
+        Iso8583Bitmap bitmap = new Iso8583Bitmap(mr.readBytes(8));
+
+        return parseMessage(bitmap, mr, messageType, true);
+    }
+    private static NetworkMessage parseMessage(Iso8583Bitmap bitmap, MessageReader mr, Iso8583MessageType messageType, boolean asView) {
         NetworkMessage message = new NetworkMessage(messageType);
         message.setBitmap(bitmap);
 
@@ -262,7 +307,7 @@ public class NetworkMessage {
         // read the primary bitmap
         DataElementId currentElement = bitmap.getNextDataElement();
         do {
-            message.elements.put(currentElement, message.factory.createElement(currentElement));
+            message.elements.put(currentElement, message.readElement(currentElement, asView));
             currentElement = bitmap.getNextDataElement();
         }
         while(currentElement != null);
@@ -274,7 +319,7 @@ public class NetworkMessage {
 
             currentElement = secondaryMap.getNextDataElement();
             while(currentElement != null) {
-                message.elements.put(currentElement, message.factory.createElement(currentElement));
+                message.elements.put(currentElement, message.readElement(currentElement, asView));
                 currentElement = secondaryMap.getNextDataElement();
             }
         }
@@ -283,6 +328,10 @@ public class NetworkMessage {
         return message;
     }
 
+    private Iso8583Element readElement(DataElementId id, boolean asView) {
+        return asView ? factory.createElementView(id) : factory.createElement(id);
+    }
+
     public String toString() {
         StringBuilder sb = new StringBuilder();
 
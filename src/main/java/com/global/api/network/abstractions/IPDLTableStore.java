@@ -0,0 +1,22 @@
+package com.global.api.network.abstractions;
+
+import java.io.IOException;
+
+/**
+ * Local storage for downloaded PDL tables, used by {@link com.global.api.network.providers.PDLTableCache}.
+ * Tables are stored as the fixed-width data the host sent, and the key already includes the table
+ * version, so an entry never changes once written.
+ */
+public interface IPDLTableStore {
+    /**
+     * @return the stored table data for the key, or null if it has not been downloaded
+     */
+    String read(String key) throws IOException;
+
+    void write(String key, String tableData) throws IOException;
+
+    /**
+     * Called once a newer version of the table is active; a missing entry is not an error.
+     */
+    void remove(String key) throws IOException;
+}
@@ -0,0 +1,17 @@
+package com.global.api.network.abstractions;
+
+import java.io.IOException;
+
+/**
+ * Durable high-water mark storage used by {@link com.global.api.network.providers.SequenceAllocator}.
+ * Implementations must make {@link #write(String, long)} durable before returning, since the allocator
+ * hands out every value below the written mark once the call completes.
+ */
+public interface ISequenceStore {
+    /**
+     * @return the last persisted high-water mark for the key, or 0 if nothing has been stored yet
+     */
+    long read(String key) throws IOException;
+
+    void write(String key, long value) throws IOException;
+}
@@ -178,7 +178,7 @@ public class DE48_MessageControl implements IDataElement<DE48_MessageControl> {
     }
 
     public DE48_MessageControl fromByteArray(byte[] buffer) {
-        NetworkMessage nm = NetworkMessage.parse(buffer, Iso8583MessageType.SubElement_DE_048);
+        NetworkMessage nm = NetworkMessage.parseView(buffer, 0, Iso8583MessageType.SubElement_DE_048);
 
         communicationDiagnostics = nm.getDataElement(DataElementId.DE_001, DE48_1_CommunicationDiagnostics.class);
         hardwareSoftwareConfig = nm.getDataElement(DataElementId.DE_002, DE48_2_HardwareSoftwareConfig.class);
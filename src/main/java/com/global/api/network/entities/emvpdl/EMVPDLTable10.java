@@ -1,12 +1,12 @@
 package com.global.api.network.entities.emvpdl;
 
 import com.global.api.network.enums.nts.EmvPDLCardType;
-import com.global.api.utils.StringParser;
+import com.global.api.utils.RecordLayout;
+import com.global.api.utils.RecordReader;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.ToString;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
@@ -28,26 +28,27 @@ public class EMVPDLTable10 implements IEMVPDLTable {
     @Setter
     private List<EMVPDLCardTypesTable> emvPdlCardTypes;
 
-    @Override
-    public EMVPDLTable parseData(StringParser stringParser) {
-        this.setEmvPdlEnabled(stringParser.readString(1));
-        this.setEmvPdlTableId30Version(stringParser.readString(3));
-        this.setEmvPdlTableId30Flag(stringParser.readString(1));
-        this.setEmvPdlNoOfCardTypes(stringParser.readInt(2));
-        List<EMVPDLCardTypesTable> cardTypes = new ArrayList<>();
-        for (int index = 0; index < this.getEmvPdlNoOfCardTypes(); index++) {
-            EMVPDLCardTypesTable card = new EMVPDLCardTypesTable();
-            card.setEmvPdlCardType(stringParser.readStringConstant(2, EmvPDLCardType.class));
-            card.setEmvPdlTableId40Version(stringParser.readString(3));
-            card.setEmvPdlTableId40Flag(stringParser.readString(1));
-            card.setEmvPdlTableId50Version(stringParser.readString(3));
-            card.setEmvPdlTableId50Flag(stringParser.readString(1));
-            card.setEmvPdlTableId60Version(stringParser.readString(3));
-            card.setEmvPdlTableId60Flag(stringParser.readString(1));
-            cardTypes.add(card);
-        }
-        this.setEmvPdlCardTypes(cardTypes);
+    static final RecordLayout<EMVPDLCardTypesTable> CARD_TYPE_LAYOUT = RecordLayout.<EMVPDLCardTypesTable>builder()
+            .constant(2, EmvPDLCardType.class, EMVPDLCardTypesTable::setEmvPdlCardType)
+            .string(3, EMVPDLCardTypesTable::setEmvPdlTableId40Version)
+            .string(1, EMVPDLCardTypesTable::setEmvPdlTableId40Flag)
+            .string(3, EMVPDLCardTypesTable::setEmvPdlTableId50Version)
+            .string(1, EMVPDLCardTypesTable::setEmvPdlTableId50Flag)
+            .string(3, EMVPDLCardTypesTable::setEmvPdlTableId60Version)
+            .string(1, EMVPDLCardTypesTable::setEmvPdlTableId60Flag)
+            .build();
+
+    private static final RecordLayout<EMVPDLTable10> LAYOUT = RecordLayout.<EMVPDLTable10>builder()
+            .string(1, EMVPDLTable10::setEmvPdlEnabled)
+            .string(3, EMVPDLTable10::setEmvPdlTableId30Version)
+            .string(1, EMVPDLTable10::setEmvPdlTableId30Flag)
+            .integer(2, EMVPDLTable10::setEmvPdlNoOfCardTypes)
+            .records(EMVPDLTable10::getEmvPdlNoOfCardTypes, EMVPDLCardTypesTable::new, CARD_TYPE_LAYOUT, EMVPDLTable10::setEmvPdlCardTypes)
+            .build();
 
+    @Override
+    public <T extends IEMVPDLTable> EMVPDLTable<T> parseData(RecordReader reader) {
+        LAYOUT.decode(reader, this);
         return new EMVPDLTable(this);
     }
 
@@ -1,12 +1,12 @@
 package com.global.api.network.entities.emvpdl;
 
 import com.global.api.network.enums.nts.EmvPDLCardType;
-import com.global.api.utils.StringParser;
+import com.global.api.utils.RecordLayout;
+import com.global.api.utils.RecordReader;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.ToString;
 
-import java.util.ArrayList;
 import java.util.List;
 
 @ToString
@@ -22,40 +22,29 @@ public class EMVPDLTable10V2 implements IEMVPDLTable {
     @Setter
     private List<TableVersionsFlags> tableVersionsFlags;
 
-    @Override
-    public EMVPDLTable parseData(StringParser stringParser) {
-        this.setEmvTableDataBlockLength(stringParser.readInt(3));
-        this.setEmvCdlConfigurationCount(stringParser.readInt(2));
-        List<TableVersionsFlags> versionsFlags = new ArrayList<>();
-        for (int versionIndex = 0; versionIndex < this.getEmvCdlConfigurationCount(); versionIndex++) {
-            TableVersionsFlags tableVersionsFlag = new TableVersionsFlags();
-            tableVersionsFlag.setEmvPdlConfigurationName(stringParser.readString(40));
-            tableVersionsFlag.setEmvPdlEnabled(stringParser.readString(1));
-            tableVersionsFlag.setEmvPdlTableId30Version(stringParser.readString(3));
-            tableVersionsFlag.setEmvPdlTableId30Flag(stringParser.readString(1));
-            tableVersionsFlag.setEmvPdlNoOfCardTypes(stringParser.readInt(2));
-            List<EMVPDLCardTypesTable> cardTypes = new ArrayList<>();
-            for (int index = 0; index < tableVersionsFlag.getEmvPdlNoOfCardTypes(); index++) {
-                EMVPDLCardTypesTable card = new EMVPDLCardTypesTable();
-                card.setEmvPdlCardType(stringParser.readStringConstant(2, EmvPDLCardType.class));
-                card.setEmvPdlTableId40Version(stringParser.readString(3));
-                card.setEmvPdlTableId40Flag(stringParser.readString(1));
-                card.setEmvPdlTableId50Version(stringParser.readString(3));
-                card.setEmvPdlTableId50Flag(stringParser.readString(1));
-                card.setEmvPdlTableId60Version(stringParser.readString(3));
-                card.setEmvPdlTableId60Flag(stringParser.readString(1));
-                cardTypes.add(card);
-            }
-            tableVersionsFlag.setEmvPdlCardTypes(cardTypes);
-            versionsFlags.add(tableVersionsFlag);
-        }
-        this.setTableVersionsFlags(versionsFlags);
+    private static final RecordLayout<TableVersionsFlags> CONFIGURATION_LAYOUT = RecordLayout.<TableVersionsFlags>builder()
+            .string(40, TableVersionsFlags::setEmvPdlConfigurationName)
+            .string(1, TableVersionsFlags::setEmvPdlEnabled)
+            .string(3, TableVersionsFlags::setEmvPdlTableId30Version)
+            .string(1, TableVersionsFlags::setEmvPdlTableId30Flag)
+            .integer(2, TableVersionsFlags::setEmvPdlNoOfCardTypes)
+            .records(TableVersionsFlags::getEmvPdlNoOfCardTypes, EMVPDLCardTypesTable::new, EMVPDLTable10.CARD_TYPE_LAYOUT, TableVersionsFlags::setEmvPdlCardTypes)
+            .build();
+
+    private static final RecordLayout<EMVPDLTable10V2> LAYOUT = RecordLayout.<EMVPDLTable10V2>builder()
+            .integer(3, EMVPDLTable10V2::setEmvTableDataBlockLength)
+            .integer(2, EMVPDLTable10V2::setEmvCdlConfigurationCount)
+            .records(EMVPDLTable10V2::getEmvCdlConfigurationCount, TableVersionsFlags::new, CONFIGURATION_LAYOUT, EMVPDLTable10V2::setTableVersionsFlags)
+            .build();
 
+    @Override
+    public <T extends IEMVPDLTable> EMVPDLTable<T> parseData(RecordReader reader) {
+        LAYOUT.decode(reader, this);
         return new EMVPDLTable(this);
     }
 
     @ToString
-    public class TableVersionsFlags {
+    public static class TableVersionsFlags {
         @Getter
         @Setter
         private String emvPdlConfigurationName;
@@ -1,6 +1,7 @@
 package com.global.api.network.entities.emvpdl;
 
-import com.global.api.utils.StringParser;
+import com.global.api.utils.RecordLayout;
+import com.global.api.utils.RecordReader;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.ToString;
@@ -29,15 +30,19 @@ public class EMVPDLTable30 implements IEMVPDLTable {
     @Setter
     private Integer emvPdlTransactionReferenceCurrencyExponent;
 
+    private static final RecordLayout<EMVPDLTable30> LAYOUT = RecordLayout.<EMVPDLTable30>builder()
+            .integer(2, EMVPDLTable30::setEmvPdlTerminalType)
+            .string(10, EMVPDLTable30::setEmvPdlAdditionalTerminalCapabilities)
+            .integer(3, EMVPDLTable30::setEmvPdlTerminalCountryCode)
+            .integer(3, EMVPDLTable30::setEmvPdlTransactionCurrencyCode)
+            .integer(1, EMVPDLTable30::setEmvPdlTransactionCurrencyExponent)
+            .integer(3, EMVPDLTable30::setEmvPdlTransactionReferenceCurrencyCode)
+            .integer(1, EMVPDLTable30::setEmvPdlTransactionReferenceCurrencyExponent)
+            .build();
+
     @Override
-    public EMVPDLTable parseData(StringParser stringParser) {
-        this.setEmvPdlTerminalType(stringParser.readInt(2));
-        this.setEmvPdlAdditionalTerminalCapabilities(stringParser.readString(10));
-        this.setEmvPdlTerminalCountryCode(stringParser.readInt(3));
-        this.setEmvPdlTransactionCurrencyCode(stringParser.readInt(3));
-        this.setEmvPdlTransactionCurrencyExponent(stringParser.readInt(1));
-        this.setEmvPdlTransactionReferenceCurrencyCode(stringParser.readInt(3));
-        this.setEmvPdlTransactionReferenceCurrencyExponent(stringParser.readInt(1));
+    public <T extends IEMVPDLTable> EMVPDLTable<T> parseData(RecordReader reader) {
+        LAYOUT.decode(reader, this);
         return new EMVPDLTable(this);
     }
 
@@ -1,11 +1,11 @@
 package com.global.api.network.entities.emvpdl;
 
-import com.global.api.utils.StringParser;
+import com.global.api.utils.RecordLayout;
+import com.global.api.utils.RecordReader;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.ToString;
 
-import java.util.ArrayList;
 import java.util.List;
 
 @ToString
@@ -19,37 +19,38 @@ public class EMVPDLTable40 implements IEMVPDLTable {
     @Setter
     private List<EmvPdlContactApplicationIdentifier> emvPdlAid;
 
-    @Override
-    public <T extends IEMVPDLTable> EMVPDLTable<T> parseData(StringParser stringParser) {
-        this.setEmvPdlAidCount(stringParser.readInt(2));
-        List<EmvPdlContactApplicationIdentifier> applicationIdentifiers = new ArrayList<>();
-        for (int index = 0; index < this.getEmvPdlAidCount(); index++) {
-            EmvPdlContactApplicationIdentifier identifier = new EmvPdlContactApplicationIdentifier();
-            identifier.setEmvPdlApplicationIdentifier(stringParser.readString(32));
-            identifier.setEmvPdlApplicationSelectionIndicator(stringParser.readInt(1));
-            identifier.setEmvPdlApplicationVersionNumber(stringParser.readString(4));
-            identifier.setEmvPdlApplicationCountryCode(stringParser.readInt(3));
-            identifier.setEmvPdlTransactionTypes(stringParser.readString(4));
-            identifier.setEmvPdlTerminalCapabilities(stringParser.readString(6));
-            identifier.setEmvPdlTerminalFloorLimit(stringParser.readInt(12));
-            identifier.setEmvPdlThresholdValueForBiasedRandomSelection(stringParser.readInt(12));
-            identifier.setEmvPdlTargetPercentageToBeUsedForRandomSelection(stringParser.readInt(2));
-            identifier.setEmvPdlMaximumTargetPercentageToBeUsedForBiasedRandomSelection(stringParser.readInt(2));
-            identifier.setTacDenial(stringParser.readString(10));
-            identifier.setTacOnline(stringParser.readString(10));
-            identifier.setTacDefault(stringParser.readString(10));
-            identifier.setEmvPdlTerminalRiskManagementData(stringParser.readString(16));
-            identifier.setEmvPdlDefaultTransactionCertificateDataObjectList(stringParser.readString(32));
-            identifier.setEmvPdlDefaultDynamicDataAuthenticationDataObjectList(stringParser.readString(32));
+    private static final RecordLayout<EmvPdlContactApplicationIdentifier> AID_LAYOUT = RecordLayout.<EmvPdlContactApplicationIdentifier>builder()
+            .string(32, EmvPdlContactApplicationIdentifier::setEmvPdlApplicationIdentifier)
+            .integer(1, EmvPdlContactApplicationIdentifier::setEmvPdlApplicationSelectionIndicator)
+            .string(4, EmvPdlContactApplicationIdentifier::setEmvPdlApplicationVersionNumber)
+            .integer(3, EmvPdlContactApplicationIdentifier::setEmvPdlApplicationCountryCode)
+            .string(4, EmvPdlContactApplicationIdentifier::setEmvPdlTransactionTypes)
+            .string(6, EmvPdlContactApplicationIdentifier::setEmvPdlTerminalCapabilities)
+            .integer(12, EmvPdlContactApplicationIdentifier::setEmvPdlTerminalFloorLimit)
+            .integer(12, EmvPdlContactApplicationIdentifier::setEmvPdlThresholdValueForBiasedRandomSelection)
+            .integer(2, EmvPdlContactApplicationIdentifier::setEmvPdlTargetPercentageToBeUsedForRandomSelection)
+            .integer(2, EmvPdlContactApplicationIdentifier::setEmvPdlMaximumTargetPercentageToBeUsedForBiasedRandomSelection)
+            .string(10, EmvPdlContactApplicationIdentifier::setTacDenial)
+            .string(10, EmvPdlContactApplicationIdentifier::setTacOnline)
+            .string(10, EmvPdlContactApplicationIdentifier::setTacDefault)
+            .string(16, EmvPdlContactApplicationIdentifier::setEmvPdlTerminalRiskManagementData)
+            .string(32, EmvPdlContactApplicationIdentifier::setEmvPdlDefaultTransactionCertificateDataObjectList)
+            .string(32, EmvPdlContactApplicationIdentifier::setEmvPdlDefaultDynamicDataAuthenticationDataObjectList)
+            .build();
+
+    private static final RecordLayout<EMVPDLTable40> LAYOUT = RecordLayout.<EMVPDLTable40>builder()
+            .integer(2, EMVPDLTable40::setEmvPdlAidCount)
+            .records(EMVPDLTable40::getEmvPdlAidCount, EmvPdlContactApplicationIdentifier::new, AID_LAYOUT, EMVPDLTable40::setEmvPdlAid)
+            .build();
 
-            applicationIdentifiers.add(identifier);
-        }
-        this.setEmvPdlAid(applicationIdentifiers);
+    @Override
+    public <T extends IEMVPDLTable> EMVPDLTable<T> parseData(RecordReader reader) {
+        LAYOUT.decode(reader, this);
         return new EMVPDLTable(this);
     }
 
     @ToString
-    public class EmvPdlContactApplicationIdentifier {
+    public static class EmvPdlContactApplicationIdentifier {
         @Getter
         @Setter
         private String emvPdlApplicationIdentifier;
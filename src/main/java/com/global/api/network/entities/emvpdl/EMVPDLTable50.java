@@ -1,11 +1,11 @@
 package com.global.api.network.entities.emvpdl;
 
-import com.global.api.utils.StringParser;
+import com.global.api.utils.RecordLayout;
+import com.global.api.utils.RecordReader;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.ToString;
 
-import java.util.ArrayList;
 import java.util.List;
 
 @ToString
@@ -18,36 +18,38 @@ public class EMVPDLTable50 implements IEMVPDLTable {
     @Setter
     private List<EmvPdlContactLessApplicationIdentifier> emvPdlAid;
 
+    private static final RecordLayout<EmvPdlContactLessApplicationIdentifier> AID_LAYOUT = RecordLayout.<EmvPdlContactLessApplicationIdentifier>builder()
+            .string(32, EmvPdlContactLessApplicationIdentifier::setEmvPdlApplicationIdentifier)
+            .integer(1, EmvPdlContactLessApplicationIdentifier::setEmvPdlApplicationSelectionIndicator)
+            .string(4, EmvPdlContactLessApplicationIdentifier::setEmvPdlApplicationVersionNumber)
+            .string(4, EmvPdlContactLessApplicationIdentifier::setEmvPdlMagstripeApplicationVersionNumber)
+            .integer(3, EmvPdlContactLessApplicationIdentifier::setEmvPdlApplicationCountryCode)
+            .string(4, EmvPdlContactLessApplicationIdentifier::setEmvPdlTransactionTypes)
+            .string(6, EmvPdlContactLessApplicationIdentifier::setEmvPdlTerminalCapabilities)
+            .integer(12, EmvPdlContactLessApplicationIdentifier::setEmvPdlTerminalContactlessFloorLimit)
+            .integer(12, EmvPdlContactLessApplicationIdentifier::setEmvPdlTerminalCvmRequiredLimit)
+            .integer(12, EmvPdlContactLessApplicationIdentifier::setEmvPdlTerminalContactlessTransactionLimit)
+            .string(10, EmvPdlContactLessApplicationIdentifier::setTacDenial)
+            .string(10, EmvPdlContactLessApplicationIdentifier::setTacOnline)
+            .string(10, EmvPdlContactLessApplicationIdentifier::setTacDefault)
+            .string(8, EmvPdlContactLessApplicationIdentifier::setEmvPdlTerminalTransactionQualifiers)
+            .string(16, EmvPdlContactLessApplicationIdentifier::setEmvPdlTerminalRiskManagementData)
+            .string(32, EmvPdlContactLessApplicationIdentifier::setEmvPdlDefaultTransactionCertificateDataObjectList)
+            .build();
+
+    private static final RecordLayout<EMVPDLTable50> LAYOUT = RecordLayout.<EMVPDLTable50>builder()
+            .integer(2, EMVPDLTable50::setEmvPdlAidCount)
+            .records(EMVPDLTable50::getEmvPdlAidCount, EmvPdlContactLessApplicationIdentifier::new, AID_LAYOUT, EMVPDLTable50::setEmvPdlAid)
+            .build();
+
     @Override
-    public <T extends IEMVPDLTable> EMVPDLTable<T> parseData(StringParser stringParser) {
-        this.setEmvPdlAidCount(stringParser.readInt(2));
-        List<EmvPdlContactLessApplicationIdentifier> applicationIdentifiers = new ArrayList<>();
-        for (int index = 0; index < this.getEmvPdlAidCount(); index++) {
-            EmvPdlContactLessApplicationIdentifier identifier = new EmvPdlContactLessApplicationIdentifier();
-            identifier.setEmvPdlApplicationIdentifier(stringParser.readString(32));
-            identifier.setEmvPdlApplicationSelectionIndicator(stringParser.readInt(1));
-            identifier.setEmvPdlApplicationVersionNumber(stringParser.readString(4));
-            identifier.setEmvPdlMagstripeApplicationVersionNumber(stringParser.readString(4));
-            identifier.setEmvPdlApplicationCountryCode(stringParser.readInt(3));
-            identifier.setEmvPdlTransactionTypes(stringParser.readString(4));
-            identifier.setEmvPdlTerminalCapabilities(stringParser.readString(6));
-            identifier.setEmvPdlTerminalContactlessFloorLimit(stringParser.readInt(12));
-            identifier.setEmvPdlTerminalCvmRequiredLimit(stringParser.readInt(12));
-            identifier.setEmvPdlTerminalContactlessTransactionLimit(stringParser.readInt(12));
-            identifier.setTacDenial(stringParser.readString(10));
-            identifier.setTacOnline(stringParser.readString(10));
-            identifier.setTacDefault(stringParser.readString(10));
-            identifier.setEmvPdlTerminalTransactionQualifiers(stringParser.readString(8));
-            identifier.setEmvPdlTerminalRiskManagementData(stringParser.readString(16));
-            identifier.setEmvPdlDefaultTransactionCertificateDataObjectList(stringParser.readString(32));
-            applicationIdentifiers.add(identifier);
-        }
-        this.setEmvPdlAid(applicationIdentifiers);
+    public <T extends IEMVPDLTable> EMVPDLTable<T> parseData(RecordReader reader) {
+        LAYOUT.decode(reader, this);
         return new EMVPDLTable(this);
     }
 
     @ToString
-    public class EmvPdlContactLessApplicationIdentifier {
+    public static class EmvPdlContactLessApplicationIdentifier {
         @Getter
         @Setter
         private String emvPdlApplicationIdentifier;
@@ -1,12 +1,12 @@
 package com.global.api.network.entities.emvpdl;
 
 import com.global.api.network.enums.nts.EMVPDLKeyStatus;
-import com.global.api.utils.StringParser;
+import com.global.api.utils.RecordLayout;
+import com.global.api.utils.RecordReader;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.ToString;
 
-import java.util.ArrayList;
 import java.util.List;
 
 @ToString
@@ -18,29 +18,32 @@ public class EMVPDLTable60 implements IEMVPDLTable {
     @Setter
     private List<EmvPdlKey> emvPdlKeys;
 
+    private static final RecordLayout<EmvPdlKey> KEY_LAYOUT = RecordLayout.<EmvPdlKey>builder()
+            .string(10, EmvPdlKey::setEmvPdlRegisteredApplicationProviderIdentifier)
+            .string(2, EmvPdlKey::setEmvPdlCertificationAuthorityPublicKeyIndex)
+            .constant(1, EMVPDLKeyStatus.class, EmvPdlKey::setEmvPdlKeyStatus)
+            // the public key is only sent for active keys
+            .when(key -> EMVPDLKeyStatus.Active.equals(key.getEmvPdlKeyStatus()), RecordLayout.<EmvPdlKey>builder()
+                    .integer(4, EmvPdlKey::setEmvPdlCertificationAuthorityPublicKeyModulusLength)
+                    .string(EmvPdlKey::getEmvPdlCertificationAuthorityPublicKeyModulusLength, EmvPdlKey::setEmvPdlCertificationAuthorityPublicKeyModulus)
+                    .string(2, EmvPdlKey::setEmvPdlCertificationAuthorityPublicKeyExponent)
+                    .string(40, EmvPdlKey::setEmvPdlCertificationAuthorityPublicKeyCheckSum)
+                    .build())
+            .build();
+
+    private static final RecordLayout<EMVPDLTable60> LAYOUT = RecordLayout.<EMVPDLTable60>builder()
+            .integer(2, EMVPDLTable60::setEmvPdlKeyCount)
+            .records(EMVPDLTable60::getEmvPdlKeyCount, EmvPdlKey::new, KEY_LAYOUT, EMVPDLTable60::setEmvPdlKeys)
+            .build();
+
     @Override
-    public <T extends IEMVPDLTable> EMVPDLTable<T> parseData(StringParser stringParser) {
-        this.setEmvPdlKeyCount(stringParser.readInt(2));
-        List<EmvPdlKey> keys = new ArrayList<>();
-        for (int index = 0; index < this.getEmvPdlKeyCount(); index++) {
-            EmvPdlKey key = new EmvPdlKey();
-            key.setEmvPdlRegisteredApplicationProviderIdentifier(stringParser.readString(10));
-            key.setEmvPdlCertificationAuthorityPublicKeyIndex(stringParser.readString(2));
-            key.setEmvPdlKeyStatus(stringParser.readStringConstant(1, EMVPDLKeyStatus.class));
-            if (key.getEmvPdlKeyStatus().equals(EMVPDLKeyStatus.Active)) {
-                key.setEmvPdlCertificationAuthorityPublicKeyModulusLength(stringParser.readInt(4));
-                key.setEmvPdlCertificationAuthorityPublicKeyModulus(stringParser.readString(key.getEmvPdlCertificationAuthorityPublicKeyModulusLength()));
-                key.setEmvPdlCertificationAuthorityPublicKeyExponent(stringParser.readString(2));
-                key.setEmvPdlCertificationAuthorityPublicKeyCheckSum(stringParser.readString(40));
-            }
-            keys.add(key);
-        }
-        this.setEmvPdlKeys(keys);
+    public <T extends IEMVPDLTable> EMVPDLTable<T> parseData(RecordReader reader) {
+        LAYOUT.decode(reader, this);
         return new EMVPDLTable(this);
     }
 
     @ToString
-    public class EmvPdlKey {
+    public static class EmvPdlKey {
         @Getter
         @Setter
         private String emvPdlRegisteredApplicationProviderIdentifier;
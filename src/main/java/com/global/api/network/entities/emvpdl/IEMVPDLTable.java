@@ -1,29 +1,32 @@
 package com.global.api.network.entities.emvpdl;
 
 import com.global.api.network.enums.nts.PDLTableID;
+import com.global.api.utils.RecordReader;
 import com.global.api.utils.StringParser;
 import lombok.NonNull;
 
+import java.nio.charset.StandardCharsets;
+
 public interface IEMVPDLTable {
     static EMVPDLTable parseData(@NonNull String data,@NonNull PDLTableID tableId) {
+        RecordReader reader = new RecordReader(data.getBytes(StandardCharsets.ISO_8859_1));
         if (tableId.equals(PDLTableID.Table10)) {
-            IEMVPDLTable table = new EMVPDLTable10V2();
-            return table.parseData(new StringParser(data));
+            return new EMVPDLTable10V2().parseData(reader);
         } else if (tableId.equals(PDLTableID.Table30)) {
-            IEMVPDLTable table = new EMVPDLTable30();
-            return table.parseData(new StringParser(data));
+            return new EMVPDLTable30().parseData(reader);
         } else if (tableId.equals(PDLTableID.Table40)) {
-            IEMVPDLTable table = new EMVPDLTable40();
-            return table.parseData(new StringParser(data));
+            return new EMVPDLTable40().parseData(reader);
         } else if (tableId.equals(PDLTableID.Table50)) {
-            IEMVPDLTable table = new EMVPDLTable50();
-            return table.parseData(new StringParser(data));
+            return new EMVPDLTable50().parseData(reader);
         } else if (tableId.equals(PDLTableID.Table60)) {
-            IEMVPDLTable table = new EMVPDLTable60();
-            return table.parseData(new StringParser(data));
+            return new EMVPDLTable60().parseData(reader);
         }
         return null;
     }
 
-    <T extends IEMVPDLTable> EMVPDLTable<T> parseData(StringParser stringParser);
+    default <T extends IEMVPDLTable> EMVPDLTable<T> parseData(StringParser stringParser) {
+        return parseData(new RecordReader(stringParser.readRemainingBytes()));
+    }
+
+    <T extends IEMVPDLTable> EMVPDLTable<T> parseData(RecordReader reader);
 }
@@ -36,7 +36,9 @@ public class MapGnapFids {
 
     public void add(GnapFIDS id,String value) {
         if (value != null) {
-            GnapUtils.log("FID " + id.getValue() + " (" + id.getFidDesc() + ")", value);
+            if (GnapUtils.isLogging()) {
+                GnapUtils.log("FID " + id.getValue() + " (" + id.getFidDesc() + ")", value);
+            }
             mr.add(ControlCodes.FS);
             mr.addRange(id.getBytes());
             mr.addRange(value.getBytes());
@@ -44,7 +46,9 @@ public class MapGnapFids {
     }
     public void add(GnapSubFids id,String value) {
         if (value != null) {
-            GnapUtils.log("SUBFID " + id.getValue() + " (" + id.getFidDesc() + ")", value);
+            if (GnapUtils.isLogging()) {
+                GnapUtils.log("SUBFID " + id.getValue() + " (" + id.getFidDesc() + ")", value);
+            }
             mr.add(ControlCodes.RS);
             mr.addRange(id.getBytes());
             mr.addRange(value.getBytes());
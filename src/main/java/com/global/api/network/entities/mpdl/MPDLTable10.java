@@ -1,6 +1,7 @@
 package com.global.api.network.entities.mpdl;
 
-import com.global.api.utils.StringParser;
+import com.global.api.utils.RecordLayout;
+import com.global.api.utils.RecordReader;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.ToString;
@@ -87,38 +88,39 @@ public class MPDLTable10 implements IMPDLTable {
     @Setter
     private String brand;
 
-    @Override
-    public <T extends IMPDLTable> MPDLTable<T> parseTableData(StringParser sp) {
-
-        // START OF NETWORK DATA
-        this.setAccessCode(sp.readString(2));
-        this.setPrimaryDialNumberOrPrimaryIpAddress(sp.readString(28));
-        this.setSecondaryDialNumberOrSecondaryIpAddress(sp.readString(28));
-        this.setDownloadNumberOrDownloadIpAddress(sp.readString(28));
-        this.setPollCode(sp.readString(2));
-        this.setUnitOrLocationName(sp.readString(20));
-        this.setUnitOrLocationAddress(sp.readString(18));
-        this.setUnitOrLocationCity(sp.readString(16));
-        this.setUnitOrLocationState(sp.readString(2));
+    private static final RecordLayout<MPDLTable10> LAYOUT = RecordLayout.<MPDLTable10>builder()
+            // START OF NETWORK DATA
+            .string(2, MPDLTable10::setAccessCode)
+            .string(28, MPDLTable10::setPrimaryDialNumberOrPrimaryIpAddress)
+            .string(28, MPDLTable10::setSecondaryDialNumberOrSecondaryIpAddress)
+            .string(28, MPDLTable10::setDownloadNumberOrDownloadIpAddress)
+            .string(2, MPDLTable10::setPollCode)
+            .string(20, MPDLTable10::setUnitOrLocationName)
+            .string(18, MPDLTable10::setUnitOrLocationAddress)
+            .string(16, MPDLTable10::setUnitOrLocationCity)
+            .string(2, MPDLTable10::setUnitOrLocationState)
+            // START OF TABLE VERSIONS & FLAGS
+            .string(3, MPDLTable10::setCustomerDiscretionaryTableVersion)
+            .string(1, MPDLTable10::setCustomerDiscretionaryTableId30Flag)
+            .string(3, MPDLTable10::setCardDataTableVersion)
+            .string(1, MPDLTable10::setCardDataTableId40Flag)
+            .string(3, MPDLTable10::setBinRangeTableVersion)
+            .string(1, MPDLTable10::setBinRangeTableId50Flag)
+            .string(3, MPDLTable10::setProductDataTableVersion)
+            .string(1, MPDLTable10::setProductTableId60Flag)
+            .string(3, MPDLTable10::setMessageTableVersion)
+            .string(1, MPDLTable10::setMessageTableId70Flag)
+            .string(3, MPDLTable10::setResponseCodeTableVersion)
+            .string(1, MPDLTable10::setResponseCodeTableId80Flag)
+            // START OF CUSTOMER LOCATION DISCRETIONARY DATA
+            .integer(3, MPDLTable10::setCustomerLocationDiscretionaryDataLength)
+            .string(5, MPDLTable10::setZip)
+            .string(1, MPDLTable10::setBrand)
+            .build();
 
-        // START OF TABLE VERSIONS & FLAGS
-        this.setCustomerDiscretionaryTableVersion(sp.readString(3));
-        this.setCustomerDiscretionaryTableId30Flag(sp.readString(1));
-        this.setCardDataTableVersion(sp.readString(3));
-        this.setCardDataTableId40Flag(sp.readString(1));
-        this.setBinRangeTableVersion(sp.readString(3));
-        this.setBinRangeTableId50Flag(sp.readString(1));
-        this.setProductDataTableVersion(sp.readString(3));
-        this.setProductTableId60Flag(sp.readString(1));
-        this.setMessageTableVersion(sp.readString(3));
-        this.setMessageTableId70Flag(sp.readString(1));
-        this.setResponseCodeTableVersion(sp.readString(3));
-        this.setResponseCodeTableId80Flag(sp.readString(1));
-
-        // START OF CUSTOMER LOCATION DISCRETIONARY DATA
-        this.setCustomerLocationDiscretionaryDataLength(sp.readInt(3));
-        this.setZip(sp.readString(5));
-        this.setBrand(sp.readString(1));
+    @Override
+    public <T extends IMPDLTable> MPDLTable<T> parseTableData(RecordReader reader) {
+        LAYOUT.decode(reader, this);
         return new MPDLTable(this);
     }
 }
@@ -1,6 +1,7 @@
 package com.global.api.network.entities.mpdl;
 
-import com.global.api.utils.StringParser;
+import com.global.api.utils.RecordLayout;
+import com.global.api.utils.RecordReader;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.ToString;
@@ -69,28 +70,32 @@ public class MPDLTable30 implements IMPDLTable {
     @Setter
     private String debitPromptFlag;
 
+    private static final RecordLayout<MPDLTable30> LAYOUT = RecordLayout.<MPDLTable30>builder()
+            .integer(2, MPDLTable30::setBatchSize)
+            .integer(3, MPDLTable30::setResendDelay)
+            .integer(2, MPDLTable30::setBatchResendDelay)
+            .integer(1, MPDLTable30::setBatchVelocityInsideStandIn)
+            .integer(1, MPDLTable30::setBatchVelocityOutsideStandIn)
+            .integer(1, MPDLTable30::setBatchVelocityOutsideOnLine)
+            .integer(2, MPDLTable30::setIdleTime)
+            .integer(2, MPDLTable30::setPumpTimeout)
+            .string(1, MPDLTable30::setSiteStandIn)
+            .integer(5, MPDLTable30::setStandInLimitCount)
+            .string(4, MPDLTable30::setStandInLimitHours)
+            .integer(2, MPDLTable30::setStorageLimit)
+            .integer(2, MPDLTable30::setBatchCloseTimer)
+            .string(1, MPDLTable30::setAvsFlag)
+            .string(1, MPDLTable30::setCvnFlag)
+            .string(1, MPDLTable30::setSvActivation)
+            .integer(3, MPDLTable30::setSvChargeLow)
+            .integer(3, MPDLTable30::setSvChargeHigh)
+            .integer(3, MPDLTable30::setCobrandVariable)
+            .string(1, MPDLTable30::setDebitPromptFlag)
+            .build();
+
     @Override
-    public <T extends IMPDLTable> MPDLTable<T> parseTableData(StringParser sp) {
-        this.setBatchSize(sp.readInt(2));
-        this.setResendDelay(sp.readInt(3));
-        this.setBatchResendDelay(sp.readInt(2));
-        this.setBatchVelocityInsideStandIn(sp.readInt(1));
-        this.setBatchVelocityOutsideStandIn(sp.readInt(1));
-        this.setBatchVelocityOutsideOnLine(sp.readInt(1));
-        this.setIdleTime(sp.readInt(2));
-        this.setPumpTimeout(sp.readInt(2));
-        this.setSiteStandIn(sp.readString(1));
-        this.setStandInLimitCount(sp.readInt(5));
-        this.setStandInLimitHours(sp.readString(4));
-        this.setStorageLimit(sp.readInt(2));
-        this.setBatchCloseTimer(sp.readInt(2));
-        this.setAvsFlag(sp.readString(1));
-        this.setCvnFlag(sp.readString(1));
-        this.setSvActivation(sp.readString(1));
-        this.setSvChargeLow(sp.readInt(3));
-        this.setSvChargeHigh(sp.readInt(3));
-        this.setCobrandVariable(sp.readInt(3));
-        this.setDebitPromptFlag(sp.readString(1));
+    public <T extends IMPDLTable> MPDLTable<T> parseTableData(RecordReader reader) {
+        LAYOUT.decode(reader, this);
         return new MPDLTable(this);
     }
 }
@@ -1,12 +1,12 @@
 package com.global.api.network.entities.mpdl;
 
 import com.global.api.network.enums.NTSCardTypes;
-import com.global.api.utils.StringParser;
+import com.global.api.utils.RecordLayout;
+import com.global.api.utils.RecordReader;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.ToString;
 
-import java.util.ArrayList;
 import java.util.List;
 
 @ToString
@@ -17,36 +17,38 @@ public class MPDLTable40 implements IMPDLTable{
     @Getter @Setter
     private List<MPDLTable40Card> cards;
 
-    @Override
-    public <T extends IMPDLTable> MPDLTable<T> parseTableData(StringParser sp) {
-        this.setNoOfCardTypes(sp.readInt(2));
+    private static final RecordLayout<MPDLTable40Card> CARD_LAYOUT = RecordLayout.<MPDLTable40Card>builder()
+            .string(2, MPDLTable40Card::setCustomerCardType)
+            .constant(2, NTSCardTypes.class, MPDLTable40Card::setHostCardType)
+            .string(9, MPDLTable40Card::setPaymentDescription)
+            .string(1, MPDLTable40Card::setCobrandMsgFlag)
+            .integer(2, MPDLTable40Card::setTimeOut)
+            .string(1, MPDLTable40Card::setAcceptFlag)
+            .string(1, MPDLTable40Card::setManualEntry)
+            .integer(4, MPDLTable40Card::setAuthAmount)
+            .string(1, MPDLTable40Card::setPreAuthControlFlag)
+            .string(1, MPDLTable40Card::setPostEntryFlag)
+            .string(1, MPDLTable40Card::setSplitPaymentFlag)
+            .string(1, MPDLTable40Card::setRefundFlag)
+            .string(1, MPDLTable40Card::setAvsConfigFlag)
+            .string(1, MPDLTable40Card::setCvnConfigFlag)
+            .integer(3, MPDLTable40Card::setStandInLimit)
+            .integer(4, MPDLTable40Card::setPreset$ForPump)
+            .integer(2, MPDLTable40Card::setSignatureLimit)
+            .string(1, MPDLTable40Card::setAppliedDiscountFlag)
+            .string(4, MPDLTable40Card::setAmountPerGallonDiscount)
+            .string(4, MPDLTable40Card::setPercentDiscount)
+            .string(1, MPDLTable40Card::setCustomerDefined)
+            .build();
+
+    private static final RecordLayout<MPDLTable40> LAYOUT = RecordLayout.<MPDLTable40>builder()
+            .integer(2, MPDLTable40::setNoOfCardTypes)
+            .records(MPDLTable40::getNoOfCardTypes, MPDLTable40Card::new, CARD_LAYOUT, MPDLTable40::setCards)
+            .build();
 
-        this.cards = new ArrayList<>();
-        for(int index = 0; index < this.noOfCardTypes; index++) {
-            MPDLTable40Card card = new MPDLTable40Card();
-            card.setCustomerCardType(sp.readString(2));
-            card.setHostCardType(sp.readStringConstant(2, NTSCardTypes.class));
-            card.setPaymentDescription(sp.readString(9));
-            card.setCobrandMsgFlag(sp.readString(1));
-            card.setTimeOut(sp.readInt(2));
-            card.setAcceptFlag(sp.readString(1));
-            card.setManualEntry(sp.readString(1));
-            card.setAuthAmount(sp.readInt(4));
-            card.setPreAuthControlFlag(sp.readString(1));
-            card.setPostEntryFlag(sp.readString(1));
-            card.setSplitPaymentFlag(sp.readString(1));
-            card.setRefundFlag(sp.readString(1));
-            card.setAvsConfigFlag(sp.readString(1));
-            card.setCvnConfigFlag(sp.readString(1));
-            card.setStandInLimit(sp.readInt(3));
-            card.setPreset$ForPump(sp.readInt(4));
-            card.setSignatureLimit(sp.readInt(2));
-            card.setAppliedDiscountFlag(sp.readString(1));
-            card.setAmountPerGallonDiscount(sp.readString(4));
-            card.setPercentDiscount(sp.readString(4));
-            card.setCustomerDefined(sp.readString(1));
-            this.cards.add(card);
-        }
+    @Override
+    public <T extends IMPDLTable> MPDLTable<T> parseTableData(RecordReader reader) {
+        LAYOUT.decode(reader, this);
         return new MPDLTable(this);
     }
 }
@@ -1,12 +1,12 @@
 package com.global.api.network.entities.mpdl;
 
 import com.global.api.network.enums.NTSCardTypes;
-import com.global.api.utils.StringParser;
+import com.global.api.utils.RecordLayout;
+import com.global.api.utils.RecordReader;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.ToString;
 
-import java.util.ArrayList;
 import java.util.List;
 
 @ToString
@@ -19,32 +19,32 @@ public class MPDLTable50 implements IMPDLTable {
     @Setter
     private List<Card> cards;
 
-    @Override
-    public <T extends IMPDLTable> MPDLTable<T> parseTableData(StringParser sp) {
-        this.setNoOfCardTypes(sp.readInt(2));
+    private static final RecordLayout<BinRanges> BIN_RANGE_LAYOUT = RecordLayout.<BinRanges>builder()
+            .string(19, BinRanges::setBinStart)
+            .string(1, BinRanges::setDebitCapable)
+            .string(19, BinRanges::setBinEnd)
+            .build();
+
+    private static final RecordLayout<Card> CARD_LAYOUT = RecordLayout.<Card>builder()
+            .string(2, Card::setCustomerCardType)
+            .constant(2, NTSCardTypes.class, Card::setHostCardType)
+            .integer(3, Card::setBinRangeCount)
+            .records(Card::getBinRangeCount, BinRanges::new, BIN_RANGE_LAYOUT, Card::setBinRanges)
+            .build();
 
-        this.cards = new ArrayList<>();
-        for (int index = 0; index < this.noOfCardTypes; index++) {
-            Card card = new Card();
-            card.setCustomerCardType(sp.readString(2));
-            card.setHostCardType(sp.readStringConstant(2, NTSCardTypes.class));
-            card.setBinRangeCount(sp.readInt(3));
-            List<BinRanges> binRanges = new ArrayList<>();
-            for (int binIndex = 0; binIndex < card.getBinRangeCount(); binIndex++) {
-                BinRanges range = new BinRanges();
-                range.setBinStart(sp.readString(19));
-                range.setDebitCapable(sp.readString(1));
-                range.setBinEnd(sp.readString(19));
-                binRanges.add(range);
-            }
-            card.setBinRanges(binRanges);
-            this.cards.add(card);
-        }
+    private static final RecordLayout<MPDLTable50> LAYOUT = RecordLayout.<MPDLTable50>builder()
+            .integer(2, MPDLTable50::setNoOfCardTypes)
+            .records(MPDLTable50::getNoOfCardTypes, Card::new, CARD_LAYOUT, MPDLTable50::setCards)
+            .build();
+
+    @Override
+    public <T extends IMPDLTable> MPDLTable<T> parseTableData(RecordReader reader) {
+        LAYOUT.decode(reader, this);
         return new MPDLTable(this);
     }
 
     @ToString
-    public class Card {
+    public static class Card {
         @Getter
         @Setter
         private String customerCardType;
@@ -60,7 +60,7 @@ public class MPDLTable50 implements IMPDLTable {
     }
 
     @ToString
-    public class BinRanges {
+    public static class BinRanges {
         @Getter
         @Setter
         private String binStart;
@@ -1,11 +1,11 @@
 package com.global.api.network.entities.mpdl;
 
-import com.global.api.utils.StringParser;
+import com.global.api.utils.RecordLayout;
+import com.global.api.utils.RecordReader;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.ToString;
 
-import java.util.ArrayList;
 import java.util.List;
 
 @ToString
@@ -18,33 +18,32 @@ public class MPDLTable60 implements IMPDLTable {
     @Setter
     private List<Products> products;
 
-    @Override
-    public <T extends IMPDLTable> MPDLTable<T> parseTableData(StringParser sp) {
-        this.setNoOfProducts(sp.readInt(3));
-        this.products = new ArrayList<>();
+    private static final RecordLayout<Cards> CARD_LAYOUT = RecordLayout.<Cards>builder()
+            .integer(2, Cards::setHostCardType)
+            .integer(1, Cards::setProductCodeLength)
+            .string(Cards::getProductCodeLength, Cards::setProductCode)
+            .build();
+
+    private static final RecordLayout<Products> PRODUCT_LAYOUT = RecordLayout.<Products>builder()
+            .string(40, Products::setReceiptDescription)
+            .string(3, Products::setConexxusCode)
+            .integer(2, Products::setNoOfCardTypes)
+            .records(Products::getNoOfCardTypes, Cards::new, CARD_LAYOUT, Products::setCards)
+            .build();
 
-        for (int index = 0; index < this.getNoOfProducts(); index++) {
-            Products product = new Products();
-            product.setReceiptDescription(sp.readString(40));
-            product.setConexxusCode(sp.readString(3));
-            product.setNoOfCardTypes(sp.readInt(2));
-            List<Cards> cards = new ArrayList<>();
-            for (int cardIndex = 0; cardIndex < product.getNoOfCardTypes(); cardIndex++) {
-                Cards card = new Cards();
-                card.setHostCardType(sp.readInt(2));
-                card.setProductCodeLength(sp.readInt(1));
-                card.setProductCode(sp.readString(card.getProductCodeLength()));
-                cards.add(card);
-            }
-            product.setCards(cards);
-            products.add(product);
-        }
-        this.setProducts(products);
+    private static final RecordLayout<MPDLTable60> LAYOUT = RecordLayout.<MPDLTable60>builder()
+            .integer(3, MPDLTable60::setNoOfProducts)
+            .records(MPDLTable60::getNoOfProducts, Products::new, PRODUCT_LAYOUT, MPDLTable60::setProducts)
+            .build();
+
+    @Override
+    public <T extends IMPDLTable> MPDLTable<T> parseTableData(RecordReader reader) {
+        LAYOUT.decode(reader, this);
         return new MPDLTable(this);
     }
 
     @ToString
-    public class Products {
+    public static class Products {
         @Getter
         @Setter
         private String receiptDescription;
@@ -60,7 +59,7 @@ public class MPDLTable60 implements IMPDLTable {
     }
 
     @ToString
-    public class Cards {
+    public static class Cards {
         @Getter
         @Setter
         private Integer hostCardType;
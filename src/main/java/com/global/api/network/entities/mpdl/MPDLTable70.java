@@ -1,11 +1,11 @@
 package com.global.api.network.entities.mpdl;
 
-import com.global.api.utils.StringParser;
+import com.global.api.utils.RecordLayout;
+import com.global.api.utils.RecordReader;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.ToString;
 
-import java.util.ArrayList;
 import java.util.List;
 
 @ToString
@@ -74,50 +74,30 @@ public class MPDLTable70 implements IMPDLTable {
     @Setter
     private List<String> outAppliedDiscReceiptMessages;
 
-    @Override
-    public <T extends IMPDLTable> MPDLTable<T> parseTableData(StringParser sp) {
-        this.setInReceiptMessageCode(sp.readString(2));
-        this.setNoOfInReceiptMessages(sp.readInt(2));
-        this.inReceiptMessages = new ArrayList<>();
-        for (int inReceiptIndex = 0; inReceiptIndex < this.getNoOfInReceiptMessages(); inReceiptIndex++) {
-            inReceiptMessages.add(sp.readString(38));
-        }
-
-        this.setOutReceiptMessageCode(sp.readString(2));
-        this.setNoOfOutReceiptMessages(sp.readInt(2));
-        this.outReceiptMessages = new ArrayList<>();
-        for (int outReceiptIndex = 0; outReceiptIndex < this.getNoOfOutReceiptMessages(); outReceiptIndex++) {
-            outReceiptMessages.add(sp.readString(18));
-        }
-
-        this.setInPotentialDiscReceiptMessageCode(sp.readString(2));
-        this.setNoOfInPotentialDiscReceiptMessages(sp.readInt(2));
-        this.inPotentialDiscReceiptMessages = new ArrayList<>();
-        for (int inPotentialIndex = 0; inPotentialIndex < this.getNoOfInPotentialDiscReceiptMessages(); inPotentialIndex++) {
-            inPotentialDiscReceiptMessages.add(sp.readString(38));
-        }
-
-        this.setOutPotentialDiscReceiptMessageCode(sp.readString(2));
-        this.setNoOfOutPotentialDiscReceiptMessages(sp.readInt(2));
-        this.outPotentialDiscReceiptMessages = new ArrayList<>();
-        for (int outPotentialIndex = 0; outPotentialIndex < this.getNoOfOutPotentialDiscReceiptMessages(); outPotentialIndex++) {
-            outPotentialDiscReceiptMessages.add(sp.readString(18));
-        }
-
-        this.setInAppliedDiscReceiptMessageCode(sp.readString(2));
-        this.setNoOfInAppliedDiscReceiptMessages(sp.readInt(2));
-        this.inAppliedDiscReceiptMessages = new ArrayList<>();
-        for (int inAppliedIndex = 0; inAppliedIndex < this.getNoOfInAppliedDiscReceiptMessages(); inAppliedIndex++) {
-            this.inAppliedDiscReceiptMessages.add(sp.readString(38));
-        }
-
-        this.setOutAppliedDiscReceiptMessageCode(sp.readString(2));
-        this.setNoOfOutAppliedDiscReceiptMessages(sp.readInt(2));
-        this.outAppliedDiscReceiptMessages = new ArrayList<>();
-        for (int outAppliedIndex = 0; outAppliedIndex < this.getNoOfOutAppliedDiscReceiptMessages(); outAppliedIndex++) {
-            outAppliedDiscReceiptMessages.add(sp.readString(18));
-        }
+    private static final RecordLayout<MPDLTable70> LAYOUT = RecordLayout.<MPDLTable70>builder()
+            .string(2, MPDLTable70::setInReceiptMessageCode)
+            .integer(2, MPDLTable70::setNoOfInReceiptMessages)
+            .strings(MPDLTable70::getNoOfInReceiptMessages, 38, MPDLTable70::setInReceiptMessages)
+            .string(2, MPDLTable70::setOutReceiptMessageCode)
+            .integer(2, MPDLTable70::setNoOfOutReceiptMessages)
+            .strings(MPDLTable70::getNoOfOutReceiptMessages, 18, MPDLTable70::setOutReceiptMessages)
+            .string(2, MPDLTable70::setInPotentialDiscReceiptMessageCode)
+            .integer(2, MPDLTable70::setNoOfInPotentialDiscReceiptMessages)
+            .strings(MPDLTable70::getNoOfInPotentialDiscReceiptMessages, 38, MPDLTable70::setInPotentialDiscReceiptMessages)
+            .string(2, MPDLTable70::setOutPotentialDiscReceiptMessageCode)
+            .integer(2, MPDLTable70::setNoOfOutPotentialDiscReceiptMessages)
+            .strings(MPDLTable70::getNoOfOutPotentialDiscReceiptMessages, 18, MPDLTable70::setOutPotentialDiscReceiptMessages)
+            .string(2, MPDLTable70::setInAppliedDiscReceiptMessageCode)
+            .integer(2, MPDLTable70::setNoOfInAppliedDiscReceiptMessages)
+            .strings(MPDLTable70::getNoOfInAppliedDiscReceiptMessages, 38, MPDLTable70::setInAppliedDiscReceiptMessages)
+            .string(2, MPDLTable70::setOutAppliedDiscReceiptMessageCode)
+            .integer(2, MPDLTable70::setNoOfOutAppliedDiscReceiptMessages)
+            .strings(MPDLTable70::getNoOfOutAppliedDiscReceiptMessages, 18, MPDLTable70::setOutAppliedDiscReceiptMessages)
+            .build();
 
+    @Override
+    public <T extends IMPDLTable> MPDLTable<T> parseTableData(RecordReader reader) {
+        LAYOUT.decode(reader, this);
         return new MPDLTable(this);
     }
 }
@@ -1,11 +1,11 @@
 package com.global.api.network.entities.mpdl;
 
-import com.global.api.utils.StringParser;
+import com.global.api.utils.RecordLayout;
+import com.global.api.utils.RecordReader;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.ToString;
 
-import java.util.ArrayList;
 import java.util.List;
 
 @ToString
@@ -17,23 +17,26 @@ public class MPDLTable80 implements IMPDLTable {
     @Setter
     private List<NtsResponseCode> ntsResponseCodes;
 
+    private static final RecordLayout<NtsResponseCode> RESPONSE_CODE_LAYOUT = RecordLayout.<NtsResponseCode>builder()
+            .integer(2, NtsResponseCode::setNtsCode)
+            .string(20, NtsResponseCode::setResponseMessage)
+            .string(20, NtsResponseCode::setPumpMessageNormal)
+            .string(20, NtsResponseCode::setPumpMessageUnattended)
+            .build();
+
+    private static final RecordLayout<MPDLTable80> LAYOUT = RecordLayout.<MPDLTable80>builder()
+            .integer(2, MPDLTable80::setResponseCodeCount)
+            .records(MPDLTable80::getResponseCodeCount, NtsResponseCode::new, RESPONSE_CODE_LAYOUT, MPDLTable80::setNtsResponseCodes)
+            .build();
+
     @Override
-    public <T extends IMPDLTable> MPDLTable<T> parseTableData(StringParser sp) {
-        this.setResponseCodeCount(sp.readInt(2));
-        this.ntsResponseCodes = new ArrayList<>();
-        for (int index = 0; index < this.getResponseCodeCount(); index++) {
-            NtsResponseCode ntsResponseCode = new NtsResponseCode();
-            ntsResponseCode.setNtsCode(sp.readInt(2));
-            ntsResponseCode.setResponseMessage(sp.readString(20));
-            ntsResponseCode.setPumpMessageNormal(sp.readString(20));
-            ntsResponseCode.setPumpMessageUnattended(sp.readString(20));
-            this.ntsResponseCodes.add(ntsResponseCode);
-        }
+    public <T extends IMPDLTable> MPDLTable<T> parseTableData(RecordReader reader) {
+        LAYOUT.decode(reader, this);
         return new MPDLTable(this);
     }
 
     @ToString
-    public class NtsResponseCode {
+    public static class NtsResponseCode {
         @Getter
         @Setter
         private Integer ntsCode;
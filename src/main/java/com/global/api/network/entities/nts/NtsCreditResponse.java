@@ -2,6 +2,7 @@ package com.global.api.network.entities.nts;
 
 import com.global.api.network.enums.AuthorizerCode;
 import com.global.api.network.enums.NTSCardTypes;
+import com.global.api.utils.RecordLayout;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -27,4 +28,29 @@ public class NtsCreditResponse {
     @Getter
     @Setter
     private	String hostResponseArea;
+
+    static final RecordLayout<NtsCreditResponse> CARD_LAYOUT = RecordLayout.<NtsCreditResponse>builder()
+            .constant("Card Type", 2, NTSCardTypes.class, NtsCreditResponse::setCardType)
+            .string("Account Number", 19, NtsCreditResponse::setAccountNumber)
+            .string("Approval Code", 6, NtsCreditResponse::setApprovalCode)
+            .build();
+
+    static final RecordLayout<NtsCreditResponse> AUTHORIZER_LAYOUT = RecordLayout.<NtsCreditResponse>builder()
+            .constant("Authorizer", 1, AuthorizerCode.class, NtsCreditResponse::setAuthorizer)
+            .build();
+
+    static final RecordLayout<NtsCreditResponse> HOST_RESPONSE_LAYOUT = RecordLayout.<NtsCreditResponse>builder()
+            .integer("Host Response Area Length", 3, NtsCreditResponse::setHostResponseLength)
+            .remaining("Host Response Area", NtsCreditResponse::setHostResponseArea)
+            .build();
+
+    static final RecordLayout<NtsCreditResponse> EMV_HOST_RESPONSE_LAYOUT = RecordLayout.<NtsCreditResponse>builder()
+            .string("Expanded User Data", 1, NtsCreditResponse::setExpandedUserData)
+            .integer("Host Response Area Length", 4, NtsCreditResponse::setHostResponseLength)
+            .remaining("Host Response Area", NtsCreditResponse::setHostResponseArea)
+            .build();
+
+    static RecordLayout<NtsCreditResponse> hostResponseLayout(boolean emvFlag) {
+        return emvFlag ? EMV_HOST_RESPONSE_LAYOUT : HOST_RESPONSE_LAYOUT;
+    }
 }
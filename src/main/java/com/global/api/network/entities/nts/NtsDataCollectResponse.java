@@ -1,8 +1,7 @@
 package com.global.api.network.entities.nts;
 
 import com.global.api.network.enums.NTSCardTypes;
-import com.global.api.utils.NtsUtils;
-import com.global.api.utils.StringParser;
+import com.global.api.utils.RecordLayout;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -32,36 +31,19 @@ public class NtsDataCollectResponse implements INtsResponseMessage {
 	@Setter
 	private	int sequenceNumber;
 
+	private static final RecordLayout<NtsDataCollectResponse> LAYOUT = RecordLayout.<NtsDataCollectResponse>builder()
+			.integer("Authorization Response Code", 2, NtsDataCollectResponse::setAuthorizationResponseCode)
+			.integer("Original Transaction Time", 4, NtsDataCollectResponse::setOriginalTransactionTime)
+			.integer("Original Transaction Date", 6, NtsDataCollectResponse::setOriginalTransactionDate)
+			.constant("Card Type", 2, NTSCardTypes.class, NtsDataCollectResponse::setCardType)
+			.string("Account Number", 19, NtsDataCollectResponse::setAccountNumber)
+			.string("Approval Code", 6, NtsDataCollectResponse::setApprovalCode)
+			.integer("Batch Number", 2, NtsDataCollectResponse::setBatchNumber)
+			.integer("Sequence Number", 3, NtsDataCollectResponse::setSequenceNumber)
+			.build();
+
 	@Override
 	public INtsResponseMessage setNtsResponseMessage(byte[] buffer, boolean emvFlag) {
-		NtsDataCollectResponse ntsDataCollectResponse = new NtsDataCollectResponse();
-		StringParser sp = new StringParser(buffer);
-
-		ntsDataCollectResponse.setAuthorizationResponseCode(sp.readInt(2));
-		NtsUtils.log("Authorization Response Code", ntsDataCollectResponse.getAuthorizationResponseCode());
-
-		ntsDataCollectResponse.setOriginalTransactionTime(sp.readInt(4));
-		NtsUtils.log("Original Transaction Time", ntsDataCollectResponse.getOriginalTransactionTime());
-
-		ntsDataCollectResponse.setOriginalTransactionDate(sp.readInt(6));
-		NtsUtils.log("Original Transaction Date", ntsDataCollectResponse.getOriginalTransactionDate());
-
-		ntsDataCollectResponse.setCardType(sp.readStringConstant(2, NTSCardTypes.class));
-		NtsUtils.log("Card Type", ntsDataCollectResponse.getCardType());
-
-		ntsDataCollectResponse.setAccountNumber(sp.readString(19));
-		NtsUtils.log("Account Number", ntsDataCollectResponse.getAccountNumber());
-
-		ntsDataCollectResponse.setApprovalCode(sp.readString(6)); // Data collect
-		NtsUtils.log("Approval Code", ntsDataCollectResponse.getApprovalCode());
-
-		ntsDataCollectResponse.setBatchNumber(sp.readInt(2));
-		NtsUtils.log("Batch Number", ntsDataCollectResponse.getBatchNumber());
-
-		ntsDataCollectResponse.setSequenceNumber(sp.readInt(3));
-		NtsUtils.log("Sequence Number", ntsDataCollectResponse.getSequenceNumber());
-
-
-		return ntsDataCollectResponse;
+		return LAYOUT.decode(buffer, new NtsDataCollectResponse());
 	}
 }
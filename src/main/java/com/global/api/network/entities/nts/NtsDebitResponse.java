@@ -4,7 +4,8 @@ import com.global.api.entities.enums.DebitAuthorizerCode;
 import com.global.api.entities.enums.TransactionCode;
 import com.global.api.network.enums.NTSCardTypes;
 import com.global.api.utils.NtsUtils;
-import com.global.api.utils.StringParser;
+import com.global.api.utils.RecordLayout;
+import com.global.api.utils.RecordReader;
 import com.global.api.utils.StringUtils;
 import lombok.Getter;
 import lombok.Setter;
@@ -38,42 +39,35 @@ public class NtsDebitResponse implements INtsResponseMessage {
     @Setter
     private String emvData;
 
+    private static final RecordLayout<NtsDebitResponse> LAYOUT = RecordLayout.<NtsDebitResponse>builder()
+            .constant("Card Type", 2, NTSCardTypes.class, NtsDebitResponse::setCardType)
+            .constant("Transaction Code", 2, TransactionCode.class, NtsDebitResponse::setTransactionCode)
+            .string("Account Type", 3, NtsDebitResponse::setAccountType)
+            .string("Approval Code", 6, NtsDebitResponse::setCode)
+            .constant("Debit Authorizer", 2, DebitAuthorizerCode.class, NtsDebitResponse::setAuthorizerCode)
+            .string("Terminal Sequence Number", 6, NtsDebitResponse::setTerminalSequenceNumber)
+            .build();
+
+    private static final RecordLayout<NtsDebitResponse> EMV_LAYOUT = RecordLayout.<NtsDebitResponse>builder()
+            .integer("EMV Data Length", 4, NtsDebitResponse::setEmvDataLength)
+            .remaining("EMV Data", NtsDebitResponse::setEmvData)
+            .build();
+
     @Override
     public INtsResponseMessage setNtsResponseMessage(byte[] buffer , boolean emvFlag) {
         NtsDebitResponse ntsDebitResponse = new NtsDebitResponse();
-        StringParser sp = new StringParser(buffer);
-
-        ntsDebitResponse.setCardType(sp.readStringConstant(2, NTSCardTypes.class));
-        NtsUtils.log("Card Type", ntsDebitResponse.getCardType());
-
-        ntsDebitResponse.setTransactionCode(sp.readStringConstant(2, TransactionCode.class));
-        NtsUtils.log("Transaction Code", ntsDebitResponse.getTransactionCode());
-
-        ntsDebitResponse.setAccountType(sp.readString(3));
-        NtsUtils.log("Account Type", ntsDebitResponse.getAccountType());
+        RecordReader reader = new RecordReader(buffer);
+        LAYOUT.decode(reader, ntsDebitResponse);
 
-        ntsDebitResponse.setCode(sp.readString(6));
-        NtsUtils.log("Approval Code", ntsDebitResponse.getCode());
-
-        ntsDebitResponse.setAuthorizerCode(sp.readStringConstant(2, DebitAuthorizerCode.class));
-        NtsUtils.log("Debit Authorizer", ntsDebitResponse.getAuthorizerCode());
-
-        ntsDebitResponse.setTerminalSequenceNumber(sp.readString(6));
-        NtsUtils.log("Terminal Sequence Number", ntsDebitResponse.getTerminalSequenceNumber());
-
-        String sAvailableAmount = sp.readString(7).trim();
+        // the available amount may be blank
+        String sAvailableAmount = reader.readString(7).trim();
         Integer iAvailableAmount = sAvailableAmount.length() > 0 ? Integer.parseInt(sAvailableAmount):Integer.parseInt("0");
         ntsDebitResponse.setAmount(iAvailableAmount);
         String amount= StringUtils.padLeft(iAvailableAmount.toString(),7, '0');
         NtsUtils.log("Available Amount", amount);
 
         if(buffer.length > 89 && emvFlag) {
-            ntsDebitResponse.setEmvDataLength(sp.readInt(4)); // Emv
-            NtsUtils.log("EMV Data Length", ntsDebitResponse.getEmvDataLength());
-
-            ntsDebitResponse.setEmvData(sp.readRemaining()); // Emv
-            NtsUtils.log("EMV Data", ntsDebitResponse.getEmvData());
-
+            EMV_LAYOUT.decode(reader, ntsDebitResponse);
         }
         return ntsDebitResponse;
     }
@@ -6,8 +6,8 @@ import com.global.api.network.entities.emvpdl.IEMVPDLTable;
 import com.global.api.network.enums.nts.EmvPDLCardType;
 import com.global.api.network.enums.nts.PDLEndOfTableFlag;
 import com.global.api.network.enums.nts.PDLTableID;
-import com.global.api.utils.NtsUtils;
-import com.global.api.utils.StringParser;
+import com.global.api.utils.RecordLayout;
+import com.global.api.utils.RecordReader;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -54,49 +54,38 @@ public class NtsEMVPDLResponse implements INtsResponseMessage {
         this.isPdlV2 = isPdlV2;
     }
 
+    private static final RecordLayout<NtsEMVPDLResponse> HEADER_LAYOUT = RecordLayout.<NtsEMVPDLResponse>builder()
+            .string("EMV PDL Response Code ", 2, NtsEMVPDLResponse::setEmvPdlResponseCode)
+            .string("EMV PDL Status Code", 2, NtsEMVPDLResponse::setEmvPdlStatusCode)
+            .string("EMV PDL Parameter Version ", 3, NtsEMVPDLResponse::setEmvPdlParameterVersion)
+            .when(NtsEMVPDLResponse::getIsPdlV2, RecordLayout.<NtsEMVPDLResponse>builder()
+                    .string("EMV PDL Config Name", 40, NtsEMVPDLResponse::setEmvPdlConfigurationName)
+                    .build())
+            .integer("Block Sequence Number", 2, NtsEMVPDLResponse::setEmvPdlBlockSequenceNumber)
+            .constant("Table ID ", 2, PDLTableID.class, NtsEMVPDLResponse::setEmvPdlTableId)
+            .constant("EMV PDL Card Type ", 2, EmvPDLCardType.class, NtsEMVPDLResponse::setEmvPdlCardType)
+            .constant("End Of table flag", 1, PDLEndOfTableFlag.class, NtsEMVPDLResponse::setEmvPdlEndOfTableFlag)
+            .build();
+
     @Override
     public INtsResponseMessage setNtsResponseMessage(byte[] buffer, boolean emvFlag) {
         NtsEMVPDLResponse pdlResponse = new NtsEMVPDLResponse(this.isPdlV2);
-        StringParser sp = new StringParser(buffer);
+        RecordReader reader = new RecordReader(buffer);
 
         // Common fields
-        pdlResponse.setEmvPdlResponseCode(sp.readString(2));
-        NtsUtils.log("EMV PDL Response Code ", pdlResponse.getEmvPdlResponseCode());
-
-        pdlResponse.setEmvPdlStatusCode(sp.readString(2));
-        NtsUtils.log("EMV PDL Status Code", pdlResponse.getEmvPdlStatusCode());
-
-        pdlResponse.setEmvPdlParameterVersion(sp.readString(3));
-        NtsUtils.log("EMV PDL Parameter Version ", pdlResponse.getEmvPdlParameterVersion());
-
-        if (this.isPdlV2) {
-            pdlResponse.setEmvPdlConfigurationName(sp.readString(40));
-            NtsUtils.log("EMV PDL Config Name", pdlResponse.getEmvPdlConfigurationName());
-
-        }
-        pdlResponse.setEmvPdlBlockSequenceNumber(sp.readInt(2));
-        NtsUtils.log("Block Sequence Number", pdlResponse.getEmvPdlBlockSequenceNumber());
-
-        pdlResponse.setEmvPdlTableId(sp.readStringConstant(2, PDLTableID.class));
-        NtsUtils.log("Table ID ", pdlResponse.getEmvPdlTableId());
-
-        pdlResponse.setEmvPdlCardType(sp.readStringConstant(2, EmvPDLCardType.class));
-        NtsUtils.log("EMV PDL Card Type ", pdlResponse.getEmvPdlCardType());
-
-        pdlResponse.setEmvPdlEndOfTableFlag(sp.readStringConstant(1, PDLEndOfTableFlag.class));
-        NtsUtils.log("End Of table flag", pdlResponse.getEmvPdlEndOfTableFlag());
+        HEADER_LAYOUT.decode(reader, pdlResponse);
 
         if (!pdlResponse.getEmvPdlEndOfTableFlag().equals(PDLEndOfTableFlag.DownloadConfirmation)) {
             if (pdlResponse.getEmvPdlTableId().equals(PDLTableID.Table10)) {
                 if (this.isPdlV2) {
-                    pdlResponse.setEmvPdlTableDataBlockData(sp.readRemaining());
+                    pdlResponse.setEmvPdlTableDataBlockData(reader.readRemaining());
                 } else {
                     IEMVPDLTable table10 = new EMVPDLTable10();
-                    pdlResponse.setTable(table10.parseData(sp));
+                    pdlResponse.setTable(table10.parseData(reader));
                 }
             } else {
-                pdlResponse.setEmvPdlTableDataBlockLength(sp.readString(3));
-                pdlResponse.setEmvPdlTableDataBlockData(sp.readRemaining());
+                pdlResponse.setEmvPdlTableDataBlockLength(reader.readString(3));
+                pdlResponse.setEmvPdlTableDataBlockData(reader.readRemaining());
             }
         }
 
@@ -3,8 +3,7 @@ package com.global.api.network.entities.nts;
 import com.global.api.entities.enums.DebitAuthorizerCode;
 import com.global.api.entities.enums.TransactionCode;
 import com.global.api.network.enums.NTSCardTypes;
-import com.global.api.utils.NtsUtils;
-import com.global.api.utils.StringParser;
+import com.global.api.utils.RecordLayout;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -41,40 +40,21 @@ public class NtsEbtResponse implements INtsResponseMessage {
     @Setter
     private int foodStampLedgerBalance;
 
+    private static final RecordLayout<NtsEbtResponse> LAYOUT = RecordLayout.<NtsEbtResponse>builder()
+            .constant("Card Type", 2, NTSCardTypes.class, NtsEbtResponse::setCardType)
+            .constant("Transaction Code", 2, TransactionCode.class, NtsEbtResponse::setTransactionCode)
+            .string("Account Type", 3, NtsEbtResponse::setAccountType)
+            .string("Approval Code", 6, NtsEbtResponse::setApprovalCode)
+            .constant("Debit Authorizer Code", 2, DebitAuthorizerCode.class, NtsEbtResponse::setAuthorizerCode)
+            .string("Terminal Sequence Number", 6, NtsEbtResponse::setTerminalSequenceNumber)
+            .integer("REMAINING Cash Benefit balance", 7, NtsEbtResponse::setCashBenefitBalance)
+            .integer("REMAINING Food Stamp balance", 7, NtsEbtResponse::setFoodStampBalance)
+            .integer("Cash Benefit Ledger balance", 7, NtsEbtResponse::setCashBenefitLedgerBalance)
+            .integer("Food Stamp Ledger balance", 7, NtsEbtResponse::setFoodStampLedgerBalance)
+            .build();
+
     @Override
     public INtsResponseMessage setNtsResponseMessage(byte[] buffer, boolean emvFlag) {
-        NtsEbtResponse response = new NtsEbtResponse();
-        StringParser sp = new StringParser(buffer);
-        response.setCardType(sp.readStringConstant(2, NTSCardTypes.class));
-        NtsUtils.log("Card Type", response.getCardType());
-
-        response.setTransactionCode(sp.readStringConstant(2, TransactionCode.class));
-        NtsUtils.log("Transaction Code", response.getTransactionCode());
-
-        response.setAccountType(sp.readString(3));
-        NtsUtils.log("Account Type", response.getAccountType());
-
-        response.setApprovalCode(sp.readString(6));
-        NtsUtils.log("Approval Code", response.getApprovalCode());
-
-        response.setAuthorizerCode(sp.readStringConstant(2, DebitAuthorizerCode.class));
-        NtsUtils.log("Debit Authorizer Code", response.getAuthorizerCode());
-
-        response.setTerminalSequenceNumber(sp.readString(6));
-        NtsUtils.log("Terminal Sequence Number", response.getTerminalSequenceNumber());
-
-        response.setCashBenefitBalance(sp.readInt(7));
-        NtsUtils.log("REMAINING Cash Benefit balance", response.getCashBenefitBalance());
-
-        response.setFoodStampBalance(sp.readInt(7));
-        NtsUtils.log("REMAINING Food Stamp balance", response.getFoodStampBalance());
-
-        response.setCashBenefitLedgerBalance(sp.readInt(7));
-        NtsUtils.log("Cash Benefit Ledger balance", response.getCashBenefitLedgerBalance());
-
-        response.setFoodStampLedgerBalance(sp.readInt(7));
-        NtsUtils.log("Food Stamp Ledger balance", response.getFoodStampLedgerBalance());
-
-        return response;
+        return LAYOUT.decode(buffer, new NtsEbtResponse());
     }
 }
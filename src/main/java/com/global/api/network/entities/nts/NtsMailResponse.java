@@ -1,8 +1,7 @@
 package com.global.api.network.entities.nts;
 
 import com.global.api.entities.enums.*;
-import com.global.api.utils.NtsUtils;
-import com.global.api.utils.StringParser;
+import com.global.api.utils.RecordLayout;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -20,23 +19,15 @@ public class NtsMailResponse implements INtsResponseMessage {
     @Setter
     private String mailText;
 
+    private static final RecordLayout<NtsMailResponse> LAYOUT = RecordLayout.<NtsMailResponse>builder()
+            .integer("Mail Count", 2, NtsMailResponse::setMailCount)
+            .constant("Mail Indicator", 1, MailIndicatorType.class, NtsMailResponse::setMailIndicator)
+            .constant("Mail Message Code", 1, MailMessageCodeType.class, NtsMailResponse::setMailMessageCode)
+            .remaining("Mail Text", NtsMailResponse::setMailText)
+            .build();
+
     @Override
     public INtsResponseMessage setNtsResponseMessage(byte[] buffer, boolean emvFlag) {
-        NtsMailResponse ntsResponse = new NtsMailResponse();
-        StringParser sp = new StringParser(buffer);
-
-        ntsResponse.setMailCount(sp.readInt(2));
-        NtsUtils.log("Mail Count", ntsResponse.getMailCount());
-
-        ntsResponse.setMailIndicator(sp.readStringConstant(1, MailIndicatorType.class));
-        NtsUtils.log("Mail Indicator", ntsResponse.getMailIndicator());
-
-        ntsResponse.setMailMessageCode(sp.readStringConstant(1, MailMessageCodeType.class));
-        NtsUtils.log("Mail Message Code", ntsResponse.getMailMessageCode());
-
-        ntsResponse.setMailText(sp.readRemaining());
-        NtsUtils.log("Mail Text", ntsResponse.getMailText());
-
-        return ntsResponse;
+        return LAYOUT.decode(buffer, new NtsMailResponse());
     }
 }
@@ -6,11 +6,29 @@ import com.global.api.entities.enums.TransactionType;
 import com.global.api.entities.exceptions.BatchFullException;
 import com.global.api.network.entities.NtsObjectParam;
 import com.global.api.network.entities.NtsPDLData;
+import com.global.api.network.enums.nts.EmvPDLCardType;
+import com.global.api.network.enums.nts.PDLParameterType;
+import com.global.api.network.enums.nts.PDLTableID;
+import com.global.api.utils.FixedRecordLayout;
 import com.global.api.utils.MessageWriter;
-import com.global.api.utils.NtsUtils;
 
 public class NtsPDLRequest implements INtsRequestMessage {
-
+    private static final FixedRecordLayout<NtsPDLData> PDL_LAYOUT = FixedRecordLayout.<NtsPDLData>builder()
+            .constant("PARAMETER TYPE", 2, PDLParameterType.class, NtsPDLData::getParameterType, NtsPDLData::setParameterType)
+            .constant("TABLE-ID", 2, PDLTableID.class, NtsPDLData::getTableId, NtsPDLData::setTableId)
+            .string("PARAMETER VERSION or TABLE VERSION", 3, NtsPDLData::getParameterVersion, NtsPDLData::setParameterVersion)
+            .string("BLOCK SEQUENCE NUMBER", 2, NtsPDLData::getBlockSequenceNumber, NtsPDLData::setBlockSequenceNumber)
+            .build();
+
+    private static final FixedRecordLayout<NtsPDLData> EMV_PDL_LAYOUT = FixedRecordLayout.<NtsPDLData>builder()
+            .constant("PARAMETER TYPE", 2, PDLParameterType.class, NtsPDLData::getParameterType, NtsPDLData::setParameterType)
+            .constant("TABLE-ID", 2, PDLTableID.class, NtsPDLData::getTableId, NtsPDLData::setTableId)
+            .constant("EMV PDL CARD TYPE", 2, EmvPDLCardType.class, NtsPDLData::getEmvPDLCardType, NtsPDLData::setEmvPDLCardType)
+            .string("PARAMETER VERSION or TABLE VERSION", 3, NtsPDLData::getParameterVersion, NtsPDLData::setParameterVersion)
+            // only sent for version 002 parameters
+            .string("EMV PDL CONFIGURATION NAME", 40, NtsPDLData::getEmvPdlConfigurationName, NtsPDLData::setEmvPdlConfigurationName)
+            .string("BLOCK SEQUENCE NUMBER", 2, NtsPDLData::getBlockSequenceNumber, NtsPDLData::setBlockSequenceNumber)
+            .build();
 
     @Override
     public MessageWriter setNtsRequestMessage(NtsObjectParam ntsObjectParam) throws BatchFullException {
@@ -18,40 +36,12 @@ public class NtsPDLRequest implements INtsRequestMessage {
         MessageWriter request = ntsObjectParam.getNtsRequest();
         TransactionType transactionType = ntsObjectParam.getNtsBuilder().getTransactionType();
         if (builder instanceof AuthorizationBuilder) {
-            AuthorizationBuilder authorizationBuilder = (AuthorizationBuilder) builder;
-            NtsPDLData pdlData = authorizationBuilder.getNtsPDLData();
-
-            // PARAMETER TYPE
-            request.addRange(pdlData.getParameterType().getValue(), 2);
-            NtsUtils.log("PARAMETER TYPE", pdlData.getParameterType().getValue());
-
-            //  TABLE-ID
-            if(pdlData.getTableId()!=null) {
-                request.addRange(pdlData.getTableId().getValue(), 2);
-                NtsUtils.log("TABLE-ID", pdlData.getTableId().getValue());
-            }
+            NtsPDLData pdlData = ((AuthorizationBuilder) builder).getNtsPDLData();
             if (transactionType.equals(TransactionType.EmvPdl)) {
-                //  EMV PDL CARD TYPE
-                request.addRange(pdlData.getEmvPDLCardType().getValue(), 2);
-                NtsUtils.log("EMV PDL CARD TYPE", pdlData.getEmvPDLCardType().getValue());
-
-                // EMV PDL PARAMETER VERSION or EMV PDL TABLE VERSION
-                request.addRange(pdlData.getParameterVersion(), 3);
-                NtsUtils.log("PARAMETER VERSION or TABLE VERSION", pdlData.getParameterVersion());
-
-                if (pdlData.getEmvPdlConfigurationName() != null) {
-                    // EMV PDL CONFIGURATION NAME
-                    request.addRange(pdlData.getEmvPdlConfigurationName(), 40);
-                    NtsUtils.log("EMV PDL CONFIGURATION NAME", pdlData.getEmvPdlConfigurationName());
-                }
+                EMV_PDL_LAYOUT.encode(pdlData, request);
             } else {
-                // PARAMETER VERSION or TABLE VERSION
-                request.addRange(pdlData.getParameterVersion(), 3);
-                NtsUtils.log("PARAMETER VERSION or TABLE VERSION", pdlData.getParameterVersion());
+                PDL_LAYOUT.encode(pdlData, request);
             }
-            // BLOCK SEQUENCE NUMBER
-            request.addRange(pdlData.getBlockSequenceNumber(), 2);
-            NtsUtils.log("BLOCK SEQUENCE NUMBER", pdlData.getBlockSequenceNumber());
         }
         return request;
     }
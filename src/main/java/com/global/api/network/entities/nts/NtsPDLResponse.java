@@ -5,8 +5,8 @@ import com.global.api.network.entities.mpdl.MPDLTable;
 import com.global.api.network.entities.mpdl.MPDLTable10;
 import com.global.api.network.enums.nts.PDLEndOfTableFlag;
 import com.global.api.network.enums.nts.PDLTableID;
-import com.global.api.utils.NtsUtils;
-import com.global.api.utils.StringParser;
+import com.global.api.utils.RecordLayout;
+import com.global.api.utils.RecordReader;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -34,30 +34,27 @@ public class NtsPDLResponse implements INtsResponseMessage {
     @Setter
     private String tableDataBlockData;
 
+    private static final RecordLayout<NtsPDLResponse> HEADER_LAYOUT = RecordLayout.<NtsPDLResponse>builder()
+            .string("Parameter or Table Version ", 3, NtsPDLResponse::setParameterVersionOrTableVersion)
+            .integer("Block Sequence Number", 2, NtsPDLResponse::setBlockSequenceNumber)
+            .constant("Table ID ", 2, PDLTableID.class, NtsPDLResponse::setTableId)
+            .constant("End Of table flag", 1, PDLEndOfTableFlag.class, NtsPDLResponse::setEndOfTableFlag)
+            .build();
+
     @Override
     public INtsResponseMessage setNtsResponseMessage(byte[] buffer, boolean emvFlag) {
         NtsPDLResponse pdlResponse = new NtsPDLResponse();
-        StringParser sp = new StringParser(buffer);
+        RecordReader reader = new RecordReader(buffer);
 
         // Common fields
-        pdlResponse.setParameterVersionOrTableVersion(sp.readString(3));
-        NtsUtils.log("Parameter or Table Version ", pdlResponse.getParameterVersionOrTableVersion());
-
-        pdlResponse.setBlockSequenceNumber(sp.readInt(2));
-        NtsUtils.log("Block Sequence Number", pdlResponse.getBlockSequenceNumber());
-
-        pdlResponse.setTableId(sp.readStringConstant(2, PDLTableID.class));
-        NtsUtils.log("Table ID ", pdlResponse.getTableId());
-
-        pdlResponse.setEndOfTableFlag(sp.readStringConstant(1, PDLEndOfTableFlag.class));
-        NtsUtils.log("End Of table flag", pdlResponse.getEndOfTableFlag());
+        HEADER_LAYOUT.decode(reader, pdlResponse);
 
         if (pdlResponse.getTableId().equals(PDLTableID.Table10)) {
             IMPDLTable table10 = new MPDLTable10();
-            pdlResponse.setTable(table10.parseTableData(sp));
+            pdlResponse.setTable(table10.parseTableData(reader));
         } else {
-            pdlResponse.setTableDataBlockLength(sp.readString(3));
-            pdlResponse.setTableDataBlockData(sp.readRemaining());
+            pdlResponse.setTableDataBlockLength(reader.readString(3));
+            pdlResponse.setTableDataBlockData(reader.readRemaining());
         }
         return pdlResponse;
     }
@@ -1,6 +1,6 @@
 package com.global.api.network.entities.nts;
 
-import com.global.api.utils.StringParser;
+import com.global.api.utils.RecordLayout;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -38,51 +38,43 @@ public class NtsPDLResponseData implements INtsResponseMessage {
     private String userData;
 
 
+    private static final RecordLayout<NtsPDLResponseData> LAYOUT = RecordLayout.<NtsPDLResponseData>builder()
+            // Common fields
+            .string(2, NtsPDLResponseData::setNextParameterType)
+            .string(2, NtsPDLResponseData::setNextSequenceNumber)
+            .string(1, NtsPDLResponseData::setNumberOfEntries)
+            .string(2, NtsPDLResponseData::setParameterType)
+            .string(3, NtsPDLResponseData::setParameterVersion)
+            .string(2, NtsPDLResponseData::setParameterSequenceNumber)
+            // Start of Network Data
+            .when(data -> "10".equals(data.getParameterType()), RecordLayout.<NtsPDLResponseData>builder()
+                    .string(2, NtsPDLResponseData::setNetworkParameterCode)
+                    .integer(2, NtsPDLResponseData::setNetworkDataLength)
+                    .string(2, NtsPDLResponseData::setAccessCode)
+                    .string(data -> data.getNetworkDataLength() <= 37 ? 11 : 28, NtsPDLResponseData::setPrimaryNumber)
+                    .string(data -> data.getNetworkDataLength() <= 37 ? 11 : 28, NtsPDLResponseData::setSecondaryNumber)
+                    .string(data -> data.getNetworkDataLength() <= 37 ? 11 : 28, NtsPDLResponseData::setDownloadNumber)
+                    .string(2, NtsPDLResponseData::setPollCode)
+                    .build())
+            // Start of Unit Data
+            .when(data -> "20".equals(data.getParameterType()) || "10".equals(data.getParameterType()), RecordLayout.<NtsPDLResponseData>builder()
+                    .string(2, NtsPDLResponseData::setUnitParameterCode)
+                    .string(2, NtsPDLResponseData::setUnitLength)
+                    .string(20, NtsPDLResponseData::setUnitName)
+                    .string(18, NtsPDLResponseData::setUnitAddress)
+                    .string(16, NtsPDLResponseData::setUnitCity)
+                    .string(2, NtsPDLResponseData::setUnitState)
+                    .build())
+            // START OF USER DATA
+            .when(data -> "30".equals(data.getParameterType()), RecordLayout.<NtsPDLResponseData>builder()
+                    .string(2, NtsPDLResponseData::setUserParameterCode)
+                    .string(3, NtsPDLResponseData::setUserDataLength)
+                    .string(74, NtsPDLResponseData::setUserData)
+                    .build())
+            .build();
+
     @Override
     public INtsResponseMessage setNtsResponseMessage(byte[] buffer, boolean emvFlag) {
-        NtsPDLResponseData pdlResponse = new NtsPDLResponseData();
-        StringParser stringParser = new StringParser(buffer);
-
-        // Common fields
-        pdlResponse.setNextParameterType(stringParser.readString(2));
-        pdlResponse.setNextSequenceNumber(stringParser.readString(2));
-        pdlResponse.setNumberOfEntries(stringParser.readString(1));
-        pdlResponse.setParameterType(stringParser.readString(2));
-        pdlResponse.setParameterVersion(stringParser.readString(3));
-        pdlResponse.setParameterSequenceNumber(stringParser.readString(2));
-        // Start of Network Data
-        if (pdlResponse.getParameterType().equals("10")) {
-            pdlResponse.setNetworkParameterCode(stringParser.readString(2));
-            pdlResponse.setNetworkDataLength(stringParser.readInt(2));
-            if(pdlResponse.getNetworkDataLength() <= 37) {
-                pdlResponse.setAccessCode(stringParser.readString(2));
-                pdlResponse.setPrimaryNumber(stringParser.readString(11));
-                pdlResponse.setSecondaryNumber(stringParser.readString(11));
-                pdlResponse.setDownloadNumber(stringParser.readString(11));
-                pdlResponse.setPollCode(stringParser.readString(2));
-            } else {
-                pdlResponse.setAccessCode(stringParser.readString(2));
-                pdlResponse.setPrimaryNumber(stringParser.readString(28));
-                pdlResponse.setSecondaryNumber(stringParser.readString(28));
-                pdlResponse.setDownloadNumber(stringParser.readString(28));
-                pdlResponse.setPollCode(stringParser.readString(2));
-            }
-        }
-        //Start of Unit Data
-        if (pdlResponse.getParameterType().equals("20") || pdlResponse.getParameterType().equals("10")) {
-            pdlResponse.setUnitParameterCode(stringParser.readString(2));
-            pdlResponse.setUnitLength(stringParser.readString(2));
-            pdlResponse.setUnitName(stringParser.readString(20));
-            pdlResponse.setUnitAddress(stringParser.readString(18));
-            pdlResponse.setUnitCity(stringParser.readString(16));
-            pdlResponse.setUnitState(stringParser.readString(2));
-        }
-        //START OF USER DATA
-        if (pdlResponse.getParameterType().equals("30")) {
-            pdlResponse.setUserParameterCode(stringParser.readString(2));
-            pdlResponse.setUserDataLength(stringParser.readString(3));
-            pdlResponse.setUserData(stringParser.readString(74));
-        }
-        return pdlResponse;
+        return LAYOUT.decode(buffer, new NtsPDLResponseData());
     }
 }
@@ -1,8 +1,22 @@
 package com.global.api.network.entities.nts;
 
+import com.global.api.builders.AuthorizationBuilder;
+import com.global.api.builders.ManagementBuilder;
+import com.global.api.builders.TransactionBuilder;
+import com.global.api.entities.enums.LogicProcessFlag;
 import com.global.api.entities.enums.NtsMessageCode;
+import com.global.api.entities.enums.PaymentMethodType;
 import com.global.api.entities.enums.PinIndicator;
+import com.global.api.entities.enums.TerminalType;
+import com.global.api.entities.enums.TransactionType;
+import com.global.api.network.entities.NtsObjectParam;
 import com.global.api.network.entities.PriorMessageInformation;
+import com.global.api.network.enums.CardDataInputCapability;
+import com.global.api.network.enums.NTSCardTypes;
+import com.global.api.paymentMethods.IPaymentMethod;
+import com.global.api.paymentMethods.TransactionReference;
+import com.global.api.utils.FixedRecordLayout;
+import com.global.api.utils.StringUtils;
 import lombok.Getter;
 import lombok.Setter;
 import org.joda.time.DateTime;
@@ -27,4 +41,87 @@ public class NtsRequestMessageHeader {
     @Getter
     @Setter
     private PriorMessageInformation priorMessageInformation;
+
+    private static final FixedRecordLayout<NtsObjectParam> DATE_TIME_LAYOUT = FixedRecordLayout.<NtsObjectParam>builder()
+            .string("Transaction Date", 4, params -> header(params).getTransactionDate())
+            .string("Transaction Time", 6, params -> header(params).getTransactionTime())
+            .build();
+
+    private static final FixedRecordLayout<NtsObjectParam> ORIGINAL_DATE_TIME_LAYOUT = FixedRecordLayout.<NtsObjectParam>builder()
+            .string("Transaction Date", 4, params -> ((TransactionReference) params.getNtsBuilder().getPaymentMethod()).getOriginalTransactionDate())
+            .string("Transaction Time", 6, params -> ((TransactionReference) params.getNtsBuilder().getPaymentMethod()).getOriginalTransactionTime())
+            .build();
+
+    static final FixedRecordLayout<NtsObjectParam> LAYOUT = FixedRecordLayout.<NtsObjectParam>builder()
+            .integer("message type", 1, params -> INtsRequestMessage.MESSAGE_TYPE)
+            .string("company number", 3, params -> params.getCompanyId() != null ? params.getCompanyId() : String.valueOf(INtsRequestMessage.COMPANY_ID))
+            .string("binary terminal id", 1, params -> String.format("%1s", params.getBinTerminalId()))
+            .string("binary terminal type", 1, params -> String.format("%1s", params.getBinTerminalType()))
+            .string("Host Response Code", 2, params -> String.format("%2s", params.getHostResponseCode()))
+            .integer("Timeout Value", 3, NtsRequestMessageHeader::getTimeoutValue)
+            .string("Filler", 1, params -> " ")
+            .constant("Input Capability Code", 1, CardDataInputCapability.class, NtsObjectParam::getInputCapabilityCode)
+            .string("Filler", 1, params -> " ")
+            .string("Terminal Destination Tag", 3, params -> header(params).getTerminalDestinationTag())
+            .string("Software Version", 2, NtsObjectParam::getSoftwareVersion)
+            .constant("Pin Indicator", 1, PinIndicator.class, params -> header(params).getPinIndicator())
+            .constant("Logic Process Flag or Store_And_Forward_Indicator", 1, LogicProcessFlag.class, NtsObjectParam::getLogicProcessFlag)
+            .constant("Message Code", 2, NtsMessageCode.class, params -> header(params).getNtsMessageCode())
+            .constant("Terminal Type", 2, TerminalType.class, NtsObjectParam::getTerminalType)
+            .string("Unit Number", 11, NtsObjectParam::getUnitNumber)
+            .string("Terminal Id", 2, NtsObjectParam::getTerminalId)
+            .when(NtsRequestMessageHeader::sendsTransactionDateTime, DATE_TIME_LAYOUT)
+            .when(NtsRequestMessageHeader::sendsOriginalDateTime, ORIGINAL_DATE_TIME_LAYOUT)
+            .string("Prior Message Response Time", 3, params -> StringUtils.padLeft(header(params).getPriorMessageInformation().getResponseTime(), 3, '0'))
+            .string("Prior Message Connect Time", 3, params -> header(params).getPriorMessageInformation().getConnectTime())
+            .string("Prior Message Code", 2, params -> header(params).getPriorMessageInformation().getMessageReasonCode())
+            .build();
+
+    private static NtsRequestMessageHeader header(NtsObjectParam params) {
+        return params.getNtsBuilder().getNtsRequestMessageHeader();
+    }
+
+    private static Integer getTimeoutValue(NtsObjectParam params) {
+        NTSCardTypes cardType = params.getNtsCardType();
+        if(cardType == null) {
+            return 15;
+        }
+        return params.getTimeout() > 0 ? params.getTimeout() : cardType.getTimeOut();
+    }
+
+    // authorizations, credit voids and batch messages send the date and time of this message
+    private static boolean sendsTransactionDateTime(NtsObjectParam params) {
+        TransactionBuilder builder = params.getNtsBuilder();
+        if(builder instanceof AuthorizationBuilder) {
+            return true;
+        }
+        if(!(builder instanceof ManagementBuilder) || sendsOriginalDateTime(params)) {
+            return false;
+        }
+
+        IPaymentMethod paymentMethod = builder.getPaymentMethod();
+        TransactionType transactionType = builder.getTransactionType();
+        return (paymentMethod != null && PaymentMethodType.Credit.equals(paymentMethod.getPaymentMethodType()) && transactionType == TransactionType.Void)
+                || transactionType == TransactionType.BatchClose
+                || transactionType == TransactionType.Capture
+                || transactionType == TransactionType.DataCollect;
+    }
+
+    // other follow-ups on a transaction reference send the date and time of the original
+    private static boolean sendsOriginalDateTime(NtsObjectParam params) {
+        TransactionBuilder builder = params.getNtsBuilder();
+        if(!(builder instanceof ManagementBuilder) || !(builder.getPaymentMethod() instanceof TransactionReference)) {
+            return false;
+        }
+
+        IPaymentMethod paymentMethod = builder.getPaymentMethod();
+        TransactionType transactionType = builder.getTransactionType();
+        if(PaymentMethodType.Credit.equals(paymentMethod.getPaymentMethodType()) && transactionType == TransactionType.Void) {
+            return false;
+        }
+        return transactionType == TransactionType.Reversal
+                || transactionType == TransactionType.Refund
+                || transactionType == TransactionType.Void
+                || transactionType == TransactionType.PreAuthCompletion;
+    }
 }
@@ -2,7 +2,7 @@ package com.global.api.network.entities.nts;
 
 import com.global.api.entities.enums.PendingMailIndicator;
 import com.global.api.entities.enums.PendingParameterIndicator;
-import com.global.api.utils.StringParser;
+import com.global.api.utils.RecordLayout;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -14,17 +14,14 @@ public class NtsRequestPendingMessagesResponse implements INtsResponseMessage {
     private PendingParameterIndicator pendingParameterIndicator;
     private String pendingFutureIndicators;
 
+    private static final RecordLayout<NtsRequestPendingMessagesResponse> LAYOUT = RecordLayout.<NtsRequestPendingMessagesResponse>builder()
+            .constant(1, PendingMailIndicator.class, NtsRequestPendingMessagesResponse::setPendingMailIndicator)
+            .constant(1, PendingParameterIndicator.class, NtsRequestPendingMessagesResponse::setPendingParameterIndicator)
+            .remaining(NtsRequestPendingMessagesResponse::setPendingFutureIndicators)
+            .build();
+
     @Override
     public INtsResponseMessage setNtsResponseMessage(byte[] buffer, boolean emvFlag) {
-        NtsRequestPendingMessagesResponse ntsResponse = new NtsRequestPendingMessagesResponse();
-        StringParser sp = new StringParser(buffer);
-
-        ntsResponse.setPendingMailIndicator(sp.readStringConstant(1, PendingMailIndicator.class));
-        ntsResponse.setPendingParameterIndicator(sp.readStringConstant(1,PendingParameterIndicator.class));
-        ntsResponse.setPendingFutureIndicators(sp.readRemaining());
-        return ntsResponse;
+        return LAYOUT.decode(buffer, new NtsRequestPendingMessagesResponse());
     }
 }
-
-
-
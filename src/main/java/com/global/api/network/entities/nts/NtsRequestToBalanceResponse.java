@@ -1,7 +1,6 @@
 package com.global.api.network.entities.nts;
 
-import com.global.api.utils.NtsUtils;
-import com.global.api.utils.StringParser;
+import com.global.api.utils.RecordLayout;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -31,32 +30,18 @@ public class NtsRequestToBalanceResponse implements INtsResponseMessage {
 	@Setter
 	private NtsNetworkMessageHeader ntsResponse;
 
+	private static final RecordLayout<NtsRequestToBalanceResponse> LAYOUT = RecordLayout.<NtsRequestToBalanceResponse>builder()
+			.integer("Batch Number", 2, NtsRequestToBalanceResponse::setBatchNumber)
+			.integer("Total Transaction", 3, NtsRequestToBalanceResponse::setTotalTransaction)
+			.integer("Total Sales", 9, NtsRequestToBalanceResponse::setTotalSales)
+			.integer("Total Return", 9, NtsRequestToBalanceResponse::setTotalReturns)
+			.integer("Host Transaction Count", 3, NtsRequestToBalanceResponse::setHostTransactionCount)
+			.integer("Host Total Sales", 9, NtsRequestToBalanceResponse::setHostTotalSales)
+			.integer("Host Total Return", 9, NtsRequestToBalanceResponse::setHostTotalReturns)
+			.build();
+
 	@Override
 	public INtsResponseMessage setNtsResponseMessage(byte[] buffer, boolean emvFlag) {
-		NtsRequestToBalanceResponse response = new NtsRequestToBalanceResponse();
-		StringParser sp = new StringParser(buffer);
-
-		response.setBatchNumber(sp.readInt(2));
-		NtsUtils.log("Batch Number", response.getBatchNumber());
-
-		response.setTotalTransaction(sp.readInt(3));
-		NtsUtils.log("Total Transaction", response.getTotalTransaction());
-
-		response.setTotalSales(sp.readInt(9));
-		NtsUtils.log("Total Sales", response.getTotalSales());
-
-		response.setTotalReturns(sp.readInt(9));
-		NtsUtils.log("Total Return", response.getTotalReturns());
-
-		response.setHostTransactionCount(sp.readInt(3));
-		NtsUtils.log("Host Transaction Count", response.getHostTransactionCount());
-
-		response.setHostTotalSales(sp.readInt(9));
-		NtsUtils.log("Host Total Sales", response.getHostTotalSales());
-
-		response.setHostTotalReturns(sp.readInt(9));
-		NtsUtils.log("Host Total Return", response.getHostTotalReturns());
-
-		return response;
+		return LAYOUT.decode(buffer, new NtsRequestToBalanceResponse());
 	}
 }
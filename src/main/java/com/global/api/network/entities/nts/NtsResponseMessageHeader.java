@@ -1,8 +1,11 @@
 package com.global.api.network.entities.nts;
 
+import com.global.api.entities.enums.*;
 import com.global.api.network.entities.PriorMessageInformation;
+import com.global.api.network.enums.CardDataInputCapability;
 import com.global.api.network.enums.nts.PendingRequestIndicator;
 import com.global.api.network.enums.nts.ServicingHostName;
+import com.global.api.utils.RecordLayout;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -29,4 +32,31 @@ public class NtsResponseMessageHeader {
     @Setter
     private NtsNetworkMessageHeader ntsNetworkMessageHeader;
 
+    static final RecordLayout<NtsNetworkMessageHeader> NETWORK_HEADER_LAYOUT = RecordLayout.<NtsNetworkMessageHeader>builder()
+            .integer("message type", 1, NtsNetworkMessageHeader::setMessageType)
+            .integer("company number", 3, NtsNetworkMessageHeader::setCompanyNumber)
+            .string("binary terminal id", 1, NtsNetworkMessageHeader::setBinTerminalId)
+            .string("binary terminal type", 1, NtsNetworkMessageHeader::setBinTerminalType)
+            .constant("Host Response Code", 2, NtsHostResponseCode.class, NtsNetworkMessageHeader::setResponseCode)
+            .integer(3, NtsNetworkMessageHeader::setTimeoutValue)
+            .skip(1) // Filter
+            .constant("Input Capability Code", 1, CardDataInputCapability.class, NtsNetworkMessageHeader::setInputCapabilityCode)
+            .skip(1) // Filter
+            .string("Terminal Destination Tag", 3, NtsNetworkMessageHeader::setTerminalDestinationTag)
+            .string("Software Version", 2, NtsNetworkMessageHeader::setSoftwareVersion)
+            .constant("Pin Indicator", 1, PinIndicator.class, NtsNetworkMessageHeader::setPinIndicator)
+            .constant("Logic Process Flag or Store_And_Forward_Indicator", 1, LogicProcessFlag.class, NtsNetworkMessageHeader::setLogicProcessFlag)
+            .constant("Message Code", 2, NtsMessageCode.class, NtsNetworkMessageHeader::setNtsMessageCode)
+            .constant("Terminal Type", 2, TerminalType.class, NtsNetworkMessageHeader::setTerminalType)
+            .string("Unit Number", 11, NtsNetworkMessageHeader::setUnitNumber)
+            .integer("Terminal Id", 2, NtsNetworkMessageHeader::setTerminalId)
+            .build();
+
+    static final RecordLayout<NtsResponseMessageHeader> LAYOUT = RecordLayout.<NtsResponseMessageHeader>builder()
+            .constant("Pending Request Indicator", 1, PendingRequestIndicator.class, NtsResponseMessageHeader::setPendingRequestIndicator)
+            .string("Transaction Date", 4, NtsResponseMessageHeader::setTransactionDate)
+            .string("Transaction Time", 6, NtsResponseMessageHeader::setTransactionTime)
+            .constant("Servicing Host Name", 1, ServicingHostName.class, NtsResponseMessageHeader::setServicingHostName)
+            .string("DataCollect Response Code", 2, NtsResponseMessageHeader::setDataCollectResponseCode)
+            .build();
 }
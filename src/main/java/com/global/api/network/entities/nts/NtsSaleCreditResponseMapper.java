@@ -1,9 +1,7 @@
 package com.global.api.network.entities.nts;
 
-import com.global.api.network.enums.AuthorizerCode;
-import com.global.api.network.enums.NTSCardTypes;
-import com.global.api.utils.NtsUtils;
-import com.global.api.utils.StringParser;
+import com.global.api.utils.RecordLayout;
+import com.global.api.utils.RecordReader;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -22,50 +20,24 @@ public class NtsSaleCreditResponseMapper implements INtsResponseMessage {
     public void setCreditMapper(NtsCreditResponse ntsCreditResponse) {
         this.ntsCreditResponse = ntsCreditResponse;
     }
+    private static final RecordLayout<NtsSaleCreditResponseMapper> BATCH_LAYOUT = RecordLayout.<NtsSaleCreditResponseMapper>builder()
+            .integer("Batch Number", 2, NtsSaleCreditResponseMapper::setBatchNumber)
+            .integer("Sequence Number", 3, NtsSaleCreditResponseMapper::setSequenceNumber)
+            .build();
+
     @Override
     public INtsResponseMessage setNtsResponseMessage(byte[] buffer, boolean emvFlag) {
         NtsSaleCreditResponseMapper ntsSaleCreditResponseMapper = new NtsSaleCreditResponseMapper();
         ntsCreditResponse = new NtsCreditResponse();
-        StringParser sp = new StringParser(buffer);
-
-        ntsCreditResponse.setCardType(sp.readStringConstant(2, NTSCardTypes.class));
-        NtsUtils.log("Card Type", ntsCreditResponse.getCardType());
-
-        ntsCreditResponse.setAccountNumber(sp.readString(19));
-        NtsUtils.log("Account Number", ntsCreditResponse.getAccountNumber());
-
-        ntsCreditResponse.setApprovalCode(sp.readString(6));
-        NtsUtils.log("Approval Code", ntsCreditResponse.getApprovalCode());
-
-        ntsCreditResponse.setAuthorizer(sp.readStringConstant(1, AuthorizerCode.class));
-        NtsUtils.log("Authorizer", ntsCreditResponse.getAuthorizer());
+        RecordReader reader = new RecordReader(buffer);
 
-        ntsSaleCreditResponseMapper.setBatchNumber(sp.readInt(2));
-        NtsUtils.log("Batch Number", ntsSaleCreditResponseMapper.getBatchNumber());
+        NtsCreditResponse.CARD_LAYOUT.decode(reader, ntsCreditResponse);
+        NtsCreditResponse.AUTHORIZER_LAYOUT.decode(reader, ntsCreditResponse);
+        BATCH_LAYOUT.decode(reader, ntsSaleCreditResponseMapper);
 
-        ntsSaleCreditResponseMapper.setSequenceNumber(sp.readInt(3));
-        NtsUtils.log("Sequence Number", ntsSaleCreditResponseMapper.getSequenceNumber());
-
-
-        // When the host response area is included in the response
-        // Then only the length of message is more than 85.
+        // The host response area is only included when the message is longer than 33.
         if(buffer.length > 33) {
-            if (emvFlag) {
-                ntsCreditResponse.setExpandedUserData(sp.readString(1));
-                NtsUtils.log("Expanded User Data", ntsCreditResponse.getExpandedUserData());
-
-                ntsCreditResponse.setHostResponseLength(sp.readInt(4)); // Emv
-                NtsUtils.log("Host Response Area Length", ntsCreditResponse.getHostResponseLength());
-
-                ntsCreditResponse.setHostResponseArea(sp.readRemaining()); // Emv
-                NtsUtils.log("Host Response Area", ntsCreditResponse.getHostResponseArea());
-            } else {
-                ntsCreditResponse.setHostResponseLength(sp.readInt(3));
-                NtsUtils.log("Host Response Area Length", ntsCreditResponse.getHostResponseLength());
-
-                ntsCreditResponse.setHostResponseArea(sp.readRemaining());
-                NtsUtils.log("Host Response Area", ntsCreditResponse.getHostResponseArea());
-            }
+            NtsCreditResponse.hostResponseLayout(emvFlag).decode(reader, ntsCreditResponse);
         }
         ntsSaleCreditResponseMapper.setCreditMapper(ntsCreditResponse);
         return ntsSaleCreditResponseMapper;
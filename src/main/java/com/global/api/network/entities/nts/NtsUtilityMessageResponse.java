@@ -1,7 +1,6 @@
 package com.global.api.network.entities.nts;
 
-import com.global.api.utils.NtsUtils;
-import com.global.api.utils.StringParser;
+import com.global.api.utils.RecordLayout;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -19,22 +18,15 @@ public class NtsUtilityMessageResponse implements INtsResponseMessage {
     @Setter
     private String reserved;
 
+    private static final RecordLayout<NtsUtilityMessageResponse> LAYOUT = RecordLayout.<NtsUtilityMessageResponse>builder()
+            .integer("Utility Type", 3, NtsUtilityMessageResponse::setUtilityType)
+            .string("UTC Date", 8, NtsUtilityMessageResponse::setUtcDate)
+            .string("UTC Time", 6, NtsUtilityMessageResponse::setUtcTime)
+            .remaining("Reserved", NtsUtilityMessageResponse::setReserved)
+            .build();
+
     @Override
     public INtsResponseMessage setNtsResponseMessage(byte[] buffer, boolean emvFlag) {
-        NtsUtilityMessageResponse ntsUtilityMessageResponse = new NtsUtilityMessageResponse();
-        StringParser sp = new StringParser(buffer);
-        ntsUtilityMessageResponse.setUtilityType(sp.readInt(3));
-        NtsUtils.log("Utility Type", ntsUtilityMessageResponse.getUtilityType());
-
-        ntsUtilityMessageResponse.setUtcDate(sp.readString(8));
-        NtsUtils.log("UTC Date", ntsUtilityMessageResponse.getUtcDate());
-
-        ntsUtilityMessageResponse.setUtcTime(sp.readString(6));
-        NtsUtils.log("UTC Time", ntsUtilityMessageResponse.getUtcTime());
-
-        ntsUtilityMessageResponse.setReserved(sp.readRemaining());
-        NtsUtils.log("Reserved", ntsUtilityMessageResponse.getReserved());
-
-        return ntsUtilityMessageResponse;
+        return LAYOUT.decode(buffer, new NtsUtilityMessageResponse());
     }
 }
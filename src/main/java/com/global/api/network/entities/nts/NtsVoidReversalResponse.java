@@ -1,9 +1,7 @@
 package com.global.api.network.entities.nts;
 
-import com.global.api.network.enums.AuthorizerCode;
-import com.global.api.network.enums.NTSCardTypes;
-import com.global.api.utils.NtsUtils;
-import com.global.api.utils.StringParser;
+import com.global.api.utils.RecordLayout;
+import com.global.api.utils.RecordReader;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -36,57 +34,32 @@ public class NtsVoidReversalResponse implements INtsResponseMessage {
     @Setter
     @Getter
     private	Integer sequenceNumber;
+
+    private static final RecordLayout<NtsVoidReversalResponse> ORIGINAL_LAYOUT = RecordLayout.<NtsVoidReversalResponse>builder()
+            .string("Authorizer Code", 2, NtsVoidReversalResponse::setAuthorizationCode)
+            .string("Original Transaction Date", 4, NtsVoidReversalResponse::setOriginalTransactionDate)
+            .string("Original Transaction Time", 6, NtsVoidReversalResponse::setOriginalTransactionTime)
+            .build();
+
+    private static final RecordLayout<NtsVoidReversalResponse> BATCH_LAYOUT = RecordLayout.<NtsVoidReversalResponse>builder()
+            .integer("Batch Number", 2, NtsVoidReversalResponse::setBatchNumber)
+            .integer("Sequence Number", 3, NtsVoidReversalResponse::setSequenceNumber)
+            .build();
+
     @Override
     public INtsResponseMessage setNtsResponseMessage(byte[] buffer, boolean emvFlag) {
         NtsVoidReversalResponse ntsSaleCreditResponseMapper = new NtsVoidReversalResponse();
         ntsCreditResponse = new NtsCreditResponse();
-        StringParser sp = new StringParser(buffer);
-
-        ntsSaleCreditResponseMapper.setAuthorizationCode(sp.readString(2));
-        NtsUtils.log("Authorizer Code", ntsSaleCreditResponseMapper.getAuthorizationCode());
-
-        ntsSaleCreditResponseMapper.setOriginalTransactionDate(sp.readString(4));
-        NtsUtils.log("Original Transaction Date", ntsSaleCreditResponseMapper.getOriginalTransactionDate());
-
-        ntsSaleCreditResponseMapper.setOriginalTransactionTime(sp.readString(6));
-        NtsUtils.log("Original Transaction Time", ntsSaleCreditResponseMapper.getOriginalTransactionTime());
-
-        ntsCreditResponse.setCardType(sp.readStringConstant(2, NTSCardTypes.class));
-        NtsUtils.log("Card Type", ntsCreditResponse.getCardType());
-
-
-        ntsCreditResponse.setAccountNumber(sp.readString(19));
-        NtsUtils.log("Account Number", ntsCreditResponse.getAccountNumber());
-
-        ntsCreditResponse.setApprovalCode(sp.readString(6));
-        NtsUtils.log("Approval Code", ntsCreditResponse.getApprovalCode());
-
-        ntsSaleCreditResponseMapper.setBatchNumber(sp.readInt(2));
-        NtsUtils.log("Batch Number", ntsSaleCreditResponseMapper.getBatchNumber());
-
-        ntsSaleCreditResponseMapper.setSequenceNumber(sp.readInt(3));
-        NtsUtils.log("Sequence Number", ntsSaleCreditResponseMapper.getSequenceNumber());
+        RecordReader reader = new RecordReader(buffer);
 
+        ORIGINAL_LAYOUT.decode(reader, ntsSaleCreditResponseMapper);
+        NtsCreditResponse.CARD_LAYOUT.decode(reader, ntsCreditResponse);
+        BATCH_LAYOUT.decode(reader, ntsSaleCreditResponseMapper);
 
         // When the host response area is included in the response
         // Then only the length of message is more than 85.
         if(buffer.length > 85) {
-            if (emvFlag) {
-                ntsCreditResponse.setExpandedUserData(sp.readString(1));
-                NtsUtils.log("Expanded User Data", ntsCreditResponse.getExpandedUserData());
-
-                ntsCreditResponse.setHostResponseLength(sp.readInt(4)); // Emv
-                NtsUtils.log("Host Response Area Length", ntsCreditResponse.getHostResponseLength());
-
-                ntsCreditResponse.setHostResponseArea(sp.readRemaining()); // Emv
-                NtsUtils.log("Host Response Area", ntsCreditResponse.getHostResponseArea());
-            } else {
-                ntsCreditResponse.setHostResponseLength(sp.readInt(3));
-                NtsUtils.log("Host Response Area Length", ntsCreditResponse.getHostResponseLength());
-
-                ntsCreditResponse.setHostResponseArea(sp.readRemaining());
-                NtsUtils.log("Host Response Area", ntsCreditResponse.getHostResponseArea());
-            }
+            NtsCreditResponse.hostResponseLayout(emvFlag).decode(reader, ntsCreditResponse);
         }
         ntsSaleCreditResponseMapper.setCreditMapper(ntsCreditResponse);
         return ntsSaleCreditResponseMapper;
@@ -0,0 +1,68 @@
+package com.global.api.network.providers;
+
+import com.global.api.network.abstractions.IPDLTableStore;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Keeps one file per table version in the given directory, holding the table data as it was
+ * received. Writes go to a temp file which is renamed into place, so a reader never sees a
+ * partly written table.
+ */
+public class FilePDLTableStore implements IPDLTableStore {
+    private final File directory;
+
+    public FilePDLTableStore(String directory) {
+        this.directory = new File(directory);
+        if(!this.directory.exists() && !this.directory.mkdirs()) {
+            throw new IllegalArgumentException("Unable to create PDL table directory: " + directory);
+        }
+    }
+
+    public String read(String key) throws IOException {
+        File file = fileFor(key);
+        if(!file.exists()) {
+            return null;
+        }
+        return new String(Files.readAllBytes(file.toPath()), StandardCharsets.ISO_8859_1);
+    }
+
+    public void write(String key, String tableData) throws IOException {
+        File file = fileFor(key);
+        File temp = File.createTempFile(file.getName(), ".tmp", directory);
+        try {
+            RandomAccessFile raf = new RandomAccessFile(temp, "rw");
+            try {
+                raf.setLength(0);
+                raf.write(tableData.getBytes(StandardCharsets.ISO_8859_1));
+                raf.getFD().sync();
+            }
+            finally {
+                raf.close();
+            }
+
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        finally {
+            // only still there if the write or the move failed
+            Files.deleteIfExists(temp.toPath());
+        }
+    }
+
+    public void remove(String key) throws IOException {
+        Files.deleteIfExists(fileFor(key).toPath());
+    }
+
+    private File fileFor(String key) {
+        StringBuilder sb = new StringBuilder(key.length() + 4);
+        for(char c: key.toCharArray()) {
+            sb.append(Character.isLetterOrDigit(c) || c == '-' ? c : '_');
+        }
+        return new File(directory, sb.append(".pdl").toString());
+    }
+}
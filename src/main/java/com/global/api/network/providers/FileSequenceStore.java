@@ -0,0 +1,76 @@
+package com.global.api.network.providers;
+
+import com.global.api.network.abstractions.ISequenceStore;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Keeps one small file per lane key in the given directory. Writes go to a temp file which is
+ * synced and then atomically renamed over the previous mark, so a crash mid-write leaves the
+ * old (lower) mark in place and the next lease simply starts from there.
+ */
+public class FileSequenceStore implements ISequenceStore {
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+
+    private final File directory;
+
+    public FileSequenceStore(String directory) {
+        this.directory = new File(directory);
+        if(!this.directory.exists() && !this.directory.mkdirs()) {
+            throw new IllegalArgumentException("Unable to create sequence directory: " + directory);
+        }
+    }
+
+    public long read(String key) throws IOException {
+        File file = fileFor(key);
+        if(!file.exists()) {
+            return 0L;
+        }
+
+        String value = new String(Files.readAllBytes(file.toPath()), StandardCharsets.US_ASCII).trim();
+        if(value.isEmpty()) {
+            return 0L;
+        }
+        return Long.parseLong(value);
+    }
+
+    public void write(String key, long value) throws IOException {
+        File file = fileFor(key);
+        File temp = new File(directory, file.getName() + ".tmp");
+
+        RandomAccessFile raf = new RandomAccessFile(temp, "rw");
+        try {
+            raf.setLength(0);
+            raf.write(Long.toString(value).getBytes(StandardCharsets.US_ASCII));
+            raf.getFD().sync();
+        }
+        finally {
+            raf.close();
+        }
+
+        Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * ASCII letters, digits, '-' and '_' are kept as they are; every other byte of the UTF-8 key is
+     * written as %XX, so distinct keys never share a file.
+     */
+    private File fileFor(String key) {
+        StringBuilder sb = new StringBuilder(key.length() + 4);
+        for(byte b: key.getBytes(StandardCharsets.UTF_8)) {
+            char c = (char) (b & 0xFF);
+            if((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '-' || c == '_') {
+                sb.append(c);
+            }
+            else {
+                sb.append('%').append(HEX[c >> 4]).append(HEX[c & 0x0F]);
+            }
+        }
+        return new File(directory, sb.append(".seq").toString());
+    }
+}
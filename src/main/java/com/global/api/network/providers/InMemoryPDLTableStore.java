@@ -0,0 +1,24 @@
+package com.global.api.network.providers;
+
+import com.global.api.network.abstractions.IPDLTableStore;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Non-durable store; tables are downloaded again after a restart.
+ */
+public class InMemoryPDLTableStore implements IPDLTableStore {
+    private final ConcurrentHashMap<String, String> tables = new ConcurrentHashMap<String, String>();
+
+    public String read(String key) {
+        return tables.get(key);
+    }
+
+    public void write(String key, String tableData) {
+        tables.put(key, tableData);
+    }
+
+    public void remove(String key) {
+        tables.remove(key);
+    }
+}
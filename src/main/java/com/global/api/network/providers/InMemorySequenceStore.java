@@ -0,0 +1,21 @@
+package com.global.api.network.providers;
+
+import com.global.api.network.abstractions.ISequenceStore;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Non-durable store, for tests and for hosts that do not enforce STAN uniqueness across restarts.
+ */
+public class InMemorySequenceStore implements ISequenceStore {
+    private final ConcurrentHashMap<String, Long> values = new ConcurrentHashMap<String, Long>();
+
+    public long read(String key) {
+        Long value = values.get(key);
+        return value == null ? 0L : value;
+    }
+
+    public void write(String key, long value) {
+        values.put(key, value);
+    }
+}
@@ -0,0 +1,274 @@
+package com.global.api.network.providers;
+
+import com.global.api.entities.Transaction;
+import com.global.api.entities.enums.TransactionType;
+import com.global.api.entities.exceptions.ApiException;
+import com.global.api.entities.exceptions.GatewayException;
+import com.global.api.network.abstractions.IPDLTableStore;
+import com.global.api.network.entities.NtsPDLData;
+import com.global.api.network.entities.emvpdl.EMVPDLTable;
+import com.global.api.network.entities.emvpdl.IEMVPDLTable;
+import com.global.api.network.entities.mpdl.IMPDLTable;
+import com.global.api.network.entities.mpdl.MPDLTable;
+import com.global.api.network.entities.nts.NtsEMVPDLResponse;
+import com.global.api.network.entities.nts.NtsPDLResponse;
+import com.global.api.network.entities.nts.NtsRequestMessageHeader;
+import com.global.api.network.enums.nts.PDLEndOfTableFlag;
+import com.global.api.network.enums.nts.PDLParameterType;
+import com.global.api.network.enums.nts.PDLTableID;
+import com.global.api.services.NetworkService;
+import com.global.api.utils.StringUtils;
+
+import java.io.IOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Shares EMV PDL and Magnum PDL table downloads between the lanes of a unit.
+ *
+ * Tables are keyed by unit number, parameter type, table ID, card type and table version, where
+ * the version is the one table 10 lists for the table. A lane asking for a version that has
+ * already been downloaded gets it from memory or from the {@link IPDLTableStore} without sending
+ * any messages; otherwise one lane runs the block by block download and confirmation while the
+ * other lanes asking for the same table wait for its result.
+ *
+ * Only the newest version of each table is kept: once a lane activates a newer version, the
+ * older one is dropped from memory and removed from the store. A lane still asking for an older
+ * version downloads it again, and it is not kept.
+ *
+ * Table 10 is not cached, since it is how a lane learns the current versions.
+ */
+public class PDLTableCache {
+    private final IPDLTableStore store;
+    private final ConcurrentHashMap<String, CachedTable> tables = new ConcurrentHashMap<String, CachedTable>();
+    private final ConcurrentHashMap<String, FutureTask<String>> downloads = new ConcurrentHashMap<String, FutureTask<String>>();
+
+    public PDLTableCache() {
+        this(new InMemoryPDLTableStore());
+    }
+    public PDLTableCache(IPDLTableStore store) {
+        if(store == null) {
+            throw new IllegalArgumentException("A PDL table store is required.");
+        }
+        this.store = store;
+    }
+
+    public <T extends IEMVPDLTable> EMVPDLTable<T> getEmvTable(String unitNumber, NtsPDLData pdlData, NtsRequestMessageHeader header) throws ApiException {
+        return getEmvTable(unitNumber, pdlData, header, "default");
+    }
+    @SuppressWarnings("unchecked")
+    public <T extends IEMVPDLTable> EMVPDLTable<T> getEmvTable(String unitNumber, NtsPDLData pdlData, NtsRequestMessageHeader header, String configName) throws ApiException {
+        return IEMVPDLTable.parseData(getTableData(unitNumber, pdlData, header, configName), pdlData.getTableId());
+    }
+
+    public <T extends IMPDLTable> MPDLTable<T> getMagnumTable(String unitNumber, NtsPDLData pdlData, NtsRequestMessageHeader header) throws ApiException {
+        return getMagnumTable(unitNumber, pdlData, header, "default");
+    }
+    public <T extends IMPDLTable> MPDLTable<T> getMagnumTable(String unitNumber, NtsPDLData pdlData, NtsRequestMessageHeader header, String configName) throws ApiException {
+        return IMPDLTable.parseData(getTableData(unitNumber, pdlData, header, configName), pdlData.getTableId());
+    }
+
+    /**
+     * @return the table data for the version in {@code pdlData}, downloading it only if no lane
+     * has done so yet. Each call parses its own copy of the table, so lanes can't change each
+     * other's tables.
+     */
+    public String getTableData(final String unitNumber, final NtsPDLData pdlData, final NtsRequestMessageHeader header, final String configName) throws ApiException {
+        if(pdlData.getTableId() == null || pdlData.getTableId().equals(PDLTableID.Table10)) {
+            throw new ApiException("Only tables listed in table 10 can be cached.");
+        }
+
+        final String tableKey = tableKeyFor(unitNumber, pdlData);
+        final String version = String.valueOf(pdlData.getParameterVersion());
+        final String key = tableKey + '-' + version;
+        CachedTable cached = tables.get(tableKey);
+        if(cached != null && cached.version.equals(version)) {
+            return cached.tableData;
+        }
+
+        FutureTask<String> download = new FutureTask<String>(new Callable<String>() {
+            public String call() throws Exception {
+                String tableData = readStore(key);
+                if(tableData == null) {
+                    tableData = download(pdlData, header, configName);
+                    writeStore(key, tableData);
+                }
+                return tableData;
+            }
+        });
+        FutureTask<String> current = downloads.putIfAbsent(key, download);
+        if(current == null) {
+            current = download;
+            download.run();
+        }
+
+        try {
+            String rvalue = current.get();
+            activate(tableKey, new CachedTable(key, version, rvalue));
+            return rvalue;
+        }
+        catch(ExecutionException exc) {
+            Throwable cause = exc.getCause();
+            if(cause instanceof ApiException) {
+                throw (ApiException)cause;
+            }
+            if(cause instanceof Error) {
+                throw (Error)cause;
+            }
+            throw new ApiException("Unable to download PDL table " + pdlData.getTableId().getValue() + ".", (Exception)cause);
+        }
+        catch(InterruptedException exc) {
+            Thread.currentThread().interrupt();
+            throw new ApiException("Interrupted while waiting for PDL table " + pdlData.getTableId().getValue() + ".", exc);
+        }
+        finally {
+            downloads.remove(key, current);
+        }
+    }
+
+    /**
+     * Requests every block of the table, then confirms the download.
+     */
+    protected String download(NtsPDLData pdlData, NtsRequestMessageHeader header, String configName) throws ApiException {
+        boolean emv = isEmv(pdlData);
+        TransactionType transactionType = emv ? TransactionType.EmvPdl : TransactionType.MagnumPDL;
+        NtsPDLData request = copy(pdlData);
+        request.setParameterType(emv ? PDLParameterType.RequestEMVPDL : PDLParameterType.RequestMagnumPdl);
+
+        StringBuilder tableData = new StringBuilder();
+        PDLEndOfTableFlag endOfTable = PDLEndOfTableFlag.NotEndOfTable;
+        for(int block = 1; endOfTable == PDLEndOfTableFlag.NotEndOfTable; block++) {
+            request.setBlockSequenceNumber(StringUtils.padLeft(String.valueOf(block), 2, '0'));
+            Transaction response = send(transactionType, request, header, configName);
+
+            String blockData;
+            if(emv) {
+                NtsEMVPDLResponse pdlResponse = (NtsEMVPDLResponse)response.getNtsResponse().getNtsResponseMessage();
+                endOfTable = pdlResponse.getEmvPdlEndOfTableFlag();
+                blockData = pdlResponse.getEmvPdlTableDataBlockData();
+            }
+            else {
+                NtsPDLResponse pdlResponse = (NtsPDLResponse)response.getNtsResponse().getNtsResponseMessage();
+                endOfTable = pdlResponse.getEndOfTableFlag();
+                blockData = pdlResponse.getTableDataBlockData();
+            }
+            if(blockData != null) {
+                tableData.append(blockData);
+            }
+        }
+
+        request.setBlockSequenceNumber("00");
+        request.setParameterType(emv ? PDLParameterType.EMVPDLConfirm : PDLParameterType.MagnumPDLConfirm);
+        send(transactionType, request, header, configName);
+
+        return tableData.toString();
+    }
+
+    private Transaction send(TransactionType transactionType, NtsPDLData request, NtsRequestMessageHeader header, String configName) throws ApiException {
+        Transaction response = NetworkService.fetchPDL(transactionType)
+                .withPDLData(request)
+                .withNtsRequestMessageHeader(header)
+                .execute(configName);
+        if(!"00".equals(response.getResponseCode())) {
+            throw new GatewayException("Unexpected response from the host during the PDL download.", response.getResponseCode(), response.getResponseMessage());
+        }
+        return response;
+    }
+
+    /**
+     * Makes the table the active version unless the same or a newer version already is, and
+     * removes whichever version is left behind from the store.
+     */
+    private void activate(String tableKey, CachedTable table) {
+        CachedTable active;
+        do {
+            active = tables.get(tableKey);
+            if(active != null && active.version.compareTo(table.version) >= 0) {
+                if(!active.version.equals(table.version)) {
+                    removeStore(table.key);
+                }
+                return;
+            }
+        } while(active == null ? tables.putIfAbsent(tableKey, table) != null : !tables.replace(tableKey, active, table));
+
+        if(active != null) {
+            removeStore(active.key);
+        }
+    }
+
+    private String readStore(String key) {
+        try {
+            return store.read(key);
+        }
+        catch(IOException exc) {
+            // an unreadable entry is downloaded again
+            return null;
+        }
+    }
+
+    private void writeStore(String key, String tableData) {
+        try {
+            store.write(key, tableData);
+        }
+        catch(IOException exc) {
+            // the table is still shared in memory; it is downloaded again after a restart
+        }
+    }
+
+    private void removeStore(String key) {
+        try {
+            store.remove(key);
+        }
+        catch(IOException exc) {
+            // a stale entry is only read by a lane still asking for that version
+        }
+    }
+
+    private static boolean isEmv(NtsPDLData pdlData) {
+        return pdlData.getEmvPDLCardType() != null
+                || pdlData.getParameterType() == PDLParameterType.RequestEMVPDL
+                || pdlData.getParameterType() == PDLParameterType.EMVPDLConfirm;
+    }
+
+    /**
+     * @return the key of the table without its version
+     */
+    private static String tableKeyFor(String unitNumber, NtsPDLData pdlData) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(unitNumber == null ? "" : unitNumber.trim())
+                .append('-').append(isEmv(pdlData) ? "emv" : "magnum")
+                .append('-').append(pdlData.getTableId().getValue());
+        if(pdlData.getEmvPDLCardType() != null) {
+            sb.append('-').append(pdlData.getEmvPDLCardType().getValue());
+        }
+        if(pdlData.getEmvPdlConfigurationName() != null) {
+            sb.append('-').append(pdlData.getEmvPdlConfigurationName().trim());
+        }
+        return sb.toString();
+    }
+
+    private static NtsPDLData copy(NtsPDLData pdlData) {
+        NtsPDLData rvalue = new NtsPDLData();
+        rvalue.setParameterType(pdlData.getParameterType());
+        rvalue.setParameterVersion(pdlData.getParameterVersion());
+        rvalue.setBlockSequenceNumber(pdlData.getBlockSequenceNumber());
+        rvalue.setTableId(pdlData.getTableId());
+        rvalue.setEmvPDLCardType(pdlData.getEmvPDLCardType());
+        rvalue.setEmvPdlConfigurationName(pdlData.getEmvPdlConfigurationName());
+        return rvalue;
+    }
+
+    private static class CachedTable {
+        private final String key;
+        private final String version;
+        private final String tableData;
+
+        private CachedTable(String key, String version, String tableData) {
+            this.key = key;
+            this.version = version;
+            this.tableData = tableData;
+        }
+    }
+}
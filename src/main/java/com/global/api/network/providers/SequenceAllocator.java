@@ -0,0 +1,163 @@
+package com.global.api.network.providers;
+
+import com.global.api.entities.exceptions.BatchFullException;
+import com.global.api.network.abstractions.ISequenceStore;
+import com.global.api.network.abstractions.IStanProvider;
+
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hands out STANs and batch sequence numbers for many lanes (terminal IDs) in one JVM.
+ *
+ * Each lane has its own atomic counter, so lanes never contend with each other and a lane only
+ * takes a lock when its current block is exhausted. Blocks are leased from an {@link ISequenceStore}:
+ * the end of the block is persisted before any value in it is handed out, and on restart a lane
+ * resumes from the persisted mark. Values from a partially used block are skipped rather than
+ * reused, so a restart never repeats a STAN until the counter has cycled through the whole range.
+ */
+public class SequenceAllocator {
+    public static final int STAN_MIN = 1;
+    public static final int STAN_MAX = 999999;
+    private static final int DEFAULT_BLOCK_SIZE = 100;
+
+    private final ISequenceStore store;
+    private final String keyPrefix;
+    private final int minValue;
+    private final int maxValue;
+    private final boolean wrap;
+    private final int blockSize;
+    private final ConcurrentHashMap<String, Lane> lanes = new ConcurrentHashMap<String, Lane>();
+
+    /**
+     * Six digit STAN allocator, 000001 through 999999, wrapping back to 1.
+     */
+    public static SequenceAllocator forStan(ISequenceStore store) {
+        return new SequenceAllocator(store, "stan", STAN_MIN, STAN_MAX, true, DEFAULT_BLOCK_SIZE);
+    }
+
+    /**
+     * Batch sequence allocator, 1 through maxSequence; {@link #next(String)} throws a
+     * {@link BatchFullException} once the batch is full until {@link #reset(String)} is called.
+     */
+    public static SequenceAllocator forBatchSequence(ISequenceStore store, int maxSequence) {
+        return new SequenceAllocator(store, "seq", 1, maxSequence, false, 10);
+    }
+
+    public SequenceAllocator(ISequenceStore store, String keyPrefix, int minValue, int maxValue, boolean wrap, int blockSize) {
+        if(store == null) {
+            throw new IllegalArgumentException("A sequence store is required.");
+        }
+        if(minValue > maxValue) {
+            throw new IllegalArgumentException("minValue must not be greater than maxValue.");
+        }
+        if(blockSize < 1) {
+            throw new IllegalArgumentException("blockSize must be at least 1.");
+        }
+        this.store = store;
+        this.keyPrefix = keyPrefix;
+        this.minValue = minValue;
+        this.maxValue = maxValue;
+        this.wrap = wrap;
+        this.blockSize = blockSize;
+    }
+
+    public int next(String laneId) throws BatchFullException {
+        long counter = getLane(laneId).allocate();
+
+        long range = (long)maxValue - minValue + 1;
+        if(!wrap && counter >= range) {
+            throw new BatchFullException();
+        }
+        return (int)(minValue + (counter % range));
+    }
+
+    /**
+     * Starts the lane over at the minimum value, e.g. after a batch close.
+     */
+    public void reset(String laneId) {
+        getLane(laneId).reset();
+    }
+
+    /**
+     * @return an {@link IStanProvider} bound to a single lane, suitable for {@code NetworkGatewayConfig.setStanProvider}
+     */
+    public IStanProvider getStanProvider(final String laneId) {
+        if(!wrap) {
+            throw new IllegalStateException("Only wrapping allocators can act as a STAN provider.");
+        }
+
+        final Lane lane = getLane(laneId);
+        return new IStanProvider() {
+            public int generateStan() {
+                long range = (long)maxValue - minValue + 1;
+                return (int)(minValue + (lane.allocate() % range));
+            }
+        };
+    }
+
+    private Lane getLane(String laneId) {
+        Lane lane = lanes.get(laneId);
+        if(lane == null) {
+            Lane created = new Lane(keyPrefix + "-" + laneId);
+            lane = lanes.putIfAbsent(laneId, created);
+            if(lane == null) {
+                lane = created;
+            }
+        }
+        return lane;
+    }
+
+    private class Lane {
+        private final String key;
+        private final AtomicLong next = new AtomicLong();
+        private volatile long limit = -1;
+
+        private Lane(String key) {
+            this.key = key;
+        }
+
+        long allocate() {
+            while(true) {
+                long current = next.get();
+                if(current < limit) {
+                    if(next.compareAndSet(current, current + 1)) {
+                        return current;
+                    }
+                }
+                else lease();
+            }
+        }
+
+        private synchronized void lease() {
+            try {
+                if(limit < 0) {
+                    long mark = store.read(key);
+                    next.set(mark);
+                    limit = mark;
+                }
+
+                if(next.get() >= limit) {
+                    long newLimit = limit + blockSize;
+                    store.write(key, newLimit);
+                    limit = newLimit;
+                }
+            }
+            catch(IOException exc) {
+                throw new IllegalStateException("Unable to lease a sequence block for " + key, exc);
+            }
+        }
+
+        synchronized void reset() {
+            try {
+                store.write(key, 0L);
+                limit = 0L;
+                next.set(0L);
+            }
+            catch(IOException exc) {
+                throw new IllegalStateException("Unable to reset sequence for " + key, exc);
+            }
+        }
+    }
+}
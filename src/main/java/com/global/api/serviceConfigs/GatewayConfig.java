@@ -3,6 +3,7 @@ package com.global.api.serviceConfigs;
 import com.global.api.ConfiguredServices;
 import com.global.api.entities.enums.*;
 import com.global.api.entities.exceptions.ConfigurationException;
+import com.global.api.gateways.ResiliencePolicy;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.experimental.Accessors;
@@ -23,6 +24,8 @@ public class GatewayConfig extends Configuration {
     private String dataClientUserId;
     /// The Url of the Global Data Service
     private String dataClientServiceUrl;
+    /// Timeouts, retries, hedging and circuit breaking for REST connectors
+    private ResiliencePolicy resiliencePolicy;
 
     public GatewayConfig(GatewayProvider provider) {
         this.gatewayProvider = provider;
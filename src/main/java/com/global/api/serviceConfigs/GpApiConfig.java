@@ -5,6 +5,7 @@ import com.global.api.entities.enums.*;
 import com.global.api.entities.exceptions.ConfigurationException;
 import com.global.api.entities.gpApi.entities.AccessTokenInfo;
 import com.global.api.gateways.GpApiConnector;
+import com.global.api.gateways.ITokenStore;
 import com.global.api.utils.StringUtils;
 import lombok.Getter;
 import lombok.Setter;
@@ -49,6 +50,11 @@ public class GpApiConfig extends GatewayConfig {
     @Accessors(chain = true)
     private AccessTokenInfo accessTokenInfo;
 
+    // Shares the access token with other connectors and processes signing in with the same app;
+    // when set, the store owns the token and accessTokenInfo only receives it
+    @Accessors(chain = true)
+    private ITokenStore tokenStore;
+
     // 3DSecure challenge return url
     private String challengeNotificationUrl;
 
@@ -84,6 +90,10 @@ public class GpApiConfig extends GatewayConfig {
         gpApiConnector.setServiceUrl(serviceUrl);
         gpApiConnector.setEnableLogging(this.isEnableLogging());
         gpApiConnector.setRequestLogger(this.getRequestLogger());
+        gpApiConnector.setTimeout(timeout);
+        if (getResiliencePolicy() != null) {
+            gpApiConnector.setResiliencePolicy(getResiliencePolicy());
+        }
 
         services.setGatewayConnector(gpApiConnector);
 
@@ -33,6 +33,8 @@ public class GpEcomConfig extends GatewayConfig {
     private String merchantContactUrl;
     private String methodNotificationUrl;
     private Secure3dVersion secure3dVersion;
+    // opt-in cache of check-version results by BIN
+    private Secure3dVersionCache secure3dVersionCache;
 
     // Open Banking Service
     private ShaHashType shaHashType = ShaHashType.SHA1;
@@ -92,7 +94,8 @@ public class GpEcomConfig extends GatewayConfig {
                             .setSharedSecret(sharedSecret)
                             .setMerchantContactUrl(merchantContactUrl)
                             .setMethodNotificationUrl(methodNotificationUrl)
-                            .setChallengeNotificationUrl(challengeNotificationUrl);
+                            .setChallengeNotificationUrl(challengeNotificationUrl)
+                            .setVersionCache(secure3dVersionCache);
 
             secure3d2
                     .setServiceUrl(environment.equals(Environment.PRODUCTION) ? ServiceEndpoints.THREE_DS_AUTH_PRODUCTION.getValue() : ServiceEndpoints.THREE_DS_AUTH_TEST.getValue())
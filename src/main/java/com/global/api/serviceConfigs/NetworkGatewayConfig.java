@@ -7,6 +7,7 @@ import com.global.api.entities.enums.LogicProcessFlag;
 import com.global.api.entities.enums.TerminalType;
 import com.global.api.gateways.NtsConnector;
 import com.global.api.gateways.events.IGatewayEventHandler;
+import com.global.api.logging.MessageTracer;
 import com.global.api.network.abstractions.IBatchProvider;
 import com.global.api.network.abstractions.IStanProvider;
 import com.global.api.network.enums.*;
@@ -21,6 +22,7 @@ public class NetworkGatewayConfig extends Configuration {
     private String companyId;
     private ConnectionType connectionType = ConnectionType.ISDN;
     private IGatewayEventHandler gatewayEventHandler;
+    private MessageTracer messageTracer;
     private String merchantType;
     private MessageType messageType = MessageType.Heartland_POS_8583;
     private String nodeIdentification;
@@ -88,6 +90,12 @@ public class NetworkGatewayConfig extends Configuration {
     public void setGatewayEventHandler(IGatewayEventHandler gatewayEventHandler) {
         this.gatewayEventHandler = gatewayEventHandler;
     }
+    public MessageTracer getMessageTracer() {
+        return messageTracer;
+    }
+    public void setMessageTracer(MessageTracer messageTracer) {
+        this.messageTracer = messageTracer;
+    }
     public String getMerchantType() {
         return merchantType;
     }
@@ -188,6 +196,9 @@ public class NetworkGatewayConfig extends Configuration {
             gateway.setTimeout(timeout);
             gateway.setTarget(target);
             gateway.setEnableLogging(enableLogging);
+            if(messageTracer != null) {
+                gateway.setMessageTracer(messageTracer);
+            }
             gateway.setSimulatedHostErrors(simulatedHostErrors);
 
             // other fields
@@ -42,6 +42,10 @@ public class TransactionApiConfig extends GatewayConfig {
         TransactionApiConnector transactionApiConnector = new TransactionApiConnector(this);
         transactionApiConnector.setServiceUrl(serviceUrl);
         transactionApiConnector.setEnableLogging(this.isEnableLogging());
+        transactionApiConnector.setTimeout(timeout);
+        if (getResiliencePolicy() != null) {
+            transactionApiConnector.setResiliencePolicy(getResiliencePolicy());
+        }
         services.setGatewayConnector(transactionApiConnector);
     }
 
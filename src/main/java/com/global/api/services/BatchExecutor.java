@@ -0,0 +1,241 @@
+package com.global.api.services;
+
+import com.global.api.ServicesContainer;
+import com.global.api.builders.BaseBuilder;
+import com.global.api.entities.Transaction;
+import com.global.api.entities.exceptions.ApiException;
+import com.global.api.gateways.Gateway;
+import com.global.api.gateways.IPaymentGateway;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.experimental.Accessors;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs many authorizations, captures, refunds and other builders against one config with a bounded
+ * number of calls in flight.
+ *
+ * Each builder gets its own {@link BatchResult}; a failed call is recorded on its result and the
+ * rest of the batch carries on. The streaming form reads the builders lazily and hands each result
+ * to a handler as it completes, so only {@code maxConcurrency} builders are held at once.
+ *
+ * The first builder runs on its own before the others start, so a connector that signs in on its
+ * first call does so once and the rest of the batch shares its token. The calls go through the
+ * configured connector, whose HTTP connections are kept alive and reused between calls; the JVM
+ * keeps at most {@code http.maxConnections} idle connections per host, which should be at least
+ * {@code maxConcurrency}. With {@code maxRequestsPerSecond} set, calls to the same host are spaced
+ * out across every batch run through this executor.
+ */
+@Accessors(chain = true)
+@Getter
+@Setter
+public class BatchExecutor {
+    public interface IBatchResultHandler {
+        /**
+         * Called once per builder, in completion order. Calls are never made at the same time.
+         */
+        void onResult(BatchResult result);
+    }
+
+    @Getter
+    public static class BatchResult {
+        private final int index;
+        private final BaseBuilder<Transaction> builder;
+        private final Transaction transaction;
+        private final ApiException exception;
+
+        BatchResult(int index, BaseBuilder<Transaction> builder, Transaction transaction, ApiException exception) {
+            this.index = index;
+            this.builder = builder;
+            this.transaction = transaction;
+            this.exception = exception;
+        }
+
+        public boolean isSuccessful() {
+            return exception == null;
+        }
+    }
+
+    private int maxConcurrency = 8;
+    // per host; 0 for no limit
+    private double maxRequestsPerSecond;
+
+    @Getter(lombok.AccessLevel.NONE) @Setter(lombok.AccessLevel.NONE)
+    private final ConcurrentHashMap<String, RateLimiter> rateLimiters = new ConcurrentHashMap<String, RateLimiter>();
+
+    public List<BatchResult> executeAll(Collection<? extends BaseBuilder<Transaction>> builders) throws ApiException {
+        return executeAll(builders, "default");
+    }
+
+    /**
+     * @return a result for each builder, in the order of {@code builders}
+     */
+    public List<BatchResult> executeAll(Collection<? extends BaseBuilder<Transaction>> builders, String configName) throws ApiException {
+        final List<BatchResult> rvalue = new ArrayList<BatchResult>(builders.size());
+        executeAll(builders, configName, rvalue::add);
+        rvalue.sort(Comparator.comparingInt(BatchResult::getIndex));
+        return rvalue;
+    }
+
+    /**
+     * Streams the builders through the config and hands each result to {@code handler}.
+     */
+    public void executeAll(Iterable<? extends BaseBuilder<Transaction>> builders, String configName, IBatchResultHandler handler) throws ApiException {
+        if(maxConcurrency < 1) {
+            throw new ApiException("The batch concurrency must be at least 1.");
+        }
+
+        final RateLimiter rateLimiter = rateLimiterFor(configName);
+        final Object handlerLock = new Object();
+        final Semaphore inFlight = new Semaphore(maxConcurrency);
+        final AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService executor = new ThreadPoolExecutor(
+                maxConcurrency,
+                maxConcurrency,
+                0L,
+                TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<Runnable>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "batch-executor-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+
+        try {
+            Iterator<? extends BaseBuilder<Transaction>> iterator = builders.iterator();
+            for(int index = 0; iterator.hasNext(); index++) {
+                final BaseBuilder<Transaction> builder = iterator.next();
+                final int itemIndex = index;
+                if(index == 0) {
+                    // runs alone so the connector signs in before the fan-out
+                    handle(handler, handlerLock, execute(itemIndex, builder, configName, rateLimiter));
+                    continue;
+                }
+
+                inFlight.acquire();
+                try {
+                    executor.execute(() -> {
+                        try {
+                            handle(handler, handlerLock, execute(itemIndex, builder, configName, rateLimiter));
+                        }
+                        finally {
+                            inFlight.release();
+                        }
+                    });
+                }
+                catch(RuntimeException exc) {
+                    inFlight.release();
+                    throw exc;
+                }
+            }
+
+            // wait for the calls still in flight
+            inFlight.acquire(maxConcurrency);
+            inFlight.release(maxConcurrency);
+        }
+        catch(InterruptedException exc) {
+            Thread.currentThread().interrupt();
+            throw new ApiException("Interrupted while running the batch.", exc);
+        }
+        finally {
+            executor.shutdown();
+        }
+    }
+
+    private BatchResult execute(int index, BaseBuilder<Transaction> builder, String configName, RateLimiter rateLimiter) {
+        try {
+            if(rateLimiter != null) {
+                rateLimiter.acquire();
+            }
+            return new BatchResult(index, builder, builder.execute(configName), null);
+        }
+        catch(ApiException exc) {
+            return new BatchResult(index, builder, null, exc);
+        }
+        catch(InterruptedException exc) {
+            Thread.currentThread().interrupt();
+            return new BatchResult(index, builder, null, new ApiException("Interrupted before the call was made.", exc));
+        }
+        catch(RuntimeException exc) {
+            return new BatchResult(index, builder, null, new ApiException(exc.getMessage(), exc));
+        }
+    }
+
+    private static void handle(IBatchResultHandler handler, Object handlerLock, BatchResult result) {
+        synchronized(handlerLock) {
+            handler.onResult(result);
+        }
+    }
+
+    private RateLimiter rateLimiterFor(String configName) {
+        if(maxRequestsPerSecond <= 0) {
+            return null;
+        }
+
+        String host = hostFor(configName);
+        RateLimiter rvalue = rateLimiters.get(host);
+        if(rvalue == null || rvalue.requestsPerSecond != maxRequestsPerSecond) {
+            rvalue = new RateLimiter(maxRequestsPerSecond);
+            rateLimiters.put(host, rvalue);
+        }
+        return rvalue;
+    }
+
+    private static String hostFor(String configName) {
+        try {
+            IPaymentGateway gateway = ServicesContainer.getInstance().getGateway(configName);
+            if(gateway instanceof Gateway && ((Gateway)gateway).getServiceUrl() != null) {
+                String host = new URI(((Gateway)gateway).getServiceUrl().trim()).getHost();
+                if(host != null) {
+                    return host;
+                }
+            }
+        }
+        catch(Exception exc) {
+            // not an HTTP connector; limited by config instead
+        }
+        return configName;
+    }
+
+    /**
+     * Spaces calls evenly at the given rate.
+     */
+    private static class RateLimiter {
+        private final double requestsPerSecond;
+        private final long intervalNanos;
+        private long nextSlot = System.nanoTime();
+
+        RateLimiter(double requestsPerSecond) {
+            this.requestsPerSecond = requestsPerSecond;
+            this.intervalNanos = (long)(TimeUnit.SECONDS.toNanos(1) / requestsPerSecond);
+        }
+
+        void acquire() throws InterruptedException {
+            long wait;
+            synchronized(this) {
+                long now = System.nanoTime();
+                if(nextSlot < now) {
+                    nextSlot = now;
+                }
+                wait = nextSlot - now;
+                nextSlot += intervalNanos;
+            }
+            if(wait > 0) {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            }
+        }
+    }
+}
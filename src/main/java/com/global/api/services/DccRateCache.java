@@ -0,0 +1,293 @@
+package com.global.api.services;
+
+import com.global.api.entities.DccRateData;
+import com.global.api.entities.Transaction;
+import com.global.api.entities.enums.DccProcessor;
+import com.global.api.entities.enums.DccRateType;
+import com.global.api.entities.exceptions.ApiException;
+import com.global.api.paymentMethods.CreditCardData;
+import com.global.api.paymentMethods.IPaymentMethod;
+import com.global.api.paymentMethods.RecurringPaymentMethod;
+import com.global.api.utils.StringUtils;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.experimental.Accessors;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reuses DCC rate lookups for cardholders quoting the same currency pair in the same amount band.
+ *
+ * Quotes are keyed by config (merchant), merchant currency, cardholder currency, rate type,
+ * processor and amount band. The cardholder currency of a card is learned from its first lookup,
+ * by BIN for card data and by payment method for stored cards; other payment methods always get
+ * a live lookup.
+ *
+ * A quote is valid for {@code validityPeriod} from when it was fetched and, when
+ * {@code sourceValidityPeriod} is set, no longer than that from the exchange rate source
+ * timestamp in its {@link DccRateData}. It is only used while at least
+ * {@code minimumValidity} of that remains, so the authorization that follows still falls inside
+ * the window. Cached quotes are rescaled to the requested amount with the cached rate.
+ * <p>
+ * Only rate tables are cached. A lookup that returns a DCC ID or an order ID is tied to that
+ * cardholder's authorization by the provider (GP-API sends the ID back as the currency
+ * conversion, GP Ecom links the authorization to the lookup by order ID), so it is returned to
+ * its caller and never handed to anyone else.
+ * <p>
+ * Once less than {@code refreshAhead} remains, one request fetches a new quote while the others
+ * keep using the cached one. For stored cards the fetch runs in the background; for card data it
+ * runs on the requesting thread, so the card number is never queued or held by the cache.
+ */
+@Accessors(chain = true)
+@Getter
+@Setter
+public class DccRateCache {
+    private static final Executor DEFAULT_EXECUTOR = new ThreadPoolExecutor(
+            0,
+            1,
+            60L,
+            TimeUnit.SECONDS,
+            new LinkedBlockingQueue<Runnable>(),
+            runnable -> {
+                Thread thread = new Thread(runnable, "dcc-rate-refresh");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    // how long a quote may be used after it was fetched, in milliseconds
+    private long validityPeriod = 10 * 60 * 1000L;
+    // how long a rate may be used after its exchange rate source timestamp; 0 to ignore it
+    private long sourceValidityPeriod;
+    // quotes with less than this left are not used
+    private long minimumValidity = 60 * 1000L;
+    // quotes with less than this left are refreshed in the background
+    private long refreshAhead = 2 * 60 * 1000L;
+    private BigDecimal amountBand = new BigDecimal("10");
+    private int maxEntries = 1000;
+    private int binLength = 8;
+    private Executor executor = DEFAULT_EXECUTOR;
+
+    @Getter(lombok.AccessLevel.NONE) @Setter(lombok.AccessLevel.NONE)
+    private final LruMap<Quote> quotes = new LruMap<Quote>();
+    @Getter(lombok.AccessLevel.NONE) @Setter(lombok.AccessLevel.NONE)
+    private final LruMap<String> cardCurrencies = new LruMap<String>();
+    @Getter(lombok.AccessLevel.NONE) @Setter(lombok.AccessLevel.NONE)
+    private final ConcurrentHashMap<String, Boolean> refreshing = new ConcurrentHashMap<String, Boolean>();
+
+    public DccRateData getRate(IPaymentMethod paymentMethod, BigDecimal amount, String currency) throws ApiException {
+        return getRate(paymentMethod, amount, currency, DccRateType.None, DccProcessor.None, "default");
+    }
+
+    /**
+     * @return the rate for {@code amount}, from the cache when a valid quote is held for the
+     * card's currency and amount band, otherwise from a live lookup.
+     */
+    public DccRateData getRate(final IPaymentMethod paymentMethod, final BigDecimal amount, final String currency, final DccRateType rateType, final DccProcessor processor, final String configName) throws ApiException {
+        String cardKey = cardKeyFor(paymentMethod);
+        String cardCurrency = cardKey == null ? null : cardCurrencies.get(cardKey);
+        if(cardCurrency == null || amount == null) {
+            return fetch(paymentMethod, amount, currency, rateType, processor, configName, cardKey);
+        }
+
+        final String key = quoteKeyFor(configName, currency, cardCurrency, rateType, processor, amount);
+        Quote quote = quotes.get(key);
+        long now = currentTimeMillis();
+        if(quote == null || !quote.isUsableFor(now + minimumValidity)) {
+            return fetch(paymentMethod, amount, currency, rateType, processor, configName, cardKey);
+        }
+
+        if(quote.expires - now < refreshAhead && refreshing.putIfAbsent(key, Boolean.TRUE) == null) {
+            if(paymentMethod instanceof CreditCardData) {
+                try {
+                    return fetch(paymentMethod, amount, currency, rateType, processor, configName, cardKey);
+                }
+                catch(ApiException exc) {
+                    // the cached quote is still usable
+                }
+                finally {
+                    refreshing.remove(key);
+                }
+            }
+            else {
+                refresh(key, paymentMethod, amount, currency, rateType, processor, configName, cardKey);
+            }
+        }
+        return quote.rateFor(amount);
+    }
+
+    /**
+     * Forgets every cached quote. Learned card currencies are kept.
+     */
+    public void invalidateAll() {
+        quotes.clear();
+    }
+
+    public int size() {
+        return quotes.size();
+    }
+
+    /**
+     * Runs the DCC rate lookup with the gateway.
+     */
+    protected DccRateData lookup(IPaymentMethod paymentMethod, BigDecimal amount, String currency, DccRateType rateType, DccProcessor processor, String configName) throws ApiException {
+        Transaction response;
+        if(paymentMethod instanceof CreditCardData) {
+            response = ((CreditCardData)paymentMethod).getDccRate(rateType, processor)
+                    .withAmount(amount)
+                    .withCurrency(currency)
+                    .execute(configName);
+        }
+        else if(paymentMethod instanceof RecurringPaymentMethod) {
+            response = ((RecurringPaymentMethod)paymentMethod).getDccRate(rateType, processor)
+                    .withAmount(amount)
+                    .withCurrency(currency)
+                    .execute(configName);
+        }
+        else {
+            throw new ApiException("DCC rate lookups are only supported for cards and stored cards.");
+        }
+        return response.getDccRateData();
+    }
+
+    protected long currentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+
+    private void refresh(final String key, final IPaymentMethod paymentMethod, final BigDecimal amount, final String currency, final DccRateType rateType, final DccProcessor processor, final String configName, final String cardKey) {
+        try {
+            executor.execute(() -> {
+                try {
+                    fetch(paymentMethod, amount, currency, rateType, processor, configName, cardKey);
+                }
+                catch(Exception exc) {
+                    // the next request after the quote runs out does a live lookup
+                }
+                finally {
+                    refreshing.remove(key);
+                }
+            });
+        }
+        catch(RuntimeException exc) {
+            refreshing.remove(key);
+        }
+    }
+
+    private DccRateData fetch(IPaymentMethod paymentMethod, BigDecimal amount, String currency, DccRateType rateType, DccProcessor processor, String configName, String cardKey) throws ApiException {
+        long fetched = currentTimeMillis();
+        DccRateData rvalue = lookup(paymentMethod, amount, currency, rateType, processor, configName);
+        if(rvalue == null || cardKey == null || amount == null
+                || StringUtils.isNullOrEmpty(rvalue.getCardHolderCurrency())
+                || StringUtils.isNullOrEmpty(rvalue.getCardHolderRate())) {
+            return rvalue;
+        }
+
+        cardCurrencies.put(cardKey, rvalue.getCardHolderCurrency());
+        if(rvalue.getDccId() != null || rvalue.getOrderId() != null) {
+            return rvalue;
+        }
+
+        long expires = fetched + validityPeriod;
+        if(sourceValidityPeriod > 0 && rvalue.getExchangeRateSourceTimestamp() != null) {
+            expires = Math.min(expires, rvalue.getExchangeRateSourceTimestamp().getMillis() + sourceValidityPeriod);
+        }
+        Quote quote = new Quote(copy(rvalue), amount, expires);
+        quotes.put(quoteKeyFor(configName, currency, rvalue.getCardHolderCurrency(), rateType, processor, amount), quote);
+        return rvalue;
+    }
+
+    private String cardKeyFor(IPaymentMethod paymentMethod) {
+        if(paymentMethod instanceof CreditCardData) {
+            String number = ((CreditCardData)paymentMethod).getNumber();
+            if(number != null && number.length() >= binLength) {
+                return "card-" + number.substring(0, binLength);
+            }
+        }
+        else if(paymentMethod instanceof RecurringPaymentMethod) {
+            RecurringPaymentMethod storedCard = (RecurringPaymentMethod)paymentMethod;
+            if(storedCard.getCustomerKey() != null && storedCard.getKey() != null) {
+                return "stored-" + storedCard.getCustomerKey() + "-" + storedCard.getKey();
+            }
+        }
+        return null;
+    }
+
+    private String quoteKeyFor(String configName, String currency, String cardCurrency, DccRateType rateType, DccProcessor processor, BigDecimal amount) {
+        BigDecimal band = amount.divide(amountBand, 0, RoundingMode.FLOOR);
+        return configName + "|" + currency + "|" + cardCurrency + "|" + rateType + "|" + processor + "|" + band.toPlainString();
+    }
+
+    private static DccRateData copy(DccRateData rateData) {
+        return new DccRateData()
+                .setCardHolderAmount(rateData.getCardHolderAmount())
+                .setCardHolderCurrency(rateData.getCardHolderCurrency())
+                .setCardHolderRate(rateData.getCardHolderRate())
+                .setCommissionPercentage(rateData.getCommissionPercentage())
+                .setDccId(rateData.getDccId())
+                .setDccProcessor(rateData.getDccProcessor())
+                .setDccRateType(rateData.getDccRateType())
+                .setOrderId(rateData.getOrderId())
+                .setExchangeRateSourceName(rateData.getExchangeRateSourceName())
+                .setExchangeRateSourceTimestamp(rateData.getExchangeRateSourceTimestamp())
+                .setMerchantAmount(rateData.getMerchantAmount())
+                .setMerchantCurrency(rateData.getMerchantCurrency())
+                .setMarginRatePercentage(rateData.getMarginRatePercentage());
+    }
+
+    private static class Quote {
+        private final DccRateData rateData;
+        private final BigDecimal quotedAmount;
+        private final long expires;
+
+        Quote(DccRateData rateData, BigDecimal quotedAmount, long expires) {
+            this.rateData = rateData;
+            this.quotedAmount = quotedAmount;
+            this.expires = expires;
+        }
+
+        boolean isUsableFor(long usableUntil) {
+            return expires > usableUntil;
+        }
+
+        DccRateData rateFor(BigDecimal amount) {
+            DccRateData rvalue = copy(rateData);
+            if(quotedAmount.compareTo(amount) != 0) {
+                int scale = rateData.getCardHolderAmount() == null ? 2 : rateData.getCardHolderAmount().scale();
+                rvalue.setMerchantAmount(amount);
+                rvalue.setCardHolderAmount(amount.multiply(new BigDecimal(rateData.getCardHolderRate())).setScale(scale, RoundingMode.HALF_UP));
+            }
+            return rvalue;
+        }
+    }
+
+    private class LruMap<V> {
+        private final LinkedHashMap<String, V> entries = new LinkedHashMap<String, V>(16, 0.75f, true) {
+            protected boolean removeEldestEntry(Map.Entry<String, V> eldest) {
+                return size() > maxEntries;
+            }
+        };
+
+        synchronized V get(String key) {
+            return entries.get(key);
+        }
+
+        synchronized void put(String key, V value) {
+            entries.put(key, value);
+        }
+
+        synchronized void clear() {
+            entries.clear();
+        }
+
+        synchronized int size() {
+            return entries.size();
+        }
+    }
+}
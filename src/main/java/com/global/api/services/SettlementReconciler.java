@@ -0,0 +1,413 @@
+package com.global.api.services;
+
+import com.global.api.entities.TransactionSummary;
+import com.global.api.entities.exceptions.ApiException;
+import com.global.api.entities.reporting.DataServiceCriteria;
+import com.global.api.entities.reporting.DepositSummary;
+import com.global.api.entities.reporting.DisputeSummary;
+import com.global.api.entities.reporting.ReconciliationEvent;
+import com.global.api.entities.reporting.ReconciliationEventType;
+import com.global.api.entities.reporting.ReconciliationRecord;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.experimental.Accessors;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Joins settlement transactions, deposits and settlement disputes from {@link ReportingService}
+ * with the merchant's own records and reports each match and difference as it is found.
+ *
+ * A run is split into partitions of {@code partitionDays} whole calendar days, and
+ * {@code parallelism} of them are reconciled at once. The deposit date filters are sent as dates in
+ * the default time zone, so partitions start at midnight in that zone; a day is never in two
+ * partitions, even when a daylight saving change makes it shorter or longer than 24 hours.
+ * Within a partition:
+ * <ol>
+ *     <li>the records are read once into a compact index of transaction ID hashes and amounts,</li>
+ *     <li>settlement transactions are read page by page and joined to the index by transaction ID,
+ *     while being totalled by batch and deposit,</li>
+ *     <li>disputes are read page by page and totalled by deposit,</li>
+ *     <li>deposits are read page by page and compared with those totals,</li>
+ *     <li>the records are read a second time to report the ones no settlement transaction matched,
+ *     then the batch totals are compared.</li>
+ * </ol>
+ * Only one page and the partition's index are held at a time. The index stores a 64-bit hash of
+ * each transaction ID rather than the ID itself, so memory grows by a few dozen bytes per record.
+ *
+ * Settlement transactions and disputes are selected by deposit date, so the record source should
+ * return the records expected to be deposited in each partition; a record from a neighbouring
+ * partition is reported as unmatched.
+ */
+@Accessors(chain = true)
+@Getter
+@Setter
+public class SettlementReconciler {
+    public interface IRecordSource {
+        /**
+         * @return the records expected to be deposited between {@code start} and {@code end},
+         * inclusive. Called twice for each partition, and must return the same records both times.
+         */
+        Iterator<ReconciliationRecord> getRecords(Date start, Date end) throws ApiException;
+    }
+
+    public interface IReconciliationListener {
+        /**
+         * Events from different partitions are never delivered at the same time.
+         */
+        void onEvent(ReconciliationEvent event);
+    }
+
+    @Getter(lombok.AccessLevel.NONE) @Setter(lombok.AccessLevel.NONE)
+    private final IRecordSource recordSource;
+    @Getter(lombok.AccessLevel.NONE) @Setter(lombok.AccessLevel.NONE)
+    private final IReconciliationListener listener;
+
+    private String configName = "default";
+    private int pageSize = 1000;
+    private int partitionDays = 1;
+    private int parallelism = 1;
+
+    public SettlementReconciler(IRecordSource recordSource, IReconciliationListener listener) {
+        if(recordSource == null || listener == null) {
+            throw new IllegalArgumentException("A record source and a listener are required.");
+        }
+        this.recordSource = recordSource;
+        this.listener = listener;
+    }
+
+    /**
+     * Reconciles every deposit day from {@code start} to {@code end}, inclusive.
+     */
+    public void reconcile(Date start, Date end) throws ApiException {
+        if(partitionDays < 1 || parallelism < 1 || pageSize < 1) {
+            throw new ApiException("Partition days, parallelism and page size must be at least 1.");
+        }
+
+        List<Date[]> partitions = new ArrayList<Date[]>();
+        Calendar day = Calendar.getInstance();
+        day.setTime(start);
+        day.set(Calendar.HOUR_OF_DAY, 0);
+        day.set(Calendar.MINUTE, 0);
+        day.set(Calendar.SECOND, 0);
+        day.set(Calendar.MILLISECOND, 0);
+        while(day.getTimeInMillis() <= end.getTime()) {
+            Date from = day.getTime();
+            day.add(Calendar.DAY_OF_MONTH, partitionDays);
+            partitions.add(new Date[] { from, new Date(Math.min(day.getTimeInMillis() - 1, end.getTime())) });
+        }
+
+        if(parallelism == 1 || partitions.size() == 1) {
+            for(Date[] partition: partitions) {
+                reconcilePartition(partition[0], partition[1]);
+            }
+            return;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, partitions.size()), runnable -> {
+            Thread thread = new Thread(runnable, "settlement-reconciler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<Void>> results = new ArrayList<Future<Void>>();
+            for(final Date[] partition: partitions) {
+                results.add(executor.submit(() -> {
+                    reconcilePartition(partition[0], partition[1]);
+                    return null;
+                }));
+            }
+
+            ApiException failure = null;
+            for(Future<Void> result: results) {
+                try {
+                    result.get();
+                }
+                catch(ExecutionException exc) {
+                    if(failure == null) {
+                        failure = exc.getCause() instanceof ApiException
+                                ? (ApiException)exc.getCause()
+                                : new ApiException("Unable to reconcile the settlement.", (Exception)exc.getCause());
+                    }
+                }
+            }
+            if(failure != null) {
+                throw failure;
+            }
+        }
+        catch(InterruptedException exc) {
+            Thread.currentThread().interrupt();
+            throw new ApiException("Interrupted while reconciling the settlement.", exc);
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+    protected List<TransactionSummary> getSettlementTransactions(Date start, Date end, int page) throws ApiException {
+        return ReportingService.findSettlementTransactionsPaged(page, pageSize)
+                .where(DataServiceCriteria.StartDepositDate, start)
+                .and(DataServiceCriteria.EndDepositDate, end)
+                .execute(configName)
+                .getResults();
+    }
+
+    protected List<DisputeSummary> getDisputes(Date start, Date end, int page) throws ApiException {
+        return ReportingService.findSettlementDisputesPaged(page, pageSize)
+                .where(DataServiceCriteria.StartDepositDate, start)
+                .and(DataServiceCriteria.EndDepositDate, end)
+                .execute(configName)
+                .getResults();
+    }
+
+    protected List<DepositSummary> getDeposits(Date start, Date end, int page) throws ApiException {
+        return ReportingService.findDepositsPaged(page, pageSize)
+                .withStartDate(start)
+                .withEndDate(end)
+                .execute(configName)
+                .getResults();
+    }
+
+    private void reconcilePartition(Date start, Date end) throws ApiException {
+        TransactionIndex index = new TransactionIndex();
+        Map<String, long[]> batches = new HashMap<String, long[]>();
+        Map<String, long[]> deposits = new HashMap<String, long[]>();
+
+        // records
+        Iterator<ReconciliationRecord> records = recordSource.getRecords(start, end);
+        while(records.hasNext()) {
+            ReconciliationRecord record = records.next();
+            long amount = toMinor(record.getAmount());
+            index.put(hash(record.getTransactionId()), amount);
+            totalFor(batches, record.getBatchId())[0] += amount;
+        }
+
+        // settlement transactions
+        for(int page = 1; ; page++) {
+            List<TransactionSummary> settlements = getSettlementTransactions(start, end, page);
+            for(TransactionSummary settlement: settlements) {
+                long amount = toMinor(settlement.getAmount());
+                if("REFUND".equalsIgnoreCase(settlement.getTransactionType())) {
+                    amount = -Math.abs(amount);
+                }
+
+                int slot = index.find(hash(settlement.getTransactionId()));
+                ReconciliationEvent event = new ReconciliationEvent()
+                        .setId(settlement.getTransactionId())
+                        .setSettledAmount(toAmount(amount))
+                        .setSettlement(settlement);
+                if(slot < 0) {
+                    event.setType(ReconciliationEventType.UnmatchedSettlement);
+                }
+                else {
+                    index.markSeen(slot);
+                    long expected = index.getAmount(slot);
+                    event.setType(expected == amount ? ReconciliationEventType.Matched : ReconciliationEventType.AmountMismatch)
+                            .setExpectedAmount(toAmount(expected));
+                }
+                emit(event);
+
+                totalFor(batches, settlement.getBatchSequenceNumber())[1] += amount;
+                totalFor(deposits, settlement.getDepositReference())[0] += amount;
+            }
+            if(settlements.size() < pageSize) {
+                break;
+            }
+        }
+
+        // disputes
+        for(int page = 1; ; page++) {
+            List<DisputeSummary> disputes = getDisputes(start, end, page);
+            for(DisputeSummary dispute: disputes) {
+                BigDecimal amount = dispute.getCaseAmount() != null ? dispute.getCaseAmount() : dispute.getDisputeAmount();
+                totalFor(deposits, dispute.getDepositReference())[0] -= Math.abs(toMinor(amount));
+            }
+            if(disputes.size() < pageSize) {
+                break;
+            }
+        }
+
+        // deposits
+        for(int page = 1; ; page++) {
+            List<DepositSummary> depositPage = getDeposits(start, end, page);
+            for(DepositSummary deposit: depositPage) {
+                long[] totals = deposits.remove(deposit.getDepositId());
+                long settled = totals == null ? 0L : totals[0];
+                long expected = toMinor(deposit.getSalesTotalAmount())
+                        - Math.abs(toMinor(deposit.getRefundsTotalAmount()))
+                        - Math.abs(toMinor(deposit.getChargebackTotalAmount()));
+                emit(new ReconciliationEvent()
+                        .setType(expected == settled ? ReconciliationEventType.DepositMatched : ReconciliationEventType.DepositMismatch)
+                        .setId(deposit.getDepositId())
+                        .setExpectedAmount(toAmount(expected))
+                        .setSettledAmount(toAmount(settled))
+                        .setDeposit(deposit));
+            }
+            if(depositPage.size() < pageSize) {
+                break;
+            }
+        }
+        for(Map.Entry<String, long[]> deposit: deposits.entrySet()) {
+            emit(new ReconciliationEvent()
+                    .setType(ReconciliationEventType.UnmatchedDeposit)
+                    .setId(deposit.getKey())
+                    .setSettledAmount(toAmount(deposit.getValue()[0])));
+        }
+
+        // records without a settlement transaction
+        records = recordSource.getRecords(start, end);
+        while(records.hasNext()) {
+            ReconciliationRecord record = records.next();
+            int slot = index.find(hash(record.getTransactionId()));
+            if(slot >= 0 && !index.isSeen(slot)) {
+                // reported once, even if the source repeats the record
+                index.markSeen(slot);
+                emit(new ReconciliationEvent()
+                        .setType(ReconciliationEventType.UnmatchedRecord)
+                        .setId(record.getTransactionId())
+                        .setExpectedAmount(record.getAmount())
+                        .setRecord(record));
+            }
+        }
+
+        // batches
+        for(Map.Entry<String, long[]> batch: batches.entrySet()) {
+            long[] totals = batch.getValue();
+            emit(new ReconciliationEvent()
+                    .setType(totals[0] == totals[1] ? ReconciliationEventType.BatchMatched : ReconciliationEventType.BatchMismatch)
+                    .setId(batch.getKey())
+                    .setExpectedAmount(toAmount(totals[0]))
+                    .setSettledAmount(toAmount(totals[1])));
+        }
+    }
+
+    private void emit(ReconciliationEvent event) {
+        synchronized(listener) {
+            listener.onEvent(event);
+        }
+    }
+
+    private static long[] totalFor(Map<String, long[]> totals, String key) {
+        long[] rvalue = totals.get(key);
+        if(rvalue == null) {
+            rvalue = new long[2];
+            totals.put(key, rvalue);
+        }
+        return rvalue;
+    }
+
+    private static long toMinor(BigDecimal amount) {
+        if(amount == null) {
+            return 0L;
+        }
+        return amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValue();
+    }
+
+    private static BigDecimal toAmount(long minor) {
+        return BigDecimal.valueOf(minor, 2);
+    }
+
+    /**
+     * 64-bit FNV-1a with a final mix, never 0 since 0 marks an empty slot.
+     */
+    static long hash(String value) {
+        long rvalue = 0xcbf29ce484222325L;
+        if(value != null) {
+            for(int i = 0; i < value.length(); i++) {
+                rvalue ^= value.charAt(i);
+                rvalue *= 0x100000001b3L;
+            }
+        }
+        rvalue ^= rvalue >>> 33;
+        rvalue *= 0xff51afd7ed558ccdL;
+        rvalue ^= rvalue >>> 33;
+        return rvalue == 0L ? 1L : rvalue;
+    }
+
+    /**
+     * Open addressing table of transaction ID hashes, their recorded amounts and whether a
+     * settlement transaction has matched them.
+     */
+    static class TransactionIndex {
+        private long[] keys = new long[1024];
+        private long[] amounts = new long[1024];
+        private boolean[] seen = new boolean[1024];
+        private int size;
+
+        void put(long key, long amount) {
+            if((size + 1) * 2 > keys.length) {
+                grow();
+            }
+
+            int slot = slotFor(keys, key);
+            if(keys[slot] == 0L) {
+                keys[slot] = key;
+                size++;
+            }
+            amounts[slot] = amount;
+        }
+
+        /**
+         * @return the slot holding the key, or -1
+         */
+        int find(long key) {
+            int slot = slotFor(keys, key);
+            return keys[slot] == key ? slot : -1;
+        }
+
+        long getAmount(int slot) {
+            return amounts[slot];
+        }
+
+        boolean isSeen(int slot) {
+            return seen[slot];
+        }
+
+        void markSeen(int slot) {
+            seen[slot] = true;
+        }
+
+        int size() {
+            return size;
+        }
+
+        private void grow() {
+            long[] oldKeys = keys;
+            long[] oldAmounts = amounts;
+            boolean[] oldSeen = seen;
+
+            keys = new long[oldKeys.length * 2];
+            amounts = new long[keys.length];
+            seen = new boolean[keys.length];
+            for(int i = 0; i < oldKeys.length; i++) {
+                if(oldKeys[i] != 0L) {
+                    int slot = slotFor(keys, oldKeys[i]);
+                    keys[slot] = oldKeys[i];
+                    amounts[slot] = oldAmounts[i];
+                    seen[slot] = oldSeen[i];
+                }
+            }
+        }
+
+        private static int slotFor(long[] keys, long key) {
+            int mask = keys.length - 1;
+            int slot = (int)key & mask;
+            while(keys[slot] != 0L && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+    }
+}
@@ -24,6 +24,7 @@ public class ConnectionConfig extends Configuration implements ITerminalConfigur
     private int port;
     private DeviceType deviceType;
     private IRequestIdProvider requestIdProvider;
+    private boolean persistentConnection;
 
     public void setConnectionMode(ConnectionModes connectionModes) {
         this.connectionMode = connectionModes;
@@ -52,23 +53,35 @@ public class ConnectionConfig extends Configuration implements ITerminalConfigur
     public void setRequestIdProvider(IRequestIdProvider requestIdProvider) {
         this.requestIdProvider = requestIdProvider;
     }
+    // keep one connection open to the device between commands (UPA only)
+    public void setPersistentConnection(boolean persistentConnection) {
+        this.persistentConnection = persistentConnection;
+    }
 
     public ConnectionConfig(){
         timeout = 30000;
     }
 
     public void configureContainer(ConfiguredServices services) throws ConfigurationException {
+        DeviceController controller = createDeviceController();
+        if(controller != null) {
+            services.setDeviceController(controller);
+        }
+    }
+
+    /**
+     * @return a new controller for the configured device type, or null if the type is not supported
+     */
+    public DeviceController createDeviceController() throws ConfigurationException {
         switch (deviceType) {
             case PAX_DEVICE:
-                services.setDeviceController(new PaxController(this));
-                break;
+                return new PaxController(this);
             case HPA_ISC250:
-                services.setDeviceController(new HpaController(this));
-                break;
+                return new HpaController(this);
             case UPA_DEVICE:
-                services.setDeviceController(new UpaController(this));
+                return new UpaController(this);
             default:
-                break;
+                return null;
         }
     }
 
@@ -0,0 +1,84 @@
+package com.global.api.terminals;
+
+import com.global.api.entities.exceptions.MessageException;
+
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Shared pool of daemon threads that run the readers for open device connections.
+ * A reader holds its thread for as long as its connection is open and hands it back when the
+ * connection closes, so reconnecting reuses idle threads instead of starting new ones. Idle
+ * threads exit after a minute.
+ * <p>
+ * Readers block, so the pool holds one thread per open connection. It is bounded at
+ * {@value #DEFAULT_MAX_THREADS} threads by default, which sets the maximum number of device
+ * connections open at once in this JVM. A connection beyond the bound fails to connect with a
+ * {@link MessageException}, and no thread is started for it. Raise or lower the bound with
+ * {@link #setMaxThreads(int)} before opening connections.
+ */
+public class DeviceIoExecutor {
+    public static final int DEFAULT_MAX_THREADS = 256;
+
+    private static final ThreadPoolExecutor executor = new ThreadPoolExecutor(
+            0,
+            DEFAULT_MAX_THREADS,
+            60L,
+            TimeUnit.SECONDS,
+            new SynchronousQueue<Runnable>(),
+            new ThreadFactory() {
+                private final AtomicInteger count = new AtomicInteger();
+
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, "device-io-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+
+    private DeviceIoExecutor() {
+    }
+
+    /**
+     * @return the maximum number of device connections that can be read at once
+     */
+    public static int getMaxThreads() {
+        return executor.getMaximumPoolSize();
+    }
+    /**
+     * Sets the maximum number of device connections that can be read at once. Readers already
+     * running keep their threads; after lowering the limit, idle threads above it exit and new
+     * connections are refused until the thread count is back under it.
+     */
+    public static void setMaxThreads(int maxThreads) {
+        if(maxThreads < 1) {
+            throw new IllegalArgumentException("maxThreads must be at least 1.");
+        }
+        executor.setMaximumPoolSize(maxThreads);
+    }
+
+    public static int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    /**
+     * @return the number of reader threads started, whether running a reader or idle
+     */
+    public static int getThreadCount() {
+        return executor.getPoolSize();
+    }
+
+    public static Future<?> submit(Runnable reader) throws MessageException {
+        try {
+            return executor.submit(reader);
+        }
+        catch(RejectedExecutionException exc) {
+            throw new MessageException(String.format("Unable to start a device reader, %s connections are already open.", executor.getMaximumPoolSize()), exc);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.global.api.terminals;
+
+import com.global.api.entities.exceptions.ApiException;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Aggregated result of a command run across a {@link TerminalFleet}, keyed by device id.
+ */
+public class FleetResponse<T> {
+    private final Map<String, T> responses = new LinkedHashMap<String, T>();
+    private final Map<String, ApiException> errors = new LinkedHashMap<String, ApiException>();
+
+    void addResponse(String deviceId, T response) {
+        responses.put(deviceId, response);
+    }
+    void addError(String deviceId, ApiException error) {
+        errors.put(deviceId, error);
+    }
+
+    public Map<String, T> getResponses() {
+        return Collections.unmodifiableMap(responses);
+    }
+    public Map<String, ApiException> getErrors() {
+        return Collections.unmodifiableMap(errors);
+    }
+    public T getResponse(String deviceId) {
+        return responses.get(deviceId);
+    }
+    public ApiException getError(String deviceId) {
+        return errors.get(deviceId);
+    }
+    public boolean isSuccessful() {
+        return errors.isEmpty();
+    }
+    public int getSuccessCount() {
+        return responses.size();
+    }
+    public int getFailureCount() {
+        return errors.size();
+    }
+}
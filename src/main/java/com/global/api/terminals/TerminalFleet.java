@@ -0,0 +1,468 @@
+package com.global.api.terminals;
+
+import com.global.api.entities.exceptions.ApiException;
+import com.global.api.entities.exceptions.ConfigurationException;
+import com.global.api.entities.exceptions.MessageException;
+import com.global.api.entities.exceptions.UnsupportedTransactionException;
+import com.global.api.terminals.abstractions.IBatchCloseResponse;
+import com.global.api.terminals.abstractions.IDeviceCommand;
+import com.global.api.terminals.abstractions.IDeviceHealthCheck;
+import com.global.api.terminals.abstractions.IDeviceInterface;
+import com.global.api.terminals.abstractions.IDisposable;
+import com.global.api.terminals.abstractions.IEODResponse;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Owns the controllers for many devices (lanes) and runs commands against them.
+ *
+ * Commands for different devices run concurrently on a shared, bounded pool; commands for the same
+ * device run one at a time in the order they were submitted. Optional heartbeats check each idle
+ * device in the background. A device is marked unhealthy after {@link #setFailureThreshold(int)}
+ * consecutive communication failures (a {@link MessageException} from a command or heartbeat) and
+ * healthy again after the next success. Commands for an unhealthy device go to its backup device,
+ * if one is set and healthy.
+ */
+public class TerminalFleet implements IDisposable {
+    private static final int DEFAULT_MAX_CONCURRENCY = 32;
+    private static final int DEFAULT_FAILURE_THRESHOLD = 3;
+
+    private static final IDeviceHealthCheck PING = new IDeviceHealthCheck() {
+        public void check(String deviceId, IDeviceInterface device) throws ApiException {
+            try {
+                device.ping();
+            }
+            catch(UnsupportedTransactionException exc) {
+                // PAX and HPA have no ping
+                device.initialize();
+            }
+        }
+    };
+
+    private final ConcurrentHashMap<String, Device> devices = new ConcurrentHashMap<String, Device>();
+    private final List<String> deviceIds = new CopyOnWriteArrayList<String>();
+    private final ThreadPoolExecutor executor;
+    private ScheduledExecutorService heartbeat;
+    private volatile IDeviceHealthCheck healthCheck = PING;
+    private volatile int failureThreshold = DEFAULT_FAILURE_THRESHOLD;
+
+    public TerminalFleet() {
+        this(DEFAULT_MAX_CONCURRENCY);
+    }
+
+    /**
+     * @param maxConcurrency the most commands that run at once across the whole fleet
+     */
+    public TerminalFleet(int maxConcurrency) {
+        executor = new ThreadPoolExecutor(
+                maxConcurrency,
+                maxConcurrency,
+                60L,
+                TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(),
+                daemonThreads("terminal-fleet"));
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    public TerminalFleet addDevice(String deviceId, ConnectionConfig config) throws ConfigurationException {
+        DeviceController controller = config.createDeviceController();
+        if(controller == null) {
+            throw new ConfigurationException(String.format("Device type %s is not supported.", config.getDeviceType()));
+        }
+        return addDevice(deviceId, controller);
+    }
+
+    public TerminalFleet addDevice(String deviceId, DeviceController controller) throws ConfigurationException {
+        Device device = new Device(deviceId, controller, controller.configureInterface());
+        if(devices.putIfAbsent(deviceId, device) != null) {
+            throw new ConfigurationException(String.format("Device %s has already been added.", deviceId));
+        }
+        deviceIds.add(deviceId);
+        return this;
+    }
+
+    public void removeDevice(String deviceId) {
+        Device device = devices.remove(deviceId);
+        if(device != null) {
+            deviceIds.remove(deviceId);
+            device.queue.cancelAll();
+            device.controller.dispose();
+        }
+    }
+
+    /**
+     * Routes commands for {@code deviceId} to {@code backupDeviceId} while the first is unhealthy.
+     */
+    public TerminalFleet setBackupDevice(String deviceId, String backupDeviceId) throws ConfigurationException {
+        Device device = devices.get(deviceId);
+        if(device == null || !devices.containsKey(backupDeviceId)) {
+            throw new ConfigurationException("Both devices must be added before a backup is set.");
+        }
+        device.backupId = backupDeviceId;
+        return this;
+    }
+
+    public void setHealthCheck(IDeviceHealthCheck healthCheck) {
+        this.healthCheck = healthCheck != null ? healthCheck : PING;
+    }
+
+    public void setFailureThreshold(int failureThreshold) {
+        this.failureThreshold = Math.max(1, failureThreshold);
+    }
+
+    public List<String> getDeviceIds() {
+        return new ArrayList<String>(deviceIds);
+    }
+
+    public DeviceController getDeviceController(String deviceId) {
+        Device device = devices.get(deviceId);
+        return device != null ? device.controller : null;
+    }
+
+    public boolean isHealthy(String deviceId) {
+        Device device = devices.get(deviceId);
+        return device != null && device.healthy;
+    }
+
+    public List<String> getUnhealthyDevices() {
+        List<String> rvalue = new ArrayList<String>();
+        for(String deviceId: deviceIds) {
+            if(!isHealthy(deviceId)) {
+                rvalue.add(deviceId);
+            }
+        }
+        return rvalue;
+    }
+
+    /**
+     * @return the last communication error seen for the device, cleared by the next success
+     */
+    public ApiException getLastError(String deviceId) {
+        Device device = devices.get(deviceId);
+        return device != null ? device.lastError : null;
+    }
+
+    public <T> Future<T> submit(String deviceId, IDeviceCommand<T> command) throws ApiException {
+        return submit(resolve(deviceId), command);
+    }
+
+    public <T> T execute(String deviceId, IDeviceCommand<T> command) throws ApiException {
+        return await(submit(deviceId, command));
+    }
+
+    /**
+     * Runs the command on every device in parallel, each on the device itself rather than a backup.
+     */
+    public <T> FleetResponse<T> executeAll(IDeviceCommand<T> command) {
+        Map<String, Future<T>> futures = new LinkedHashMap<String, Future<T>>();
+        FleetResponse<T> rvalue = new FleetResponse<T>();
+        for(String deviceId: deviceIds) {
+            Device device = devices.get(deviceId);
+            if(device == null) {
+                continue;
+            }
+            try {
+                futures.put(deviceId, submit(device, command));
+            }
+            catch(ApiException exc) {
+                rvalue.addError(deviceId, exc);
+            }
+        }
+
+        for(Map.Entry<String, Future<T>> entry: futures.entrySet()) {
+            try {
+                rvalue.addResponse(entry.getKey(), await(entry.getValue()));
+            }
+            catch(ApiException exc) {
+                rvalue.addError(entry.getKey(), exc);
+            }
+        }
+        return rvalue;
+    }
+
+    public FleetResponse<IBatchCloseResponse> batchClose() {
+        return executeAll(new IDeviceCommand<IBatchCloseResponse>() {
+            public IBatchCloseResponse execute(IDeviceInterface device) throws ApiException {
+                return device.batchClose();
+            }
+        });
+    }
+
+    public FleetResponse<IEODResponse> endOfDay() {
+        return executeAll(new IDeviceCommand<IEODResponse>() {
+            public IEODResponse execute(IDeviceInterface device) throws ApiException {
+                return device.endOfDay();
+            }
+        });
+    }
+
+    /**
+     * Checks every idle device every {@code interval}. Devices busy with a command are skipped, as
+     * the command itself reports on the device's health.
+     */
+    public synchronized void startHeartbeat(long interval, TimeUnit unit) {
+        stopHeartbeat();
+        heartbeat = Executors.newSingleThreadScheduledExecutor(daemonThreads("terminal-fleet-heartbeat"));
+        heartbeat.scheduleWithFixedDelay(new Runnable() {
+            public void run() {
+                checkHealth();
+            }
+        }, interval, interval, unit);
+    }
+
+    public synchronized void stopHeartbeat() {
+        if(heartbeat != null) {
+            heartbeat.shutdownNow();
+            heartbeat = null;
+        }
+    }
+
+    /**
+     * Queues a heartbeat for each idle device that does not already have one pending.
+     */
+    public void checkHealth() {
+        for(String deviceId: deviceIds) {
+            final Device device = devices.get(deviceId);
+            if(device == null || device.queue.isBusy() || !device.heartbeatPending.compareAndSet(false, true)) {
+                continue;
+            }
+
+            try {
+                device.queue.execute(new Runnable() {
+                    public void run() {
+                        try {
+                            healthCheck.check(device.id, device.deviceInterface);
+                            device.recordSuccess();
+                        }
+                        catch(ApiException exc) {
+                            device.recordFailure(exc);
+                        }
+                        catch(RuntimeException exc) {
+                            device.recordFailure(new MessageException(exc.getMessage(), exc));
+                        }
+                        finally {
+                            device.heartbeatPending.set(false);
+                        }
+                    }
+                });
+            }
+            catch(RejectedExecutionException exc) {
+                device.heartbeatPending.set(false);
+            }
+        }
+    }
+
+    /**
+     * Stops the fleet and disposes every controller. Commands that are still queued or running are
+     * cancelled, so callers waiting on them get an {@link ApiException} instead of waiting forever.
+     */
+    public void dispose() {
+        stopHeartbeat();
+        for(Runnable task: executor.shutdownNow()) {
+            if(task instanceof QueuedTask) {
+                ((QueuedTask)task).cancel();
+            }
+        }
+        for(String deviceId: deviceIds) {
+            Device device = devices.get(deviceId);
+            if(device != null) {
+                device.queue.cancelAll();
+                device.controller.dispose();
+            }
+        }
+    }
+
+    private Device resolve(String deviceId) throws ApiException {
+        Device device = devices.get(deviceId);
+        if(device == null) {
+            throw new ConfigurationException(String.format("Device %s has not been added to the fleet.", deviceId));
+        }
+        if(!device.healthy && device.backupId != null) {
+            Device backup = devices.get(device.backupId);
+            if(backup != null && backup.healthy) {
+                return backup;
+            }
+        }
+        // with nowhere better to go, try the device itself; a success marks it healthy again
+        return device;
+    }
+
+    private <T> Future<T> submit(final Device device, final IDeviceCommand<T> command) throws ApiException {
+        FutureTask<T> task = new FutureTask<T>(new Callable<T>() {
+            public T call() throws Exception {
+                try {
+                    T rvalue = command.execute(device.deviceInterface);
+                    device.recordSuccess();
+                    return rvalue;
+                }
+                catch(MessageException exc) {
+                    device.recordFailure(exc);
+                    throw exc;
+                }
+            }
+        });
+
+        try {
+            device.queue.execute(task);
+        }
+        catch(RejectedExecutionException exc) {
+            throw new ApiException("The terminal fleet has been disposed.", exc);
+        }
+        return task;
+    }
+
+    private static <T> T await(Future<T> future) throws ApiException {
+        try {
+            return future.get();
+        }
+        catch(ExecutionException exc) {
+            Throwable cause = exc.getCause();
+            if(cause instanceof ApiException) {
+                throw (ApiException)cause;
+            }
+            throw new ApiException(cause.getMessage(), cause instanceof Exception ? (Exception)cause : exc);
+        }
+        catch(CancellationException exc) {
+            throw new ApiException("The terminal fleet has been disposed.", exc);
+        }
+        catch(InterruptedException exc) {
+            Thread.currentThread().interrupt();
+            throw new ApiException("Interrupted while waiting for the device.", exc);
+        }
+    }
+
+    private static ThreadFactory daemonThreads(final String name) {
+        return new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, name + "-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        };
+    }
+
+    private class Device {
+        private final String id;
+        private final DeviceController controller;
+        private final IDeviceInterface deviceInterface;
+        private final SerialQueue queue = new SerialQueue();
+        private final AtomicInteger failures = new AtomicInteger();
+        private final AtomicBoolean heartbeatPending = new AtomicBoolean();
+        private volatile String backupId;
+        private volatile boolean healthy = true;
+        private volatile ApiException lastError;
+
+        private Device(String id, DeviceController controller, IDeviceInterface deviceInterface) {
+            this.id = id;
+            this.controller = controller;
+            this.deviceInterface = deviceInterface;
+        }
+
+        void recordSuccess() {
+            failures.set(0);
+            lastError = null;
+            healthy = true;
+        }
+
+        void recordFailure(ApiException error) {
+            lastError = error;
+            if(failures.incrementAndGet() >= failureThreshold) {
+                healthy = false;
+            }
+        }
+    }
+
+    // a task queued on a device, handed to the shared pool once the device's previous task ends
+    private static class QueuedTask implements Runnable {
+        private final Runnable task;
+        private final SerialQueue queue;
+
+        private QueuedTask(Runnable task, SerialQueue queue) {
+            this.task = task;
+            this.queue = queue;
+        }
+
+        public void run() {
+            try {
+                task.run();
+            }
+            finally {
+                queue.scheduleNext();
+            }
+        }
+
+        void cancel() {
+            if(task instanceof Future) {
+                ((Future<?>)task).cancel(true);
+            }
+        }
+    }
+
+    // runs one task at a time for a device, in submission order, on the shared pool
+    private class SerialQueue {
+        private final ArrayDeque<QueuedTask> tasks = new ArrayDeque<QueuedTask>();
+        private QueuedTask active;
+
+        synchronized void execute(final Runnable task) {
+            if(executor.isShutdown()) {
+                throw new RejectedExecutionException("The terminal fleet has been disposed.");
+            }
+
+            tasks.offer(new QueuedTask(task, this));
+            if(active == null) {
+                scheduleNext();
+            }
+        }
+
+        synchronized boolean isBusy() {
+            return active != null;
+        }
+
+        // cancels the running task and everything queued behind it
+        synchronized void cancelAll() {
+            if(active != null) {
+                active.cancel();
+                active = null;
+            }
+            for(QueuedTask task: tasks) {
+                task.cancel();
+            }
+            tasks.clear();
+        }
+
+        private synchronized void scheduleNext() {
+            active = tasks.poll();
+            if(active != null) {
+                try {
+                    executor.execute(active);
+                }
+                catch(RejectedExecutionException exc) {
+                    // disposed while tasks were queued
+                    cancelAll();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.global.api.terminals.abstractions;
+
+import com.global.api.entities.exceptions.ApiException;
+
+/**
+ * A unit of work run against one device of a {@link com.global.api.terminals.TerminalFleet}.
+ */
+public interface IDeviceCommand<T> {
+    T execute(IDeviceInterface device) throws ApiException;
+}
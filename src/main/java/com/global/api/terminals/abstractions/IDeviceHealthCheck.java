@@ -0,0 +1,11 @@
+package com.global.api.terminals.abstractions;
+
+import com.global.api.entities.exceptions.ApiException;
+
+/**
+ * Heartbeat used by {@link com.global.api.terminals.TerminalFleet}; a device is healthy when this
+ * returns normally.
+ */
+public interface IDeviceHealthCheck {
+    void check(String deviceId, IDeviceInterface device) throws ApiException;
+}
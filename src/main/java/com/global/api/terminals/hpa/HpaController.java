@@ -168,7 +168,10 @@ public class HpaController extends DeviceController implements IDisposable {
     }
 
     public void dispose() {
-        _device.dispose();
+        if(_device != null) {
+            try { _device.closeLane(); }
+            catch(ApiException e) { /* NOM NOM */ }
+        }
         _interface.disconnect();
     }
 }
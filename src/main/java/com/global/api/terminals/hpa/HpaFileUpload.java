@@ -1,21 +1,34 @@
 package com.global.api.terminals.hpa;
 
+import java.io.Closeable;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.util.LinkedList;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 
-import com.global.api.utils.IOUtils;
-import com.global.api.utils.StringUtils;
-import org.apache.commons.codec.binary.Hex;
 import com.global.api.entities.enums.SendFileType;
 import com.global.api.entities.exceptions.ApiException;
 
-class HpaFileUpload {
-    private String hexData;
+/**
+ * Streams an image to the device one part at a time. Each part is read from the file and
+ * hex encoded only when it is requested, using buffers that are reused between parts, so
+ * the whole file is never held in memory.
+ */
+class HpaFileUpload implements Closeable {
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+
+    private FileChannel channel;
     private String fileName;
     private int fileSize;
 
+    private ByteBuffer readBuffer;
+    private char[] hexBuffer;
+    private long bytesRead;
+    // low nibble of a byte split across two parts
+    private char pendingChar;
+    private boolean hasPendingChar;
+
     String getFileName() {
         return fileName;
     }
@@ -43,31 +56,87 @@ class HpaFileUpload {
                 throw new ApiException("Unknown Send file type");
             }
         }
-        
+
         //File size
-        byte[] buffer;
-        try(FileInputStream input= new FileInputStream(file);) {
-            buffer = new byte[input.available()];
-            int bytesRead = input.read(buffer, 0, buffer.length);
+        try {
+            channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+            fileSize = (int)channel.size();
         } catch (IOException e) {
+            close();
+            throw new ApiException("Buffer should not be empty.", e);
+        }
+        if(fileSize == 0) {
+            close();
             throw new ApiException("Buffer should not be empty.");
         }
-        hexData = Hex.encodeHexString(buffer).toUpperCase();
-        fileSize = buffer.length;
     }
-    
-    LinkedList<String> getFileParts(int maxDataLength) {
-        if (StringUtils.isNullOrEmpty(hexData)) {
+
+    boolean hasMoreParts() {
+        return hasPendingChar || bytesRead < fileSize;
+    }
+
+    /**
+     * @param maxDataLength the most hex characters to return
+     * @return the next part of the file as upper case hex, or null once the whole file has been read
+     */
+    String nextPart(int maxDataLength) throws ApiException {
+        if(maxDataLength <= 0) {
+            throw new ApiException("The device did not accept any file data.");
+        }
+        if(!hasMoreParts()) {
             return null;
         }
 
-        LinkedList<String> fileParts = new LinkedList<String>();
-        for (int i = 0; i < hexData.length(); i += maxDataLength) {
-            int remainingBytes = hexData.length() - i;
-            int endIndex = i + Math.min(maxDataLength, remainingBytes);
+        if(hexBuffer == null || hexBuffer.length < maxDataLength) {
+            hexBuffer = new char[maxDataLength];
+            readBuffer = ByteBuffer.allocate(maxDataLength / 2 + 1);
+        }
+
+        int length = 0;
+        if(hasPendingChar) {
+            hexBuffer[length++] = pendingChar;
+            hasPendingChar = false;
+        }
+
+        // a part may end half way through a byte, in which case its second character starts the next part
+        int bytesWanted = (int)Math.min((maxDataLength - length + 1) / 2, fileSize - bytesRead);
+        readBuffer.clear();
+        readBuffer.limit(bytesWanted);
+        try {
+            while(readBuffer.hasRemaining()) {
+                if(channel.read(readBuffer) == -1) {
+                    throw new ApiException("The file was truncated while it was being sent.");
+                }
+            }
+        } catch (IOException e) {
+            throw new ApiException("Failed to read the file.", e);
+        }
+        bytesRead += bytesWanted;
 
-            fileParts.add(hexData.substring(i, endIndex));
+        readBuffer.flip();
+        while(readBuffer.hasRemaining()) {
+            int value = readBuffer.get() & 0xFF;
+            hexBuffer[length++] = HEX[value >>> 4];
+            char low = HEX[value & 0x0F];
+            if(length < maxDataLength) {
+                hexBuffer[length++] = low;
+            }
+            else {
+                pendingChar = low;
+                hasPendingChar = true;
+            }
+        }
+        return new String(hexBuffer, 0, length);
+    }
+
+    public void close() {
+        if(channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // Eating the close exception
+            }
+            channel = null;
         }
-        return fileParts;
     }
 }
@@ -29,7 +29,6 @@ import com.global.api.terminals.pax.responses.SAFUploadResponse;
 import com.global.api.utils.StringUtils;
 
 import java.math.BigDecimal;
-import java.util.LinkedList;
 
 public class HpaInterface implements IDeviceInterface {
     private HpaController _controller;
@@ -134,21 +133,23 @@ public class HpaInterface implements IDeviceInterface {
         }
 
         //Load the File
-        HpaFileUpload fileUpload = new HpaFileUpload(imageType, filePath);
-
-        //Build the initial message
-        HpaAdminBuilder builder = new HpaAdminBuilder(HpaMsgId.SEND_FILE.getValue()) {{ setKeepAlive(true); }}
-                .set("FileName", fileUpload.getFileName())
-                .set("FileSize", fileUpload.getFileSize())
-                .set("MultipleMessage", "1");
-
-        SipSendFileResponse response = _controller.sendAdminMessage(SipSendFileResponse.class, builder);
-        if(response.getDeviceResponseCode().equals("00")) {
-            LinkedList<String> fileParts = fileUpload.getFileParts(response.getMaxDataSize() / 5);
-            String lastElement = fileParts.getLast();
+        try(HpaFileUpload fileUpload = new HpaFileUpload(imageType, filePath)) {
+            //Build the initial message
+            HpaAdminBuilder builder = new HpaAdminBuilder(HpaMsgId.SEND_FILE.getValue()) {{ setKeepAlive(true); }}
+                    .set("FileName", fileUpload.getFileName())
+                    .set("FileSize", fileUpload.getFileSize())
+                    .set("MultipleMessage", "1");
+
+            SipSendFileResponse response = _controller.sendAdminMessage(SipSendFileResponse.class, builder);
+            if(!response.getDeviceResponseCode().equals("00")) {
+                throw new ApiException(String.format("Failed to upload file: %s", response.getDeviceResponseText()));
+            }
 
-            for(String filePart: fileParts) {
-                final String multipleMessage = filePart.equals(lastElement) ? "0" : "1";
+            // only the last part waits for a response, so each part is read and encoded just before it is sent
+            int maxDataLength = response.getMaxDataSize() / 5;
+            while(fileUpload.hasMoreParts()) {
+                String filePart = fileUpload.nextPart(maxDataLength);
+                final String multipleMessage = fileUpload.hasMoreParts() ? "1" : "0";
 
                 SipSendFileResponse dataResponse = _controller.sendAdminMessage(SipSendFileResponse.class,
                         new HpaAdminBuilder(HpaMsgId.SEND_FILE.getValue()) {{
@@ -165,7 +166,6 @@ public class HpaInterface implements IDeviceInterface {
             }
             return response;
         }
-        else throw new ApiException(String.format("Failed to upload file: %s", response.getDeviceResponseText()));
     }
 
     public IEODResponse endOfDay() throws ApiException {
@@ -285,11 +285,8 @@ public class HpaInterface implements IDeviceInterface {
     }
 
     public void dispose() {
-        try { closeLane(); }
-        catch(ApiException e) { /* NOM NOM */ }
-        finally {
-            _controller.dispose();
-        }
+        // the controller closes the lane before it disconnects
+        _controller.dispose();
     }
 
     public IDeviceResponse setStoreAndForwardMode(SafMode mode) throws ApiException {
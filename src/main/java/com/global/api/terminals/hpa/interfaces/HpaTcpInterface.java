@@ -1,33 +1,37 @@
 package com.global.api.terminals.hpa.interfaces;
 
 import com.global.api.entities.exceptions.MessageException;
+import com.global.api.terminals.DeviceIoExecutor;
 import com.global.api.terminals.abstractions.IDeviceCommInterface;
 import com.global.api.terminals.abstractions.IDeviceMessage;
 import com.global.api.terminals.abstractions.ITerminalConfiguration;
-import com.global.api.terminals.messaging.IMessageReceivedInterface;
 import com.global.api.terminals.messaging.IMessageSentInterface;
-import com.global.api.utils.AutoResetEvent;
 import com.global.api.utils.Element;
 import com.global.api.utils.ElementTree;
 
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.net.Socket;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 public class HpaTcpInterface implements IDeviceCommInterface {
     private Socket client;
     private DataOutputStream out;
-    private InputStream in;
-    private AutoResetEvent await;
+    private Future<?> reader;
     private ITerminalConfiguration settings;
-    private List<Byte> messageQueue;
     private String lastConnectionError;
 
+    // guarded by this; the response in progress and the bytes received for it so far
+    private final ByteArrayOutputStream messageQueue = new ByteArrayOutputStream();
+    private CompletableFuture<byte[]> pendingResponse;
+
     private IMessageSentInterface onMessageSent;
-    private IMessageReceivedInterface onMessageReceived;
 
     public void setMessageSentHandler(IMessageSentInterface onMessageSent) {
         this.onMessageSent = onMessageSent;
@@ -35,133 +39,129 @@ public class HpaTcpInterface implements IDeviceCommInterface {
 
     public HpaTcpInterface(ITerminalConfiguration settings) {
         this.settings = settings;
-        this.await = new AutoResetEvent(false);
-
-        onMessageReceived = new IMessageReceivedInterface() {
-            public void messageReceived(byte[] message) {
-                if(messageQueue == null)
-                    messageQueue = new ArrayList<Byte>();
+    }
 
-                for(byte b: message)
-                    messageQueue.add(b);
+    private synchronized void messageReceived(byte[] message) {
+        messageQueue.write(message, 0, message.length);
 
-                try {
-                    Element msg = ElementTree.parse(message).get("SIP");
-                    int multiMessage = msg.getInt("MultipleMessage");
-                    if(multiMessage == 0)
-                        await.set();
-                    else messageQueue.add((byte)'\r'); // delimiter
-                }
-                catch(Exception e) {
-                    // this should never cause a failure
-                    messageQueue.add((byte)'\r'); // delimiter
+        try {
+            Element msg = ElementTree.parse(message).get("SIP");
+            int multiMessage = msg.getInt("MultipleMessage");
+            if(multiMessage == 0) {
+                if(pendingResponse != null) {
+                    pendingResponse.complete(messageQueue.toByteArray());
                 }
             }
-        };
+            else messageQueue.write('\r'); // delimiter
+        }
+        catch(Exception e) {
+            // this should never cause a failure
+            messageQueue.write('\r'); // delimiter
+        }
+    }
+
+    private synchronized void connectionClosed(Socket socket, IOException exc) {
+        // a reader left over from an earlier connection must not touch the current request
+        if(socket == client && pendingResponse != null) {
+            pendingResponse.completeExceptionally(new MessageException("Connection to the device was closed.", exc));
+        }
     }
 
-    private void beginReceiveThread() {
-        Thread receiveThread = new Thread() {
+    private Runnable createReader(final Socket socket) throws IOException {
+        final DataInputStream in = new DataInputStream(socket.getInputStream());
+        return new Runnable() {
             public void run() {
-                while(true) {
-                    try {
-                        if(in.available() > 0) {
-                            do {
-                                int length = getLength();
-                                if (length > 0) {
-                                    byte[] buffer = new byte[8192];
-
-                                    boolean incomplete = true;
-                                    int offset = 0;
-                                    int tempLength = length;
-                                    do {
-                                        int bytesReceived = in.read(buffer, offset, tempLength);
-                                        if (bytesReceived != tempLength) {
-                                            offset += bytesReceived;
-                                            tempLength -= bytesReceived;
-                                            sleep(10);
-                                        } else incomplete = false;
-                                    }
-                                    while (incomplete);
-
-                                    byte[] readBuffer = new byte[length];
-                                    System.arraycopy(buffer, 0, readBuffer, 0, length);
-                                    onMessageReceived.messageReceived(readBuffer);
-                                }
-                                else break;
-                            }
-                            while(true);
+                byte[] lengthBuffer = new byte[2];
+                try {
+                    while(!Thread.currentThread().isInterrupted()) {
+                        in.readFully(lengthBuffer);
+                        int length = (short)(((lengthBuffer[0] & 0xFF) << 8) | (lengthBuffer[1] & 0xFF));
+                        if(length <= 0) {
+                            continue;
                         }
-                        sleep(300);
-                    } catch (Exception e) {
-                        // This never needs to fail
+
+                        byte[] readBuffer = new byte[length];
+                        in.readFully(readBuffer);
+                        messageReceived(readBuffer);
                     }
                 }
+                catch(IOException exc) {
+                    connectionClosed(socket, exc);
+                }
             }
         };
-        receiveThread.start();
     }
 
-    public void connect() {
+    public synchronized void connect() {
         if(client == null) {
+            Socket socket = null;
             try {
-                client = new Socket(settings.getIpAddress(), settings.getPort());
-
-                if(client.isConnected()) {
-                    out = new DataOutputStream(client.getOutputStream());
-                    in = client.getInputStream();
-
-                    beginReceiveThread();
-                }
+                socket = new Socket(settings.getIpAddress(), settings.getPort());
+                out = new DataOutputStream(socket.getOutputStream());
+                client = socket;
+                reader = DeviceIoExecutor.submit(createReader(socket));
             }
-            catch(IOException e) {
+            catch(Exception e) {
                 lastConnectionError = e.getMessage();
+                closeQuietly(socket);
+                client = null;
+                out = null;
             }
         }
     }
 
-    public void disconnect() {
-        try {
-            if (!client.isClosed()) {
-                in.close();
-                out.close();
-                client.close();
-            }
-            messageQueue = null;
-        }
-        catch(IOException e) {
-            // Eating the close exception
-        }
-        finally {
-            in = null;
-            out = null;
-            client = null;
+    public synchronized void disconnect() {
+        // closing the socket ends the blocking read, which returns the reader's thread to the pool
+        closeQuietly(client);
+        if(reader != null) {
+            reader.cancel(true);
         }
+        messageQueue.reset();
+
+        reader = null;
+        out = null;
+        client = null;
     }
 
     public byte[] send(IDeviceMessage message) throws MessageException {
         connect();
 
-        if(client == null || !client.isConnected()) {
-            throw new MessageException(String.format("Could not connect to the device. %s", lastConnectionError));
+        DataOutputStream stream;
+        CompletableFuture<byte[]> response = new CompletableFuture<byte[]>();
+        synchronized (this) {
+            if(client == null || !client.isConnected()) {
+                throw new MessageException(String.format("Could not connect to the device. %s", lastConnectionError));
+            }
+
+            stream = out;
+            messageQueue.reset();
+            pendingResponse = message.isAwaitResponse() ? response : null;
         }
 
         String strMessage = message.toString();
-        messageQueue = new ArrayList<Byte>();
         try{
             byte[] buffer = message.getSendBuffer();
 
-            if(out != null) {
-                out.write(buffer, 0, buffer.length);
-                out.flush();
+            if(stream != null) {
+                stream.write(buffer, 0, buffer.length);
+                stream.flush();
 
                 if(message.isAwaitResponse()) {
-                    await.waitOne(settings.getTimeout());
-                    if(messageQueue.size() == 0) {
+                    try {
+                        return response.get(settings.getTimeout(), TimeUnit.MILLISECONDS);
+                    }
+                    catch(TimeoutException exc) {
+                        // return whatever part of a multiple message response has arrived
+                        synchronized (this) {
+                            if(messageQueue.size() > 0) {
+                                return messageQueue.toByteArray();
+                            }
+                        }
                         throw new MessageException("Device did not response within the timeout");
                     }
-
-                    return convertBytes(messageQueue.toArray(new Byte[messageQueue.size()]));
+                    catch(ExecutionException exc) {
+                        throw exc.getCause() instanceof MessageException ? (MessageException)exc.getCause() : new MessageException(exc.getMessage());
+                    }
                 }
                 else return null;
             }
@@ -171,6 +171,12 @@ public class HpaTcpInterface implements IDeviceCommInterface {
             throw new MessageException("Failed to send message see inner exception for more details", exc);
         }
         finally {
+            synchronized (this) {
+                if(pendingResponse == response) {
+                    pendingResponse = null;
+                }
+            }
+
             if(onMessageSent != null) {
                 onMessageSent.messageSent(strMessage.substring(2));
             }
@@ -181,27 +187,14 @@ public class HpaTcpInterface implements IDeviceCommInterface {
         }
     }
 
-    private int getLength() {
-        try {
-            byte[] lengthBuffer = new byte[2];
-            int byteCount = in.read(lengthBuffer, 0, 2);
-
-            if(byteCount != 2)
-                return 0;
-            return (short)(((lengthBuffer[0] & 0xFF) << 8) | (lengthBuffer[1] & 0xFF));
-        }
-        catch(IOException e) {
-            return 0;
+    private static void closeQuietly(Socket socket) {
+        if(socket != null) {
+            try {
+                socket.close();
+            }
+            catch(IOException e) {
+                // Eating the close exception
+            }
         }
     }
-
-    private byte[] convertBytes(Byte[] buffer) {
-        byte[] returnBuffer = new byte[buffer.length];
-
-        int index = 0;
-        for(Byte b: buffer)
-            returnBuffer[index++] = b;
-
-        return returnBuffer;
-    }
 }
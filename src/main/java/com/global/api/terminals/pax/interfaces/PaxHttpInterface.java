@@ -38,11 +38,16 @@ public class PaxHttpInterface implements IDeviceCommInterface {
         if(onMessageSent != null)
             onMessageSent.messageSent(message.toString());
 
-        String payload = Base64.encodeBase64String(message.getSendBuffer()).replace("\r", "").replace("\n", "");
+        // unchunked Base64 has no line breaks, so it goes straight into the query string
+        byte[] payload = Base64.encodeBase64(message.getSendBuffer(), false);
+        StringBuilder endpoint = new StringBuilder(payload.length + 32)
+                .append("http://").append(_settings.getIpAddress()).append(':').append(_settings.getPort()).append('?');
+        for(byte b: payload) {
+            endpoint.append((char)b);
+        }
 
-        String endpoint = String.format("http://%s:%d?%s", _settings.getIpAddress(), _settings.getPort(), payload);
         try {
-            _client = (HttpURLConnection) new URL(endpoint).openConnection();
+            _client = (HttpURLConnection) new URL(endpoint.toString()).openConnection();
         } catch(IOException e) {
             throw new ApiException(e.getMessage(), e);
         }
@@ -53,8 +58,9 @@ public class PaxHttpInterface implements IDeviceCommInterface {
             _client.setRequestMethod("GET");
             _client.addRequestProperty("Content-Type", "text/xml; charset=UTF-8");
 
-            InputStream responseStream = _client.getInputStream();
-            return IOUtils.readFully(responseStream).getBytes();
+            try(InputStream responseStream = _client.getInputStream()) {
+                return IOUtils.readBytes(responseStream);
+            }
         } catch(IOException e){
             throw new MessageException("Failed to send message. Check inner exception for more details.", e);
         }
@@ -2,23 +2,36 @@ package com.global.api.terminals.pax.interfaces;
 
 import com.global.api.entities.enums.ControlCodes;
 import com.global.api.entities.exceptions.MessageException;
+import com.global.api.terminals.DeviceIoExecutor;
 import com.global.api.terminals.TerminalUtilities;
 import com.global.api.terminals.abstractions.*;
 import com.global.api.terminals.messaging.IMessageSentInterface;
 import com.global.api.utils.EnumUtils;
 
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.Socket;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 public class PaxTcpInterface implements IDeviceCommInterface {
+    private static final byte STX = ControlCodes.STX.getByte();
+    private static final byte ETX = ControlCodes.ETX.getByte();
+
     private Socket client;
     private DataOutputStream out;
-    private InputStream in;
+    private Future<?> reader;
     private ITerminalConfiguration settings;
     private int nakCount = 0;
 
+    // guarded by this; completed with the framed message, or null for a NAK
+    private CompletableFuture<byte[]> pendingResponse;
 
     private IMessageSentInterface onMessageSent;
 
@@ -30,34 +43,38 @@ public class PaxTcpInterface implements IDeviceCommInterface {
         this.settings = settings;
     }
 
-    public void connect() {
+    public synchronized void connect() {
         if(client == null) {
+            Socket socket = null;
             try {
-                client = new Socket(settings.getIpAddress(), settings.getPort());
-                if(client.isConnected()) {
-                    out = new DataOutputStream(client.getOutputStream());
-                    in = client.getInputStream();
-                    client.setKeepAlive(true);
+                socket = new Socket(settings.getIpAddress(), settings.getPort());
+                if(socket.isConnected()) {
+                    out = new DataOutputStream(socket.getOutputStream());
+                    socket.setKeepAlive(true);
+                    client = socket;
+                    reader = DeviceIoExecutor.submit(createReader(socket));
                 }
                 else throw new IOException("Client failed to connect");
             }
-            catch(IOException exc) {
+            catch(Exception exc) {
                 //TODO: Handle this exception
+                closeQuietly(socket);
+                client = null;
+                out = null;
             }
         }
     }
 
-    public void disconnect() {
-        try {
-            if (!client.isClosed()) {
-                in.close();
-                out.close();
-                client.close();
-            }
-            client = null;
-        } catch(IOException e) {
-            // Eating the close exception
+    public synchronized void disconnect() {
+        // closing the socket ends the blocking read, which returns the reader's thread to the pool
+        closeQuietly(client);
+        if(reader != null) {
+            reader.cancel(true);
         }
+
+        reader = null;
+        out = null;
+        client = null;
     }
 
     public byte[] send(IDeviceMessage message) throws MessageException {
@@ -69,9 +86,10 @@ public class PaxTcpInterface implements IDeviceCommInterface {
                 onMessageSent.messageSent(message.toString());
 
             for(int i = 0; i < 3; i++) {
+                CompletableFuture<byte[]> response = beginResponse();
                 out.write(buffer);
 
-                byte[] rvalue = getTerminalResponse();
+                byte[] rvalue = getTerminalResponse(response);
                 if (rvalue != null) {
                     byte lrc = rvalue[rvalue.length - 1]; // should be the lrc
                     if (lrc != TerminalUtilities.calculateLRC(rvalue))
@@ -92,6 +110,14 @@ public class PaxTcpInterface implements IDeviceCommInterface {
         }
     }
 
+    private synchronized CompletableFuture<byte[]> beginResponse() throws MessageException {
+        if(client == null) {
+            throw new MessageException("Device not connected");
+        }
+        pendingResponse = new CompletableFuture<byte[]>();
+        return pendingResponse;
+    }
+
     private void sendControlCode(ControlCodes code) throws MessageException {
         try {
             if (code != ControlCodes.NAK) {
@@ -105,45 +131,91 @@ public class PaxTcpInterface implements IDeviceCommInterface {
         }
     }
 
-    private byte[] getTerminalResponse() throws MessageException {
+    private byte[] getTerminalResponse(CompletableFuture<byte[]> response) throws MessageException {
         try {
-            byte[] buffer = new byte[4096];
-            int bytesReceived = awaitResponse(in, buffer);
-
-            if(bytesReceived > 0) {
-                byte[] rec_buffer = new byte[bytesReceived];
-                System.arraycopy(buffer, 0, rec_buffer, 0, bytesReceived);
-
-                ControlCodes code = EnumUtils.parse(ControlCodes.class, rec_buffer[0]); // queue.readCode();
-                if (code.equals(ControlCodes.NAK))
-                    return null;
-                else if (code.equals(ControlCodes.EOT))
-                    throw new MessageException("Terminal returned EOT for the current message");
-                else if (code.equals(ControlCodes.ACK))
-                    return getTerminalResponse();
-                else if (code.equals(ControlCodes.STX)) {
-                    return rec_buffer;
-                } else throw new MessageException(String.format("Unknown message received: %s", code));
-            }
-
+            return response.get(settings.getTimeout(), TimeUnit.MILLISECONDS);
+        }
+        catch(TimeoutException exc) {
             return null;
         }
-        catch(IOException exc) {
+        catch(ExecutionException exc) {
+            if(exc.getCause() instanceof MessageException) {
+                throw (MessageException)exc.getCause();
+            }
             return null;
         }
+        catch(InterruptedException exc) {
+            Thread.currentThread().interrupt();
+            throw new MessageException("Interrupted while waiting for the terminal.", exc);
+        }
     }
 
-    private int awaitResponse(InputStream in, byte[] buffer) throws IOException {
-        long t = System.currentTimeMillis();
-        do {
-            if(in.available() > 0) {
-                return in.read(buffer);
+    private synchronized void responseReceived(Socket socket, byte[] message) {
+        if(socket == client && pendingResponse != null) {
+            pendingResponse.complete(message);
+        }
+    }
+
+    private synchronized void responseFailed(Socket socket, Exception error) {
+        if(socket == client && pendingResponse != null) {
+            pendingResponse.completeExceptionally(error);
+        }
+    }
+
+    // control codes arrive on their own; a message runs from STX to ETX followed by the LRC
+    private Runnable createReader(final Socket socket) throws IOException {
+        final InputStream in = new BufferedInputStream(socket.getInputStream());
+        return new Runnable() {
+            public void run() {
+                ByteArrayOutputStream frame = new ByteArrayOutputStream(4096);
+                try {
+                    int value;
+                    while((value = in.read()) != -1) {
+                        byte b = (byte)value;
+                        if(frame.size() == 0) {
+                            if(b == STX) {
+                                frame.write(b);
+                                continue;
+                            }
+
+                            ControlCodes code = EnumUtils.parse(ControlCodes.class, b);
+                            if(code == ControlCodes.NAK)
+                                responseReceived(socket, null);
+                            else if(code == ControlCodes.EOT)
+                                responseFailed(socket, new MessageException("Terminal returned EOT for the current message"));
+                            else if(code != ControlCodes.ACK)
+                                responseFailed(socket, new MessageException(String.format("Unknown message received: %s", code)));
+                            continue;
+                        }
+
+                        frame.write(b);
+                        if(b == ETX) {
+                            int lrc = in.read();
+                            if(lrc == -1) {
+                                break;
+                            }
+                            frame.write(lrc);
+                            responseReceived(socket, frame.toByteArray());
+                            frame.reset();
+                        }
+                    }
+                    responseFailed(socket, new MessageException("Connection to the device was closed."));
+                }
+                catch(IOException exc) {
+                    responseFailed(socket, new MessageException("Connection to the device was closed.", exc));
+                }
             }
+        };
+    }
 
-            if (System.currentTimeMillis() - t >= settings.getTimeout())
-                break;
+    private static void closeQuietly(Socket socket) {
+        if(socket != null) {
+            try {
+                socket.close();
+            }
+            catch(IOException e) {
+                // Eating the close exception
+            }
         }
-        while(true);
-        throw new IOException("Terminal did not respond in the given timeout");
     }
-}
\ No newline at end of file
+}
@@ -15,6 +15,7 @@ import com.global.api.terminals.builders.TerminalManageBuilder;
 import com.global.api.terminals.messaging.IMessageSentInterface;
 import com.global.api.terminals.upa.Entities.Enums.UpaMessageId;
 import com.global.api.terminals.upa.interfaces.UpaTcpInterface;
+import com.global.api.terminals.upa.interfaces.UpaTcpSession;
 import com.global.api.terminals.upa.responses.UpaTransactionResponse;
 import com.global.api.terminals.upa.subgroups.RequestParamFields;
 import com.global.api.terminals.upa.subgroups.RequestProcessingIndicatorsFields;
@@ -39,7 +40,7 @@ public class UpaController extends DeviceController {
         this.requestIdProvider = settings.getRequestIdProvider();
 
         if (settings.getConnectionMode() == ConnectionModes.TCP_IP) {
-            _interface = new UpaTcpInterface(settings);
+            _interface = settings.isPersistentConnection() ? new UpaTcpSession(settings) : new UpaTcpInterface(settings);
         } else {
             throw new ConfigurationException("Unsupported connection mode.");
         }
@@ -0,0 +1,100 @@
+package com.global.api.terminals.upa.interfaces;
+
+import com.global.api.entities.enums.ControlCodes;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reassembles UPA packets (STX LF payload LF ETX LF) from a stream that may split or join them
+ * arbitrarily. Bytes are appended as they are read and every completed payload is returned, with
+ * line feeds removed as the device inserts them for readability only.
+ */
+public class UpaMessageFramer {
+    private static final byte STX = ControlCodes.STX.getByte();
+    private static final byte ETX = ControlCodes.ETX.getByte();
+    private static final byte LF = ControlCodes.LF.getByte();
+
+    private byte[] buffer;
+    private int length;
+
+    public UpaMessageFramer() {
+        this(4096);
+    }
+    public UpaMessageFramer(int initialCapacity) {
+        buffer = new byte[initialCapacity];
+    }
+
+    public List<byte[]> append(byte[] data, int offset, int count) {
+        ensureCapacity(length + count);
+        System.arraycopy(data, offset, buffer, length, count);
+        length += count;
+
+        List<byte[]> rvalue = new ArrayList<byte[]>();
+        int start = 0;
+        while(true) {
+            // anything ahead of STX is line noise
+            while(start < length && buffer[start] != STX) {
+                start++;
+            }
+
+            int end = -1;
+            for(int i = start + 1; i < length - 1; i++) {
+                if(buffer[i] == ETX && buffer[i + 1] == LF) {
+                    end = i;
+                    break;
+                }
+            }
+            if(end < 0) {
+                break;
+            }
+
+            rvalue.add(extractPayload(start + 1, end));
+            start = end + 2;
+        }
+
+        // keep any partial packet for the next read
+        if(start > 0) {
+            System.arraycopy(buffer, start, buffer, 0, length - start);
+            length -= start;
+        }
+        return rvalue;
+    }
+
+    /**
+     * @return the number of bytes held from an incomplete packet
+     */
+    public int getPendingLength() {
+        return length;
+    }
+
+    public void reset() {
+        length = 0;
+    }
+
+    private byte[] extractPayload(int from, int to) {
+        int size = 0;
+        for(int i = from; i < to; i++) {
+            if(buffer[i] != LF) {
+                size++;
+            }
+        }
+
+        byte[] payload = new byte[size];
+        int position = 0;
+        for(int i = from; i < to; i++) {
+            if(buffer[i] != LF) {
+                payload[position++] = buffer[i];
+            }
+        }
+        return payload;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if(capacity > buffer.length) {
+            byte[] grown = new byte[Math.max(capacity, buffer.length * 2)];
+            System.arraycopy(buffer, 0, grown, 0, length);
+            buffer = grown;
+        }
+    }
+}
@@ -60,7 +60,7 @@ public class UpaTcpInterface implements IDeviceCommInterface {
 
     public void disconnect() {
         try {
-            if (!client.isClosed()) {
+            if (client != null && !client.isClosed()) {
                 in.close();
                 out.close();
                 client.close();
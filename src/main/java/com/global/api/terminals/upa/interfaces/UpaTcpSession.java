@@ -0,0 +1,350 @@
+package com.global.api.terminals.upa.interfaces;
+
+import com.global.api.entities.exceptions.MessageException;
+import com.global.api.terminals.ConnectionConfig;
+import com.global.api.terminals.DeviceIoExecutor;
+import com.global.api.terminals.TerminalUtilities;
+import com.global.api.terminals.abstractions.IDeviceCommInterface;
+import com.global.api.terminals.abstractions.IDeviceMessage;
+import com.global.api.terminals.messaging.IMessageSentInterface;
+import com.global.api.terminals.upa.Entities.Constants;
+import com.global.api.utils.JsonDoc;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * Long-lived connection to a UPA device, used when {@link ConnectionConfig#setPersistentConnection(boolean)}
+ * is set. The socket stays open between commands and a reader on a {@link DeviceIoExecutor} thread
+ * frames everything the device sends: data messages are acknowledged as soon as they arrive and
+ * matched to the waiting command by requestId, and the command completes when the device reports
+ * READY. There are no fixed delays; {@link #send(IDeviceMessage)} only waits on the device.
+ */
+public class UpaTcpSession implements IDeviceCommInterface {
+    static final String TIMEOUT_MESSAGE = "Terminal did not respond in the given timeout.";
+
+    private final ConnectionConfig settings;
+    private final Object sendLock = new Object();
+    private final Object writeLock = new Object();
+    private final Object stateLock = new Object();
+
+    private Socket client;
+    private OutputStream out;
+    private String lastConnectionError;
+    private PendingRequest pending;
+    private IMessageSentInterface onMessageSent;
+
+    public void setMessageSentHandler(IMessageSentInterface onMessageSent) {
+        this.onMessageSent = onMessageSent;
+    }
+
+    public UpaTcpSession(ConnectionConfig settings) {
+        this.settings = settings;
+    }
+
+    public boolean isConnected() {
+        synchronized (stateLock) {
+            return client != null;
+        }
+    }
+
+    public void connect() {
+        synchronized (stateLock) {
+            if(client != null) {
+                return;
+            }
+
+            Socket socket = new Socket();
+            try {
+                socket.connect(new InetSocketAddress(settings.getIpAddress(), settings.getPort()), settings.getTimeout());
+                socket.setKeepAlive(true);
+                socket.setTcpNoDelay(true);
+
+                client = socket;
+                out = socket.getOutputStream();
+                beginReceiveThread(socket, new BufferedInputStream(socket.getInputStream()));
+            }
+            catch(Exception exc) {
+                lastConnectionError = exc.getMessage();
+                closeQuietly(socket);
+                client = null;
+                out = null;
+            }
+        }
+    }
+
+    public void disconnect() {
+        synchronized (stateLock) {
+            if(client != null) {
+                closeQuietly(client);
+            }
+            client = null;
+            out = null;
+        }
+    }
+
+    public byte[] send(IDeviceMessage message) throws MessageException {
+        synchronized (sendLock) {
+            connect();
+            if(!isConnected()) {
+                throw new MessageException(String.format("Unable to connect with device. %s", lastConnectionError));
+            }
+
+            byte[] sendBuffer = message.getSendBuffer();
+            PendingRequest request = new PendingRequest(getRequestId(sendBuffer));
+            synchronized (stateLock) {
+                pending = request;
+            }
+
+            try {
+                if(onMessageSent != null) {
+                    Timestamp t = new Timestamp(System.currentTimeMillis());
+                    onMessageSent.messageSent(t + ":\n" + new String(sendBuffer, StandardCharsets.UTF_8));
+                }
+                if(settings.getRequestLogger() != null) {
+                    settings.getRequestLogger().RequestSent(new String(sendBuffer, StandardCharsets.UTF_8));
+                }
+
+                write(sendBuffer);
+                return request.await(settings.getTimeout());
+            }
+            catch(IOException exc) {
+                disconnect();
+                throw new MessageException(exc.getMessage(), exc);
+            }
+            finally {
+                synchronized (stateLock) {
+                    if(pending == request) {
+                        pending = null;
+                    }
+                }
+            }
+        }
+    }
+
+    private void beginReceiveThread(final Socket socket, final InputStream in) throws MessageException {
+        DeviceIoExecutor.submit(new Runnable() {
+            public void run() {
+                UpaMessageFramer framer = new UpaMessageFramer();
+                byte[] buffer = new byte[4096];
+                String error = "Connection to the device was closed.";
+                try {
+                    int bytesRead;
+                    while((bytesRead = in.read(buffer)) != -1) {
+                        List<byte[]> payloads = framer.append(buffer, 0, bytesRead);
+                        for(byte[] payload: payloads) {
+                            messageReceived(payload);
+                        }
+                    }
+                }
+                catch(IOException exc) {
+                    error = String.format("Connection to the device was lost. %s", exc.getMessage());
+                }
+                finally {
+                    connectionLost(socket, error);
+                }
+            }
+        });
+    }
+
+    void messageReceived(byte[] payload) throws IOException {
+        String responseString = new String(payload, StandardCharsets.UTF_8);
+        if(settings.getRequestLogger() != null) {
+            settings.getRequestLogger().ResponseReceived(responseString);
+        }
+
+        JsonDoc responseObj;
+        String message;
+        try {
+            responseObj = JsonDoc.parse(responseString);
+            message = responseObj.getString("message");
+        }
+        catch(Exception exc) {
+            fail(new MessageException("Unable to parse the device response.", exc));
+            return;
+        }
+
+        if(message == null) {
+            fail(new MessageException("Message field value is unknown in API Response."));
+            return;
+        }
+
+        switch (message) {
+            case Constants.ACK_MESSAGE:
+            case Constants.NAK_MESSAGE:
+            case Constants.TIMEOUT_MESSAGE:
+                break;
+            case Constants.BUSY_MESSAGE:
+                fail(new MessageException("Device is busy"));
+                break;
+            case Constants.DATA_MESSAGE:
+                sendAckMessageToDevice();
+
+                JsonDoc data = responseObj.get("data");
+                String requestId = data != null ? data.getString("requestId") : null;
+                boolean reboot = data != null && "Reboot".equals(data.getString("response"));
+                synchronized (stateLock) {
+                    if(pending != null && pending.matches(requestId)) {
+                        pending.responseReceived(payload);
+                        if(reboot) {
+                            // reboot doesn't return READY
+                            pending.complete();
+                        }
+                    }
+                }
+                break;
+            case Constants.READY_MESSAGE:
+                synchronized (stateLock) {
+                    if(pending != null && pending.hasResponse()) {
+                        pending.complete();
+                    }
+                }
+                break;
+            default:
+                fail(new MessageException("Message field value is unknown in API Response."));
+        }
+    }
+
+    private void fail(MessageException error) {
+        synchronized (stateLock) {
+            if(pending != null) {
+                pending.fail(error);
+            }
+        }
+    }
+
+    private void connectionLost(Socket socket, String error) {
+        synchronized (stateLock) {
+            closeQuietly(socket);
+            if(client == socket) {
+                client = null;
+                out = null;
+            }
+            if(pending != null) {
+                pending.fail(new MessageException(error));
+            }
+        }
+    }
+
+    private void write(byte[] buffer) throws IOException {
+        OutputStream stream;
+        synchronized (stateLock) {
+            stream = out;
+        }
+        if(stream == null) {
+            throw new IOException("Device not connected");
+        }
+
+        synchronized (writeLock) {
+            stream.write(buffer);
+            stream.flush();
+        }
+    }
+
+    private void sendAckMessageToDevice() throws IOException {
+        JsonDoc json = new JsonDoc();
+        json.set("data", "", true);
+        json.set("message", "ACK");
+        byte[] sendBuffer = TerminalUtilities.compileMessage(json.toString()).getSendBuffer();
+
+        if(settings.getRequestLogger() != null) {
+            settings.getRequestLogger().RequestSent(new String(sendBuffer, StandardCharsets.UTF_8));
+        }
+        if(onMessageSent != null) {
+            Timestamp t = new Timestamp(System.currentTimeMillis());
+            onMessageSent.messageSent(t + ":\n" + new String(sendBuffer, StandardCharsets.UTF_8));
+        }
+
+        write(sendBuffer);
+    }
+
+    private static String getRequestId(byte[] sendBuffer) {
+        List<byte[]> payloads = new UpaMessageFramer(sendBuffer.length).append(sendBuffer, 0, sendBuffer.length);
+        if(payloads.isEmpty()) {
+            return null;
+        }
+
+        try {
+            JsonDoc data = JsonDoc.parse(new String(payloads.get(0), StandardCharsets.UTF_8)).get("data");
+            return data != null ? data.getString("requestId") : null;
+        }
+        catch(Exception exc) {
+            return null;
+        }
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        }
+        catch(IOException exc) {
+            // Eating the close exception
+        }
+    }
+
+    private static class PendingRequest {
+        private final String requestId;
+        private byte[] response;
+        private MessageException error;
+        private boolean done;
+
+        private PendingRequest(String requestId) {
+            this.requestId = requestId;
+        }
+
+        // responses without a requestId belong to the command in flight
+        boolean matches(String responseRequestId) {
+            return requestId == null || responseRequestId == null || requestId.equals(responseRequestId);
+        }
+
+        synchronized boolean hasResponse() {
+            return response != null;
+        }
+
+        synchronized void responseReceived(byte[] response) {
+            this.response = response;
+        }
+
+        synchronized void complete() {
+            done = true;
+            notifyAll();
+        }
+
+        synchronized void fail(MessageException error) {
+            if(!done) {
+                this.error = error;
+                done = true;
+                notifyAll();
+            }
+        }
+
+        synchronized byte[] await(long timeout) throws MessageException {
+            long deadline = System.currentTimeMillis() + timeout;
+            try {
+                while(!done) {
+                    long remaining = deadline - System.currentTimeMillis();
+                    if(remaining <= 0) {
+                        throw new MessageException(TIMEOUT_MESSAGE);
+                    }
+                    wait(remaining);
+                }
+            }
+            catch(InterruptedException exc) {
+                Thread.currentThread().interrupt();
+                throw new MessageException("Interrupted while waiting for the device.", exc);
+            }
+
+            if(error != null) {
+                throw error;
+            }
+            return response;
+        }
+    }
+}
@@ -0,0 +1,319 @@
+package com.global.api.utils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compiled BIN lookup over up to {@link #MAX_DEPTH} leading PAN digits. Brand, fleet and ReadyLink
+ * ranges are expanded into a decimal digit trie when the table is built; every node then carries the
+ * resolved {@link BinInfo} for its prefix, so a lookup is a single walk over the PAN digits that
+ * returns a shared, pre-built result.
+ *
+ * When ranges overlap, the longest (most specific) prefix wins.
+ */
+public class BinTable {
+    public static final int MAX_DEPTH = 8;
+    private static final String UNKNOWN = "Unknown";
+
+    private final Node root;
+    private final String[] brands;
+
+    private BinTable(Node root, String[] brands) {
+        this.root = root;
+        this.brands = brands;
+    }
+
+    /**
+     * @return the brand names in the order they were first added
+     */
+    public String[] getBrands() {
+        return brands.clone();
+    }
+
+    /**
+     * Looks up the PAN, ignoring spaces and dashes; stops at the first other non-digit character.
+     * Never returns null.
+     */
+    public BinInfo lookup(String pan) {
+        if(StringUtils.isNullOrEmpty(pan)) {
+            return root.info;
+        }
+
+        int digits = 0;
+        for(int i = 0; i < pan.length(); i++) {
+            char c = pan.charAt(i);
+            if(c >= '0' && c <= '9') {
+                digits++;
+            }
+            else if(c != ' ' && c != '-') {
+                break;
+            }
+        }
+
+        BinInfo rvalue = root.info;
+        Node current = root;
+        int depth = 0;
+        for(int i = 0; i < pan.length() && depth < MAX_DEPTH; i++) {
+            char c = pan.charAt(i);
+            if(c == ' ' || c == '-') {
+                continue;
+            }
+            if(c < '0' || c > '9') {
+                break;
+            }
+
+            current = current.children[c - '0'];
+            if(current == null) {
+                break;
+            }
+            depth++;
+
+            if(current.info.minLength <= digits) {
+                rvalue = current.info;
+            }
+        }
+        return rvalue;
+    }
+
+    public static class BinInfo {
+        private final String brand;
+        private final String fleetBrand;
+        private final boolean fleet;
+        private final boolean readyLink;
+        private final String cardType;
+        private final int minLength;
+
+        private BinInfo(String brand, String fleetBrand, boolean readyLink, int minLength) {
+            this.brand = brand;
+            this.fleetBrand = fleetBrand;
+            this.fleet = brand != null && brand.equals(fleetBrand);
+            this.readyLink = readyLink;
+            this.minLength = minLength;
+
+            if(brand == null) {
+                cardType = UNKNOWN;
+            }
+            else if(fleet && !brand.equals("FleetWide")) {
+                cardType = brand + "Fleet";
+            }
+            else if(readyLink) {
+                cardType = brand + "ReadyLink";
+            }
+            else cardType = brand;
+        }
+
+        /**
+         * @return the base brand, e.g. "Visa", or null when the BIN is not recognised
+         */
+        public String getBrand() {
+            return brand;
+        }
+        /**
+         * @return the card type string used by the payment methods, e.g. "VisaFleet", "VisaReadyLink" or "Unknown"
+         */
+        public String getCardType() {
+            return cardType;
+        }
+        public boolean isFleet() {
+            return fleet;
+        }
+        public boolean isFleet(String baseCardType) {
+            return fleetBrand != null && fleetBrand.equals(baseCardType);
+        }
+        public boolean isReadyLink() {
+            return readyLink;
+        }
+    }
+
+    private static class Node {
+        private final Node[] children = new Node[10];
+        private String brand;
+        private int brandMinLength;
+        private String fleetBrand;
+        private boolean readyLink;
+        private BinInfo info;
+    }
+
+    public static class Builder {
+        private final Node root = new Node();
+        private final List<String> brands = new ArrayList<String>();
+
+        public Builder addBrand(String prefix, String brand) {
+            return addBrand(prefix, prefix, brand, prefix.length());
+        }
+        /**
+         * @param low first prefix of the range, same length as {@code high}
+         * @param high last prefix of the range (inclusive)
+         * @param minLength number of PAN digits required before the brand applies
+         */
+        public Builder addBrand(String low, String high, String brand, int minLength) {
+            if(!brands.contains(brand)) {
+                brands.add(brand);
+            }
+            for(String prefix: expandRange(low, high)) {
+                Node node = getNode(prefix);
+                node.brand = brand;
+                node.brandMinLength = Math.max(minLength, prefix.length());
+            }
+            return this;
+        }
+        public Builder addFleetRange(String brand, String low, String high) {
+            for(String prefix: expandRange(low, high)) {
+                getNode(prefix).fleetBrand = brand;
+            }
+            return this;
+        }
+        public Builder addReadyLink(String bin) {
+            for(String prefix: expandRange(bin, bin)) {
+                getNode(prefix).readyLink = true;
+            }
+            return this;
+        }
+
+        /**
+         * Reads a table in a simple comma separated format, one entry per line; blank lines and lines
+         * starting with '#' are skipped:
+         * <pre>
+         * BRAND,Visa,4
+         * BRAND,MC,2221,2720,4
+         * FLEET,Visa,448460,448611
+         * READYLINK,462766
+         * </pre>
+         */
+        public Builder load(Reader reader) throws IOException {
+            BufferedReader br = new BufferedReader(reader);
+            String line;
+            int lineNumber = 0;
+            while((line = br.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if(line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+
+                String[] fields = line.split(",");
+                String type = fields[0].trim().toUpperCase();
+                try {
+                    if(type.equals("BRAND") && fields.length == 3) {
+                        addBrand(fields[2].trim(), fields[1].trim());
+                    }
+                    else if(type.equals("BRAND") && fields.length >= 4) {
+                        String low = fields[2].trim();
+                        int minLength = fields.length > 4 ? Integer.parseInt(fields[4].trim()) : low.length();
+                        addBrand(low, fields[3].trim(), fields[1].trim(), minLength);
+                    }
+                    else if(type.equals("FLEET") && fields.length == 4) {
+                        addFleetRange(fields[1].trim(), fields[2].trim(), fields[3].trim());
+                    }
+                    else if(type.equals("READYLINK") && fields.length == 2) {
+                        addReadyLink(fields[1].trim());
+                    }
+                    else throw new IllegalArgumentException("unrecognised entry");
+                }
+                catch(IllegalArgumentException exc) {
+                    throw new IOException(String.format("Invalid BIN table entry at line %s: %s", lineNumber, line), exc);
+                }
+            }
+            return this;
+        }
+
+        public BinTable build() {
+            compile(root, null, 0, null, false, 0);
+            return new BinTable(root, brands.toArray(new String[0]));
+        }
+
+        private void compile(Node node, String brand, int brandMinLength, String fleetBrand, boolean readyLink, int depth) {
+            if(node.brand != null) {
+                brand = node.brand;
+                brandMinLength = node.brandMinLength;
+            }
+            if(node.fleetBrand != null) {
+                fleetBrand = node.fleetBrand;
+            }
+            readyLink |= node.readyLink;
+
+            node.info = new BinInfo(brand, fleetBrand, readyLink, Math.max(brandMinLength, depth));
+            for(Node child: node.children) {
+                if(child != null) {
+                    compile(child, brand, brandMinLength, fleetBrand, readyLink, depth + 1);
+                }
+            }
+        }
+
+        private Node getNode(String prefix) {
+            Node current = root;
+            for(int i = 0; i < prefix.length(); i++) {
+                int digit = prefix.charAt(i) - '0';
+                if(current.children[digit] == null) {
+                    current.children[digit] = new Node();
+                }
+                current = current.children[digit];
+            }
+            return current;
+        }
+
+        // splits an inclusive range of equal length decimal prefixes into the minimal set of covering prefixes
+        static List<String> expandRange(String low, String high) {
+            if(low == null || high == null || low.length() != high.length() || low.isEmpty() || low.length() > MAX_DEPTH) {
+                throw new IllegalArgumentException(String.format("Invalid BIN range %s-%s", low, high));
+            }
+            for(int i = 0; i < low.length(); i++) {
+                if(!isDigit(low.charAt(i)) || !isDigit(high.charAt(i))) {
+                    throw new IllegalArgumentException(String.format("Invalid BIN range %s-%s", low, high));
+                }
+            }
+            if(low.compareTo(high) > 0) {
+                throw new IllegalArgumentException(String.format("Invalid BIN range %s-%s", low, high));
+            }
+
+            List<String> rvalue = new ArrayList<String>();
+            expand("", low, high, rvalue);
+            return rvalue;
+        }
+
+        private static void expand(String prefix, String low, String high, List<String> output) {
+            if(isAll(low, '0') && isAll(high, '9')) {
+                output.add(prefix);
+                return;
+            }
+
+            char first = low.charAt(0);
+            char last = high.charAt(0);
+            if(first == last) {
+                expand(prefix + first, low.substring(1), high.substring(1), output);
+                return;
+            }
+
+            int remaining = low.length() - 1;
+            expand(prefix + first, low.substring(1), repeat('9', remaining), output);
+            for(char digit = (char)(first + 1); digit < last; digit++) {
+                output.add(prefix + digit);
+            }
+            expand(prefix + last, repeat('0', remaining), high.substring(1), output);
+        }
+
+        private static boolean isDigit(char c) {
+            return c >= '0' && c <= '9';
+        }
+
+        private static boolean isAll(String value, char c) {
+            for(int i = 0; i < value.length(); i++) {
+                if(value.charAt(i) != c) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static String repeat(char c, int count) {
+            StringBuilder sb = new StringBuilder(count);
+            for(int i = 0; i < count; i++) {
+                sb.append(c);
+            }
+            return sb.toString();
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.global.api.utils;
+
+import com.global.api.entities.exceptions.ApiException;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads the tagged fields written by {@link BinaryWriter}.
+ *
+ * Call {@link #next()} to move to each field, then either read its value or {@link #skip()} it.
+ * Fields the caller does not know about are skipped without being decoded, and nested messages are
+ * read in place without copying.
+ */
+public class BinaryReader {
+    private final byte[] buffer;
+    private final int limit;
+    private int position;
+    private int field;
+    private int wireType;
+
+    public BinaryReader(byte[] buffer) {
+        this(buffer, 0, buffer.length);
+    }
+
+    public BinaryReader(byte[] buffer, int offset, int length) {
+        this.buffer = buffer;
+        this.position = offset;
+        this.limit = offset + length;
+    }
+
+    public int getField() {
+        return field;
+    }
+
+    public int readRawByte() throws ApiException {
+        if(position >= limit) {
+            throw new ApiException("Unexpected end of data.");
+        }
+        return buffer[position++] & 0xFF;
+    }
+
+    /**
+     * @return false once every field has been read
+     */
+    public boolean next() throws ApiException {
+        if(position >= limit) {
+            return false;
+        }
+
+        long key = readVarint();
+        field = (int)(key >>> 3);
+        wireType = (int)(key & 0x07);
+        if(wireType != BinaryWriter.VARINT && wireType != BinaryWriter.LENGTH_DELIMITED) {
+            throw new ApiException(String.format("Unsupported wire type %s for field %s.", wireType, field));
+        }
+        return true;
+    }
+
+    public void skip() throws ApiException {
+        if(wireType == BinaryWriter.VARINT) {
+            readVarint();
+        }
+        else {
+            position = endOf(readLength());
+        }
+    }
+
+    public String readString() throws ApiException {
+        int length = readDelimited();
+        String rvalue = new String(buffer, position, length, StandardCharsets.UTF_8);
+        position += length;
+        return rvalue;
+    }
+
+    public int readInt() throws ApiException {
+        return (int)readLong();
+    }
+
+    public long readLong() throws ApiException {
+        expect(BinaryWriter.VARINT);
+        long value = readVarint();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    public boolean readBoolean() throws ApiException {
+        expect(BinaryWriter.VARINT);
+        return readVarint() != 0;
+    }
+
+    public BigDecimal readDecimal() throws ApiException {
+        int end = endOf(readDelimited());
+        long zigZagScale = readVarint();
+        int scale = (int)((zigZagScale >>> 1) ^ -(zigZagScale & 1));
+        if(position >= end) {
+            throw new ApiException("Malformed decimal for field " + field + ".");
+        }
+
+        byte[] unscaled = new byte[end - position];
+        System.arraycopy(buffer, position, unscaled, 0, unscaled.length);
+        position = end;
+        return new BigDecimal(new BigInteger(unscaled), scale);
+    }
+
+    /**
+     * @return null when the stored name is not a constant of {@code enumType}, such as one added in a
+     * newer version of the SDK
+     */
+    public <T extends Enum<T>> T readEnum(Class<T> enumType) throws ApiException {
+        String name = readString();
+        try {
+            return Enum.valueOf(enumType, name);
+        }
+        catch(IllegalArgumentException exc) {
+            return null;
+        }
+    }
+
+    public BinaryReader readMessage() throws ApiException {
+        int length = readDelimited();
+        BinaryReader rvalue = new BinaryReader(buffer, position, length);
+        position += length;
+        return rvalue;
+    }
+
+    private int readDelimited() throws ApiException {
+        expect(BinaryWriter.LENGTH_DELIMITED);
+        int length = readLength();
+        endOf(length);
+        return length;
+    }
+
+    private int readLength() throws ApiException {
+        long length = readVarint();
+        if(length < 0 || length > Integer.MAX_VALUE) {
+            throw new ApiException("Malformed length for field " + field + ".");
+        }
+        return (int)length;
+    }
+
+    private int endOf(int length) throws ApiException {
+        if(length > limit - position) {
+            throw new ApiException("Unexpected end of data in field " + field + ".");
+        }
+        return position + length;
+    }
+
+    private void expect(int expected) throws ApiException {
+        if(wireType != expected) {
+            throw new ApiException(String.format("Unexpected wire type %s for field %s.", wireType, field));
+        }
+    }
+
+    private long readVarint() throws ApiException {
+        long rvalue = 0;
+        for(int shift = 0; shift < 64; shift += 7) {
+            int b = readRawByte();
+            rvalue |= (long)(b & 0x7F) << shift;
+            if((b & 0x80) == 0) {
+                return rvalue;
+            }
+        }
+        throw new ApiException("Malformed varint in field " + field + ".");
+    }
+}
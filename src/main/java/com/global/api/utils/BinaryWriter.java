@@ -0,0 +1,145 @@
+package com.global.api.utils;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Writes tagged fields for {@link BinaryReader}.
+ *
+ * Each field is a varint key of {@code (field << 3) | wireType} followed by either a varint or a
+ * length and that many bytes. Null values and false booleans are not written.
+ */
+public class BinaryWriter {
+    public static final int VARINT = 0;
+    public static final int LENGTH_DELIMITED = 2;
+
+    private byte[] buffer;
+    private int position;
+
+    public BinaryWriter() {
+        this(64);
+    }
+
+    public BinaryWriter(int initialCapacity) {
+        buffer = new byte[Math.max(initialCapacity, 16)];
+    }
+
+    public int size() {
+        return position;
+    }
+
+    public byte[] toArray() {
+        return Arrays.copyOf(buffer, position);
+    }
+
+    public BinaryWriter writeRawByte(int value) {
+        ensureCapacity(1);
+        buffer[position++] = (byte)value;
+        return this;
+    }
+
+    public BinaryWriter writeString(int field, String value) {
+        if(value != null) {
+            writeBytes(field, value.getBytes(StandardCharsets.UTF_8));
+        }
+        return this;
+    }
+
+    public BinaryWriter writeInt(int field, Integer value) {
+        if(value != null) {
+            writeLong(field, value.longValue());
+        }
+        return this;
+    }
+
+    public BinaryWriter writeLong(int field, long value) {
+        writeKey(field, VARINT);
+        writeVarint((value << 1) ^ (value >> 63));
+        return this;
+    }
+
+    public BinaryWriter writeBoolean(int field, boolean value) {
+        if(value) {
+            writeKey(field, VARINT);
+            writeVarint(1L);
+        }
+        return this;
+    }
+
+    public BinaryWriter writeDecimal(int field, BigDecimal value) {
+        if(value != null) {
+            byte[] unscaled = value.unscaledValue().toByteArray();
+            int scale = value.scale();
+            long zigZagScale = (scale << 1) ^ (scale >> 31);
+
+            writeKey(field, LENGTH_DELIMITED);
+            writeVarint(varintSize(zigZagScale) + unscaled.length);
+            writeVarint(zigZagScale);
+            writeRaw(unscaled, 0, unscaled.length);
+        }
+        return this;
+    }
+
+    /**
+     * Enums are written by name so constants can be added or reordered without breaking stored data.
+     */
+    public BinaryWriter writeEnum(int field, Enum<?> value) {
+        if(value != null) {
+            writeString(field, value.name());
+        }
+        return this;
+    }
+
+    public BinaryWriter writeMessage(int field, BinaryWriter message) {
+        if(message != null) {
+            writeKey(field, LENGTH_DELIMITED);
+            writeVarint(message.position);
+            writeRaw(message.buffer, 0, message.position);
+        }
+        return this;
+    }
+
+    public BinaryWriter writeBytes(int field, byte[] value) {
+        if(value != null) {
+            writeKey(field, LENGTH_DELIMITED);
+            writeVarint(value.length);
+            writeRaw(value, 0, value.length);
+        }
+        return this;
+    }
+
+    private void writeKey(int field, int wireType) {
+        writeVarint(((long)field << 3) | wireType);
+    }
+
+    private void writeVarint(long value) {
+        ensureCapacity(10);
+        while((value & ~0x7FL) != 0) {
+            buffer[position++] = (byte)((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte)value;
+    }
+
+    private void writeRaw(byte[] value, int offset, int length) {
+        ensureCapacity(length);
+        System.arraycopy(value, offset, buffer, position, length);
+        position += length;
+    }
+
+    private void ensureCapacity(int length) {
+        if(position + length > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + length));
+        }
+    }
+
+    private static int varintSize(long value) {
+        int rvalue = 1;
+        while((value & ~0x7FL) != 0) {
+            value >>>= 7;
+            rvalue++;
+        }
+        return rvalue;
+    }
+}
@@ -5,190 +5,121 @@ import com.global.api.paymentMethods.GiftCard;
 import com.global.api.paymentMethods.ITrackData;
 import lombok.var;
 
-import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.Locale;
-import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 public class CardUtils {
-    private static final Pattern AmexRegex = Pattern.compile("^3[47]");
-    private static final Pattern MasterCardRegex = Pattern.compile("^(?:5[1-6]|222[1-9]|22[3-9][0-9]|2[3-6][0-9]{2}|27[01][0-9]|2720)");
-    private static final Pattern VisaRegex = Pattern.compile("^4");
-    private static final Pattern DinersClubRegex = Pattern.compile("^3(?:0[0-5]|[68][0-9])");
-    private static final Pattern RouteClubRegex = Pattern.compile("^(2014|2149)");
-    private static final Pattern DiscoverRegex = Pattern.compile("^6(?:011|5[0-9]{2})");
-    private static final Pattern JcbRegex = Pattern.compile("^(?:2131|1800|35\\d{3})");
-    private static final Pattern VoyagerRegex = Pattern.compile("^70888[5-9]");
-    private static final Pattern WexRegex = Pattern.compile("^(?:690046|707138)");
-    private static final Pattern FuelmanRegex = Pattern.compile("^707649[0-9]");
-    private static final Pattern FleetwideRegex = Pattern.compile("^707685[0-9]");
-    private static final Pattern StoredValueRegex = Pattern.compile("^(?:600649|603261|603571|627600|639470)");
-    private static final Pattern ValueLinkRegex = Pattern.compile("^(?:601056|603225)");
-    private static final Pattern HeartlandGiftRegex = Pattern.compile("^(?:502244|627720|708355)");
-    private static final Pattern UnionPayRegex = Pattern.compile("^(?:62[0-8]|81[0-8])");
-
     private static final Pattern trackOnePattern = Pattern.compile("%?[B0]?([\\d]+)\\^[^\\^]+\\^([\\d]{4})([^?]+)?/?");
     private static final Pattern trackTwoPattern = Pattern.compile(";?([\\d]+)[=|[dD]](\\d{4})([^?]+)?/?");
 
-    private static Map<String, Map<String, String>> fleetBinMap;
-    private static Map<String,Pattern> regexMap;
-    private static ArrayList<String> readyLinkBinMap;
-
-    static {
-        regexMap = new HashMap<String, Pattern>();
-        regexMap.put("Amex", AmexRegex);
-        regexMap.put("MC", MasterCardRegex);
-        regexMap.put("Visa", VisaRegex);
-        regexMap.put("DinersClub", DinersClubRegex);
-        regexMap.put("EnRoute", RouteClubRegex);
-        regexMap.put("Discover", DiscoverRegex);
-        regexMap.put("Jcb", JcbRegex);
-        regexMap.put("Voyager", VoyagerRegex);
-        regexMap.put("Wex", WexRegex);
-        regexMap.put("Fuelman", FuelmanRegex);
-        regexMap.put("FleetWide", FleetwideRegex);
-        regexMap.put("StoredValue", StoredValueRegex);
-        regexMap.put("ValueLink", ValueLinkRegex);
-        regexMap.put("HeartlandGift", HeartlandGiftRegex);
-        regexMap.put("UnionPay", UnionPayRegex);
+    private static volatile BinTable binTable = buildDefaultBinTable();
+
+    private static BinTable buildDefaultBinTable() {
+        BinTable.Builder builder = new BinTable.Builder()
+                .addBrand("34", "Amex").addBrand("37", "Amex")
+                .addBrand("51", "56", "MC", 2)
+                .addBrand("2221", "2229", "MC", 4)
+                .addBrand("223", "229", "MC", 4)
+                .addBrand("23", "26", "MC", 4)
+                .addBrand("270", "271", "MC", 4)
+                .addBrand("2720", "MC")
+                .addBrand("4", "Visa")
+                .addBrand("300", "305", "DinersClub", 3)
+                .addBrand("36", "DinersClub").addBrand("38", "DinersClub")
+                .addBrand("2014", "EnRoute").addBrand("2149", "EnRoute")
+                .addBrand("6011", "Discover")
+                .addBrand("65", "65", "Discover", 4)
+                .addBrand("2131", "Jcb").addBrand("1800", "Jcb")
+                .addBrand("35", "35", "Jcb", 5)
+                .addBrand("708885", "708889", "Voyager", 6)
+                .addBrand("690046", "Wex").addBrand("707138", "Wex")
+                .addBrand("707649", "707649", "Fuelman", 7)
+                .addBrand("707685", "707685", "FleetWide", 7)
+                .addBrand("600649", "StoredValue").addBrand("603261", "StoredValue").addBrand("603571", "StoredValue")
+                .addBrand("627600", "StoredValue").addBrand("639470", "StoredValue")
+                .addBrand("601056", "ValueLink").addBrand("603225", "ValueLink")
+                .addBrand("502244", "HeartlandGift").addBrand("627720", "HeartlandGift").addBrand("708355", "HeartlandGift")
+                .addBrand("620", "628", "UnionPay", 3)
+                .addBrand("810", "818", "UnionPay", 3);
 
         // ReadyLink
-        readyLinkBinMap = new ArrayList<String>();
-        readyLinkBinMap.add("462766");
-        readyLinkBinMap.add("406498");
-        readyLinkBinMap.add("440230");
-        readyLinkBinMap.add("485932");
-        readyLinkBinMap.add("434249");
-        readyLinkBinMap.add("487093");
-        readyLinkBinMap.add("411338");
-        readyLinkBinMap.add("438968");
-        readyLinkBinMap.add("444083");
-        readyLinkBinMap.add("417021");
-        readyLinkBinMap.add("400421");
-        readyLinkBinMap.add("426938");
-        readyLinkBinMap.add("478499");
-        readyLinkBinMap.add("446053");
-        readyLinkBinMap.add("459440");
-        readyLinkBinMap.add("421783");
-        readyLinkBinMap.add("422799");
-        readyLinkBinMap.add("473517");
-        readyLinkBinMap.add("493478");
-        readyLinkBinMap.add("453037");
-        readyLinkBinMap.add("443613");
-        readyLinkBinMap.add("401658");
-        readyLinkBinMap.add("439331");
-        readyLinkBinMap.add("407216");
-        readyLinkBinMap.add("400123");
-        readyLinkBinMap.add("402407");
-        readyLinkBinMap.add("405551");
-        readyLinkBinMap.add("404206");
-        readyLinkBinMap.add("422803");
-        readyLinkBinMap.add("407635");
-        readyLinkBinMap.add("447904");
-        readyLinkBinMap.add("439461");
-
-        // fleet bin ranges
-        fleetBinMap = new HashMap<String, Map<String, String>>();
+        String[] readyLinkBins = {
+                "462766", "406498", "440230", "485932", "434249", "487093", "411338", "438968",
+                "444083", "417021", "400421", "426938", "478499", "446053", "459440", "421783",
+                "422799", "473517", "493478", "453037", "443613", "401658", "439331", "407216",
+                "400123", "402407", "405551", "404206", "422803", "407635", "447904", "439461"
+        };
+        for(String bin: readyLinkBins) {
+            builder.addReadyLink(bin);
+        }
 
         // visa fleet mappings
-        Map<String, String> visaFleetMap = new HashMap<String, String>();
-        visaFleetMap.put("448460", "448611");
-        visaFleetMap.put("448613", "448615");
-        visaFleetMap.put("448617", "448674");
-        visaFleetMap.put("448676", "448686");
-        visaFleetMap.put("448688", "448699");
-        visaFleetMap.put("461400", "461421");
-        visaFleetMap.put("461423", "461499");
-        visaFleetMap.put("480700", "480899");
-        fleetBinMap.put("Visa", visaFleetMap);
+        builder.addFleetRange("Visa", "448460", "448611")
+                .addFleetRange("Visa", "448613", "448615")
+                .addFleetRange("Visa", "448617", "448674")
+                .addFleetRange("Visa", "448676", "448686")
+                .addFleetRange("Visa", "448688", "448699")
+                .addFleetRange("Visa", "461400", "461421")
+                .addFleetRange("Visa", "461423", "461499")
+                .addFleetRange("Visa", "480700", "480899");
 
         // mastercard fleet mappings
-        Map<String, String> mcFleetMap = new HashMap<String, String>();
-        mcFleetMap.put("553231", "553380");
-        mcFleetMap.put("556083", "556099");
-        mcFleetMap.put("556100", "556599");
-        mcFleetMap.put("556700", "556999");
-        fleetBinMap.put("MC", mcFleetMap);
-
-        // wright express fleet mappings
-        Map<String, String> wexFleetMap = new HashMap<String, String>();
-        wexFleetMap.put("690046", "690046");
-        wexFleetMap.put("707138", "707138");
-        fleetBinMap.put("Wex", wexFleetMap);
-
-        // voyager fleet
-        Map<String, String> voyagerFleetMap = new HashMap<String, String>();
-        voyagerFleetMap.put("708885", "708889");
-        fleetBinMap.put("Voyager", voyagerFleetMap);
-
-        //Fuelman fleet
-        Map<String, String> fuelmanFleetMap = new HashMap<String, String>();
-        fuelmanFleetMap.put("707649", "707649");
-        fleetBinMap.put("Fuelman", fuelmanFleetMap);
-
-        //FleetWide
-        Map<String, String> fleetWideMap = new HashMap<String, String>();
-        fleetWideMap.put("707685", "707685");
-        fleetBinMap.put("FleetWide", fleetWideMap);
+        builder.addFleetRange("MC", "553231", "553380")
+                .addFleetRange("MC", "556083", "556099")
+                .addFleetRange("MC", "556100", "556599")
+                .addFleetRange("MC", "556700", "556999");
+
+        // wright express, voyager, fuelman and fleetwide
+        builder.addFleetRange("Wex", "690046", "690046")
+                .addFleetRange("Wex", "707138", "707138")
+                .addFleetRange("Voyager", "708885", "708889")
+                .addFleetRange("Fuelman", "707649", "707649")
+                .addFleetRange("FleetWide", "707685", "707685");
+
+        return builder.build();
+    }
+
+    public static BinTable getBinTable() {
+        return binTable;
+    }
+    /**
+     * Replaces the BIN table used for card type, fleet and ReadyLink detection, e.g. with one built from
+     * an updated BIN file via {@link BinTable.Builder#load}. Lookups already in progress finish against the old table.
+     */
+    public static void setBinTable(BinTable table) {
+        if(table == null) {
+            throw new IllegalArgumentException("The BIN table cannot be null.");
+        }
+        binTable = table;
     }
+
+    public static BinTable.BinInfo lookupBin(String pan) {
+        return binTable.lookup(pan);
+    }
+
     public static boolean isFleet(String cardType, String pan) {
         if (!StringUtils.isNullOrEmpty(pan)) {
-            int compareValue = Integer.parseInt(pan.substring(0, 6));
             String baseCardType = StringUtils.trimEnd(cardType, "Fleet");
-
-            if (fleetBinMap.containsKey(baseCardType)) {
-                Map<String, String> binRanges = fleetBinMap.get(baseCardType);
-                for (String key : binRanges.keySet()) {
-                    int lowerRange = Integer.parseInt(key);
-                    int upperRange = Integer.parseInt(binRanges.get(key));
-
-                    if (compareValue >= lowerRange && compareValue <= upperRange) {
-                        return true;
-                    }
-                }
-            }
+            return binTable.lookup(pan).isFleet(baseCardType);
         }
         return false;
     }
 
     public static boolean isReadyLink(String pan) {
         if(!StringUtils.isNullOrEmpty(pan)) {
-            String compareValue = pan.substring(0, 6);
-            return readyLinkBinMap.contains(compareValue);
+            return binTable.lookup(pan).isReadyLink();
         }
         return false;
     }
 
     public static String mapCardType(String pan) {
-        String rvalue = "Unknown";
-        if(!StringUtils.isNullOrEmpty(pan)) {
-            pan = pan.replace(" ", "").replace("-", "");
-
-            for (Map.Entry<String, Pattern> kvp : regexMap.entrySet()) {
-                if (kvp.getValue().matcher(pan).find()) {
-                    rvalue = kvp.getKey();
-                }
-            }
-
-            // we have a card type, check if it's a fleet card
-            if(!rvalue.equals("Unknown")) {
-               // if(isFleet(rvalue, pan)){
-                if(isFleet(rvalue, pan)&&(!rvalue.equals("FleetWide"))) {
-                    rvalue += "Fleet";
-                }
-                else if(isReadyLink(pan)) {
-                    rvalue += "ReadyLink";
-                }
-            }
-        }
-        return rvalue;
+        return binTable.lookup(pan).getCardType();
     }
 
     public static String getBaseCardType(String cardType) {
         var resultCardType = cardType;
-        for (String cardTypeKey : regexMap.keySet()) {
+        for (String cardTypeKey : binTable.getBrands()) {
             if (cardType.toUpperCase(Locale.ENGLISH).startsWith(cardTypeKey.toUpperCase(Locale.ENGLISH))) {
                 return cardTypeKey;
             }
@@ -6,14 +6,48 @@ import com.global.api.entities.enums.CountryCodeFormat;
 import lombok.var;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class CountryUtils {
     private static final int significantCountryMatch = 6;
     private static final int significantCodeMatch = 3;
-    private static final CountryData countryData;
+    private static final int maxCachedLookups = 4096;
+    // compared by identity, so it can't collide with an empty-string result
+    private static final String NO_MATCH = new String("NO_MATCH");
+    private static final CountryData countryData = new CountryData();
+    private static final ConcurrentHashMap<String, String> countryCodeCache = new ConcurrentHashMap<String, String>();
+
+    // built the first time a lookup falls through to a case-insensitive name match
+    private static class CountryNames {
+        static final HashMap<String, String> byNormalizedName = new HashMap<String, String>();
+
+        static {
+            for(String name: CountryData.getAlpha2CodeByCountry().keySet()) {
+                byNormalizedName.put(normalize(name), name);
+            }
+        }
+    }
+
+    // built the first time a lookup needs a fuzzy match, keyed by identity of the CountryData maps
+    private static class FuzzyIndexes {
+        static final IdentityHashMap<Map<String, String>, FuzzyIndex> byDictionary = new IdentityHashMap<Map<String, String>, FuzzyIndex>();
+
+        static {
+            index(CountryData.getAlpha2CodeByCountry());
+            index(CountryData.getAlpha3CodeByCountry());
+            index(CountryData.getNumericCodeByCountry());
+            index(CountryData.getCountryByAlpha2Code());
+            index(CountryData.getCountryByAlpha3Code());
+            index(CountryData.getCountryByNumericCode());
+        }
 
-    static {
-        countryData = new CountryData();
+        private static void index(Map<String, String> dict) {
+            byDictionary.put(dict, new FuzzyIndex(dict));
+        }
+    }
+
+    private static String normalize(String input) {
+        return input.trim().toLowerCase();
     }
 
     public static boolean isCountry(Address address,  String countryCode) {
@@ -67,11 +101,26 @@ public class CountryUtils {
             format = CountryCodeFormat.Alpha2;
         }
 
-        String output = "";
-
         if (country == null)
             return null;
 
+        String cacheKey = format.ordinal() + "|" + country;
+        String cached = countryCodeCache.get(cacheKey);
+        if (cached == null) {
+            cached = lookupCountryCode(country, format);
+            if (cached == null)
+                cached = NO_MATCH;
+
+            if (countryCodeCache.size() >= maxCachedLookups)
+                countryCodeCache.clear();
+            countryCodeCache.put(cacheKey, cached);
+        }
+        return cached == NO_MATCH ? null : cached;
+    }
+
+    private static String lookupCountryCode(String country, CountryCodeFormat format) {
+        String output = "";
+
         if (isCountryName(country)) {
             output = convertFromName(country, format);
         } else if (isAlpha2(country)) {
@@ -80,6 +129,12 @@ public class CountryUtils {
             output = ConvertFromAlpha3(country, format);
         } else if (isNumeric(country)) {
             output = ConvertFromNumeric(country, format);
+        } else {
+            // exact match ignoring case and surrounding whitespace
+            String name = CountryNames.byNormalizedName.get(normalize(country));
+            if (name != null) {
+                output = convertFromName(name, format);
+            }
         }
 
         if (!StringUtils.isNullOrEmpty(output)) {
@@ -134,28 +189,86 @@ public class CountryUtils {
     }
 
     private static  String fuzzyMatch(Map< String,  String> dict,  String query, int significantMatch) {
-         String rvalue = null;
-        Map< String,  String> matches = new HashMap<>();
-
-        // now we can loop
-        int highScore = -1;
-        for( String key : dict.keySet()) {
-            int score = fuzzyScore(key, query);
-            if(score > significantMatch && score > highScore) {
-                matches = new HashMap<>();
-
-                highScore = score;
-                rvalue = dict.get(key);
-                matches.put(key, rvalue);
+        FuzzyIndex index = FuzzyIndexes.byDictionary.get(dict);
+        if(index == null) {
+            index = new FuzzyIndex(dict);
+        }
+        return index.match(query, significantMatch);
+    }
+
+    /**
+     * Pre-lowercased keys of one CountryData map, with a per-key character mask so that keys
+     * which cannot beat (or tie) the current best score are skipped without scoring them.
+     */
+    private static class FuzzyIndex {
+        private final String[] keys;
+        private final String[] values;
+        private final String[] lowerKeys;
+        private final long[] charMasks;
+
+        FuzzyIndex(Map<String, String> dict) {
+            int size = dict.size();
+            keys = new String[size];
+            values = new String[size];
+            lowerKeys = new String[size];
+            charMasks = new long[size];
+
+            int i = 0;
+            for(Map.Entry<String, String> entry: dict.entrySet()) {
+                keys[i] = entry.getKey();
+                values[i] = entry.getValue();
+                lowerKeys[i] = entry.getKey().toLowerCase();
+                charMasks[i] = charMask(lowerKeys[i]);
+                i++;
+            }
+        }
+
+        String match(String query, int significantMatch) {
+            String lowerQuery = query.toLowerCase();
+
+            String rvalue = null;
+            int matches = 0;
+            int highScore = -1;
+            for(int i = 0; i < keys.length; i++) {
+                // every matching query character scores at most 3, and only characters present in the key can match
+                int bound = 3 * Math.min(countPossibleMatches(lowerQuery, charMasks[i]), lowerKeys[i].length());
+                if(bound <= significantMatch || bound < highScore) {
+                    continue;
+                }
+
+                int score = fuzzyScoreLowered(lowerKeys[i], lowerQuery);
+                if(score > significantMatch && score > highScore) {
+                    highScore = score;
+                    rvalue = values[i];
+                    matches = 1;
+                }
+                else if(score == highScore) {
+                    matches++;
+                }
             }
-            else if(score == highScore) {
-                matches.put(key, dict.get(key));
+
+            if(matches > 1)
+                return null;
+            return rvalue;
+        }
+
+        private static long charMask(String value) {
+            long mask = 0L;
+            for(int i = 0; i < value.length(); i++) {
+                mask |= 1L << (value.charAt(i) & 63);
             }
+            return mask;
         }
 
-        if(matches.size() > 1)
-            return null;
-        return rvalue;
+        private static int countPossibleMatches(String query, long mask) {
+            int count = 0;
+            for(int i = 0; i < query.length(); i++) {
+                if((mask & (1L << (query.charAt(i) & 63))) != 0) {
+                    count++;
+                }
+            }
+            return count;
+        }
     }
 
     // Return Numeric Code for country
@@ -178,14 +291,7 @@ public class CountryUtils {
         return null;
     }
 
-    private static Integer fuzzyScore(final CharSequence term, final CharSequence query) {
-        if(term == null || query == null) {
-            throw new IllegalArgumentException(" Strings must not be null");
-        }
-
-        final  String termLowerCase = term.toString().toLowerCase();
-        final  String queryLowerCase = query.toString().toLowerCase();
-
+    private static int fuzzyScoreLowered(final String termLowerCase, final String queryLowerCase) {
         int score = 0;
         int termIndex = 0;
         int previousMatchingCharacterIndex = Integer.MIN_VALUE;
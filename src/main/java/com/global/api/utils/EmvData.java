@@ -9,6 +9,7 @@ public class EmvData {
     private LinkedHashMap<String, TlvData> removedTags;
     private boolean standInStatus;
     private String standInStatusReason;
+    private byte[] sendBuffer;
 
     public String getAcceptedTagData() {
         if(tlvData.size() == 0) {
@@ -226,8 +227,14 @@ public class EmvData {
     }
 
     public byte[] getSendBuffer() {
+        if(sendBuffer != null) {
+            return sendBuffer;
+        }
         return StringUtils.bytesFromHex(getAcceptedTagData());
     }
+    void setSendBuffer(byte[] sendBuffer) {
+        this.sendBuffer = sendBuffer;
+    }
 
     public boolean isContactlessMsd() {
         var entryMode = getEntryMode();
@@ -252,6 +259,7 @@ public class EmvData {
     }
     void addTag(TlvData tagData) {
         tlvData.put(tagData.getTag(), tagData);
+        sendBuffer = null;
     }
 
     void addRemovedTag(String tag, String length, String value) {
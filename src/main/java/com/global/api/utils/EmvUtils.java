@@ -1,12 +1,21 @@
 package com.global.api.utils;
 
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 
 public class EmvUtils {
+    private static final int TAG_ISSUER_COUNTRY_CODE = 0x5F28;
+    private static final int TAG_TVR = 0x95;
+    private static final int TAG_TSI = 0x9B;
+    private static final byte[] TVR_MASK = { (byte)0xFC, 0x50, (byte)0xFC, 0x20, 0x00 };
+    private static final byte[] TSI_MASK = { (byte)0xE8, 0x00 };
+
     private static Map<String, String> knownTags;
     private static Map<String, String> blackList;
     private static Map<String, String> dataTypes;
+    private static Set<Integer> blackListTags;
 
     static {
         blackList = new HashMap<String, String>();
@@ -195,8 +204,19 @@ public class EmvUtils {
         dataTypes.put("9F33", "b");
         dataTypes.put("9F40", "b");
         dataTypes.put("9F5B", "b");
+
+        blackListTags = new HashSet<Integer>();
+        for(String tagName: blackList.keySet()) {
+            blackListTags.add(Integer.parseInt(tagName, 16));
+        }
     }
 
+    private static final TlvReader.Filter acceptedTagFilter = new TlvReader.Filter() {
+        public boolean accept(TlvReader reader, int index) {
+            return !blackListTags.contains(reader.getTag(index));
+        }
+    };
+
     public static EmvData parseTagData(String tagData) {
         return parseTagData(tagData, false);
     }
@@ -205,62 +225,81 @@ public class EmvUtils {
             return null;
         }
 
-        tagData = tagData.toUpperCase();
+        byte[] buffer;
+        try {
+            buffer = StringUtils.bytesFromHex(tagData);
+        }
+        catch(NumberFormatException exc) {
+            EmvData rvalue = new EmvData();
+            rvalue.setStandInStatus(false, "Tag data is not valid hex");
+            return rvalue;
+        }
+        return parseTagData(buffer, verbose);
+    }
 
-        EmvData rvalue = new EmvData();
+    /**
+     * Parses binary tag data, such as DE 55 or a terminal's TLV block. Blacklisted tags are removed at any
+     * depth, including from inside templates, and {@link EmvData#getSendBuffer()} returns the filtered
+     * bytes ready to be set on the outgoing message.
+     */
+    public static EmvData parseTagData(byte[] tagData, boolean verbose) {
+        if(tagData == null || tagData.length == 0) {
+            return null;
+        }
 
-        for(int i = 0; i < tagData.length();) {
-            try {
-                String tagName = tagData.substring(i, i = i + 2);
-                if((Integer.parseInt(tagName, 16) & 0x1F) == 0x1F) {
-                    tagName += tagData.substring(i, i = i + 2);
-                }
+        EmvData rvalue = new EmvData();
 
-                String lengthStr = tagData.substring(i, i = i + 2);
-                int length = Integer.parseInt(lengthStr, 16);
-                if(length > 127) {
-                    int bytesLength = length - 128;
-                    lengthStr = tagData.substring(i, i = i + (bytesLength * 2));
-                    length = Integer.parseInt(lengthStr, 16);
-                }
-                length *= 2;
+        TlvReader reader = TlvReader.parse(tagData);
+        for(int i = 0; i < reader.size(); i++) {
+            int parent = reader.getParent(i);
+            if(blackListTags.contains(reader.getTag(i)) && (parent == TlvReader.NO_PARENT || !blackListTags.contains(reader.getTag(parent)))) {
+                String tagName = reader.getTagName(i);
+                rvalue.addRemovedTag(tagName, reader.getLengthHex(i), reader.getValueHex(i), blackList.get(tagName));
+            }
+        }
 
-                String value = tagData.substring(i, i = i + length);
+        // re-read the filtered buffer so templates that lost a child report their new length
+        byte[] sendBuffer = reader.encode(acceptedTagFilter);
+        TlvReader accepted = TlvReader.parse(sendBuffer);
+        boolean duplicateTags = false;
+        for(int i = 0; i < accepted.size(); i++) {
+            if(accepted.getParent(i) != TlvReader.NO_PARENT) {
+                continue;
+            }
 
-                if(!blackList.containsKey(tagName)) {
-                    TlvData approvedTag = new TlvData(tagName, lengthStr, value, knownTags.get(tagName));
-                    if(tagName.equals("5F28") && !value.equals("840")) {
-                        rvalue.setStandInStatus(false, "Card is not domestically issued");
-                    }
-                    else if(tagName.equals("95")) {
-                        byte[] valueBuffer = StringUtils.bytesFromHex(value);
-                        byte[] maskBuffer = StringUtils.bytesFromHex("FC50FC2000");
-
-                        for(int idx = 0; idx < valueBuffer.length; idx++) {
-                            if((valueBuffer[idx] & maskBuffer[idx]) != 0x00) {
-                                rvalue.setStandInStatus(false, String.format("Invalid TVR status in byte %s of tag 95", idx + 1));
-                            }
-                        }
-                    }
-                    else if(tagName.equals("9B")) {
-                        byte[] valueBuffer = StringUtils.bytesFromHex(value);
-                        byte[] maskBuffer = StringUtils.bytesFromHex("E800");
-
-                        for(int idx = 0; idx < valueBuffer.length; idx++) {
-                            if((valueBuffer[idx] & maskBuffer[idx]) != maskBuffer[idx]) {
-                                rvalue.setStandInStatus(false, String.format("Invalid TSI status in byte %s of tag 9B", idx + 1));
-                            }
-                        }
+            int tag = accepted.getTag(i);
+            String tagName = accepted.getTagName(i);
+            TlvData approvedTag = new TlvData(tagName, accepted.getLengthHex(i), accepted, i, knownTags.get(tagName));
+            if(tag == TAG_ISSUER_COUNTRY_CODE && !approvedTag.getValue().equals("840")) {
+                rvalue.setStandInStatus(false, "Card is not domestically issued");
+            }
+            else if(tag == TAG_TVR) {
+                int offset = accepted.getValueOffset(i);
+                for(int idx = 0; idx < accepted.getValueLength(i) && idx < TVR_MASK.length; idx++) {
+                    if((sendBuffer[offset + idx] & TVR_MASK[idx]) != 0x00) {
+                        rvalue.setStandInStatus(false, String.format("Invalid TVR status in byte %s of tag 95", idx + 1));
                     }
-
-                    rvalue.addTag(approvedTag);
                 }
-                else {
-                    rvalue.addRemovedTag(tagName, lengthStr, value, blackList.get(tagName));
+            }
+            else if(tag == TAG_TSI) {
+                int offset = accepted.getValueOffset(i);
+                for(int idx = 0; idx < accepted.getValueLength(i) && idx < TSI_MASK.length; idx++) {
+                    if((sendBuffer[offset + idx] & TSI_MASK[idx]) != TSI_MASK[idx]) {
+                        rvalue.setStandInStatus(false, String.format("Invalid TSI status in byte %s of tag 9B", idx + 1));
+                    }
                 }
             }
-            catch(NumberFormatException exc) {}
-            catch(IndexOutOfBoundsException exc) {}
+
+            duplicateTags |= rvalue.getAcceptedTags().containsKey(tagName);
+            rvalue.addTag(approvedTag);
+        }
+        // a repeated tag replaces the earlier one in the accepted tags, so let the send buffer follow them
+        if(!duplicateTags) {
+            rvalue.setSendBuffer(sendBuffer);
+        }
+
+        if(!reader.isComplete()) {
+            rvalue.setStandInStatus(false, String.format("Malformed tag data at byte %s", reader.getErrorOffset() + 1));
         }
 
         if(verbose) {
@@ -279,6 +318,10 @@ public class EmvUtils {
                 System.out.println(String.format("TAG: %s - %s", tagName, tag.getDescription()));
                 System.out.println(String.format("%s: %s\r\n",tag.getLength(), tag.getValue()));
             }
+
+            if(!reader.isComplete()) {
+                System.out.println(String.format("Tag data malformed at byte %s, remaining data ignored.", reader.getErrorOffset() + 1));
+            }
         }
 
         return rvalue;
@@ -0,0 +1,138 @@
+package com.global.api.utils;
+
+import com.global.api.entities.enums.IStringConstant;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * A record layout that can be written as well as read. Every field has a fixed width and a getter,
+ * so encoding is a single pass over the field table: each value is written with
+ * {@link MessageWriter#addRange(String, Integer)}, which pads it with leading zeros or cuts it to
+ * its width. A string value of null writes nothing, the same as {@code addRange}.
+ * <p>
+ * Setters are optional; a field without one is read past when decoding. Named fields are logged
+ * through {@link NtsUtils} as they are read or written.
+ */
+public class FixedRecordLayout<T> {
+    private final FixedField<T>[] fixedFields;
+    private final RecordLayout<T> decoder;
+
+    private FixedRecordLayout(List<FixedField<T>> fields) {
+        this.fixedFields = toArray(fields);
+        this.decoder = new RecordLayout<T>(fields);
+    }
+
+    public static <T> Builder<T> builder() {
+        return new Builder<T>();
+    }
+
+    public T decode(byte[] buffer, T target) {
+        return decoder.decode(buffer, target);
+    }
+
+    public T decode(RecordReader reader, T target) {
+        return decoder.decode(reader, target);
+    }
+
+    public MessageWriter encode(T source, MessageWriter writer) {
+        boolean logging = NtsUtils.isLogging();
+        for(FixedField<T> field: fixedFields) {
+            field.encode(source, writer, logging);
+        }
+        return writer;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> FixedField<T>[] toArray(List<FixedField<T>> fields) {
+        return fields.toArray(new FixedField[0]);
+    }
+
+    interface FixedField<T> extends RecordLayout.Field<T> {
+        void encode(T source, MessageWriter writer, boolean logging);
+    }
+
+    public static class Builder<T> {
+        private final List<FixedField<T>> fields = new ArrayList<FixedField<T>>();
+
+        public Builder<T> string(String name, int width, Function<T, String> getter) {
+            return string(name, width, getter, null);
+        }
+        public Builder<T> string(String name, int width, Function<T, String> getter, BiConsumer<T, String> setter) {
+            fields.add(new RecordLayout.StringField<T>(name, width, getter, setter));
+            return this;
+        }
+
+        public Builder<T> integer(String name, int width, Function<T, Integer> getter) {
+            return integer(name, width, getter, null);
+        }
+        public Builder<T> integer(String name, int width, Function<T, Integer> getter, BiConsumer<T, Integer> setter) {
+            fields.add(new RecordLayout.IntegerField<T>(name, width, getter, setter));
+            return this;
+        }
+
+        public <E extends Enum<E> & IStringConstant> Builder<T> constant(String name, int width, Class<E> type, Function<T, E> getter) {
+            return constant(name, width, type, getter, null);
+        }
+        public <E extends Enum<E> & IStringConstant> Builder<T> constant(String name, int width, Class<E> type, Function<T, E> getter, BiConsumer<T, E> setter) {
+            fields.add(new RecordLayout.ConstantField<T, E>(name, width, type, getter, setter));
+            return this;
+        }
+
+        /**
+         * Filler; skipped when decoding and written as zeros when encoding.
+         */
+        public Builder<T> skip(final int width) {
+            fields.add(new FixedField<T>() {
+                public void decode(RecordReader reader, T target, boolean logging) {
+                    reader.readString(width);
+                }
+
+                public void encode(T source, MessageWriter writer, boolean logging) {
+                    writer.addRange("", width);
+                }
+            });
+            return this;
+        }
+
+        /**
+         * Fields that are only present when the condition holds, for the values read so far when
+         * decoding and for the source when encoding.
+         */
+        public Builder<T> when(final Predicate<T> condition, final FixedRecordLayout<T> layout) {
+            fields.add(new FixedField<T>() {
+                public void decode(RecordReader reader, T target, boolean logging) {
+                    if(condition.test(target)) {
+                        for(FixedField<T> field: layout.fixedFields) {
+                            field.decode(reader, target, logging);
+                        }
+                    }
+                }
+
+                public void encode(T source, MessageWriter writer, boolean logging) {
+                    if(condition.test(source)) {
+                        for(FixedField<T> field: layout.fixedFields) {
+                            field.encode(source, writer, logging);
+                        }
+                    }
+                }
+            });
+            return this;
+        }
+
+        /**
+         * @throws IllegalStateException when a field was added without a getter
+         */
+        public FixedRecordLayout<T> build() {
+            for(FixedField<T> field: fields) {
+                if(field instanceof RecordLayout.ValueField && ((RecordLayout.ValueField<T, ?>) field).getter == null) {
+                    throw new IllegalStateException(String.format("Field %s has no getter and cannot be encoded.", ((RecordLayout.ValueField<T, ?>) field).name));
+                }
+            }
+            return new FixedRecordLayout<T>(fields);
+        }
+    }
+}
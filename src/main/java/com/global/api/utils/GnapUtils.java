@@ -1,25 +1,42 @@
 package com.global.api.utils;
 
+import com.global.api.logging.LogLevel;
+import com.global.api.logging.MessageConsoleLogger;
+import com.global.api.logging.MessageTracer;
 import com.global.api.network.enums.gnap.CardBrand;
 import com.global.api.paymentMethods.*;
 
 public class GnapUtils {
 
-    private static boolean isEnableLogging = false;
-
     private GnapUtils(){
 
     }
 
+    public static void log(String message, Object value) {
+        log(LogLevel.Trace, message, value);
+    }
+
     public static void log(String message, String value) {
-        if (isEnableLogging) {
-            System.out.println(message + " : " + value);
+        log(LogLevel.Trace, message, value);
+    }
+
+    public static void log(LogLevel level, String message, Object value) {
+        if (MessageTracer.isLogging(level)) {
+            MessageTracer.trace(level, message + " : " + value);
         }
     }
 
+    public static boolean isLogging() {
+        return MessageTracer.isLogging(LogLevel.Trace);
+    }
+
+    /**
+     * @deprecated set a {@link MessageTracer} on the connector's config instead
+     */
+    @Deprecated
     public static void enableLogging(Boolean enableLogging)
     {
-        isEnableLogging=enableLogging;
+        MessageTracer.setDefaultTracer(Boolean.TRUE.equals(enableLogging) ? new MessageTracer(new MessageConsoleLogger(), LogLevel.Trace) : null);
     }
 
 
@@ -12,4 +12,13 @@ public class IOUtils {
             sb.append((char)c);
         return sb.toString();
     }
+
+    public static byte[] readBytes(InputStream stream) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        byte[] chunk = new byte[4096];
+        int bytesRead;
+        while((bytesRead = stream.read(chunk)) != -1)
+            buffer.write(chunk, 0, bytesRead);
+        return buffer.toByteArray();
+    }
 }
@@ -9,6 +9,8 @@ public class MessageReader {
     long length = 0;
 
     public long getLength() { return length; }
+    public int getPosition() { return position; }
+    public byte[] getBuffer() { return buffer; }
 
     public MessageReader(byte[] bytes){
         buffer = bytes;
@@ -28,8 +30,7 @@ public class MessageReader {
     }
 
     public <T extends Enum<T> & IByteConstant> T readEnum(Class<T> enumType){
-        ReverseByteEnumMap<T> map = new ReverseByteEnumMap<T>(enumType);
-        return map.get(buffer[position++]);
+        return ReverseByteEnumMap.forType(enumType).get(buffer[position++]);
     }
 
     public byte readByte() {
@@ -64,6 +65,17 @@ public class MessageReader {
         return rvalue;
     }
 
+    /**
+     * Advances past the next {@code length} bytes without copying them, clamped to the end of the buffer.
+     * @return the number of bytes actually skipped
+     */
+    public int skip(int length) {
+        int available = (int)Math.max(0, this.length - position);
+        int skipped = Math.min(length, available);
+        position += skipped;
+        return skipped;
+    }
+
     public char readChar(){
         return (char)buffer[position++];
     }
@@ -5,6 +5,9 @@ import com.global.api.builders.ManagementBuilder;
 import com.global.api.builders.TransactionBuilder;
 import com.global.api.entities.Transaction;
 import com.global.api.entities.enums.*;
+import com.global.api.logging.LogLevel;
+import com.global.api.logging.MessageConsoleLogger;
+import com.global.api.logging.MessageTracer;
 import com.global.api.network.entities.nts.*;
 import com.global.api.network.enums.AuthorizerCode;
 import com.global.api.network.enums.NTSCardTypes;
@@ -18,9 +21,6 @@ import java.util.*;
 
 public class NtsUtils {
 
-    // Logger
-    private static boolean isEnableLogging = false;
-
     /**
      * This function checks that whether entry method provided
      * is supports user data expansion or not.
@@ -61,38 +61,56 @@ public class NtsUtils {
 
 
     /**
-     * Logging the NTS request
+     * Logging the NTS request. Fields are only formatted when the connector handling the
+     * current transaction traces at {@link LogLevel#Trace}.
      *
      * @param fieldName
      * @param value
      */
+    public static void log(String fieldName, Object value) {
+        log(LogLevel.Trace, fieldName, value);
+    }
+
     public static void log(String fieldName, String value) {
-        if (isEnableLogging) {
-            System.out.println( StringUtils.padRight(fieldName.toUpperCase(Locale.ENGLISH), 20, ' ')  + " : " + value);
-        }
+        log(LogLevel.Trace, fieldName, value);
+    }
+
+    public static void log(String fieldName, Integer value) {
+        log(LogLevel.Trace, fieldName, value);
     }
 
     public static <E extends Enum<E>> void log(String fieldName, E value) {
-        if (isEnableLogging && value != null) {
-            System.out.println( StringUtils.padRight(fieldName.toUpperCase(Locale.ENGLISH), 20, ' ')  + " : [ " + value.name() + " - " + ((IStringConstant) value).getValue() + " ]");
+        if (value != null && MessageTracer.isLogging(LogLevel.Trace)) {
+            MessageTracer.trace(LogLevel.Trace, StringUtils.padRight(fieldName.toUpperCase(Locale.ENGLISH), 20, ' ')  + " : [ " + value.name() + " - " + ((IStringConstant) value).getValue() + " ]");
         }
     }
 
     public static void log(String value) {
-        if (isEnableLogging) {
-            System.out.println(value);
+        MessageTracer.trace(LogLevel.Trace, value);
+    }
+
+    public static void log(LogLevel level, String fieldName, Object value) {
+        if (MessageTracer.isLogging(level)) {
+            MessageTracer.trace(level, StringUtils.padRight(fieldName.toUpperCase(Locale.ENGLISH), 20, ' ')  + " : " + value);
         }
     }
 
-    public static void log(String fieldName, Integer value) {
-        log(fieldName, String.valueOf(value));
+    public static void log(LogLevel level, String value) {
+        MessageTracer.trace(level, value);
+    }
+
+    public static boolean isLogging() {
+        return MessageTracer.isLogging(LogLevel.Trace);
     }
 
     /**
-     * Enable the logging.
+     * Enable the logging for every NTS connector in the JVM.
+     *
+     * @deprecated set a {@link MessageTracer} on the connector's config instead
      */
+    @Deprecated
     public static void enableLogging() {
-        isEnableLogging = true;
+        MessageTracer.setDefaultTracer(new MessageTracer(new MessageConsoleLogger(), LogLevel.Trace));
     }
 
 
@@ -0,0 +1,267 @@
+package com.global.api.utils;
+
+import com.global.api.entities.enums.IStringConstant;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * The fields of a fixed-width record, in message order, for decoding. A layout is built once, kept
+ * in a static field and shared by every message of that type; decoding walks the field table and
+ * sets each value on the target.
+ * <p>
+ * Named fields are logged through {@link NtsUtils} as they are read.
+ * <p>
+ * A layout may hold fields whose width or repeat count is only known from the values read before
+ * them, so it cannot be written back. Records that are also encoded are described with a
+ * {@link FixedRecordLayout} instead.
+ */
+public class RecordLayout<T> {
+    final Field<T>[] fields;
+
+    RecordLayout(List<? extends Field<T>> fields) {
+        this.fields = toArray(fields);
+    }
+
+    public static <T> Builder<T> builder() {
+        return new Builder<T>();
+    }
+
+    public T decode(byte[] buffer, T target) {
+        return decode(new RecordReader(buffer), target);
+    }
+
+    public T decode(RecordReader reader, T target) {
+        boolean logging = NtsUtils.isLogging();
+        for(Field<T> field: fields) {
+            field.decode(reader, target, logging);
+        }
+        return target;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Field<T>[] toArray(List<? extends Field<T>> fields) {
+        return fields.toArray(new Field[0]);
+    }
+
+    interface Field<T> {
+        void decode(RecordReader reader, T target, boolean logging);
+    }
+
+    static abstract class ValueField<T, V> implements FixedRecordLayout.FixedField<T> {
+        final String name;
+        final int width;
+        final Function<T, V> getter;
+        final BiConsumer<T, V> setter;
+
+        ValueField(String name, int width, Function<T, V> getter, BiConsumer<T, V> setter) {
+            this.name = name;
+            this.width = width;
+            this.getter = getter;
+            this.setter = setter;
+        }
+
+        abstract V read(RecordReader reader);
+
+        String format(V value) {
+            return String.valueOf(value);
+        }
+
+        void log(V value) {
+            NtsUtils.log(name, value);
+        }
+
+        public void decode(RecordReader reader, T target, boolean logging) {
+            V value = read(reader);
+            if(setter != null) {
+                setter.accept(target, value);
+            }
+            if(logging && name != null) {
+                log(value);
+            }
+        }
+
+        public void encode(T source, MessageWriter writer, boolean logging) {
+            V value = getter.apply(source);
+            writer.addRange(format(value), width);
+            if(logging && name != null) {
+                log(value);
+            }
+        }
+    }
+
+    static class StringField<T> extends ValueField<T, String> {
+        StringField(String name, int width, Function<T, String> getter, BiConsumer<T, String> setter) {
+            super(name, width, getter, setter);
+        }
+
+        String read(RecordReader reader) {
+            return reader.readString(width);
+        }
+
+        String format(String value) {
+            return value;
+        }
+    }
+
+    static class IntegerField<T> extends ValueField<T, Integer> {
+        IntegerField(String name, int width, Function<T, Integer> getter, BiConsumer<T, Integer> setter) {
+            super(name, width, getter, setter);
+        }
+
+        Integer read(RecordReader reader) {
+            return reader.readInt(width);
+        }
+    }
+
+    static class ConstantField<T, E extends Enum<E> & IStringConstant> extends ValueField<T, E> {
+        private final Class<E> type;
+
+        ConstantField(String name, int width, Class<E> type, Function<T, E> getter, BiConsumer<T, E> setter) {
+            super(name, width, getter, setter);
+            this.type = type;
+        }
+
+        E read(RecordReader reader) {
+            return reader.readStringConstant(width, type);
+        }
+
+        String format(E value) {
+            return value != null ? value.getValue() : null;
+        }
+
+        void log(E value) {
+            NtsUtils.log(name, value);
+        }
+    }
+
+    public static class Builder<T> {
+        private final List<Field<T>> fields = new ArrayList<Field<T>>();
+
+        public Builder<T> string(int width, BiConsumer<T, String> setter) {
+            return string(null, width, setter);
+        }
+        public Builder<T> string(String name, int width, BiConsumer<T, String> setter) {
+            fields.add(new StringField<T>(name, width, null, setter));
+            return this;
+        }
+
+        /**
+         * A string whose width is given by a field earlier in the record.
+         */
+        public Builder<T> string(final ToIntFunction<T> width, final BiConsumer<T, String> setter) {
+            fields.add(new Field<T>() {
+                public void decode(RecordReader reader, T target, boolean logging) {
+                    setter.accept(target, reader.readString(width.applyAsInt(target)));
+                }
+            });
+            return this;
+        }
+
+        public Builder<T> integer(int width, BiConsumer<T, Integer> setter) {
+            return integer(null, width, setter);
+        }
+        public Builder<T> integer(String name, int width, BiConsumer<T, Integer> setter) {
+            fields.add(new IntegerField<T>(name, width, null, setter));
+            return this;
+        }
+
+        public <E extends Enum<E> & IStringConstant> Builder<T> constant(int width, Class<E> type, BiConsumer<T, E> setter) {
+            return constant(null, width, type, setter);
+        }
+        public <E extends Enum<E> & IStringConstant> Builder<T> constant(String name, int width, Class<E> type, BiConsumer<T, E> setter) {
+            fields.add(new ConstantField<T, E>(name, width, type, null, setter));
+            return this;
+        }
+
+        /**
+         * Filler.
+         */
+        public Builder<T> skip(final int width) {
+            fields.add(new Field<T>() {
+                public void decode(RecordReader reader, T target, boolean logging) {
+                    reader.readString(width);
+                }
+            });
+            return this;
+        }
+
+        /**
+         * Everything left in the buffer.
+         */
+        public Builder<T> remaining(final BiConsumer<T, String> setter) {
+            return remaining(null, setter);
+        }
+        public Builder<T> remaining(final String name, final BiConsumer<T, String> setter) {
+            fields.add(new Field<T>() {
+                public void decode(RecordReader reader, T target, boolean logging) {
+                    String value = reader.readRemaining();
+                    setter.accept(target, value);
+                    if(logging && name != null) {
+                        NtsUtils.log(name, value);
+                    }
+                }
+            });
+            return this;
+        }
+
+        /**
+         * A run of fixed-width strings repeated the number of times given by an earlier field.
+         */
+        public Builder<T> strings(final ToIntFunction<T> count, final int width, final BiConsumer<T, List<String>> setter) {
+            fields.add(new Field<T>() {
+                public void decode(RecordReader reader, T target, boolean logging) {
+                    int entries = count.applyAsInt(target);
+                    List<String> values = new ArrayList<String>(entries);
+                    for(int i = 0; i < entries; i++) {
+                        values.add(reader.readString(width));
+                    }
+                    setter.accept(target, values);
+                }
+            });
+            return this;
+        }
+
+        /**
+         * A run of nested records repeated the number of times given by an earlier field.
+         */
+        public <C> Builder<T> records(final ToIntFunction<T> count, final Supplier<C> factory, final RecordLayout<C> layout, final BiConsumer<T, List<C>> setter) {
+            fields.add(new Field<T>() {
+                public void decode(RecordReader reader, T target, boolean logging) {
+                    int entries = count.applyAsInt(target);
+                    List<C> values = new ArrayList<C>(entries);
+                    for(int i = 0; i < entries; i++) {
+                        values.add(layout.decode(reader, factory.get()));
+                    }
+                    setter.accept(target, values);
+                }
+            });
+            return this;
+        }
+
+        /**
+         * Fields that are only present when the condition holds for the values read so far.
+         */
+        public Builder<T> when(final Predicate<T> condition, final RecordLayout<T> layout) {
+            fields.add(new Field<T>() {
+                public void decode(RecordReader reader, T target, boolean logging) {
+                    if(condition.test(target)) {
+                        for(Field<T> field: layout.fields) {
+                            field.decode(reader, target, logging);
+                        }
+                    }
+                }
+            });
+            return this;
+        }
+
+        public RecordLayout<T> build() {
+            return new RecordLayout<T>(fields);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.global.api.utils;
+
+import com.global.api.entities.enums.IStringConstant;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads fixed-width ASCII fields straight from a message buffer. Reads past the end of the
+ * buffer return null, the same as {@link StringParser}.
+ */
+public class RecordReader {
+    private final byte[] buffer;
+    private final int limit;
+    private int position;
+
+    public RecordReader(byte[] buffer) {
+        this(buffer, 0, buffer.length);
+    }
+    public RecordReader(byte[] buffer, int offset, int limit) {
+        this.buffer = buffer;
+        this.position = offset;
+        this.limit = limit;
+    }
+
+    public boolean hasRemaining() {
+        return position < limit;
+    }
+
+    public int getRemainingLength() {
+        return limit - position;
+    }
+
+    public String readString(int length) {
+        if(length < 0 || position + length > limit) {
+            return null;
+        }
+
+        String rvalue = new String(buffer, position, length, StandardCharsets.ISO_8859_1);
+        position += length;
+        return rvalue;
+    }
+
+    public Integer readInt(int length) {
+        if(length < 0 || position + length > limit) {
+            return null;
+        }
+
+        // digits are converted in place; anything else goes through parseInt for its exception
+        int rvalue = 0;
+        for(int i = position; i < position + length; i++) {
+            int digit = buffer[i] - '0';
+            if(digit < 0 || digit > 9 || rvalue > (Integer.MAX_VALUE - digit) / 10) {
+                return Integer.parseInt(readString(length));
+            }
+            rvalue = rvalue * 10 + digit;
+        }
+        if(length == 0) {
+            return Integer.parseInt("");
+        }
+        position += length;
+        return rvalue;
+    }
+
+    public <TResult extends Enum<TResult> & IStringConstant> TResult readStringConstant(int length, Class<TResult> clazz) {
+        return ReverseStringEnumMap.parse(readString(length), clazz);
+    }
+
+    public String readRemaining() {
+        if(position < limit) {
+            String rvalue = new String(buffer, position, limit - position, StandardCharsets.ISO_8859_1);
+            position = limit;
+            return rvalue;
+        }
+        return "";
+    }
+
+    /**
+     * Reads up to the next delimiter, or to the end of the buffer, and steps over the delimiter.
+     */
+    public String readTo(byte delimiter) {
+        int start = position;
+        int end = indexOf(delimiter);
+        position = end < limit ? end + 1 : limit;
+        return new String(buffer, start, end - start, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Steps past the next delimiter without reading the bytes before it.
+     */
+    public void skipPast(byte delimiter) {
+        int end = indexOf(delimiter);
+        position = end < limit ? end + 1 : limit;
+    }
+
+    private int indexOf(byte delimiter) {
+        int index = position;
+        while(index < limit && buffer[index] != delimiter) {
+            index++;
+        }
+        return index;
+    }
+}
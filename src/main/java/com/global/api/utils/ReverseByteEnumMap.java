@@ -6,7 +6,20 @@ import java.util.HashMap;
 import java.util.Map;
 
 public class ReverseByteEnumMap<V extends Enum<V> & IByteConstant> {
-    private Map<Byte, V> map = new HashMap<Byte, V>();
+    // built once per enum type, on first use
+    private static final ClassValue<ReverseByteEnumMap<?>> maps = new ClassValue<ReverseByteEnumMap<?>>() {
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        protected ReverseByteEnumMap<?> computeValue(Class<?> type) {
+            return new ReverseByteEnumMap(type);
+        }
+    };
+
+    private final Map<Byte, V> map = new HashMap<Byte, V>();
+
+    @SuppressWarnings("unchecked")
+    public static <V extends Enum<V> & IByteConstant> ReverseByteEnumMap<V> forType(Class<V> valueType) {
+        return (ReverseByteEnumMap<V>)maps.get(valueType);
+    }
 
     ReverseByteEnumMap(Class<V> valueType) {
         for(V v: valueType.getEnumConstants()) {
@@ -19,7 +32,6 @@ public class ReverseByteEnumMap<V extends Enum<V> & IByteConstant> {
     }
 
     public static <TResult extends Enum<TResult> & IByteConstant> TResult parse(byte value, Class<TResult> clazz) {
-        ReverseByteEnumMap<TResult> mapper = new ReverseByteEnumMap<TResult>(clazz);
-        return mapper.get(value);
+        return forType(clazz).get(value);
     }
 }
\ No newline at end of file
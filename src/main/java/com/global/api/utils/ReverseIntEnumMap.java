@@ -6,7 +6,20 @@ import java.util.HashMap;
 import java.util.Map;
 
 public class ReverseIntEnumMap<V extends Enum<V> & INumericConstant> {
-    private Map<Integer, V> map = new HashMap<Integer, V>();
+    // built once per enum type, on first use
+    private static final ClassValue<ReverseIntEnumMap<?>> maps = new ClassValue<ReverseIntEnumMap<?>>() {
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        protected ReverseIntEnumMap<?> computeValue(Class<?> type) {
+            return new ReverseIntEnumMap(type);
+        }
+    };
+
+    private final Map<Integer, V> map = new HashMap<Integer, V>();
+
+    @SuppressWarnings("unchecked")
+    public static <V extends Enum<V> & INumericConstant> ReverseIntEnumMap<V> forType(Class<V> valueType) {
+        return (ReverseIntEnumMap<V>)maps.get(valueType);
+    }
 
     public ReverseIntEnumMap(Class<V> valueType) {
         for(V v: valueType.getEnumConstants()) {
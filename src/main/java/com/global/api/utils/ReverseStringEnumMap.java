@@ -6,11 +6,29 @@ import java.util.HashMap;
 import java.util.Map;
 
 public class ReverseStringEnumMap<V extends Enum<V> & IStringConstant> {
-    private Map<String, V> map = new HashMap<String, V>();
+    // built once per enum type, on first use
+    private static final ClassValue<ReverseStringEnumMap<?>> maps = new ClassValue<ReverseStringEnumMap<?>>() {
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        protected ReverseStringEnumMap<?> computeValue(Class<?> type) {
+            return new ReverseStringEnumMap(type);
+        }
+    };
+
+    private final Map<String, V> map = new HashMap<String, V>();
+    // single character ASCII values, such as the GNAP field ids, looked up without a string
+    private final Object[] characters = new Object[128];
+
+    @SuppressWarnings("unchecked")
+    public static <V extends Enum<V> & IStringConstant> ReverseStringEnumMap<V> forType(Class<V> valueType) {
+        return (ReverseStringEnumMap<V>)maps.get(valueType);
+    }
 
     public ReverseStringEnumMap(Class<V> valueType) {
         for(V v: valueType.getEnumConstants()) {
             map.put(v.getValue(), v);
+            if(v.getValue() != null && v.getValue().length() == 1 && v.getValue().charAt(0) < characters.length) {
+                characters[v.getValue().charAt(0)] = v;
+            }
         }
     }
 
@@ -18,8 +36,15 @@ public class ReverseStringEnumMap<V extends Enum<V> & IStringConstant> {
         return map.get(value);
     }
 
+    @SuppressWarnings("unchecked")
+    public V get(char value) {
+        if(value < characters.length) {
+            return (V)characters[value];
+        }
+        return map.get(String.valueOf(value));
+    }
+
     public static <TResult extends Enum<TResult> & IStringConstant> TResult parse(String value, Class<TResult> clazz) {
-        ReverseStringEnumMap<TResult> mapper = new ReverseStringEnumMap<TResult>(clazz);
-        return mapper.get(value);
+        return forType(clazz).get(value);
     }
 }
\ No newline at end of file
@@ -0,0 +1,37 @@
+package com.global.api.utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+
+/**
+ * The SDK release version, written into a resource by the build so it can be read without
+ * parsing pom.xml at runtime.
+ */
+public class SdkVersion {
+    private static final String VERSION_RESOURCE = "/com/global/api/sdk.properties";
+    private static final String version = loadVersion();
+
+    public static String getVersion() {
+        return version;
+    }
+
+    private static String loadVersion() {
+        try(InputStream stream = SdkVersion.class.getResourceAsStream(VERSION_RESOURCE)) {
+            if(stream != null) {
+                Properties properties = new Properties();
+                properties.load(stream);
+
+                // left as a placeholder when the resource was copied without filtering
+                String value = properties.getProperty("version");
+                if(value != null && !value.startsWith("${")) {
+                    return value;
+                }
+            }
+        }
+        catch(IOException exc) {
+            // fall through to an empty version
+        }
+        return "";
+    }
+}
@@ -0,0 +1,37 @@
+package com.global.api.utils;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+/**
+ * A {@link SimpleDateFormat} that can be shared between threads. Each thread formats and parses
+ * with its own instance, so behaviour (including lenient parsing) is exactly that of SimpleDateFormat
+ * without the shared calendar state.
+ */
+public class ThreadSafeDateFormat {
+    private final String pattern;
+    private final ThreadLocal<SimpleDateFormat> format;
+
+    public ThreadSafeDateFormat(final String pattern) {
+        this.pattern = pattern;
+        this.format = new ThreadLocal<SimpleDateFormat>() {
+            @Override
+            protected SimpleDateFormat initialValue() {
+                return new SimpleDateFormat(pattern);
+            }
+        };
+    }
+
+    public String getPattern() {
+        return pattern;
+    }
+
+    public String format(Date date) {
+        return format.get().format(date);
+    }
+
+    public Date parse(String source) throws ParseException {
+        return format.get().parse(source);
+    }
+}
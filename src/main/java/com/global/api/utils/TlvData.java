@@ -5,6 +5,8 @@ public class TlvData {
     private String length;
     private String value;
     private String description;
+    private TlvReader source;
+    private int sourceIndex;
 
     public String getTag() {
         return tag;
@@ -13,11 +15,14 @@ public class TlvData {
         return length;
     }
     public String getValue() {
+        if(value == null && source != null) {
+            value = source.getValueHex(sourceIndex);
+        }
         return value;
     }
     public String getBinaryValue() {
         StringBuilder sb = new StringBuilder();
-        for(byte b: StringUtils.bytesFromHex(value)) {
+        for(byte b: source != null ? source.getValue(sourceIndex) : StringUtils.bytesFromHex(value)) {
             sb.append(Integer.toBinaryString((b & 0xFF) + 0x100).substring(1));
         }
         return sb.toString();
@@ -27,7 +32,7 @@ public class TlvData {
     }
 
     public String getFullValue() {
-        return String.format("%s%s%s", tag, length, value);
+        return String.format("%s%s%s", tag, length, getValue());
     }
 
     public TlvData(String tag, String length, String value) {
@@ -39,4 +44,12 @@ public class TlvData {
         this.value = value;
         this.description = description;
     }
+    // value is read from the parsed buffer on first use
+    TlvData(String tag, String length, TlvReader source, int sourceIndex, String description) {
+        this.tag = tag;
+        this.length = length;
+        this.source = source;
+        this.sourceIndex = sourceIndex;
+        this.description = description;
+    }
 }
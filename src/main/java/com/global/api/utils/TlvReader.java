@@ -0,0 +1,319 @@
+package com.global.api.utils;
+
+/**
+ * Parses BER-TLV data (EMV tag data, DE 55, UPA/PAX tag blocks) straight from a byte array.
+ *
+ * Nodes are recorded as offsets into the source buffer, in document order; constructed tags
+ * (templates such as 70, 71, 72 or BF0C) are traversed recursively and their children follow
+ * them with {@link #getParent(int)} pointing back at the template. A template whose content does
+ * not parse is kept as a primitive. Values are never copied unless asked for.
+ */
+public class TlvReader {
+    public static final int NO_PARENT = -1;
+
+    private final byte[] buffer;
+    private int count;
+    private int[] tags;
+    private int[] headerOffsets;
+    private int[] valueOffsets;
+    private int[] valueLengths;
+    private int[] parents;
+    private int errorOffset = -1;
+
+    public interface Filter {
+        boolean accept(TlvReader reader, int index);
+    }
+
+    private TlvReader(byte[] buffer) {
+        this.buffer = buffer;
+        int capacity = 16;
+        tags = new int[capacity];
+        headerOffsets = new int[capacity];
+        valueOffsets = new int[capacity];
+        valueLengths = new int[capacity];
+        parents = new int[capacity];
+    }
+
+    public static TlvReader parse(byte[] buffer) {
+        return parse(buffer, 0, buffer.length);
+    }
+    /**
+     * Parses as much of the data as is well formed. If a malformed or truncated tag is found parsing
+     * stops there and {@link #getErrorOffset()} reports where.
+     */
+    public static TlvReader parse(byte[] buffer, int offset, int length) {
+        TlvReader reader = new TlvReader(buffer);
+        reader.parseRange(offset, offset + length, NO_PARENT);
+        return reader;
+    }
+
+    private boolean parseRange(int position, int end, int parent) {
+        while(position < end) {
+            int headerOffset = position;
+
+            // tag: EMV tags are one or two bytes, the second follows when the low five bits are all set
+            int tag = buffer[position++] & 0xFF;
+            if((tag & 0x1F) == 0x1F) {
+                if(position >= end) {
+                    errorOffset = headerOffset;
+                    return false;
+                }
+                tag = (tag << 8) | (buffer[position++] & 0xFF);
+            }
+
+            // length: short form, or 0x81..0x84 followed by that many length bytes
+            if(position >= end) {
+                errorOffset = headerOffset;
+                return false;
+            }
+            int length = buffer[position++] & 0xFF;
+            if(length > 0x80) {
+                int lengthBytes = length & 0x7F;
+                if(lengthBytes > 3 || position + lengthBytes > end) {
+                    errorOffset = headerOffset;
+                    return false;
+                }
+                length = 0;
+                for(int i = 0; i < lengthBytes; i++) {
+                    length = (length << 8) | (buffer[position++] & 0xFF);
+                }
+            }
+            else if(length == 0x80) {
+                // indefinite length is not used by EMV
+                errorOffset = headerOffset;
+                return false;
+            }
+
+            if(position + length > end) {
+                errorOffset = headerOffset;
+                return false;
+            }
+
+            int index = add(tag, headerOffset, position, length, parent);
+            if(isConstructedTag(tag) && !parseRange(position, position + length, index)) {
+                // proprietary tags often set the constructed bit over plain data; keep the value as a primitive
+                count = index + 1;
+                errorOffset = -1;
+            }
+            position += length;
+        }
+        return true;
+    }
+
+    private int add(int tag, int headerOffset, int valueOffset, int valueLength, int parent) {
+        if(count == tags.length) {
+            int capacity = count * 2;
+            tags = grow(tags, capacity);
+            headerOffsets = grow(headerOffsets, capacity);
+            valueOffsets = grow(valueOffsets, capacity);
+            valueLengths = grow(valueLengths, capacity);
+            parents = grow(parents, capacity);
+        }
+        tags[count] = tag;
+        headerOffsets[count] = headerOffset;
+        valueOffsets[count] = valueOffset;
+        valueLengths[count] = valueLength;
+        parents[count] = parent;
+        return count++;
+    }
+
+    private static int[] grow(int[] source, int capacity) {
+        int[] rvalue = new int[capacity];
+        System.arraycopy(source, 0, rvalue, 0, source.length);
+        return rvalue;
+    }
+
+    private static boolean isConstructedTag(int tag) {
+        int firstByte = (tag >>> 8) != 0 ? tag >>> 8 : tag;
+        return (firstByte & 0x20) == 0x20;
+    }
+
+    public byte[] getBuffer() {
+        return buffer;
+    }
+    public int size() {
+        return count;
+    }
+    public boolean isComplete() {
+        return errorOffset < 0;
+    }
+    /**
+     * @return offset in the buffer of the first malformed tag, or -1 if everything parsed
+     */
+    public int getErrorOffset() {
+        return errorOffset;
+    }
+    public int getTag(int index) {
+        return tags[index];
+    }
+    public String getTagName(int index) {
+        return tagName(tags[index]);
+    }
+    public int getParent(int index) {
+        return parents[index];
+    }
+    public boolean isConstructed(int index) {
+        return isConstructedTag(tags[index]);
+    }
+    public int getHeaderOffset(int index) {
+        return headerOffsets[index];
+    }
+    public int getValueOffset(int index) {
+        return valueOffsets[index];
+    }
+    public int getValueLength(int index) {
+        return valueLengths[index];
+    }
+    public int getEncodedLength(int index) {
+        return valueOffsets[index] + valueLengths[index] - headerOffsets[index];
+    }
+    public byte[] getValue(int index) {
+        byte[] rvalue = new byte[valueLengths[index]];
+        System.arraycopy(buffer, valueOffsets[index], rvalue, 0, rvalue.length);
+        return rvalue;
+    }
+    public String getValueHex(int index) {
+        return hex(buffer, valueOffsets[index], valueLengths[index]);
+    }
+    /**
+     * @return the length field exactly as encoded, in hex
+     */
+    public String getLengthHex(int index) {
+        int tagBytes = tagLength(tags[index]);
+        int start = headerOffsets[index] + tagBytes;
+        return hex(buffer, start, valueOffsets[index] - start);
+    }
+
+    /**
+     * @return the index of the first node with the tag at any depth, or -1
+     */
+    public int find(int tag) {
+        for(int i = 0; i < count; i++) {
+            if(tags[i] == tag) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Re-encodes the accepted nodes. Nodes the filter rejects are dropped along with their children;
+     * templates that lose a child get their length recalculated, everything else is copied verbatim.
+     */
+    public byte[] encode(Filter filter) {
+        boolean[] kept = new boolean[count];
+        boolean[] modified = new boolean[count];
+        for(int i = 0; i < count; i++) {
+            int parent = parents[i];
+            kept[i] = (parent == NO_PARENT || kept[parent]) && filter.accept(this, i);
+            if(!kept[i] && parent != NO_PARENT && kept[parent]) {
+                // mark every enclosing template as needing a new length
+                for(int p = parent; p != NO_PARENT; p = parents[p]) {
+                    modified[p] = true;
+                }
+            }
+        }
+
+        int[] sizes = new int[count];
+        int[] contentSizes = new int[count];
+        int total = 0;
+        for(int i = count - 1; i >= 0; i--) {
+            if(!kept[i]) {
+                continue;
+            }
+            if(modified[i]) {
+                int content = 0;
+                for(int child = i + 1; child < count && isDescendant(child, i); child++) {
+                    if(parents[child] == i && kept[child]) {
+                        content += sizes[child];
+                    }
+                }
+                contentSizes[i] = content;
+                sizes[i] = tagLength(tags[i]) + lengthFieldSize(content) + content;
+            }
+            else sizes[i] = getEncodedLength(i);
+
+            if(parents[i] == NO_PARENT) {
+                total += sizes[i];
+            }
+        }
+
+        byte[] rvalue = new byte[total];
+        int position = 0;
+        for(int i = 0; i < count; i++) {
+            if(!kept[i]) {
+                continue;
+            }
+            if(parents[i] != NO_PARENT && !modified[parents[i]]) {
+                // copied as part of its parent
+                continue;
+            }
+            if(modified[i]) {
+                int tagBytes = tagLength(tags[i]);
+                System.arraycopy(buffer, headerOffsets[i], rvalue, position, tagBytes);
+                position += tagBytes;
+                position = writeLength(rvalue, position, contentSizes[i]);
+            }
+            else {
+                int length = getEncodedLength(i);
+                System.arraycopy(buffer, headerOffsets[i], rvalue, position, length);
+                position += length;
+            }
+        }
+        return rvalue;
+    }
+
+    private boolean isDescendant(int index, int ancestor) {
+        for(int p = parents[index]; p != NO_PARENT; p = parents[p]) {
+            if(p == ancestor) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int tagLength(int tag) {
+        return (tag >>> 8) != 0 ? 2 : 1;
+    }
+
+    private static int lengthFieldSize(int length) {
+        return length < 0x80 ? 1 : length <= 0xFF ? 2 : length <= 0xFFFF ? 3 : 4;
+    }
+
+    private static int writeLength(byte[] output, int position, int length) {
+        if(length < 0x80) {
+            output[position++] = (byte)length;
+        }
+        else if(length <= 0xFF) {
+            output[position++] = (byte)0x81;
+            output[position++] = (byte)length;
+        }
+        else if(length <= 0xFFFF) {
+            output[position++] = (byte)0x82;
+            output[position++] = (byte)(length >> 8);
+            output[position++] = (byte)length;
+        }
+        else {
+            output[position++] = (byte)0x83;
+            output[position++] = (byte)(length >> 16);
+            output[position++] = (byte)(length >> 8);
+            output[position++] = (byte)length;
+        }
+        return position;
+    }
+
+    public static String tagName(int tag) {
+        return hex(new byte[] {(byte)(tag >>> 8), (byte)tag}, 2 - tagLength(tag), tagLength(tag));
+    }
+
+    private static String hex(byte[] source, int offset, int length) {
+        char[] hexArray = "0123456789ABCDEF".toCharArray();
+        char[] hexChars = new char[length * 2];
+        for(int i = 0; i < length; i++) {
+            int v = source[offset + i] & 0xFF;
+            hexChars[i * 2] = hexArray[v >>> 4];
+            hexChars[i * 2 + 1] = hexArray[v & 0x0F];
+        }
+        return new String(hexChars);
+    }
+}
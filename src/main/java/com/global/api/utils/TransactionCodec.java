@@ -0,0 +1,876 @@
+package com.global.api.utils;
+
+import com.global.api.entities.EncryptionData;
+import com.global.api.entities.Transaction;
+import com.global.api.entities.enums.*;
+import com.global.api.entities.exceptions.ApiException;
+import com.global.api.network.entities.NtsData;
+import com.global.api.network.entities.PriorMessageInformation;
+import com.global.api.network.enums.AuthorizerCode;
+import com.global.api.network.enums.FallbackCode;
+import com.global.api.network.enums.gnap.ISOResponseCode;
+import com.global.api.paymentMethods.CreditCardData;
+import com.global.api.paymentMethods.CreditTrackData;
+import com.global.api.paymentMethods.DebitTrackData;
+import com.global.api.paymentMethods.GiftCard;
+import com.global.api.paymentMethods.IPaymentMethod;
+import com.global.api.paymentMethods.TransactionReference;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Compact binary form of the state a follow-up (capture, void, reversal, resubmit) needs from the
+ * original transaction, as an alternative to storing JSON and rebuilding it with
+ * {@link com.global.api.builders.TransactionRebuilder}.
+ *
+ * The data starts with a format version and a record kind, followed by tagged fields. Readers skip
+ * fields they don't know, so fields can be added to a record without changing the version and data
+ * written by a newer SDK still loads here. Field numbers are never reused; the version only changes
+ * if the layout itself does.
+ *
+ * The reference, prior message information and payment method are nested messages, so
+ * {@link #decodeTransactionReference}, {@link #decodeNtsData} and {@link #decodeMessageInformation}
+ * read them out of a stored transaction without decoding the rest.
+ *
+ * Of the original payment method, the entry method, track number, token, encrypted PAN and
+ * encryption data are kept; the last four digits are on the transaction itself. The card number
+ * and expiry are plaintext cardholder data, so they are only written when the caller asks for them
+ * with {@code includeCardNumbers}, for follow-ups that must resend them (such as NTS and VAPS
+ * voids and reversals of cards that are neither tokenized nor encrypted). Data encoded that way
+ * must be stored with the same protection as any other PAN. Track data, CVN and PIN blocks are
+ * never written.
+ */
+public final class TransactionCodec {
+    public static final int VERSION = 1;
+
+    private static final int KIND_TRANSACTION = 1;
+    private static final int KIND_REFERENCE = 2;
+
+    // transaction fields
+    private static final int TRANSACTION_REFERENCE = 1;
+    private static final int MESSAGE_INFORMATION = 2;
+    private static final int RESPONSE_CODE = 3;
+    private static final int RESPONSE_MESSAGE = 4;
+    private static final int AUTHORIZED_AMOUNT = 5;
+    private static final int BALANCE_AMOUNT = 6;
+    private static final int TRANSACTION_DATE = 7;
+    private static final int TRANSACTION_TIME = 8;
+    private static final int TRANSACTION_CODE = 9;
+    private static final int ADDITIONAL_RESPONSE_CODE = 10;
+    private static final int TOKEN = 11;
+    private static final int REFERENCE_NUMBER = 12;
+    private static final int CARD_TYPE = 13;
+    private static final int CARD_LAST4 = 14;
+
+    // reference fields
+    private static final int ACQUIRING_INSTITUTION_ID = 1;
+    private static final int AUTH_CODE = 2;
+    private static final int BATCH_NUMBER = 3;
+    private static final int CLIENT_TRANSACTION_ID = 4;
+    private static final int MESSAGE_TYPE_INDICATOR = 5;
+    private static final int NTS_DATA = 6;
+    private static final int ORDER_ID = 7;
+    private static final int ORIGINAL_AMOUNT = 8;
+    private static final int ORIGINAL_APPROVED_AMOUNT = 9;
+    private static final int ORIGINAL_EMV_CHIP_CONDITION = 10;
+    private static final int ORIGINAL_PAYMENT_METHOD = 11;
+    private static final int ORIGINAL_PROCESSING_CODE = 12;
+    private static final int ORIGINAL_TRANSACTION_TIME = 13;
+    private static final int PARTIAL_APPROVAL = 14;
+    private static final int PAYMENT_METHOD_TYPE = 15;
+    private static final int POS_DATA_CODE = 16;
+    private static final int SEQUENCE_NUMBER = 17;
+    private static final int SYSTEM_TRACE_AUDIT_NUMBER = 18;
+    private static final int TRANSACTION_ID = 19;
+    private static final int ORIGINAL_TRANSACTION_DATE = 20;
+    private static final int REFERENCE_RESPONSE_CODE = 21;
+    private static final int USE_AUTHORIZED_AMOUNT = 22;
+    private static final int TRANSACTION_IDENTIFIER = 23;
+    private static final int ORIGINAL_INVOICE_NUMBER = 24;
+    private static final int ORIGINAL_TRANSACTION_INFO = 25;
+    private static final int ORIGINAL_POS_ENTRY_MODE = 26;
+    private static final int ORIGINAL_TRANSACTION_TYPE = 27;
+    private static final int ISO_RESPONSE_CODE = 28;
+    private static final int APPROVAL_CODE = 29;
+    private static final int ORIGINAL_MESSAGE_CODE = 30;
+    private static final int BANKCARD_DATA = 31;
+    private static final int ORIGINAL_TRANSACTION_CODE = 32;
+    private static final int ORIGINAL_TRANSACTION_TYPE_INDICATOR = 33;
+    private static final int MASTERCARD_BANKNET_REF_NO = 34;
+    private static final int MASTERCARD_BANKNET_SETTLEMENT_DATE = 35;
+    private static final int AUTHORIZER = 36;
+    private static final int DEBIT_AUTHORIZER = 37;
+    private static final int VISA_TRANSACTION_ID = 38;
+    private static final int DISCOVER_NETWORK_REF_ID = 39;
+    private static final int ALTERNATIVE_PAYMENT_TYPE = 40;
+
+    // bankcard data entry fields
+    private static final int ENTRY_TAG = 1;
+    private static final int ENTRY_VALUE = 2;
+
+    // nts data fields
+    private static final int FALLBACK_CODE = 1;
+    private static final int AUTHORIZER_CODE = 2;
+    private static final int DEBIT_AUTHORIZER_CODE = 3;
+
+    // prior message information fields
+    private static final int RESPONSE_TIME = 1;
+    private static final int PRIOR_CARD_TYPE = 2;
+    private static final int FUNCTION_CODE = 3;
+    private static final int PROCESSING_CODE = 4;
+    private static final int MESSAGE_REASON_CODE = 5;
+    private static final int MESSAGE_TRANSACTION_INDICATOR = 6;
+    private static final int PRIOR_SYSTEM_TRACE_AUDIT_NUMBER = 7;
+    private static final int PROCESSING_HOST = 8;
+    private static final int CONNECT_TIME = 9;
+
+    // payment method fields
+    private static final int METHOD_KIND = 1;
+    private static final int NUMBER = 2;
+    private static final int PAN = 3;
+    private static final int EXP_MONTH = 4;
+    private static final int EXP_YEAR = 5;
+    private static final int EXPIRY = 6;
+    private static final int ENTRY_METHOD = 7;
+    private static final int TRACK_NUMBER = 8;
+    private static final int CARD_PRESENT = 9;
+    private static final int READER_PRESENT = 10;
+    private static final int METHOD_TOKEN = 11;
+    private static final int GIFT_CARD_TYPE = 12;
+    private static final int ALIAS = 13;
+    private static final int ENCRYPTION_DATA = 14;
+    private static final int ENCRYPTED_PAN = 15;
+
+    // encryption data fields
+    private static final int ENCRYPTION_VERSION = 1;
+    private static final int ENCRYPTION_TRACK_NUMBER = 2;
+    private static final int KSN = 3;
+    private static final int KTB = 4;
+
+    private static final int CREDIT_CARD = 1;
+    private static final int CREDIT_TRACK = 2;
+    private static final int DEBIT_TRACK = 3;
+    private static final int GIFT_CARD = 4;
+
+    private TransactionCodec() {
+    }
+
+    public static byte[] encode(Transaction transaction) {
+        return encode(transaction, false);
+    }
+
+    /**
+     * @param includeCardNumbers write the plaintext card number and expiry of the original payment method
+     */
+    public static byte[] encode(Transaction transaction, boolean includeCardNumbers) {
+        BinaryWriter writer = header(KIND_TRANSACTION);
+        if(transaction.getTransactionReference() != null) {
+            writer.writeMessage(TRANSACTION_REFERENCE, writeReference(transaction.getTransactionReference(), includeCardNumbers));
+        }
+        if(transaction.getMessageInformation() != null) {
+            writer.writeMessage(MESSAGE_INFORMATION, writeMessageInformation(transaction.getMessageInformation()));
+        }
+        writer.writeString(RESPONSE_CODE, transaction.getResponseCode())
+                .writeString(RESPONSE_MESSAGE, transaction.getResponseMessage())
+                .writeDecimal(AUTHORIZED_AMOUNT, transaction.getAuthorizedAmount())
+                .writeDecimal(BALANCE_AMOUNT, transaction.getBalanceAmount())
+                .writeString(TRANSACTION_DATE, transaction.getTransactionDate())
+                .writeString(TRANSACTION_TIME, transaction.getTransactionTime())
+                .writeString(TRANSACTION_CODE, transaction.getTransactionCode())
+                .writeString(ADDITIONAL_RESPONSE_CODE, transaction.getAdditionalResponseCode())
+                .writeString(TOKEN, transaction.getToken())
+                .writeString(REFERENCE_NUMBER, transaction.getReferenceNumber())
+                .writeString(CARD_TYPE, transaction.getCardType())
+                .writeString(CARD_LAST4, transaction.getCardLast4());
+        return writer.toArray();
+    }
+
+    public static byte[] encode(TransactionReference reference) {
+        return encode(reference, false);
+    }
+
+    /**
+     * @param includeCardNumbers write the plaintext card number and expiry of the original payment method
+     */
+    public static byte[] encode(TransactionReference reference, boolean includeCardNumbers) {
+        return header(KIND_REFERENCE).writeMessage(TRANSACTION_REFERENCE, writeReference(reference, includeCardNumbers)).toArray();
+    }
+
+    public static Transaction decodeTransaction(byte[] data) throws ApiException {
+        BinaryReader reader = open(data);
+        Transaction rvalue = new Transaction();
+        while(reader.next()) {
+            switch(reader.getField()) {
+                case TRANSACTION_REFERENCE:
+                    rvalue.setTransactionReference(readReference(reader.readMessage()));
+                    break;
+                case MESSAGE_INFORMATION:
+                    rvalue.setMessageInformation(readMessageInformation(reader.readMessage()));
+                    break;
+                case RESPONSE_CODE:
+                    rvalue.setResponseCode(reader.readString());
+                    break;
+                case RESPONSE_MESSAGE:
+                    rvalue.setResponseMessage(reader.readString());
+                    break;
+                case AUTHORIZED_AMOUNT:
+                    rvalue.setAuthorizedAmount(reader.readDecimal());
+                    break;
+                case BALANCE_AMOUNT:
+                    rvalue.setBalanceAmount(reader.readDecimal());
+                    break;
+                case TRANSACTION_DATE:
+                    rvalue.setTransactionDate(reader.readString());
+                    break;
+                case TRANSACTION_TIME:
+                    rvalue.setTransactionTime(reader.readString());
+                    break;
+                case TRANSACTION_CODE:
+                    rvalue.setTransactionCode(reader.readString());
+                    break;
+                case ADDITIONAL_RESPONSE_CODE:
+                    rvalue.setAdditionalResponseCode(reader.readString());
+                    break;
+                case TOKEN:
+                    rvalue.setToken(reader.readString());
+                    break;
+                case REFERENCE_NUMBER:
+                    rvalue.setReferenceNumber(reader.readString());
+                    break;
+                case CARD_TYPE:
+                    rvalue.setCardType(reader.readString());
+                    break;
+                case CARD_LAST4:
+                    rvalue.setCardLast4(reader.readString());
+                    break;
+                default:
+                    reader.skip();
+            }
+        }
+        return rvalue;
+    }
+
+    /**
+     * Reads the reference from either an encoded transaction or an encoded reference.
+     */
+    public static TransactionReference decodeTransactionReference(byte[] data) throws ApiException {
+        BinaryReader reference = find(open(data), TRANSACTION_REFERENCE);
+        return reference == null ? null : readReference(reference);
+    }
+
+    public static NtsData decodeNtsData(byte[] data) throws ApiException {
+        BinaryReader reference = find(open(data), TRANSACTION_REFERENCE);
+        if(reference == null) {
+            return null;
+        }
+
+        BinaryReader ntsData = find(reference, NTS_DATA);
+        return ntsData == null ? null : readNtsData(ntsData);
+    }
+
+    public static PriorMessageInformation decodeMessageInformation(byte[] data) throws ApiException {
+        BinaryReader messageInformation = find(open(data), MESSAGE_INFORMATION);
+        return messageInformation == null ? null : readMessageInformation(messageInformation);
+    }
+
+    private static BinaryWriter header(int kind) {
+        return new BinaryWriter(256).writeRawByte(VERSION).writeRawByte(kind);
+    }
+
+    private static BinaryReader open(byte[] data) throws ApiException {
+        if(data == null) {
+            throw new ApiException("No data to decode.");
+        }
+
+        BinaryReader rvalue = new BinaryReader(data);
+        int version = rvalue.readRawByte();
+        if(version < 1 || version > VERSION) {
+            throw new ApiException(String.format("Unsupported transaction data version %s.", version));
+        }
+
+        int kind = rvalue.readRawByte();
+        if(kind != KIND_TRANSACTION && kind != KIND_REFERENCE) {
+            throw new ApiException(String.format("Unknown transaction data kind %s.", kind));
+        }
+        return rvalue;
+    }
+
+    private static BinaryReader find(BinaryReader reader, int field) throws ApiException {
+        while(reader.next()) {
+            if(reader.getField() == field) {
+                return reader.readMessage();
+            }
+            reader.skip();
+        }
+        return null;
+    }
+
+    private static BinaryWriter writeReference(TransactionReference reference, boolean includeCardNumbers) {
+        BinaryWriter writer = new BinaryWriter(192);
+        writer.writeString(ACQUIRING_INSTITUTION_ID, reference.getAcquiringInstitutionId())
+                .writeString(AUTH_CODE, reference.getAuthCode())
+                .writeInt(BATCH_NUMBER, reference.getBatchNumber())
+                .writeString(CLIENT_TRANSACTION_ID, reference.getClientTransactionId())
+                .writeString(MESSAGE_TYPE_INDICATOR, reference.getMessageTypeIndicator());
+        if(reference.getNtsData() != null) {
+            writer.writeMessage(NTS_DATA, writeNtsData(reference.getNtsData()));
+        }
+        writer.writeString(ORDER_ID, reference.getOrderId())
+                .writeDecimal(ORIGINAL_AMOUNT, reference.getOriginalAmount());
+
+        // the getter falls back to the original amount, which is all the decoder needs when they match
+        BigDecimal approvedAmount = reference.getOriginalApprovedAmount();
+        if(approvedAmount != null && !approvedAmount.equals(reference.getOriginalAmount())) {
+            writer.writeDecimal(ORIGINAL_APPROVED_AMOUNT, approvedAmount);
+        }
+
+        writer.writeEnum(ORIGINAL_EMV_CHIP_CONDITION, reference.getOriginalEmvChipCondition())
+                .writeMessage(ORIGINAL_PAYMENT_METHOD, writePaymentMethod(reference.getOriginalPaymentMethod(), includeCardNumbers))
+                .writeString(ORIGINAL_PROCESSING_CODE, reference.getOriginalProcessingCode())
+                .writeString(ORIGINAL_TRANSACTION_TIME, reference.getOriginalTransactionTime())
+                .writeBoolean(PARTIAL_APPROVAL, reference.isPartialApproval())
+                .writeEnum(PAYMENT_METHOD_TYPE, reference.getPaymentMethodType())
+                .writeString(POS_DATA_CODE, reference.getPosDataCode())
+                .writeInt(SEQUENCE_NUMBER, reference.getSequenceNumber() == 0 ? null : reference.getSequenceNumber())
+                .writeString(SYSTEM_TRACE_AUDIT_NUMBER, reference.getSystemTraceAuditNumber())
+                .writeString(TRANSACTION_ID, reference.getTransactionId())
+                .writeString(ORIGINAL_TRANSACTION_DATE, reference.getOriginalTransactionDate())
+                .writeString(REFERENCE_RESPONSE_CODE, reference.getResponseCode())
+                .writeBoolean(USE_AUTHORIZED_AMOUNT, reference.isUseAuthorizedAmount())
+                .writeString(TRANSACTION_IDENTIFIER, reference.getTransactionIdentifier())
+                .writeString(ORIGINAL_INVOICE_NUMBER, reference.getOriginalInvoiceNumber())
+                .writeString(ORIGINAL_TRANSACTION_INFO, reference.getOriginalTransactionInfo())
+                .writeString(ORIGINAL_POS_ENTRY_MODE, reference.getOriginalPosEntryMode())
+                .writeEnum(ORIGINAL_TRANSACTION_TYPE, reference.getOriginalTransactionType())
+                .writeEnum(ISO_RESPONSE_CODE, reference.getIsoResponseCode())
+                .writeString(APPROVAL_CODE, reference.getApprovalCode())
+                .writeString(ORIGINAL_MESSAGE_CODE, reference.getOriginalMessageCode());
+        if(reference.getBankcardData() != null) {
+            for(Map.Entry<UserDataTag, String> entry: reference.getBankcardData().entrySet()) {
+                writer.writeMessage(BANKCARD_DATA, new BinaryWriter(32)
+                        .writeEnum(ENTRY_TAG, entry.getKey())
+                        .writeString(ENTRY_VALUE, entry.getValue()));
+            }
+        }
+        writer.writeEnum(ORIGINAL_TRANSACTION_CODE, reference.getOriginalTransactionCode())
+                .writeEnum(ORIGINAL_TRANSACTION_TYPE_INDICATOR, reference.getOriginalTransactionTypeIndicator())
+                .writeString(MASTERCARD_BANKNET_REF_NO, reference.getMastercardBanknetRefNo())
+                .writeString(MASTERCARD_BANKNET_SETTLEMENT_DATE, reference.getMastercardBanknetSettlementDate())
+                .writeEnum(AUTHORIZER, reference.getAuthorizer())
+                .writeString(DEBIT_AUTHORIZER, reference.getDebitAuthorizer())
+                .writeString(VISA_TRANSACTION_ID, reference.getVisaTransactionId())
+                .writeString(DISCOVER_NETWORK_REF_ID, reference.getDiscoverNetworkRefId())
+                .writeString(ALTERNATIVE_PAYMENT_TYPE, reference.getAlternativePaymentType());
+        return writer;
+    }
+
+    private static TransactionReference readReference(BinaryReader reader) throws ApiException {
+        TransactionReference rvalue = new TransactionReference();
+        while(reader.next()) {
+            switch(reader.getField()) {
+                case ACQUIRING_INSTITUTION_ID:
+                    rvalue.setAcquiringInstitutionId(reader.readString());
+                    break;
+                case AUTH_CODE:
+                    rvalue.setAuthCode(reader.readString());
+                    break;
+                case BATCH_NUMBER:
+                    rvalue.setBatchNumber(reader.readInt());
+                    break;
+                case CLIENT_TRANSACTION_ID:
+                    rvalue.setClientTransactionId(reader.readString());
+                    break;
+                case MESSAGE_TYPE_INDICATOR:
+                    rvalue.setMessageTypeIndicator(reader.readString());
+                    break;
+                case NTS_DATA:
+                    rvalue.setNtsData(readNtsData(reader.readMessage()));
+                    break;
+                case ORDER_ID:
+                    rvalue.setOrderId(reader.readString());
+                    break;
+                case ORIGINAL_AMOUNT:
+                    rvalue.setOriginalAmount(reader.readDecimal());
+                    break;
+                case ORIGINAL_APPROVED_AMOUNT:
+                    rvalue.setOriginalApprovedAmount(reader.readDecimal());
+                    break;
+                case ORIGINAL_EMV_CHIP_CONDITION:
+                    rvalue.setOriginalEmvChipCondition(reader.readEnum(EmvChipCondition.class));
+                    break;
+                case ORIGINAL_PAYMENT_METHOD:
+                    rvalue.setOriginalPaymentMethod(readPaymentMethod(reader.readMessage()));
+                    break;
+                case ORIGINAL_PROCESSING_CODE:
+                    rvalue.setOriginalProcessingCode(reader.readString());
+                    break;
+                case ORIGINAL_TRANSACTION_TIME:
+                    rvalue.setOriginalTransactionTime(reader.readString());
+                    break;
+                case PARTIAL_APPROVAL:
+                    rvalue.setPartialApproval(reader.readBoolean());
+                    break;
+                case PAYMENT_METHOD_TYPE:
+                    rvalue.setPaymentMethodType(reader.readEnum(PaymentMethodType.class));
+                    break;
+                case POS_DATA_CODE:
+                    rvalue.setPosDataCode(reader.readString());
+                    break;
+                case SEQUENCE_NUMBER:
+                    rvalue.setSequenceNumber(reader.readInt());
+                    break;
+                case SYSTEM_TRACE_AUDIT_NUMBER:
+                    rvalue.setSystemTraceAuditNumber(reader.readString());
+                    break;
+                case TRANSACTION_ID:
+                    rvalue.setTransactionId(reader.readString());
+                    break;
+                case ORIGINAL_TRANSACTION_DATE:
+                    rvalue.setOriginalTransactionDate(reader.readString());
+                    break;
+                case REFERENCE_RESPONSE_CODE:
+                    rvalue.setResponseCode(reader.readString());
+                    break;
+                case USE_AUTHORIZED_AMOUNT:
+                    rvalue.setUseAuthorizedAmount(reader.readBoolean());
+                    break;
+                case TRANSACTION_IDENTIFIER:
+                    rvalue.setTransactionIdentifier(reader.readString());
+                    break;
+                case ORIGINAL_INVOICE_NUMBER:
+                    rvalue.setOriginalInvoiceNumber(reader.readString());
+                    break;
+                case ORIGINAL_TRANSACTION_INFO:
+                    rvalue.setOriginalTransactionInfo(reader.readString());
+                    break;
+                case ORIGINAL_POS_ENTRY_MODE:
+                    rvalue.setOriginalPosEntryMode(reader.readString());
+                    break;
+                case ORIGINAL_TRANSACTION_TYPE:
+                    rvalue.setOriginalTransactionType(reader.readEnum(TransactionType.class));
+                    break;
+                case ISO_RESPONSE_CODE:
+                    rvalue.setIsoResponseCode(reader.readEnum(ISOResponseCode.class));
+                    break;
+                case APPROVAL_CODE:
+                    rvalue.setApprovalCode(reader.readString());
+                    break;
+                case ORIGINAL_MESSAGE_CODE:
+                    rvalue.setOriginalMessageCode(reader.readString());
+                    break;
+                case BANKCARD_DATA:
+                    if(rvalue.getBankcardData() == null) {
+                        rvalue.setBankcardData(new HashMap<UserDataTag, String>());
+                    }
+                    readBankcardEntry(reader.readMessage(), rvalue.getBankcardData());
+                    break;
+                case ORIGINAL_TRANSACTION_CODE:
+                    rvalue.setOriginalTransactionCode(reader.readEnum(TransactionCode.class));
+                    break;
+                case ORIGINAL_TRANSACTION_TYPE_INDICATOR:
+                    rvalue.setOriginalTransactionTypeIndicator(reader.readEnum(TransactionTypeIndicator.class));
+                    break;
+                case MASTERCARD_BANKNET_REF_NO:
+                    rvalue.setMastercardBanknetRefNo(reader.readString());
+                    break;
+                case MASTERCARD_BANKNET_SETTLEMENT_DATE:
+                    rvalue.setMastercardBanknetSettlementDate(reader.readString());
+                    break;
+                case AUTHORIZER:
+                    rvalue.setAuthorizer(reader.readEnum(AuthorizerCode.class));
+                    break;
+                case DEBIT_AUTHORIZER:
+                    rvalue.setDebitAuthorizer(reader.readString());
+                    break;
+                case VISA_TRANSACTION_ID:
+                    rvalue.setVisaTransactionId(reader.readString());
+                    break;
+                case DISCOVER_NETWORK_REF_ID:
+                    rvalue.setDiscoverNetworkRefId(reader.readString());
+                    break;
+                case ALTERNATIVE_PAYMENT_TYPE:
+                    rvalue.setAlternativePaymentType(reader.readString());
+                    break;
+                default:
+                    reader.skip();
+            }
+        }
+        return rvalue;
+    }
+
+    private static void readBankcardEntry(BinaryReader reader, Map<UserDataTag, String> bankcardData) throws ApiException {
+        UserDataTag tag = null;
+        String value = null;
+        while(reader.next()) {
+            if(reader.getField() == ENTRY_TAG) {
+                tag = reader.readEnum(UserDataTag.class);
+            }
+            else if(reader.getField() == ENTRY_VALUE) {
+                value = reader.readString();
+            }
+            else {
+                reader.skip();
+            }
+        }
+        if(tag != null) {
+            bankcardData.put(tag, value);
+        }
+    }
+
+    private static BinaryWriter writeNtsData(NtsData ntsData) {
+        return new BinaryWriter(48)
+                .writeEnum(FALLBACK_CODE, ntsData.getFallbackCode())
+                .writeEnum(AUTHORIZER_CODE, ntsData.getAuthorizerCode())
+                .writeEnum(DEBIT_AUTHORIZER_CODE, ntsData.getDebitAuthorizerCode());
+    }
+
+    private static NtsData readNtsData(BinaryReader reader) throws ApiException {
+        FallbackCode fallbackCode = null;
+        AuthorizerCode authorizerCode = null;
+        DebitAuthorizerCode debitAuthorizerCode = null;
+        while(reader.next()) {
+            switch(reader.getField()) {
+                case FALLBACK_CODE:
+                    fallbackCode = reader.readEnum(FallbackCode.class);
+                    break;
+                case AUTHORIZER_CODE:
+                    authorizerCode = reader.readEnum(AuthorizerCode.class);
+                    break;
+                case DEBIT_AUTHORIZER_CODE:
+                    debitAuthorizerCode = reader.readEnum(DebitAuthorizerCode.class);
+                    break;
+                default:
+                    reader.skip();
+            }
+        }
+        return new NtsData(fallbackCode, authorizerCode, debitAuthorizerCode);
+    }
+
+    private static BinaryWriter writeMessageInformation(PriorMessageInformation messageInformation) {
+        return new BinaryWriter(64)
+                .writeString(RESPONSE_TIME, messageInformation.getResponseTime())
+                .writeString(PRIOR_CARD_TYPE, messageInformation.getCardType())
+                .writeString(FUNCTION_CODE, messageInformation.getFunctionCode())
+                .writeString(PROCESSING_CODE, messageInformation.getProcessingCode())
+                .writeString(MESSAGE_REASON_CODE, messageInformation.getMessageReasonCode())
+                .writeString(MESSAGE_TRANSACTION_INDICATOR, messageInformation.getMessageTransactionIndicator())
+                .writeString(PRIOR_SYSTEM_TRACE_AUDIT_NUMBER, messageInformation.getSystemTraceAuditNumber())
+                .writeEnum(PROCESSING_HOST, messageInformation.getProcessingHost())
+                .writeString(CONNECT_TIME, messageInformation.getConnectTime());
+    }
+
+    private static PriorMessageInformation readMessageInformation(BinaryReader reader) throws ApiException {
+        // null values aren't written, so start from nulls rather than the constructor defaults
+        PriorMessageInformation rvalue = new PriorMessageInformation();
+        rvalue.setResponseTime(null);
+        rvalue.setCardType(null);
+        rvalue.setFunctionCode(null);
+        rvalue.setProcessingCode(null);
+        rvalue.setMessageTransactionIndicator(null);
+        rvalue.setSystemTraceAuditNumber(null);
+        rvalue.setProcessingHost(null);
+
+        while(reader.next()) {
+            switch(reader.getField()) {
+                case RESPONSE_TIME:
+                    rvalue.setResponseTime(reader.readString());
+                    break;
+                case PRIOR_CARD_TYPE:
+                    rvalue.setCardType(reader.readString());
+                    break;
+                case FUNCTION_CODE:
+                    rvalue.setFunctionCode(reader.readString());
+                    break;
+                case PROCESSING_CODE:
+                    rvalue.setProcessingCode(reader.readString());
+                    break;
+                case MESSAGE_REASON_CODE:
+                    rvalue.setMessageReasonCode(reader.readString());
+                    break;
+                case MESSAGE_TRANSACTION_INDICATOR:
+                    rvalue.setMessageTransactionIndicator(reader.readString());
+                    break;
+                case PRIOR_SYSTEM_TRACE_AUDIT_NUMBER:
+                    rvalue.setSystemTraceAuditNumber(reader.readString());
+                    break;
+                case PROCESSING_HOST:
+                    rvalue.setProcessingHost(reader.readEnum(Host.class));
+                    break;
+                case CONNECT_TIME:
+                    rvalue.setConnectTime(reader.readString());
+                    break;
+                default:
+                    reader.skip();
+            }
+        }
+        return rvalue;
+    }
+
+    private static BinaryWriter writePaymentMethod(IPaymentMethod paymentMethod, boolean includeCardNumbers) {
+        if(paymentMethod instanceof CreditCardData) {
+            CreditCardData card = (CreditCardData)paymentMethod;
+            BinaryWriter writer = new BinaryWriter(64).writeInt(METHOD_KIND, CREDIT_CARD);
+            if(includeCardNumbers) {
+                writer.writeString(NUMBER, card.getNumber())
+                        .writeInt(EXP_MONTH, card.getExpMonth())
+                        .writeInt(EXP_YEAR, card.getExpYear());
+            }
+            return writer.writeEnum(ENTRY_METHOD, card.getEntryMethod())
+                    .writeBoolean(CARD_PRESENT, card.isCardPresent())
+                    .writeBoolean(READER_PRESENT, card.isReaderPresent())
+                    .writeString(METHOD_TOKEN, card.getToken())
+                    .writeString(ENCRYPTED_PAN, card.getEncryptedPan())
+                    .writeMessage(ENCRYPTION_DATA, writeEncryptionData(card.getEncryptionData()));
+        }
+        else if(paymentMethod instanceof CreditTrackData) {
+            CreditTrackData track = (CreditTrackData)paymentMethod;
+            BinaryWriter writer = new BinaryWriter(64).writeInt(METHOD_KIND, CREDIT_TRACK);
+            if(includeCardNumbers) {
+                writer.writeString(PAN, track.getPan())
+                        .writeString(EXPIRY, track.getExpiry());
+            }
+            return writer.writeEnum(ENTRY_METHOD, track.getEntryMethod())
+                    .writeEnum(TRACK_NUMBER, track.getTrackNumber())
+                    .writeString(METHOD_TOKEN, track.getToken())
+                    .writeString(ENCRYPTED_PAN, track.getEncryptedPan())
+                    .writeMessage(ENCRYPTION_DATA, writeEncryptionData(track.getEncryptionData()));
+        }
+        else if(paymentMethod instanceof DebitTrackData) {
+            DebitTrackData track = (DebitTrackData)paymentMethod;
+            BinaryWriter writer = new BinaryWriter(64).writeInt(METHOD_KIND, DEBIT_TRACK);
+            if(includeCardNumbers) {
+                writer.writeString(PAN, track.getPan())
+                        .writeString(EXPIRY, track.getExpiry());
+            }
+            return writer.writeEnum(ENTRY_METHOD, track.getEntryMethod())
+                    .writeEnum(TRACK_NUMBER, track.getTrackNumber())
+                    .writeString(ENCRYPTED_PAN, track.getEncryptedPan())
+                    .writeMessage(ENCRYPTION_DATA, writeEncryptionData(track.getEncryptionData()));
+        }
+        else if(paymentMethod instanceof GiftCard) {
+            GiftCard card = (GiftCard)paymentMethod;
+            BinaryWriter writer = new BinaryWriter(64).writeInt(METHOD_KIND, GIFT_CARD);
+            if(includeCardNumbers) {
+                writer.writeString(NUMBER, card.getNumber())
+                        .writeString(PAN, card.getPan())
+                        .writeString(EXPIRY, card.getExpiry());
+            }
+            return writer.writeEnum(ENTRY_METHOD, card.getEntryMethod())
+                    .writeEnum(TRACK_NUMBER, card.getTrackNumber())
+                    .writeString(GIFT_CARD_TYPE, card.getCardType())
+                    .writeString(ALIAS, card.getAlias())
+                    .writeString(METHOD_TOKEN, card.getToken());
+        }
+        // other payment methods are carried by the payment method type alone
+        return null;
+    }
+
+    private static BinaryWriter writeEncryptionData(EncryptionData encryptionData) {
+        if(encryptionData == null) {
+            return null;
+        }
+        return new BinaryWriter(32)
+                .writeString(ENCRYPTION_VERSION, encryptionData.getVersion())
+                .writeString(ENCRYPTION_TRACK_NUMBER, encryptionData.getTrackNumber())
+                .writeString(KSN, encryptionData.getKsn())
+                .writeString(KTB, encryptionData.getKtb());
+    }
+
+    private static EncryptionData readEncryptionData(BinaryReader reader) throws ApiException {
+        EncryptionData rvalue = new EncryptionData();
+        while(reader.next()) {
+            switch(reader.getField()) {
+                case ENCRYPTION_VERSION:
+                    rvalue.setVersion(reader.readString());
+                    break;
+                case ENCRYPTION_TRACK_NUMBER:
+                    rvalue.setTrackNumber(reader.readString());
+                    break;
+                case KSN:
+                    rvalue.setKsn(reader.readString());
+                    break;
+                case KTB:
+                    rvalue.setKtb(reader.readString());
+                    break;
+                default:
+                    reader.skip();
+            }
+        }
+        return rvalue;
+    }
+
+    private static IPaymentMethod readPaymentMethod(BinaryReader reader) throws ApiException {
+        CreditCardData card = null;
+        CreditTrackData creditTrack = null;
+        DebitTrackData debitTrack = null;
+        GiftCard giftCard = null;
+
+        while(reader.next()) {
+            if(reader.getField() == METHOD_KIND) {
+                int kind = reader.readInt();
+                if(kind == CREDIT_CARD) {
+                    card = new CreditCardData();
+                }
+                else if(kind == CREDIT_TRACK) {
+                    creditTrack = new CreditTrackData();
+                }
+                else if(kind == DEBIT_TRACK) {
+                    debitTrack = new DebitTrackData();
+                }
+                else if(kind == GIFT_CARD) {
+                    giftCard = new GiftCard();
+                }
+                else {
+                    // a kind added in a newer version
+                    return null;
+                }
+            }
+            else if(card != null) {
+                readCreditCard(reader, card);
+            }
+            else if(creditTrack != null) {
+                readCreditTrack(reader, creditTrack);
+            }
+            else if(debitTrack != null) {
+                readDebitTrack(reader, debitTrack);
+            }
+            else if(giftCard != null) {
+                readGiftCard(reader, giftCard);
+            }
+            else {
+                reader.skip();
+            }
+        }
+
+        if(card != null) {
+            return card;
+        }
+        else if(creditTrack != null) {
+            return creditTrack;
+        }
+        else if(debitTrack != null) {
+            return debitTrack;
+        }
+        return giftCard;
+    }
+
+    private static void readCreditCard(BinaryReader reader, CreditCardData card) throws ApiException {
+        switch(reader.getField()) {
+            case NUMBER:
+                card.setNumber(reader.readString());
+                break;
+            case EXP_MONTH:
+                card.setExpMonth(reader.readInt());
+                break;
+            case EXP_YEAR:
+                card.setExpYear(reader.readInt());
+                break;
+            case ENTRY_METHOD:
+                card.setEntryMethod(reader.readEnum(ManualEntryMethod.class));
+                break;
+            case CARD_PRESENT:
+                card.setCardPresent(reader.readBoolean());
+                break;
+            case READER_PRESENT:
+                card.setReaderPresent(reader.readBoolean());
+                break;
+            case METHOD_TOKEN:
+                card.setToken(reader.readString());
+                break;
+            case ENCRYPTED_PAN:
+                card.setEncryptedPan(reader.readString());
+                break;
+            case ENCRYPTION_DATA:
+                card.setEncryptionData(readEncryptionData(reader.readMessage()));
+                break;
+            default:
+                reader.skip();
+        }
+    }
+
+    private static void readCreditTrack(BinaryReader reader, CreditTrackData track) throws ApiException {
+        switch(reader.getField()) {
+            case PAN:
+                track.setPan(reader.readString());
+                break;
+            case EXPIRY:
+                track.setExpiry(reader.readString());
+                break;
+            case ENTRY_METHOD:
+                track.setEntryMethod(reader.readEnum(EntryMethod.class));
+                break;
+            case TRACK_NUMBER:
+                track.setTrackNumber(reader.readEnum(TrackNumber.class));
+                break;
+            case METHOD_TOKEN:
+                track.setToken(reader.readString());
+                break;
+            case ENCRYPTED_PAN:
+                track.setEncryptedPan(reader.readString());
+                break;
+            case ENCRYPTION_DATA:
+                track.setEncryptionData(readEncryptionData(reader.readMessage()));
+                break;
+            default:
+                reader.skip();
+        }
+    }
+
+    private static void readDebitTrack(BinaryReader reader, DebitTrackData track) throws ApiException {
+        switch(reader.getField()) {
+            case PAN:
+                track.setPan(reader.readString());
+                break;
+            case EXPIRY:
+                track.setExpiry(reader.readString());
+                break;
+            case ENTRY_METHOD:
+                track.setEntryMethod(reader.readEnum(EntryMethod.class));
+                break;
+            case TRACK_NUMBER:
+                track.setTrackNumber(reader.readEnum(TrackNumber.class));
+                break;
+            case ENCRYPTED_PAN:
+                track.setEncryptedPan(reader.readString());
+                break;
+            case ENCRYPTION_DATA:
+                track.setEncryptionData(readEncryptionData(reader.readMessage()));
+                break;
+            default:
+                reader.skip();
+        }
+    }
+
+    private static void readGiftCard(BinaryReader reader, GiftCard card) throws ApiException {
+        switch(reader.getField()) {
+            case NUMBER:
+                card.setNumber(reader.readString());
+                break;
+            case PAN:
+                card.setPan(reader.readString());
+                break;
+            case EXPIRY:
+                card.setExpiry(reader.readString());
+                break;
+            case ENTRY_METHOD:
+                card.setEntryMethod(reader.readEnum(EntryMethod.class));
+                break;
+            case TRACK_NUMBER:
+                card.setTrackNumber(reader.readEnum(TrackNumber.class));
+                break;
+            case GIFT_CARD_TYPE:
+                card.setCardType(reader.readString());
+                break;
+            case ALIAS:
+                card.setAlias(reader.readString());
+                break;
+            case METHOD_TOKEN:
+                card.setToken(reader.readString());
+                break;
+            default:
+                reader.skip();
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.global.api.tests;
+
+import com.global.api.utils.BinTable;
+import com.global.api.utils.CardUtils;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.junit.Assert.*;
+
+public class CardUtilsTests {
+    @Test
+    public void mapCardTypeBrands() {
+        assertEquals("Visa", CardUtils.mapCardType("4111111111111111"));
+        assertEquals("MC", CardUtils.mapCardType("5473 5000 0000 0014"));
+        assertEquals("MC", CardUtils.mapCardType("2223-0000-1047-9399"));
+        assertEquals("Amex", CardUtils.mapCardType("372700699251018"));
+        assertEquals("Discover", CardUtils.mapCardType("6011000990156527"));
+        assertEquals("Jcb", CardUtils.mapCardType("3566007770007321"));
+        assertEquals("Unknown", CardUtils.mapCardType("9999999999999999"));
+        assertEquals("Unknown", CardUtils.mapCardType(null));
+    }
+
+    @Test
+    public void mostSpecificBinWins() {
+        // 627720 is inside the UnionPay 62x range
+        assertEquals("HeartlandGift", CardUtils.mapCardType("6277200000000000"));
+        assertEquals("UnionPay", CardUtils.mapCardType("6271000000000000"));
+    }
+
+    @Test
+    public void fleetAndReadyLink() {
+        assertEquals("VisaFleet", CardUtils.mapCardType("4485531234567890"));
+        assertTrue(CardUtils.isFleet("VisaFleet", "4485531234567890"));
+        assertFalse(CardUtils.isFleet("MC", "4485531234567890"));
+        assertEquals("MCFleet", CardUtils.mapCardType("5567000000000000"));
+        assertEquals("WexFleet", CardUtils.mapCardType("6900460000000000000"));
+        assertEquals("FleetWide", CardUtils.mapCardType("7076850000000000000"));
+        assertEquals("VisaReadyLink", CardUtils.mapCardType("4627660000000000"));
+        assertTrue(CardUtils.isReadyLink("4627660000000000"));
+        assertFalse(CardUtils.isReadyLink("4111111111111111"));
+    }
+
+    @Test
+    public void loadBinTableAtRuntime() throws Exception {
+        BinTable original = CardUtils.getBinTable();
+        try {
+            BinTable table = new BinTable.Builder()
+                    .load(new StringReader("# test table\nBRAND,Visa,4\nBRAND,Acme,99100000,99199999\nFLEET,Acme,991500,991599\nREADYLINK,412345\n"))
+                    .build();
+            CardUtils.setBinTable(table);
+
+            assertEquals("Acme", CardUtils.mapCardType("9910000000000000"));
+            assertEquals("AcmeFleet", CardUtils.mapCardType("9915000000000000"));
+            assertEquals("VisaReadyLink", CardUtils.mapCardType("4123450000000000"));
+            assertEquals("Unknown", CardUtils.mapCardType("5473500000000014"));
+        }
+        finally {
+            CardUtils.setBinTable(original);
+        }
+        assertEquals("MC", CardUtils.mapCardType("5473500000000014"));
+    }
+
+    @Test
+    public void malformedEntriesAreRejected() {
+        String[] entries = { "READYLINK,46A766", "READYLINK,", "BRAND,Visa,4x", "FLEET,Visa,448460,44861" };
+        for(String entry: entries) {
+            try {
+                new BinTable.Builder().load(new StringReader(entry + "\n"));
+                fail("Expected an error for " + entry);
+            }
+            catch(IOException exc) {
+                assertTrue(exc.getMessage().contains("line 1"));
+            }
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.global.api.tests;
 
 import com.global.api.entities.Address;
+import com.global.api.entities.enums.CountryCodeFormat;
 import com.global.api.utils.CountryUtils;
 import com.global.api.utils.StringUtils;
 import org.junit.Test;
@@ -16,6 +17,21 @@ public class CountryUtilTests {
         assertEquals("IE", result);
     }
 
+    @Test
+    public void getCountryCodeExactIgnoringCase() {
+        assertEquals("ML", CountryUtils.getCountryCodeByCountry("mali"));
+        assertEquals("GE", CountryUtils.getCountryCodeByCountry(" georgia "));
+        assertEquals("NER", CountryUtils.getCountryCodeByCountry("NIGER", CountryCodeFormat.Alpha3));
+    }
+
+    @Test
+    public void getCountryCodeRepeatedLookup() {
+        assertEquals("AF", CountryUtils.getCountryCodeByCountry("Afganistan"));
+        assertEquals("AF", CountryUtils.getCountryCodeByCountry("Afganistan"));
+        assertNull(CountryUtils.getCountryCodeByCountry("Fakeistan"));
+        assertNull(CountryUtils.getCountryCodeByCountry("Fakeistan"));
+    }
+
     @Test
     public void getCountryCodeMisspelled() {
         String result = CountryUtils.getCountryCodeByCountry("Afganistan");
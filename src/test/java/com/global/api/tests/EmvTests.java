@@ -2,6 +2,7 @@ package com.global.api.tests;
 
 import com.global.api.utils.EmvData;
 import com.global.api.utils.EmvUtils;
+import com.global.api.utils.StringUtils;
 import org.junit.Test;
 
 import java.util.ArrayList;
@@ -60,4 +61,52 @@ public class EmvTests {
         EmvData data = EmvUtils.parseTagData(tagData, true);
         assertEquals(tagData, data.getAcceptedTagData());
     }
+
+    @Test
+    public void parseTemplateWithBlacklistedTag() {
+        // 70 template holding the PAN and an application label
+        String tagData = "700F5A0841111111111111115003414243" + "9F0702FF00";
+        EmvData data = EmvUtils.parseTagData(tagData, false);
+
+        assertEquals("70055003414243" + "9F0702FF00", data.getAcceptedTagData());
+        assertEquals("70055003414243" + "9F0702FF00", StringUtils.hexFromBytes(data.getSendBuffer()));
+        assertNotNull(data.getRemovedTags().get("5A"));
+        assertEquals("4111111111111111", data.getRemovedTags().get("5A").getValue());
+    }
+
+    @Test
+    public void parseLongFormLength() {
+        StringBuilder value = new StringBuilder();
+        for(int i = 0; i < 130; i++) {
+            value.append("AB");
+        }
+        String tagData = "9F108182" + value + "9F3403010302";
+
+        EmvData data = EmvUtils.parseTagData(tagData, false);
+        assertEquals("8182", data.getTag("9F10").getLength());
+        assertEquals(value.toString(), data.getTag("9F10").getValue());
+        assertTrue(data.isOfflinePin());
+        assertEquals(tagData, data.getAcceptedTagData());
+    }
+
+    @Test
+    public void parseBinaryMatchesHex() {
+        String tagData = "9F3403010302950500000000009B02E800";
+        EmvData fromHex = EmvUtils.parseTagData(tagData, false);
+        EmvData fromBytes = EmvUtils.parseTagData(StringUtils.bytesFromHex(tagData), false);
+
+        assertEquals(fromHex.getAcceptedTagData(), fromBytes.getAcceptedTagData());
+        assertArrayEquals(fromHex.getSendBuffer(), fromBytes.getSendBuffer());
+        assertEquals(tagData, StringUtils.hexFromBytes(fromBytes.getSendBuffer()));
+    }
+
+    @Test
+    public void parseTruncatedTagData() {
+        String tagData = "9F340301030295050000";
+        EmvData data = EmvUtils.parseTagData(tagData, false);
+
+        assertEquals("9F3403010302", data.getAcceptedTagData());
+        assertFalse(data.getStandInStatus());
+        assertEquals("Malformed tag data at byte 7", data.getStandInStatusReason());
+    }
 }
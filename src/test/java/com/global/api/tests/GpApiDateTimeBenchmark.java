@@ -0,0 +1,70 @@
+package com.global.api.tests;
+
+import com.global.api.entities.enums.ReportType;
+import com.global.api.entities.reporting.TransactionSummaryPaged;
+import com.global.api.mapping.GpApiMapping;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.global.api.gateways.GpApiConnector.parseGpApiDateTime;
+import static com.global.api.tests.GpApiDateTimeTests.SAMPLE_DATES;
+import static com.global.api.tests.GpApiDateTimeTests.buildTransactionsPage;
+import static com.global.api.tests.GpApiDateTimeTests.legacyParse;
+import static org.junit.Assert.*;
+
+/**
+ * Times {@code mapReportResponse} over a 100-row transactions page, and the page's date values on
+ * their own with the single-pass parser and with the previous format-by-format parse. Not part of
+ * the unit suite; run it with {@code mvn test -Pbenchmark}.
+ */
+public class GpApiDateTimeBenchmark {
+    private static final int ROWS = 100;
+    private static final int ITERATIONS = 200;
+
+    @Test
+    public void mapReportResponsePage() throws Exception {
+        String page = buildTransactionsPage(ROWS);
+        List<String> pageDates = new ArrayList<String>();
+        for (int i = 0; i < ROWS; i++) {
+            pageDates.add(SAMPLE_DATES[i % SAMPLE_DATES.length]);
+            pageDates.add(SAMPLE_DATES[(i + 3) % SAMPLE_DATES.length]);
+        }
+
+        // warm up
+        for (int i = 0; i < ITERATIONS; i++) {
+            TransactionSummaryPaged result = GpApiMapping.mapReportResponse(page, ReportType.FindTransactionsPaged);
+            assertEquals(ROWS, result.getResults().size());
+            for (String value : pageDates) {
+                parseGpApiDateTime(value);
+                legacyParse(value);
+            }
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            GpApiMapping.mapReportResponse(page, ReportType.FindTransactionsPaged);
+        }
+        long mapping = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            for (String value : pageDates) {
+                parseGpApiDateTime(value);
+            }
+        }
+        long detected = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            for (String value : pageDates) {
+                legacyParse(value);
+            }
+        }
+        long legacy = System.nanoTime() - start;
+
+        System.out.println(String.format("mapReportResponse (%d rows): %d us/page; page dates: %d us single pass, %d us format by format",
+                ROWS, mapping / ITERATIONS / 1000, detected / ITERATIONS / 1000, legacy / ITERATIONS / 1000));
+    }
+}
@@ -0,0 +1,156 @@
+package com.global.api.tests;
+
+import com.global.api.entities.TransactionSummary;
+import com.global.api.entities.enums.ReportType;
+import com.global.api.entities.exceptions.ApiException;
+import com.global.api.entities.exceptions.GatewayException;
+import com.global.api.entities.reporting.TransactionSummaryPaged;
+import com.global.api.gateways.GpApiConnector;
+import com.global.api.mapping.GpApiMapping;
+import org.joda.time.DateTime;
+import org.joda.time.format.DateTimeFormatter;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static com.global.api.gateways.GpApiConnector.parseGpApiDateTime;
+import static org.junit.Assert.*;
+
+public class GpApiDateTimeTests {
+    static final String[] SAMPLE_DATES = {
+            "2021-06-05T03:08:20.896Z",
+            "2021-06-05T03:08:20.896",
+            "2021-06-05T03:08:20Z",
+            "2021-06-05T03:08:20",
+            "2021-06-05T03:08",
+            "2021-06-05",
+            "2021-06-05T03:08:20.123456789Z",
+            "2021-06-05T03:08:20+00:00"
+    };
+
+    @Test
+    public void parseSupportedFormats() throws GatewayException {
+        for (String value : SAMPLE_DATES) {
+            assertEquals(value, legacyParse(value), parseGpApiDateTime(value));
+        }
+    }
+
+    @Test
+    public void parseLowerCaseSeparators() throws GatewayException {
+        // joda matches literals without regard to case
+        assertEquals(legacyParse("2021-06-05t03:08:20.896z"), parseGpApiDateTime("2021-06-05t03:08:20.896z"));
+        assertEquals(legacyParse("2021-06-05T03:08:20z"), parseGpApiDateTime("2021-06-05T03:08:20z"));
+    }
+
+    @Test
+    public void parseNullOrEmpty() throws GatewayException {
+        assertNull(parseGpApiDateTime(null));
+        assertNull(parseGpApiDateTime(""));
+    }
+
+    @Test(expected = GatewayException.class)
+    public void parseUnsupportedFormat() throws GatewayException {
+        parseGpApiDateTime("06/05/2021 03:08");
+    }
+
+    @Test
+    public void formatDateFromManyThreads() throws Exception {
+        final List<Date> dates = new ArrayList<Date>();
+        final List<String> expected = new ArrayList<String>();
+        Calendar calendar = Calendar.getInstance();
+        calendar.set(2021, Calendar.JANUARY, 1);
+        for (int i = 0; i < 365; i++) {
+            dates.add(calendar.getTime());
+            expected.add(String.format("2021-%02d-%02d", calendar.get(Calendar.MONTH) + 1, calendar.get(Calendar.DAY_OF_MONTH)));
+            calendar.add(Calendar.DATE, 1);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Boolean>> results = new ArrayList<Future<Boolean>>();
+            for (int t = 0; t < 8; t++) {
+                results.add(executor.submit(new Callable<Boolean>() {
+                    public Boolean call() throws Exception {
+                        for (int round = 0; round < 10; round++) {
+                            for (int i = 0; i < dates.size(); i++) {
+                                String formatted = GpApiConnector.getDateIfNotNull(dates.get(i));
+                                if (!formatted.equals(expected.get(i)) || !GpApiConnector.parseGpApiDate(formatted).equals(GpApiConnector.parseGpApiDate(expected.get(i)))) {
+                                    return false;
+                                }
+                            }
+                        }
+                        return true;
+                    }
+                }));
+            }
+            for (Future<Boolean> result : results) {
+                assertTrue(result.get());
+            }
+        }
+        finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void mapReportResponsePageDates() throws ApiException {
+        String page = buildTransactionsPage(100);
+        List<String> pageDates = new ArrayList<String>();
+        for (int i = 0; i < 100; i++) {
+            pageDates.add(SAMPLE_DATES[i % SAMPLE_DATES.length]);
+            pageDates.add(SAMPLE_DATES[(i + 3) % SAMPLE_DATES.length]);
+        }
+
+        TransactionSummaryPaged result = GpApiMapping.mapReportResponse(page, ReportType.FindTransactionsPaged);
+        assertEquals(100, result.getResults().size());
+        for (int i = 0; i < 100; i++) {
+            TransactionSummary summary = result.getResults().get(i);
+            assertEquals(legacyParse(pageDates.get(i * 2)), summary.getTransactionDate());
+            assertEquals(legacyParse(pageDates.get(i * 2 + 1)), summary.getTransactionLocalDate());
+        }
+    }
+
+    static String buildTransactionsPage(int rows) {
+        StringBuilder sb = new StringBuilder("{\"merchant_id\":\"MER_c4c0df11039c48a9b63701adeaa296c3\",\"merchant_name\":\"Sandbox_merchant_2\",\"account_id\":\"\",\"account_name\":\"\",\"paging\":{\"page_size\":100,\"page\":1,\"order\":\"DESC\",\"order_by\":\"TIME_CREATED\"},\"total_record_count\":")
+                .append(rows).append(",\"current_page_size\":").append(rows).append(",\"transactions\":[");
+        for (int i = 0; i < rows; i++) {
+            if (i > 0) {
+                sb.append(",");
+            }
+            sb.append("{\"id\":\"TRN_").append(String.format("%030d", i)).append("\",")
+                    .append("\"time_created\":\"").append(SAMPLE_DATES[i % SAMPLE_DATES.length]).append("\",")
+                    .append("\"time_last_updated\":\"\",\"status\":\"CAPTURED\",\"type\":\"SALE\",\"channel\":\"CNP\",\"amount\":\"1999\",\"currency\":\"USD\",")
+                    .append("\"reference\":\"My-TRANS-").append(i).append("\",\"description\":\"\",\"order_reference\":\"\",")
+                    .append("\"time_created_reference\":\"").append(SAMPLE_DATES[(i + 3) % SAMPLE_DATES.length]).append("\",")
+                    .append("\"batch_id\":\"BAT_").append(i).append("\",\"initiator\":\"\",\"country\":\"US\",\"language\":\"\",\"ip_address\":\"97.107.232.5\",\"site_reference\":\"\",")
+                    .append("\"payment_method\":{\"result\":\"00\",\"message\":\"SUCCESS\",\"entry_mode\":\"ECOM\",\"name\":\"James Mason\",\"card\":{\"funding\":\"CREDIT\",\"brand\":\"VISA\",\"authcode\":\"12345\",\"brand_reference\":\"TQ76bJf7qzkC30U0\",\"masked_number_first6last4\":\"411111XXXXXX1111\",\"cvv_indicator\":\"PRESENT\",\"cvv_result\":\"MATCHED\",\"avs_address_result\":\"MATCHED\",\"avs_postal_code_result\":\"MATCHED\"}},")
+                    .append("\"action_create_id\":\"ACT_").append(i).append("\",\"parent_resource_id\":\"TRN_").append(i).append("\"}");
+        }
+        return sb.append("]}").toString();
+    }
+
+    // the previous implementation: each format in turn until one parses
+    static DateTime legacyParse(String value) {
+        List<DateTimeFormatter> formatters = new ArrayList<DateTimeFormatter>();
+        Collections.addAll(formatters,
+                GpApiConnector.DATE_TIME_DTF, GpApiConnector.DATE_TIME_DTF_2, GpApiConnector.DATE_TIME_DTF_3,
+                GpApiConnector.DATE_TIME_DTF_4, GpApiConnector.DATE_TIME_DTF_5, GpApiConnector.DATE_TIME_DTF_6,
+                GpApiConnector.DATE_TIME_DTF_7, GpApiConnector.DATE_TIME_DTF_8, GpApiConnector.DATE_TIME_DTF_9);
+        for (DateTimeFormatter formatter : formatters) {
+            try {
+                return formatter.parseDateTime(value);
+            } catch (IllegalArgumentException ex) {
+                /* try the next one */
+            }
+        }
+        return null;
+    }
+}
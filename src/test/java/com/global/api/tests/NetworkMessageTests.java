@@ -112,6 +112,53 @@ public class NetworkMessageTests {
         assertEquals("3030058020c00002", pbmp.toHexString());
     }
 
+    @Test
+    public void buildMessage_cached_until_changed() {
+        NetworkMessage doc = new NetworkMessage();
+        doc.setMessageTypeIndicator("1200");
+        doc.set(DataElementId.DE_003, "000000");
+        doc.set(DataElementId.DE_011, "000123");
+        doc.set(DataElementId.DE_041, "00000001");
+
+        byte[] first = doc.buildMessage();
+        String breakdown = doc.toString();
+        assertSame(first, doc.buildMessage());
+        assertEquals(breakdown, doc.toString());
+
+        doc.set(DataElementId.DE_011, "000124");
+        byte[] second = doc.buildMessage();
+        assertNotSame(first, second);
+        assertTrue(new String(second).contains("000124"));
+
+        doc.remove(DataElementId.DE_041);
+        assertNotSame(second, doc.buildMessage());
+        assertFalse(doc.toString().contains("DE_041"));
+    }
+
+    @Test
+    public void networkMessage_parseView_test() {
+        String hexString = "b230450028e11824000000000000000030303038303030303030303030303130383931303130303233303437303030313533313831303130303233303437353534314c31303130314231303134433230303234343030353535313132323333343435303d3230313231303130303030303130313135383030303434202020203030303131323634393833202020203535372d454c4556454e5c3132353220464f52455354204156455c53544154454e2049534c414e445c313033303220202020204e59205553413038305824000082000000333420203231323035373130202020202020202030303030303330303031303032444220203331303320594e32363939393939392020202030303030303030303030303030303030492728e8cb6dc5833136413530343031303032363830303434323037313030303033393030313030303132303030303030303030303130383930303031303030303230353932303030313138303431373039343335304442202030303038303030354e323031313031494944303430303031";
+
+        byte[] data = byteFromHex(hexString);
+        byte[] framed = new byte[data.length + 4];
+        System.arraycopy("1200".getBytes(), 0, framed, 0, 4);
+        System.arraycopy(data, 0, framed, 4, data.length);
+
+        NetworkMessage copied = NetworkMessage.parse(data, Iso8583MessageType.CompleteMessage);
+        NetworkMessage view = NetworkMessage.parseView(framed, 4, Iso8583MessageType.CompleteMessage);
+
+        for(DataElementId id: DataElementId.values()) {
+            assertEquals(copied.has(id), view.has(id));
+            assertEquals(copied.getString(id), view.getString(id));
+        }
+        assertEquals(copied.getAmount(DataElementId.DE_004), view.getAmount(DataElementId.DE_004));
+
+        DE62_CardIssuerData issuerData = view.getDataElement(DataElementId.DE_062, DE62_CardIssuerData.class);
+        assertNotNull(issuerData);
+        assertSame(issuerData, view.getDataElement(DataElementId.DE_062, DE62_CardIssuerData.class));
+        assertEquals(new String(copied.getDataElement(DataElementId.DE_062, DE62_CardIssuerData.class).toByteArray()), new String(issuerData.toByteArray()));
+    }
+
     @Test
     public void networkMessage_parse_test() {
         String bexString = "b230450028e11824000000000000000030303038303030303030303030303130383930343137313334333530303030313533313830343137303934333439353534314c31303130314231303134433230303234343030353535313132323333343435303d3230313231303130303030303130313135383030303434202020203030303733323635333939303820203535372d454c4556454e5c3132353220464f52455354204156455c53544154454e2049534c414e445c313033303220202020204e59205553413038305824000082000000333420203231323035373130202020202020202030303030303330303031303032444220203331303320594e32363939393939392020202030303030303030303030303030303030492728e8cb6dc5833136413530343031303032363830303434323037313030303033393030313030303132303030303030303030303130383930303031303030303230353932303030313138303431373039343335304442202030303038303030354e323031313031494944303430303031";
@@ -0,0 +1,113 @@
+package com.global.api.tests;
+
+import com.global.api.entities.exceptions.GatewayException;
+import com.global.api.entities.gpApi.GpApiRequest;
+import com.global.api.entities.gpApi.entities.AccessTokenInfo;
+import com.global.api.gateways.GatewayResponse;
+import com.global.api.gateways.GpApiConnector;
+import com.global.api.gateways.RequestOptions;
+import com.global.api.serviceConfigs.GpApiConfig;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.*;
+
+public class RequestOptionsTests {
+    @Test
+    public void withMethodsReturnCopies() {
+        RequestOptions options = RequestOptions.DEFAULT.withHeader("Authorization", "Bearer a");
+        RequestOptions other = options.withHeader("Authorization", "Bearer b").withTimeout(5000).withIdempotencyKey("key");
+
+        assertTrue(RequestOptions.DEFAULT.getHeaders().isEmpty());
+        assertEquals("Bearer a", options.getHeaders().get("Authorization"));
+        assertEquals(0, options.getConnectTimeout());
+        assertNull(options.getIdempotencyKey());
+
+        assertEquals("Bearer b", other.getHeaders().get("Authorization"));
+        assertEquals(5000, other.getConnectTimeout());
+        assertEquals(5000, other.getReadTimeout());
+        assertEquals("key", other.getIdempotencyKey());
+    }
+
+    @Test
+    public void connectAndReadTimeoutsAreSetSeparately() {
+        RequestOptions options = RequestOptions.DEFAULT.withConnectTimeout(1000).withReadTimeout(30000);
+        assertEquals(1000, options.getConnectTimeout());
+        assertEquals(30000, options.getReadTimeout());
+
+        RequestOptions both = options.withTimeout(5000);
+        assertEquals(5000, both.getConnectTimeout());
+        assertEquals(5000, both.getReadTimeout());
+        assertEquals(1000, options.getConnectTimeout());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void headersCannotBeChanged() {
+        RequestOptions.DEFAULT.withHeader("Authorization", "Bearer a").getHeaders().put("Authorization", "Bearer b");
+    }
+
+    @Test
+    public void concurrentRequestsKeepTheirOwnIdempotencyKey() throws Exception {
+        final CapturingConnector connector = new CapturingConnector();
+        final CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> futures = new ArrayList<Future<String>>();
+            for(int i = 0; i < 64; i++) {
+                final String key = "key-" + i;
+                futures.add(pool.submit(new Callable<String>() {
+                    public String call() throws Exception {
+                        start.await();
+                        return connector.doTransaction(GpApiRequest.HttpMethod.Post, "/transactions/" + key, "{}", null, key);
+                    }
+                }));
+            }
+            start.countDown();
+            for(Future<String> future: futures) {
+                future.get();
+            }
+        }
+        finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(64, connector.requests.size());
+        for(Map.Entry<String, RequestOptions> request: connector.requests.entrySet()) {
+            assertEquals("/transactions/" + request.getValue().getIdempotencyKey(), request.getKey());
+            assertEquals("Bearer token", request.getValue().getHeaders().get("Authorization"));
+        }
+
+        // nothing request scoped is left behind on the connector
+        assertFalse(connector.getHeaders().containsKey("Authorization"));
+        assertFalse(connector.getHeaders().containsKey("x-gp-idempotency"));
+    }
+
+    // records the options each request would have been sent with
+    private static class CapturingConnector extends GpApiConnector {
+        private final Map<String, RequestOptions> requests = new ConcurrentHashMap<String, RequestOptions>();
+
+        CapturingConnector() {
+            super(new GpApiConfig().setAccessTokenInfo(new AccessTokenInfo().setAccessToken("token")));
+        }
+
+        @Override
+        protected GatewayResponse sendRequest(String verb, String endpoint, String data, HashMap<String, String> queryStringParams, RequestOptions options) throws GatewayException {
+            requests.put(endpoint, options);
+
+            GatewayResponse response = new GatewayResponse();
+            response.setStatusCode(200);
+            response.setRawResponse("{}");
+            return response;
+        }
+    }
+}
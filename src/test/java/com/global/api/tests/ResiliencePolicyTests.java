@@ -0,0 +1,287 @@
+package com.global.api.tests;
+
+import com.global.api.entities.exceptions.GatewayException;
+import com.global.api.gateways.GatewayResponse;
+import com.global.api.gateways.RequestOptions;
+import com.global.api.gateways.ResiliencePolicy;
+import com.global.api.gateways.RestGateway;
+import com.global.api.gateways.events.GatewayEventType;
+import com.global.api.gateways.events.IGatewayEvent;
+import com.global.api.gateways.events.IGatewayEventHandler;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class ResiliencePolicyTests {
+    private final List<GatewayEventType> events = new CopyOnWriteArrayList<GatewayEventType>();
+    private final ScriptedGateway gateway = new ScriptedGateway();
+    private final ResiliencePolicy policy = new ResiliencePolicy()
+            .setRetryBaseDelay(1)
+            .setRetryMaxDelay(5)
+            .setEventHandler(new IGatewayEventHandler() {
+                public void eventRaised(IGatewayEvent event) {
+                    events.add(event.getEventType());
+                }
+            });
+
+    public ResiliencePolicyTests() {
+        gateway.setResiliencePolicy(policy);
+        gateway.setTimeout(30000);
+    }
+
+    @Test
+    public void transientFailuresOfReadsAreRetried() throws Exception {
+        policy.setMaxRetries(2);
+        gateway.script("fail", "503", "ok");
+
+        assertEquals("ok", gateway.doTransaction("GET", "/transactions"));
+        assertEquals(3, gateway.calls.get());
+        assertEquals(Arrays.asList(GatewayEventType.Retry, GatewayEventType.Retry), events);
+    }
+
+    @Test
+    public void postIsOnlyRetriedWithAnIdempotencyKey() throws Exception {
+        policy.setMaxRetries(1);
+        gateway.script("fail", "ok");
+        try {
+            gateway.doTransaction("POST", "/transactions", "{}");
+            fail("POST without an idempotency key was retried");
+        }
+        catch(GatewayException exc) {
+            assertEquals(1, gateway.calls.get());
+        }
+
+        gateway.script("fail", "ok");
+        assertEquals("ok", gateway.doTransaction("POST", "/transactions", "{}", null, RequestOptions.DEFAULT.withIdempotencyKey("key")));
+        assertEquals(2, gateway.calls.get());
+    }
+
+    @Test
+    public void declinesAreNotRetried() throws Exception {
+        policy.setMaxRetries(3);
+        gateway.script("400", "ok");
+        try {
+            gateway.doTransaction("GET", "/transactions");
+            fail();
+        }
+        catch(GatewayException exc) {
+            assertEquals("400", exc.getResponseCode());
+        }
+        assertEquals(1, gateway.calls.get());
+    }
+
+    @Test
+    public void circuitOpensFailsFastAndCloses() throws Exception {
+        policy.setFailureThreshold(2).setOpenDuration(50);
+        gateway.script("fail", "fail", "ok", "ok");
+
+        for(int i = 0; i < 2; i++) {
+            try {
+                gateway.doTransaction("GET", "/transactions/TRN_" + i);
+                fail();
+            }
+            catch(GatewayException exc) {
+                // expected
+            }
+        }
+        try {
+            gateway.doTransaction("GET", "/transactions/TRN_9");
+            fail("open circuit sent a request");
+        }
+        catch(GatewayException exc) {
+            assertEquals(2, gateway.calls.get());
+        }
+
+        // other endpoints have their own circuit
+        assertEquals("ok", gateway.doTransaction("GET", "/settlement/deposits"));
+
+        Thread.sleep(60);
+        assertEquals("ok", gateway.doTransaction("GET", "/transactions/TRN_9"));
+        assertEquals(Arrays.asList(GatewayEventType.CircuitOpened, GatewayEventType.CircuitHalfOpened, GatewayEventType.CircuitClosed), events);
+    }
+
+    @Test
+    public void requestSentBeforeTheCircuitOpenedDoesNotCloseIt() throws Exception {
+        policy.setFailureThreshold(1).setOpenDuration(60000);
+        gateway.script("block", "fail");
+
+        Thread early = new Thread() {
+            public void run() {
+                try {
+                    gateway.doTransaction("GET", "/transactions/TRN_1");
+                }
+                catch(GatewayException exc) {
+                    // checked below through the call count
+                }
+            }
+        };
+        early.start();
+        assertTrue(gateway.entered.await(5, TimeUnit.SECONDS));
+
+        try {
+            gateway.doTransaction("GET", "/transactions/TRN_2");
+            fail();
+        }
+        catch(GatewayException exc) {
+            // opens the circuit
+        }
+        gateway.release.countDown();
+        early.join(5000);
+
+        try {
+            gateway.doTransaction("GET", "/transactions/TRN_3");
+            fail("the late success closed the circuit");
+        }
+        catch(GatewayException exc) {
+            assertEquals(2, gateway.calls.get());
+        }
+        assertEquals(Arrays.asList(GatewayEventType.CircuitOpened), events);
+    }
+
+    @Test
+    public void halfOpenCircuitSendsOneTrialRequest() throws Exception {
+        policy.setFailureThreshold(1).setOpenDuration(20).setMaxRetries(0);
+        List<String> steps = new ArrayList<String>(Arrays.asList("fail", "block"));
+        for(int i = 0; i < 16; i++) {
+            steps.add("ok");
+        }
+        gateway.script(steps.toArray(new String[0]));
+        try {
+            gateway.doTransaction("GET", "/transactions/TRN_1");
+            fail();
+        }
+        catch(GatewayException exc) {
+            // opens the circuit
+        }
+        Thread.sleep(30);
+
+        final CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        try {
+            List<Future<?>> futures = new ArrayList<Future<?>>();
+            for(int i = 0; i < 16; i++) {
+                futures.add(pool.submit(new Callable<Object>() {
+                    public Object call() throws Exception {
+                        start.await();
+                        try {
+                            return gateway.doTransaction("GET", "/transactions/TRN_2");
+                        }
+                        catch(GatewayException exc) {
+                            return null;
+                        }
+                    }
+                }));
+            }
+            start.countDown();
+            assertTrue(gateway.entered.await(5, TimeUnit.SECONDS));
+            // every other request finds the trial in flight
+            for(int i = 0; i < 16 && gateway.calls.get() == 2; i++) {
+                Thread.sleep(5);
+            }
+            assertEquals(2, gateway.calls.get());
+
+            gateway.release.countDown();
+            for(Future<?> future: futures) {
+                future.get(5, TimeUnit.SECONDS);
+            }
+        }
+        finally {
+            pool.shutdownNow();
+        }
+        assertEquals(2, gateway.calls.get());
+        assertEquals("ok", gateway.doTransaction("GET", "/transactions/TRN_3"));
+    }
+
+    @Test
+    public void slowReadIsHedged() throws Exception {
+        policy.setHedgeDelay(20);
+        gateway.script("slow", "ok");
+
+        long start = System.currentTimeMillis();
+        assertEquals("ok", gateway.doTransaction("GET", "/transactions"));
+        assertTrue(System.currentTimeMillis() - start < 1000);
+        assertEquals(Arrays.asList(GatewayEventType.Hedge), events);
+    }
+
+    @Test
+    public void attemptTimeoutsAreCutToTheTotalDeadline() throws Exception {
+        policy.setReadTimeout(10000).setTotalTimeout(500);
+        gateway.script("ok");
+
+        gateway.doTransaction("GET", "/transactions");
+        assertTrue(gateway.lastOptions.getConnectTimeout() <= 500);
+        assertTrue(gateway.lastOptions.getReadTimeout() <= 500);
+    }
+
+    private static class ScriptedGateway extends RestGateway {
+        private final List<String> script = new ArrayList<String>();
+        private final AtomicInteger calls = new AtomicInteger();
+        private volatile RequestOptions lastOptions;
+        private final CountDownLatch entered = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+
+        void script(String... steps) {
+            synchronized(script) {
+                script.clear();
+                script.addAll(Arrays.asList(steps));
+            }
+            calls.set(0);
+        }
+
+        @Override
+        protected String getIdempotencyHeader() {
+            return "Idempotency-Key";
+        }
+
+        @Override
+        protected GatewayResponse sendRequest(String verb, String endpoint, String data, HashMap<String, String> queryStringParams, RequestOptions options) throws GatewayException {
+            lastOptions = options;
+            String step;
+            synchronized(script) {
+                step = script.get(calls.getAndIncrement());
+            }
+
+            if(step.equals("block")) {
+                entered.countDown();
+                try {
+                    release.await();
+                }
+                catch(InterruptedException exc) {
+                    throw new GatewayException("Error occurred while communicating with gateway.", exc);
+                }
+            }
+            if(step.equals("fail")) {
+                throw new GatewayException("Error occurred while communicating with gateway.");
+            }
+            if(step.equals("slow")) {
+                try {
+                    Thread.sleep(5000);
+                }
+                catch(InterruptedException exc) {
+                    throw new GatewayException("Error occurred while communicating with gateway.", exc);
+                }
+            }
+            if(!step.equals("ok") && !step.equals("slow") && !step.equals("block")) {
+                throw new GatewayException("Error occurred while communicating with gateway.", step, "{}");
+            }
+
+            GatewayResponse response = new GatewayResponse();
+            response.setStatusCode(200);
+            response.setRawResponse("ok");
+            return response;
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.global.api.tests;
+
+import com.global.api.builders.Secure3dBuilder;
+import com.global.api.entities.ThreeDSecure;
+import com.global.api.entities.Transaction;
+import com.global.api.entities.enums.TransactionType;
+import com.global.api.entities.exceptions.ApiException;
+import com.global.api.gateways.Gp3DSProvider;
+import com.global.api.gateways.RequestOptions;
+import com.global.api.gateways.Secure3dVersionCache;
+import com.global.api.paymentMethods.CreditCardData;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+import static org.junit.Assert.*;
+
+public class Secure3dVersionCacheTests {
+    private static final String ENROLLED = "4263970000005262";
+    private static final String NOT_ENROLLED = "4012001037141112";
+
+    @Test
+    public void learnedResultsExpire() {
+        ManualClockCache cache = new ManualClockCache();
+        cache.setTimeToLive(1000L);
+        cache.put(NOT_ENROLLED, result(false, "2.1.0"));
+
+        ThreeDSecure cached = cache.lookup(NOT_ENROLLED);
+        assertNotNull(cached);
+        assertFalse(cached.isEnrolled());
+        assertEquals("2.1.0", cached.getDirectoryServerEndVersion());
+
+        cache.now += 1000L;
+        assertNull(cache.lookup(NOT_ENROLLED));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void notEnrolledResultsOnlyAnswerForTheirCard() {
+        Secure3dVersionCache cache = new Secure3dVersionCache();
+        cache.put(NOT_ENROLLED, result(false, null));
+
+        assertFalse(cache.lookup(NOT_ENROLLED).isEnrolled());
+        // same BIN, but the directory server may cover it with a narrower range
+        assertNull(cache.lookup("4012001099999999"));
+    }
+
+    @Test
+    public void enrolledResultsAnswerForTheirBin() {
+        Secure3dVersionCache cache = new Secure3dVersionCache();
+        cache.put(ENROLLED, result(true, "2.2.0"));
+
+        assertTrue(cache.lookup("4263970099999999").isEnrolled());
+        assertNull(cache.lookup("4263971000000000"));
+    }
+
+    @Test
+    public void responsesWithoutAnEnrolledFlagAreNotCached() throws Exception {
+        Secure3dVersionCache cache = new Secure3dVersionCache();
+        StubProvider provider = new StubProvider("{\"server_trans_id\":\"af65c369-59b9-4f8d-b2f6-7d7d5f5c69d5\"}");
+        provider.setVersionCache(cache);
+
+        checkVersion(provider, NOT_ENROLLED);
+        checkVersion(provider, NOT_ENROLLED);
+        assertEquals(2, provider.calls);
+        assertEquals(0, cache.size());
+
+        provider.response = "{\"server_trans_id\":\"af65c369-59b9-4f8d-b2f6-7d7d5f5c69d5\",\"enrolled\":false}";
+        checkVersion(provider, NOT_ENROLLED);
+        assertFalse(checkVersion(provider, NOT_ENROLLED).getThreeDsecure().isEnrolled());
+        assertEquals(3, provider.calls);
+    }
+
+    @Test
+    public void leastRecentlyUsedBinsAreDropped() {
+        Secure3dVersionCache cache = new Secure3dVersionCache().setMaxEntries(2);
+        cache.put("4000000100000000", result(false, null));
+        cache.put("4000000200000000", result(false, null));
+        cache.lookup("4000000100000000");
+        cache.put("4000000300000000", result(true, "2.2.0"));
+
+        assertEquals(2, cache.size());
+        assertNotNull(cache.lookup("4000000100000000"));
+        assertNull(cache.lookup("4000000200000000"));
+        assertTrue(cache.lookup("4000000300000000").isEnrolled());
+    }
+
+    @Test
+    public void preloadedRangesAnswerByCardNumber() {
+        Secure3dVersionCache cache = new Secure3dVersionCache();
+        cache.preload(Arrays.asList(
+                new Secure3dVersionCache.CardRange("4263970000", "4263979999")
+                        .setDirectoryServerStartVersion("2.1.0")
+                        .setDirectoryServerEndVersion("2.2.0")
+                        .setMethodUrl("https://acs.example.com/method"),
+                new Secure3dVersionCache.CardRange("5100000000000000", "5199999999999999")
+        ), false);
+
+        ThreeDSecure cached = cache.lookup(ENROLLED);
+        assertTrue(cached.isEnrolled());
+        assertEquals("2.2.0", cached.getDirectoryServerEndVersion());
+        assertEquals("https://acs.example.com/method", cached.getIssuerAcsUrl());
+        assertTrue(cache.lookup("5123456789012346").isEnrolled());
+
+        // not covered, but the ranges aren't complete
+        assertNull(cache.lookup(NOT_ENROLLED));
+        assertNull(cache.lookup("4263980000000000"));
+    }
+
+    @Test
+    public void cardsOutsideCompleteRangesAreNotEnrolled() {
+        Secure3dVersionCache cache = new Secure3dVersionCache();
+        cache.preload(Arrays.asList(new Secure3dVersionCache.CardRange("4263970000", "4263979999")), true);
+
+        assertTrue(cache.lookup(ENROLLED).isEnrolled());
+        assertFalse(cache.lookup(NOT_ENROLLED).isEnrolled());
+
+        // a learned result wins over the ranges
+        cache.put(ENROLLED, result(false, null));
+        assertFalse(cache.lookup(ENROLLED).isEnrolled());
+    }
+
+    @Test
+    public void invalidationForgetsResults() {
+        Secure3dVersionCache cache = new Secure3dVersionCache();
+        cache.preload(Arrays.asList(new Secure3dVersionCache.CardRange("4263970000", "4263979999")), true);
+        cache.put(NOT_ENROLLED, result(false, null));
+        cache.put("5123456789012346", result(false, null));
+
+        cache.invalidate(NOT_ENROLLED);
+        assertFalse(cache.lookup(NOT_ENROLLED).isEnrolled());
+        assertEquals(1, cache.size());
+
+        cache.invalidateAll();
+        assertEquals(0, cache.size());
+        assertNull(cache.lookup(NOT_ENROLLED));
+        assertNull(cache.lookup(ENROLLED));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rangesMustBeOrdered() {
+        new Secure3dVersionCache.CardRange("4999", "4000");
+    }
+
+    private static Transaction checkVersion(Gp3DSProvider provider, String cardNumber) throws ApiException {
+        CreditCardData card = new CreditCardData();
+        card.setNumber(cardNumber);
+        card.setExpMonth(12);
+        card.setExpYear(2030);
+        return provider.processSecure3d(new Secure3dBuilder(TransactionType.VerifyEnrolled).withPaymentMethod(card));
+    }
+
+    private static ThreeDSecure result(boolean enrolled, String version) {
+        ThreeDSecure rvalue = new ThreeDSecure();
+        rvalue.setEnrolled(enrolled);
+        rvalue.setDirectoryServerEndVersion(version);
+        return rvalue;
+    }
+
+    private static class StubProvider extends Gp3DSProvider {
+        private String response;
+        private int calls;
+
+        StubProvider(String response) {
+            this.response = response;
+            setMerchantId("merchant");
+            setAccountId("account");
+            setSharedSecret("secret");
+        }
+
+        @Override
+        public String doTransaction(String verb, String endpoint, String data, HashMap<String, String> queryStringParams, RequestOptions options) {
+            calls++;
+            return response;
+        }
+    }
+
+    private static class ManualClockCache extends Secure3dVersionCache {
+        private long now = 1000000L;
+
+        @Override
+        protected long currentTimeMillis() {
+            return now;
+        }
+    }
+}
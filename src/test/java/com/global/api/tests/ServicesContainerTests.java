@@ -0,0 +1,180 @@
+package com.global.api.tests;
+
+import com.global.api.ConfiguredServices;
+import com.global.api.ServicesContainer;
+import com.global.api.entities.exceptions.ApiException;
+import com.global.api.entities.exceptions.ConfigurationException;
+import com.global.api.gateways.IPaymentGateway;
+import com.global.api.gateways.PorticoConnector;
+import com.global.api.serviceConfigs.Configuration;
+import com.global.api.terminals.abstractions.IDisposable;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class ServicesContainerTests {
+    private final ServicesContainer container = ServicesContainer.getInstance();
+
+    @After
+    public void tearDown() throws ConfigurationException {
+        container.setMaxActiveTenants(0);
+        container.setTenantIdleTimeout(0, TimeUnit.SECONDS);
+        for(int i = 0; i < 10; i++) {
+            ServicesContainer.registerService(null, "tenant-" + i);
+        }
+    }
+
+    @Test
+    public void tenantIsBuiltOnceOnFirstUse() throws Exception {
+        final CountingConfig config = new CountingConfig();
+        ServicesContainer.registerService(config, "tenant-0");
+        assertEquals(0, config.builds.get());
+
+        final CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<IPaymentGateway>> futures = new ArrayList<Future<IPaymentGateway>>();
+            for(int i = 0; i < 8; i++) {
+                futures.add(pool.submit(new Callable<IPaymentGateway>() {
+                    public IPaymentGateway call() throws Exception {
+                        start.await();
+                        return container.getGateway("tenant-0");
+                    }
+                }));
+            }
+            start.countDown();
+
+            IPaymentGateway first = futures.get(0).get();
+            for(Future<IPaymentGateway> future: futures) {
+                assertSame(first, future.get());
+            }
+        }
+        finally {
+            pool.shutdownNow();
+        }
+        assertEquals(1, config.builds.get());
+        assertEquals(1, config.validations.get());
+    }
+
+    @Test
+    public void leastRecentlyUsedTenantIsEvicted() throws Exception {
+        container.setMaxActiveTenants(2);
+        CountingConfig[] configs = new CountingConfig[3];
+        for(int i = 0; i < 3; i++) {
+            configs[i] = new CountingConfig();
+            ServicesContainer.registerService(configs[i], "tenant-" + i);
+        }
+
+        container.getGateway("tenant-0");
+        Thread.sleep(1);
+        container.getGateway("tenant-1");
+        Thread.sleep(1);
+        container.getGateway("tenant-0");
+        Thread.sleep(1);
+        container.getGateway("tenant-2");
+        assertEquals(2, container.getActiveTenantCount());
+
+        // tenant-1 was evicted and is rebuilt on its next use
+        container.getGateway("tenant-0");
+        assertEquals(1, configs[0].builds.get());
+        container.getGateway("tenant-1");
+        assertEquals(2, configs[1].builds.get());
+    }
+
+    @Test
+    public void idleTenantIsEvicted() throws Exception {
+        container.setTenantIdleTimeout(20, TimeUnit.MILLISECONDS);
+        CountingConfig config = new CountingConfig();
+        ServicesContainer.registerService(config, "tenant-0");
+
+        IPaymentGateway gateway = container.getGateway("tenant-0");
+        Thread.sleep(50);
+        container.evictIdleTenants();
+        assertEquals(0, container.getActiveTenantCount());
+
+        assertNotSame(gateway, container.getGateway("tenant-0"));
+        assertEquals(2, config.builds.get());
+    }
+
+    @Test(expected = ApiException.class)
+    public void removedTenantIsNotConfigured() throws Exception {
+        ServicesContainer.registerService(new CountingConfig(), "tenant-0");
+        ServicesContainer.registerService(null, "tenant-0");
+        container.getGateway("tenant-0");
+    }
+
+    @Test(expected = ConfigurationException.class)
+    public void tenantIsValidatedOnFirstUse() throws Exception {
+        CountingConfig config = new CountingConfig();
+        config.valid = false;
+        ServicesContainer.registerService(config, "tenant-0");
+        container.getGateway("tenant-0");
+    }
+
+    @Test
+    public void evictedTenantIsDisposed() throws Exception {
+        container.setMaxActiveTenants(1);
+        ServicesContainer.registerService(new CountingConfig(), "tenant-0");
+        ServicesContainer.registerService(new CountingConfig(), "tenant-1");
+
+        DisposableConnector first = (DisposableConnector)container.getGateway("tenant-0");
+        DisposableConnector second = (DisposableConnector)container.getGateway("tenant-1");
+        assertEquals(1, first.disposals.get());
+        assertEquals(0, second.disposals.get());
+
+        ServicesContainer.registerService(null, "tenant-1");
+        assertEquals(1, second.disposals.get());
+        assertEquals(0, container.getActiveTenantCount());
+    }
+
+    @Test
+    public void configuringANameReplacesItsTenant() throws Exception {
+        ServicesContainer.registerService(new CountingConfig(), "tenant-0");
+        DisposableConnector tenantGateway = (DisposableConnector)container.getGateway("tenant-0");
+
+        CountingConfig config = new CountingConfig();
+        ServicesContainer.configureService(config, "tenant-0");
+        assertEquals(1, tenantGateway.disposals.get());
+        assertEquals(0, container.getActiveTenantCount());
+        assertNotSame(tenantGateway, container.getGateway("tenant-0"));
+        assertEquals(1, config.builds.get());
+    }
+
+    private static class DisposableConnector extends PorticoConnector implements IDisposable {
+        private final AtomicInteger disposals = new AtomicInteger();
+
+        public void dispose() {
+            disposals.incrementAndGet();
+        }
+    }
+
+    private static class CountingConfig extends Configuration {
+        private final AtomicInteger builds = new AtomicInteger();
+        private final AtomicInteger validations = new AtomicInteger();
+        private boolean valid = true;
+
+        public void configureContainer(ConfiguredServices services) {
+            builds.incrementAndGet();
+            services.setGatewayConnector(new DisposableConnector());
+        }
+
+        public void validate() throws ConfigurationException {
+            validations.incrementAndGet();
+            if(!valid) {
+                throw new ConfigurationException("Invalid configuration.");
+            }
+            super.validate();
+        }
+    }
+}
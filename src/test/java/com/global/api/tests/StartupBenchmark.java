@@ -0,0 +1,114 @@
+package com.global.api.tests;
+
+import com.global.api.ConfiguredServices;
+import com.global.api.ServicesContainer;
+import com.global.api.entities.Address;
+import com.global.api.entities.Transaction;
+import com.global.api.entities.exceptions.GatewayException;
+import com.global.api.gateways.PorticoConnector;
+import com.global.api.paymentMethods.CreditCardData;
+import com.global.api.serviceConfigs.Configuration;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * Times the first authorization in fresh JVMs. Not part of the unit suite; run it with
+ * {@code mvn test -Pbenchmark}.
+ */
+public class StartupBenchmark {
+    private static final int RUNS = 5;
+
+    // each run is a fresh JVM, so class loading and static initialization are part of the time
+    @Test
+    public void timeToFirstAuthorization() throws Exception {
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        long[] sinceMain = new long[RUNS];
+        long[] sinceJvmStart = new long[RUNS];
+
+        for(int i = 0; i < RUNS; i++) {
+            Process process = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"), FirstAuthorization.class.getName())
+                    .redirectErrorStream(true)
+                    .start();
+
+            StringBuilder output = new StringBuilder();
+            try(BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while((line = reader.readLine()) != null) {
+                    output.append(line).append('\n');
+                }
+            }
+            assertEquals(output.toString(), 0, process.waitFor());
+
+            String[] times = output.toString().trim().split("\\s+");
+            sinceMain[i] = Long.parseLong(times[times.length - 2]);
+            sinceJvmStart[i] = Long.parseLong(times[times.length - 1]);
+        }
+
+        Arrays.sort(sinceMain);
+        Arrays.sort(sinceJvmStart);
+        System.out.println(String.format("First authorization: %d ms after main, %d ms after JVM start (median of %d)",
+                sinceMain[RUNS / 2], sinceJvmStart[RUNS / 2], RUNS));
+    }
+
+    public static class FirstAuthorization {
+        public static void main(String[] args) throws Exception {
+            long start = System.nanoTime();
+
+            ServicesContainer.configureService(new StubPorticoConfig());
+
+            CreditCardData card = new CreditCardData();
+            card.setNumber("4111111111111111");
+            card.setExpMonth(12);
+            card.setExpYear(2030);
+            card.setCvn("123");
+
+            Address address = new Address();
+            address.setStreetAddress1("6860 Dallas Pkwy");
+            address.setPostalCode("75024");
+            address.setCountry("United States");
+
+            Transaction response = card.authorize(new BigDecimal("10"))
+                    .withCurrency("USD")
+                    .withAddress(address)
+                    .execute();
+            if(!"00".equals(response.getResponseCode())) {
+                System.out.println("Unexpected response " + response.getResponseCode());
+                System.exit(1);
+            }
+
+            long sinceMain = (System.nanoTime() - start) / 1000000;
+            long sinceJvmStart = System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime();
+            System.out.println(sinceMain + " " + sinceJvmStart);
+        }
+    }
+
+    // builds and parses real Portico messages, only the HTTP round trip is replaced
+    private static class StubPorticoConfig extends Configuration {
+        public void configureContainer(ConfiguredServices services) {
+            PorticoConnector gateway = new PorticoConnector() {
+                public String doTransaction(String request) throws GatewayException {
+                    return "<?xml version=\"1.0\" encoding=\"utf-8\"?>"
+                            + "<soap:Envelope xmlns:soap=\"http://schemas.xmlsoap.org/soap/envelope/\"><soap:Body>"
+                            + "<PosResponse rootUrl=\"https://example.com\" xmlns=\"http://Hps.Exchange.PosGateway\"><Ver1.0>"
+                            + "<Header><LicenseId>1</LicenseId><SiteId>1</SiteId><DeviceId>1</DeviceId><GatewayTxnId>1234567890</GatewayTxnId>"
+                            + "<GatewayRspCode>0</GatewayRspCode><GatewayRspMsg>Success</GatewayRspMsg><RspDT>2024-01-01T00:00:00.000</RspDT></Header>"
+                            + "<Transaction><CreditAuth><RspCode>00</RspCode><RspText>APPROVAL</RspText><AuthCode>12345A</AuthCode>"
+                            + "<AVSRsltCode>0</AVSRsltCode><CVVRsltCode>M</CVVRsltCode><RefNbr>123456789012</RefNbr><AuthAmt>10.00</AuthAmt>"
+                            + "<CardType>Visa</CardType></CreditAuth></Transaction>"
+                            + "</Ver1.0></PosResponse></soap:Body></soap:Envelope>";
+                }
+            };
+            gateway.setSecretApiKey("skapi_cert_MTyMAQBiHVEAewvIzXVFcmUd2UcyBge_eCpaASUp0A");
+            services.setGatewayConnector(gateway);
+        }
+    }
+}
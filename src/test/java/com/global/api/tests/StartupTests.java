@@ -0,0 +1,13 @@
+package com.global.api.tests;
+
+import com.global.api.utils.SdkVersion;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class StartupTests {
+    @Test
+    public void sdkVersionComesFromBuildResource() {
+        assertTrue(SdkVersion.getVersion(), SdkVersion.getVersion().matches("\\d+\\.\\d+\\.\\d+.*"));
+    }
+}
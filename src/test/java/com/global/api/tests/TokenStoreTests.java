@@ -0,0 +1,161 @@
+package com.global.api.tests;
+
+import com.global.api.gateways.FileTokenStore;
+import com.global.api.gateways.ITokenStore;
+import com.global.api.gateways.InMemoryTokenStore;
+import com.global.api.gateways.StoredToken;
+import com.global.api.gateways.TokenRefresher;
+import org.junit.Test;
+
+import java.io.Closeable;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class TokenStoreTests {
+    private static final String KEY = "TEST-appId";
+
+    @Test
+    public void concurrentCallersSignInOnce() throws Exception {
+        assertSingleSignIn(new ITokenStoreFactory() {
+            private final ITokenStore store = new InMemoryTokenStore();
+
+            public ITokenStore create() {
+                return store;
+            }
+        });
+    }
+
+    @Test
+    public void processesSharingADirectorySignInOnce() throws Exception {
+        final String directory = Files.createTempDirectory("tokens").toString();
+        // a store per caller stands in for a store per process
+        assertSingleSignIn(() -> new FileTokenStore(directory));
+    }
+
+    @Test
+    public void storedTokensAreReadBack() throws Exception {
+        String directory = Files.createTempDirectory("tokens").toString();
+        StoredToken token = token("abc", 12345L).setTransactionProcessingAccountID("TRA_1");
+        new FileTokenStore(directory).write(KEY, token);
+
+        StoredToken read = new FileTokenStore(directory).read(KEY);
+        assertEquals("abc", read.getToken());
+        assertEquals(12345L, read.getExpiresAt());
+        assertEquals("TRA_1", read.getTransactionProcessingAccountID());
+        assertNull(read.getDataAccountID());
+        assertNull(new FileTokenStore(directory).read("other"));
+    }
+
+    @Test
+    public void tokenFilesAreOwnerOnly() throws Exception {
+        Path directory = Files.createTempDirectory("tokens");
+        new FileTokenStore(directory.toString()).write(KEY, token("abc", 12345L));
+
+        Path file = directory.resolve("TEST-appId.token");
+        assertTrue(Files.exists(file));
+        if(FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+            assertEquals(PosixFilePermissions.fromString("rw-------"), Files.getPosixFilePermissions(file));
+        }
+    }
+
+    @Test
+    public void theOldTokenIsUsedWhileAnotherCallerRefreshes() throws Exception {
+        String directory = Files.createTempDirectory("tokens").toString();
+        FileTokenStore store = new FileTokenStore(directory);
+        long now = System.currentTimeMillis();
+        store.write(KEY, token("old", now + 60 * 1000L));
+
+        Closeable lock = new FileTokenStore(directory).tryLock(KEY);
+        try {
+            assertNotNull(lock);
+            assertNull(store.tryLock(KEY));
+
+            StoredToken token = new TokenRefresher(store).getToken(KEY, null, () -> {
+                fail("signed in while another caller holds the lock");
+                return null;
+            });
+            assertEquals("old", token.getToken());
+        }
+        finally {
+            lock.close();
+        }
+        assertNotNull(store.tryLock(KEY));
+    }
+
+    @Test
+    public void rejectedTokensAreReplaced() throws Exception {
+        InMemoryTokenStore store = new InMemoryTokenStore();
+        store.write(KEY, token("old", System.currentTimeMillis() + 60 * 60 * 1000L));
+        TokenRefresher refresher = new TokenRefresher(store);
+
+        assertEquals("old", refresher.getToken(KEY, null, () -> token("new", 0L)).getToken());
+        assertEquals("new", refresher.getToken(KEY, "old", () -> token("new", System.currentTimeMillis() + 60 * 60 * 1000L)).getToken());
+        assertEquals("new", store.read(KEY).getToken());
+    }
+
+    private void assertSingleSignIn(final ITokenStoreFactory stores) throws Exception {
+        final AtomicInteger signIns = new AtomicInteger();
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<String> tokens = Collections.synchronizedList(new ArrayList<String>());
+        final List<Throwable> errors = Collections.synchronizedList(new ArrayList<Throwable>());
+
+        List<Thread> callers = new ArrayList<Thread>();
+        for(int i = 0; i < 8; i++) {
+            callers.add(new Thread(() -> {
+                try {
+                    TokenRefresher refresher = new TokenRefresher(stores.create()).setPollInterval(5L);
+                    start.await();
+                    StoredToken token = refresher.getToken(KEY, null, () -> {
+                        signIns.incrementAndGet();
+                        sleep(100L);
+                        return token("token-" + signIns.get(), System.currentTimeMillis() + 60 * 60 * 1000L);
+                    });
+                    tokens.add(token.getToken());
+                }
+                catch(Throwable exc) {
+                    errors.add(exc);
+                }
+            }));
+        }
+        for(Thread caller: callers) {
+            caller.start();
+        }
+        start.countDown();
+        for(Thread caller: callers) {
+            caller.join();
+        }
+
+        assertTrue(errors.toString(), errors.isEmpty());
+        assertEquals(1, signIns.get());
+        assertEquals(8, tokens.size());
+        for(String token: tokens) {
+            assertEquals("token-1", token);
+        }
+    }
+
+    private static StoredToken token(String value, long expiresAt) {
+        return new StoredToken().setToken(value).setExpiresAt(expiresAt);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        }
+        catch(InterruptedException exc) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private interface ITokenStoreFactory {
+        ITokenStore create() throws Exception;
+    }
+}
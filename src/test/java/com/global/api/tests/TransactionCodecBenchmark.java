@@ -0,0 +1,209 @@
+package com.global.api.tests;
+
+import com.global.api.entities.Transaction;
+import com.global.api.entities.enums.*;
+import com.global.api.network.entities.NtsData;
+import com.global.api.network.entities.PriorMessageInformation;
+import com.global.api.network.enums.AuthorizerCode;
+import com.global.api.paymentMethods.CreditTrackData;
+import com.global.api.paymentMethods.TransactionReference;
+import com.global.api.utils.JsonDoc;
+import com.global.api.utils.TransactionCodec;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+
+import static org.junit.Assert.*;
+
+/**
+ * Compares the size of a stored follow-up transaction, and the time to encode and decode it, for
+ * {@link TransactionCodec} and for field-per-key JSON rebuilt with {@code TransactionRebuilder}.
+ * Not part of the unit suite; run it with {@code mvn test -Pbenchmark}.
+ */
+public class TransactionCodecBenchmark {
+    private static final int ITERATIONS = 20000;
+
+    @Test
+    public void codecAgainstJson() throws Exception {
+        Transaction transaction = transaction();
+        // the json carries the card, so the codec does too
+        byte[] binary = TransactionCodec.encode(transaction, true);
+        byte[] json = toJson(transaction).getBytes(StandardCharsets.UTF_8);
+
+        long sink = 0;
+        for(int i = 0; i < ITERATIONS; i++) {
+            sink += TransactionCodec.decodeTransaction(TransactionCodec.encode(transaction, true)).getTransactionReference().getSequenceNumber();
+            sink += fromJson(toJson(transaction)).getTransactionReference().getSequenceNumber();
+        }
+
+        long start = System.nanoTime();
+        for(int i = 0; i < ITERATIONS; i++) {
+            sink += TransactionCodec.encode(transaction, true).length;
+        }
+        long binaryEncode = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for(int i = 0; i < ITERATIONS; i++) {
+            sink += toJson(transaction).length();
+        }
+        long jsonEncode = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for(int i = 0; i < ITERATIONS; i++) {
+            sink += TransactionCodec.decodeTransaction(binary).getTransactionReference().getSequenceNumber();
+        }
+        long binaryDecode = System.nanoTime() - start;
+
+        String stored = new String(json, StandardCharsets.UTF_8);
+        start = System.nanoTime();
+        for(int i = 0; i < ITERATIONS; i++) {
+            sink += fromJson(stored).getTransactionReference().getSequenceNumber();
+        }
+        long jsonDecode = System.nanoTime() - start;
+
+        System.out.println(String.format("codec: %d bytes, %.2f us/encode, %.2f us/decode; json: %d bytes, %.2f us/encode, %.2f us/decode (%d)",
+                binary.length,
+                binaryEncode / 1000.0 / ITERATIONS,
+                binaryDecode / 1000.0 / ITERATIONS,
+                json.length,
+                jsonEncode / 1000.0 / ITERATIONS,
+                jsonDecode / 1000.0 / ITERATIONS,
+                sink));
+        assertTrue(binary.length < json.length);
+    }
+
+    // the same fields as field-per-key json, the way follow-up state was stored before the codec
+    private static String toJson(Transaction transaction) {
+        TransactionReference reference = transaction.getTransactionReference();
+        CreditTrackData card = (CreditTrackData)reference.getOriginalPaymentMethod();
+        PriorMessageInformation messageInformation = transaction.getMessageInformation();
+
+        JsonDoc doc = new JsonDoc()
+                .set("responseCode", transaction.getResponseCode())
+                .set("responseMessage", transaction.getResponseMessage())
+                .set("authorizedAmount", transaction.getAuthorizedAmount().toString())
+                .set("transactionDate", transaction.getTransactionDate())
+                .set("transactionTime", transaction.getTransactionTime());
+        doc.subElement("reference")
+                .set("transactionId", reference.getTransactionId())
+                .set("authCode", reference.getAuthCode())
+                .set("batchNumber", reference.getBatchNumber())
+                .set("sequenceNumber", reference.getSequenceNumber())
+                .set("systemTraceAuditNumber", reference.getSystemTraceAuditNumber())
+                .set("messageTypeIndicator", reference.getMessageTypeIndicator())
+                .set("originalAmount", reference.getOriginalAmount().toString())
+                .set("originalApprovedAmount", reference.getOriginalApprovedAmount().toString())
+                .set("originalProcessingCode", reference.getOriginalProcessingCode())
+                .set("originalTransactionTime", reference.getOriginalTransactionTime())
+                .set("posDataCode", reference.getPosDataCode())
+                .set("partialApproval", reference.isPartialApproval())
+                .set("originalTransactionType", reference.getOriginalTransactionType().name())
+                .set("authorizer", reference.getAuthorizer().name())
+                .set("bankcardData", reference.getBankcardData().get(UserDataTag.values()[0]))
+                .set("ntsData", reference.getNtsData().toString())
+                .set("pan", card.getPan())
+                .set("expiry", card.getExpiry())
+                .set("trackNumber", card.getTrackNumber().name());
+        doc.subElement("messageInformation")
+                .set("messageTransactionIndicator", messageInformation.getMessageTransactionIndicator())
+                .set("systemTraceAuditNumber", messageInformation.getSystemTraceAuditNumber())
+                .set("processingHost", messageInformation.getProcessingHost().name());
+        return doc.toString();
+    }
+
+    private static Transaction fromJson(String json) throws Exception {
+        JsonDoc doc = JsonDoc.parse(json);
+        JsonDoc referenceDoc = doc.get("reference");
+        JsonDoc messageDoc = doc.get("messageInformation");
+
+        CreditTrackData card = new CreditTrackData();
+        card.setPan(referenceDoc.getString("pan"));
+        card.setExpiry(referenceDoc.getString("expiry"));
+        card.setTrackNumber(TrackNumber.valueOf(referenceDoc.getString("trackNumber")));
+
+        Transaction rvalue = Transaction.fromBuilder()
+                .withTransactionId(referenceDoc.getString("transactionId"))
+                .withAuthorizationCode(referenceDoc.getString("authCode"))
+                .withSystemTraceAuditNumber(referenceDoc.getString("systemTraceAuditNumber"))
+                .withMessageTypeIndicator(referenceDoc.getString("messageTypeIndicator"))
+                .withAmount(new BigDecimal(referenceDoc.getString("originalAmount")))
+                .withAuthorizedAmount(new BigDecimal(referenceDoc.getString("originalApprovedAmount")))
+                .withProcessingCode(referenceDoc.getString("originalProcessingCode"))
+                .withTransactionTime(referenceDoc.getString("originalTransactionTime"))
+                .withPosDataCode(referenceDoc.getString("posDataCode"))
+                .withPartialApproval(referenceDoc.getBool("partialApproval"))
+                .withOriginalTransactionType(TransactionType.valueOf(referenceDoc.getString("originalTransactionType")))
+                .withAuthorizer(AuthorizerCode.valueOf(referenceDoc.getString("authorizer")))
+                .withNtsData(NtsData.fromString(referenceDoc.getString("ntsData")))
+                .withPaymentMethod(card)
+                .build();
+
+        // not carried by the rebuilder
+        HashMap<UserDataTag, String> bankcardData = new HashMap<UserDataTag, String>();
+        bankcardData.put(UserDataTag.values()[0], referenceDoc.getString("bankcardData"));
+
+        TransactionReference reference = rvalue.getTransactionReference();
+        reference.setBatchNumber(referenceDoc.getInt("batchNumber"));
+        reference.setSequenceNumber(referenceDoc.getInt("sequenceNumber"));
+        reference.setBankcardData(bankcardData);
+
+        PriorMessageInformation messageInformation = new PriorMessageInformation();
+        messageInformation.setMessageTransactionIndicator(messageDoc.getString("messageTransactionIndicator"));
+        messageInformation.setSystemTraceAuditNumber(messageDoc.getString("systemTraceAuditNumber"));
+        messageInformation.setProcessingHost(Host.valueOf(messageDoc.getString("processingHost")));
+
+        rvalue.setMessageInformation(messageInformation);
+        rvalue.setResponseCode(doc.getString("responseCode"));
+        rvalue.setResponseMessage(doc.getString("responseMessage"));
+        rvalue.setAuthorizedAmount(new BigDecimal(doc.getString("authorizedAmount")));
+        rvalue.setTransactionDate(doc.getString("transactionDate"));
+        rvalue.setTransactionTime(doc.getString("transactionTime"));
+        return rvalue;
+    }
+
+    private static Transaction transaction() {
+        CreditTrackData card = new CreditTrackData();
+        card.setPan("4012002000060016");
+        card.setExpiry("2512");
+        card.setTrackNumber(TrackNumber.TrackTwo);
+
+        HashMap<UserDataTag, String> bankcardData = new HashMap<UserDataTag, String>();
+        bankcardData.put(UserDataTag.values()[0], "value");
+
+        TransactionReference reference = new TransactionReference();
+        reference.setTransactionId("TRN_1");
+        reference.setAuthCode("123456");
+        reference.setBatchNumber(42);
+        reference.setSequenceNumber(-7);
+        reference.setSystemTraceAuditNumber("000123");
+        reference.setMessageTypeIndicator("1100");
+        reference.setOriginalAmount(new BigDecimal("12.34"));
+        reference.setOriginalApprovedAmount(new BigDecimal("10.00"));
+        reference.setOriginalProcessingCode("000000");
+        reference.setOriginalTransactionTime("20240127101112");
+        reference.setPosDataCode("C01101100130");
+        reference.setPartialApproval(true);
+        reference.setOriginalTransactionType(TransactionType.Sale);
+        reference.setAuthorizer(AuthorizerCode.Voice_Authorized);
+        reference.setBankcardData(bankcardData);
+        reference.setNtsData(NtsData.interchangeAuthorized());
+        reference.setOriginalPaymentMethod(card);
+
+        PriorMessageInformation messageInformation = new PriorMessageInformation();
+        messageInformation.setMessageTransactionIndicator("1200");
+        messageInformation.setSystemTraceAuditNumber("000123");
+        messageInformation.setProcessingHost(Host.Secondary);
+
+        Transaction rvalue = new Transaction();
+        rvalue.setTransactionReference(reference);
+        rvalue.setMessageInformation(messageInformation);
+        rvalue.setResponseCode("00");
+        rvalue.setResponseMessage("APPROVAL");
+        rvalue.setAuthorizedAmount(new BigDecimal("10.00"));
+        rvalue.setTransactionDate("0127");
+        rvalue.setTransactionTime("101112");
+        return rvalue;
+    }
+}
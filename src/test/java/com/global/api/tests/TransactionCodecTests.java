@@ -0,0 +1,240 @@
+package com.global.api.tests;
+
+import com.global.api.entities.EncryptionData;
+import com.global.api.entities.Transaction;
+import com.global.api.entities.enums.*;
+import com.global.api.entities.exceptions.ApiException;
+import com.global.api.network.entities.NtsData;
+import com.global.api.network.entities.PriorMessageInformation;
+import com.global.api.network.enums.AuthorizerCode;
+import com.global.api.network.enums.FallbackCode;
+import com.global.api.paymentMethods.CreditCardData;
+import com.global.api.paymentMethods.CreditTrackData;
+import com.global.api.paymentMethods.DebitTrackData;
+import com.global.api.paymentMethods.TransactionReference;
+import com.global.api.utils.BinaryWriter;
+import com.global.api.utils.TransactionCodec;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+
+import static org.junit.Assert.*;
+
+public class TransactionCodecTests {
+    @Test
+    public void transactionsRoundTrip() throws Exception {
+        Transaction decoded = TransactionCodec.decodeTransaction(TransactionCodec.encode(transaction(), true));
+
+        assertEquals("00", decoded.getResponseCode());
+        assertEquals("APPROVAL", decoded.getResponseMessage());
+        assertEquals(new BigDecimal("10.00"), decoded.getAuthorizedAmount());
+        assertEquals("0127", decoded.getTransactionDate());
+
+        TransactionReference reference = decoded.getTransactionReference();
+        assertEquals("123456", reference.getAuthCode());
+        assertEquals(Integer.valueOf(42), reference.getBatchNumber());
+        assertEquals(new BigDecimal("12.34"), reference.getOriginalAmount());
+        assertEquals(new BigDecimal("10.00"), reference.getOriginalApprovedAmount());
+        assertEquals(-7, reference.getSequenceNumber());
+        assertTrue(reference.isPartialApproval());
+        assertFalse(reference.isUseAuthorizedAmount());
+        assertEquals(TransactionType.Sale, reference.getOriginalTransactionType());
+        assertEquals(AuthorizerCode.Voice_Authorized, reference.getAuthorizer());
+        assertEquals("value", reference.getBankcardData().get(UserDataTag.values()[0]));
+        assertEquals(FallbackCode.None, reference.getNtsData().getFallbackCode());
+        assertEquals(DebitAuthorizerCode.NonPinDebitCard, reference.getNtsData().getDebitAuthorizerCode());
+
+        CreditTrackData card = (CreditTrackData)reference.getOriginalPaymentMethod();
+        assertEquals("4012002000060016", card.getPan());
+        assertEquals("2512", card.getExpiry());
+        assertEquals(EntryMethod.Swipe, card.getEntryMethod());
+        assertEquals(TrackNumber.TrackTwo, card.getTrackNumber());
+        assertNull(card.getValue());
+
+        PriorMessageInformation messageInformation = decoded.getMessageInformation();
+        assertEquals("1200", messageInformation.getMessageTransactionIndicator());
+        assertEquals("000123", messageInformation.getSystemTraceAuditNumber());
+        assertEquals(Host.Secondary, messageInformation.getProcessingHost());
+        assertNull(messageInformation.getMessageReasonCode());
+    }
+
+    @Test
+    public void referencesRoundTrip() throws Exception {
+        CreditCardData card = new CreditCardData();
+        card.setNumber("4111111111111111");
+        card.setExpMonth(12);
+        card.setExpYear(2030);
+        card.setCvn("123");
+        card.setEntryMethod(ManualEntryMethod.Mail);
+
+        TransactionReference reference = new TransactionReference();
+        reference.setTransactionId("TRN_1");
+        reference.setOriginalPaymentMethod(card);
+
+        TransactionReference decoded = TransactionCodec.decodeTransactionReference(TransactionCodec.encode(reference, true));
+        assertEquals("TRN_1", decoded.getTransactionId());
+        assertEquals(PaymentMethodType.Credit, decoded.getPaymentMethodType());
+
+        CreditCardData decodedCard = (CreditCardData)decoded.getOriginalPaymentMethod();
+        assertEquals("4111111111111111", decodedCard.getNumber());
+        assertEquals(Integer.valueOf(12), decodedCard.getExpMonth());
+        assertEquals(Integer.valueOf(2030), decodedCard.getExpYear());
+        assertEquals(ManualEntryMethod.Mail, decodedCard.getEntryMethod());
+        assertNull(decodedCard.getCvn());
+    }
+
+    @Test
+    public void partsAreReadFromATransaction() throws Exception {
+        byte[] data = TransactionCodec.encode(transaction());
+
+        assertEquals("TRN_1", TransactionCodec.decodeTransactionReference(data).getTransactionId());
+        assertEquals(AuthorizerCode.Interchange_Authorized, TransactionCodec.decodeNtsData(data).getAuthorizerCode());
+        assertEquals("000123", TransactionCodec.decodeMessageInformation(data).getSystemTraceAuditNumber());
+        assertNull(TransactionCodec.decodeMessageInformation(TransactionCodec.encode(new TransactionReference())));
+    }
+
+    @Test
+    public void unknownFieldsAreSkipped() throws Exception {
+        byte[] data = TransactionCodec.encode(transaction());
+        byte[] newer = new BinaryWriter()
+                .writeString(900, "added later")
+                .writeLong(901, -1L)
+                .writeMessage(902, new BinaryWriter().writeString(1, "nested"))
+                .writeEnum(3, TransactionType.Capture)
+                .toArray();
+
+        byte[] combined = new byte[data.length + newer.length];
+        System.arraycopy(data, 0, combined, 0, data.length);
+        System.arraycopy(newer, 0, combined, data.length, newer.length);
+
+        Transaction decoded = TransactionCodec.decodeTransaction(combined);
+        assertEquals("TRN_1", decoded.getTransactionId());
+        // a later value for a known field wins, as with any repeated field
+        assertEquals("Capture", decoded.getResponseCode());
+    }
+
+    @Test
+    public void unsupportedVersionsAreRejected() {
+        byte[] data = TransactionCodec.encode(transaction());
+        data[0] = (byte)(TransactionCodec.VERSION + 1);
+        try {
+            TransactionCodec.decodeTransaction(data);
+            fail("decoded an unsupported version");
+        }
+        catch(ApiException exc) {
+            assertTrue(exc.getMessage().contains("version"));
+        }
+
+        try {
+            byte[] valid = TransactionCodec.encode(transaction());
+            byte[] truncated = new byte[valid.length - 3];
+            System.arraycopy(valid, 0, truncated, 0, truncated.length);
+            TransactionCodec.decodeTransaction(truncated);
+            fail("decoded truncated data");
+        }
+        catch(ApiException exc) {
+            assertTrue(exc.getMessage().contains("end of data"));
+        }
+    }
+
+    @Test
+    public void cardNumbersAreOnlyWrittenOnRequest() throws Exception {
+        Transaction transaction = transaction();
+        ((CreditTrackData)transaction.getTransactionReference().getOriginalPaymentMethod()).setToken("TOKEN_1");
+        transaction.setCardLast4("0016");
+
+        Transaction decoded = TransactionCodec.decodeTransaction(TransactionCodec.encode(transaction));
+        assertEquals("0016", decoded.getCardLast4());
+        CreditTrackData card = (CreditTrackData)decoded.getTransactionReference().getOriginalPaymentMethod();
+        assertNull(card.getPan());
+        assertNull(card.getExpiry());
+        assertEquals("TOKEN_1", card.getToken());
+        assertEquals(TrackNumber.TrackTwo, card.getTrackNumber());
+
+        CreditCardData manual = new CreditCardData();
+        manual.setNumber("4111111111111111");
+        manual.setExpMonth(12);
+        manual.setExpYear(2030);
+        TransactionReference reference = new TransactionReference();
+        reference.setOriginalPaymentMethod(manual);
+
+        byte[] data = TransactionCodec.encode(reference);
+        assertFalse(new String(data, StandardCharsets.ISO_8859_1).contains("4111111111111111"));
+        CreditCardData decodedCard = (CreditCardData)TransactionCodec.decodeTransactionReference(data).getOriginalPaymentMethod();
+        assertNull(decodedCard.getNumber());
+        assertNull(decodedCard.getExpYear());
+    }
+
+    @Test
+    public void encryptionDataRoundTrips() throws Exception {
+        Transaction transaction = transaction();
+        CreditTrackData card = (CreditTrackData)transaction.getTransactionReference().getOriginalPaymentMethod();
+        EncryptionData encryptionData = EncryptionData.setKtbAndKsn("KTB_1", "FFFF0000001");
+        encryptionData.setVersion("02");
+        encryptionData.setTrackNumber("2");
+        card.setEncryptionData(encryptionData);
+        card.setEncryptedPan("ENCRYPTED_PAN");
+
+        CreditTrackData decodedCard = (CreditTrackData)TransactionCodec.decodeTransactionReference(TransactionCodec.encode(transaction)).getOriginalPaymentMethod();
+        assertEquals("ENCRYPTED_PAN", decodedCard.getEncryptedPan());
+        assertEquals("02", decodedCard.getEncryptionData().getVersion());
+        assertEquals("2", decodedCard.getEncryptionData().getTrackNumber());
+        assertEquals("FFFF0000001", decodedCard.getEncryptionData().getKsn());
+        assertEquals("KTB_1", decodedCard.getEncryptionData().getKtb());
+
+        DebitTrackData debit = new DebitTrackData();
+        debit.setEncryptionData(EncryptionData.add("FFFF0000002", "2"));
+        TransactionReference reference = new TransactionReference();
+        reference.setOriginalPaymentMethod(debit);
+        DebitTrackData decodedDebit = (DebitTrackData)TransactionCodec.decodeTransactionReference(TransactionCodec.encode(reference)).getOriginalPaymentMethod();
+        assertEquals("FFFF0000002", decodedDebit.getEncryptionData().getKsn());
+        assertNull(decodedDebit.getEncryptionData().getKtb());
+    }
+
+    private static Transaction transaction() {
+        CreditTrackData card = new CreditTrackData();
+        card.setPan("4012002000060016");
+        card.setExpiry("2512");
+        card.setTrackNumber(TrackNumber.TrackTwo);
+        card.setPinBlock("62968D2481D231E1A504010024A00014");
+
+        HashMap<UserDataTag, String> bankcardData = new HashMap<UserDataTag, String>();
+        bankcardData.put(UserDataTag.values()[0], "value");
+
+        TransactionReference reference = new TransactionReference();
+        reference.setTransactionId("TRN_1");
+        reference.setAuthCode("123456");
+        reference.setBatchNumber(42);
+        reference.setSequenceNumber(-7);
+        reference.setSystemTraceAuditNumber("000123");
+        reference.setMessageTypeIndicator("1100");
+        reference.setOriginalAmount(new BigDecimal("12.34"));
+        reference.setOriginalApprovedAmount(new BigDecimal("10.00"));
+        reference.setOriginalProcessingCode("000000");
+        reference.setOriginalTransactionTime("20240127101112");
+        reference.setPosDataCode("C01101100130");
+        reference.setPartialApproval(true);
+        reference.setOriginalTransactionType(TransactionType.Sale);
+        reference.setAuthorizer(AuthorizerCode.Voice_Authorized);
+        reference.setBankcardData(bankcardData);
+        reference.setNtsData(NtsData.interchangeAuthorized());
+        reference.setOriginalPaymentMethod(card);
+
+        PriorMessageInformation messageInformation = new PriorMessageInformation();
+        messageInformation.setMessageTransactionIndicator("1200");
+        messageInformation.setSystemTraceAuditNumber("000123");
+        messageInformation.setProcessingHost(Host.Secondary);
+
+        Transaction rvalue = new Transaction();
+        rvalue.setTransactionReference(reference);
+        rvalue.setMessageInformation(messageInformation);
+        rvalue.setResponseCode("00");
+        rvalue.setResponseMessage("APPROVAL");
+        rvalue.setAuthorizedAmount(new BigDecimal("10.00"));
+        rvalue.setTransactionDate("0127");
+        rvalue.setTransactionTime("101112");
+        return rvalue;
+    }
+}
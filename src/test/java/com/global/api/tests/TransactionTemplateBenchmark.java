@@ -0,0 +1,77 @@
+package com.global.api.tests;
+
+import com.global.api.builders.AuthorizationBuilder;
+import com.global.api.entities.EcommerceInfo;
+import com.global.api.entities.exceptions.BuilderException;
+import com.global.api.paymentMethods.CreditCardData;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+
+import static com.global.api.tests.TransactionTemplateTests.TEMPLATE;
+import static com.global.api.tests.TransactionTemplateTests.card;
+
+/**
+ * Times creating a sale builder, and creating and validating one, from scratch and from a
+ * {@code TransactionTemplate}. Not part of the unit suite; run it with {@code mvn test -Pbenchmark}.
+ */
+public class TransactionTemplateBenchmark {
+    private static final int ITERATIONS = 50000;
+
+    @Test
+    public void builderCreationAndValidation() throws Exception {
+        CreditCardData card = card();
+        EcommerceInfo ecommerceInfo = TEMPLATE.getEcommerceInfo();
+        long sink = 0;
+
+        for(int i = 0; i < ITERATIONS; i++) {
+            sink += validate(fromScratch(card, ecommerceInfo));
+            sink += validate(TEMPLATE.charge(card, BigDecimal.TEN));
+        }
+
+        long scratchCreate = System.nanoTime();
+        for(int i = 0; i < ITERATIONS; i++) {
+            sink += fromScratch(card, ecommerceInfo).getCurrency().length();
+        }
+        scratchCreate = System.nanoTime() - scratchCreate;
+
+        long templateCreate = System.nanoTime();
+        for(int i = 0; i < ITERATIONS; i++) {
+            sink += TEMPLATE.charge(card, BigDecimal.TEN).getCurrency().length();
+        }
+        templateCreate = System.nanoTime() - templateCreate;
+
+        long scratchValidate = System.nanoTime();
+        for(int i = 0; i < ITERATIONS; i++) {
+            sink += validate(fromScratch(card, ecommerceInfo));
+        }
+        scratchValidate = System.nanoTime() - scratchValidate;
+
+        long templateValidate = System.nanoTime();
+        for(int i = 0; i < ITERATIONS; i++) {
+            sink += validate(TEMPLATE.charge(card, BigDecimal.TEN));
+        }
+        templateValidate = System.nanoTime() - templateValidate;
+
+        System.out.println(String.format("create: %.2f us new, %.2f us from template; create and validate: %.2f us new, %.2f us from template (%d)",
+                scratchCreate / 1000.0 / ITERATIONS,
+                templateCreate / 1000.0 / ITERATIONS,
+                scratchValidate / 1000.0 / ITERATIONS,
+                templateValidate / 1000.0 / ITERATIONS,
+                sink));
+    }
+
+    // the same fields as the template, set one by one
+    private static AuthorizationBuilder fromScratch(CreditCardData card, EcommerceInfo ecommerceInfo) {
+        return card.charge(BigDecimal.TEN)
+                .withCurrency("USD")
+                .withDynamicDescriptor("MERCHANT*STORE 12")
+                .withEcommerceInfo(ecommerceInfo)
+                .withAllowDuplicates(true);
+    }
+
+    private static int validate(AuthorizationBuilder builder) throws BuilderException {
+        builder.getValidations().validate(builder);
+        return builder.getCurrency().length();
+    }
+}
@@ -0,0 +1,117 @@
+package com.global.api.tests;
+
+import com.global.api.builders.AuthorizationBuilder;
+import com.global.api.builders.TransactionTemplate;
+import com.global.api.entities.EcommerceInfo;
+import com.global.api.entities.enums.TransactionType;
+import com.global.api.entities.exceptions.BuilderException;
+import com.global.api.paymentMethods.CreditCardData;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TransactionTemplateTests {
+    static final TransactionTemplate TEMPLATE = new TransactionTemplate()
+            .withCurrency("USD")
+            .withDynamicDescriptor("MERCHANT*STORE 12")
+            .withEcommerceInfo(new EcommerceInfo())
+            .withAllowDuplicates(true);
+
+    @Test
+    public void buildersGetTheTemplateFields() throws Exception {
+        CreditCardData card = card();
+        AuthorizationBuilder builder = TEMPLATE.charge(card, new BigDecimal("10.00"));
+
+        assertEquals(TransactionType.Sale, builder.getTransactionType());
+        assertSame(card, builder.getPaymentMethod());
+        assertEquals(new BigDecimal("10.00"), builder.getAmount());
+        assertEquals("USD", builder.getCurrency());
+        assertEquals("MERCHANT*STORE 12", builder.getDynamicDescriptor());
+        assertSame(TEMPLATE.getEcommerceInfo(), builder.getEcommerceInfo());
+        assertTrue(builder.isAllowDuplicates());
+        assertFalse(builder.isAllowPartialAuth());
+
+        // overriding a field on one builder leaves the template alone
+        builder.withCurrency("EUR");
+        assertEquals("USD", TEMPLATE.charge(card, BigDecimal.ONE).getCurrency());
+    }
+
+    @Test
+    public void templatesAreNotChangedByDerivedTemplates() {
+        TransactionTemplate euro = TEMPLATE.withCurrency("EUR");
+
+        assertEquals("USD", TEMPLATE.getCurrency());
+        assertEquals("EUR", euro.getCurrency());
+        assertEquals("MERCHANT*STORE 12", euro.getDynamicDescriptor());
+    }
+
+    @Test
+    public void buildersShareTheValidationRules() throws Exception {
+        AuthorizationBuilder first = TEMPLATE.charge(card(), BigDecimal.ONE);
+        AuthorizationBuilder second = TEMPLATE.withCurrency("EUR").authorize(card(), BigDecimal.ONE);
+        assertSame(first.getValidations(), second.getValidations());
+
+        first.getValidations().validate(first);
+        try {
+            AuthorizationBuilder noAmount = TEMPLATE.charge(card(), null);
+            noAmount.getValidations().validate(noAmount);
+            fail("validated a sale without an amount");
+        }
+        catch(BuilderException exc) {
+            assertTrue(exc.getMessage().contains("amount"));
+        }
+        try {
+            AuthorizationBuilder noCurrency = new TransactionTemplate().charge(card(), BigDecimal.ONE);
+            noCurrency.getValidations().validate(noCurrency);
+            fail("validated a sale without a currency");
+        }
+        catch(BuilderException exc) {
+            assertTrue(exc.getMessage().contains("currency"));
+        }
+    }
+
+    @Test
+    public void buildersAreValidatedFromManyThreads() throws Exception {
+        final List<Throwable> errors = Collections.synchronizedList(new ArrayList<Throwable>());
+        List<Thread> threads = new ArrayList<Thread>();
+        for(int i = 0; i < 8; i++) {
+            final boolean valid = i % 2 == 0;
+            threads.add(new Thread(() -> {
+                for(int j = 0; j < 200; j++) {
+                    AuthorizationBuilder builder = TEMPLATE.charge(card(), valid ? BigDecimal.TEN : null);
+                    try {
+                        builder.getValidations().validate(builder);
+                        if(!valid) {
+                            errors.add(new AssertionError("validated a sale without an amount"));
+                        }
+                    }
+                    catch(BuilderException exc) {
+                        if(valid) {
+                            errors.add(exc);
+                        }
+                    }
+                }
+            }));
+        }
+        for(Thread thread: threads) {
+            thread.start();
+        }
+        for(Thread thread: threads) {
+            thread.join();
+        }
+        assertTrue(errors.toString(), errors.isEmpty());
+    }
+
+    static CreditCardData card() {
+        CreditCardData rvalue = new CreditCardData();
+        rvalue.setNumber("4111111111111111");
+        rvalue.setExpMonth(12);
+        rvalue.setExpYear(2030);
+        return rvalue;
+    }
+}
@@ -0,0 +1,121 @@
+package com.global.api.tests.network;
+
+import com.global.api.gateways.NetworkGateway;
+import com.global.api.logging.IMessageLogger;
+import com.global.api.logging.LogLevel;
+import com.global.api.logging.MessageTracer;
+import com.global.api.utils.GnapUtils;
+import com.global.api.utils.NtsUtils;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.Assert.*;
+
+public class MessageTracerTests {
+    @Test
+    public void onlyTheBoundConnectorLogs() throws Exception {
+        final CapturingLogger traced = new CapturingLogger();
+        final MessageTracer tracer = new MessageTracer(traced, LogLevel.Trace);
+        final List<Boolean> otherThreadLogging = new ArrayList<Boolean>();
+
+        Thread other = new Thread() {
+            public void run() {
+                // a connector without a tracer on another thread
+                try(MessageTracer.Scope scope = MessageTracer.begin(null)) {
+                    otherThreadLogging.add(NtsUtils.isLogging());
+                    NtsUtils.log("Other", "value");
+                }
+            }
+        };
+
+        try(MessageTracer.Scope scope = MessageTracer.begin(tracer)) {
+            other.start();
+            other.join();
+            NtsUtils.log("Amount", 100);
+            GnapUtils.log("FID B", "100");
+        }
+        NtsUtils.log("After", "value");
+
+        assertEquals(1, otherThreadLogging.size());
+        assertFalse(otherThreadLogging.get(0));
+        assertEquals(2, traced.messages.size());
+        assertTrue(traced.messages.get(0).startsWith("AMOUNT "));
+        assertTrue(traced.messages.get(0).endsWith(" : 100"));
+        assertEquals("FID B : 100", traced.messages.get(1));
+    }
+
+    @Test
+    public void levelLimitsDetail() {
+        CapturingLogger logger = new CapturingLogger();
+        try(MessageTracer.Scope scope = MessageTracer.begin(new MessageTracer(logger, LogLevel.Debug))) {
+            NtsUtils.log("Field", "value");
+            NtsUtils.log(LogLevel.Debug, "Request", "message");
+        }
+        assertEquals(1, logger.messages.size());
+        assertTrue(logger.messages.get(0).startsWith("REQUEST "));
+    }
+
+    @Test
+    public void transactionsAreSampled() {
+        CapturingLogger logger = new CapturingLogger();
+        MessageTracer tracer = new MessageTracer(logger, LogLevel.Trace, 4);
+        for(int i = 0; i < 8; i++) {
+            try(MessageTracer.Scope scope = MessageTracer.begin(tracer)) {
+                NtsUtils.log("Transaction", i);
+                MessageTracer.trace(LogLevel.Info, "event " + i);
+            }
+        }
+
+        // events are never sampled out
+        int fields = 0, events = 0;
+        for(String message: logger.messages) {
+            if(message.startsWith("event")) {
+                events++;
+            }
+            else {
+                fields++;
+            }
+        }
+        assertEquals(2, fields);
+        assertEquals(8, events);
+    }
+
+    @Test
+    public void innerScopeWithoutTracerIsNotTraced() {
+        CapturingLogger logger = new CapturingLogger();
+        try(MessageTracer.Scope outer = MessageTracer.begin(new MessageTracer(logger, LogLevel.Trace))) {
+            try(MessageTracer.Scope inner = MessageTracer.begin(null)) {
+                NtsUtils.log("Inner", "value");
+            }
+            NtsUtils.log("Outer", "value");
+        }
+        assertEquals(1, logger.messages.size());
+        assertTrue(logger.messages.get(0).startsWith("OUTER "));
+    }
+
+    @Test
+    public void disablingLoggingKeepsACustomTracer() {
+        MessageTracer custom = new MessageTracer(new CapturingLogger(), LogLevel.Debug);
+        NetworkGateway gateway = new NetworkGateway();
+        gateway.setMessageTracer(custom);
+        gateway.setEnableLogging(false);
+        assertSame(custom, gateway.getMessageTracer());
+
+        NetworkGateway console = new NetworkGateway();
+        console.setEnableLogging(true);
+        assertNotNull(console.getMessageTracer());
+        console.setEnableLogging(false);
+        assertNull(console.getMessageTracer());
+    }
+
+    private static class CapturingLogger implements IMessageLogger {
+        private final List<String> messages = new CopyOnWriteArrayList<String>();
+
+        public void log(LogLevel level, String message) {
+            messages.add(message);
+        }
+    }
+}
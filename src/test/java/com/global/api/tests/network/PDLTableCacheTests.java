@@ -0,0 +1,164 @@
+package com.global.api.tests.network;
+
+import com.global.api.entities.exceptions.ApiException;
+import com.global.api.network.abstractions.IPDLTableStore;
+import com.global.api.network.entities.NtsPDLData;
+import com.global.api.network.entities.emvpdl.EMVPDLTable;
+import com.global.api.network.entities.emvpdl.EMVPDLTable30;
+import com.global.api.network.entities.nts.NtsRequestMessageHeader;
+import com.global.api.network.enums.nts.EmvPDLCardType;
+import com.global.api.network.enums.nts.PDLParameterType;
+import com.global.api.network.enums.nts.PDLTableID;
+import com.global.api.network.providers.FilePDLTableStore;
+import com.global.api.network.providers.InMemoryPDLTableStore;
+import com.global.api.network.providers.PDLTableCache;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class PDLTableCacheTests {
+    private static final String TABLE_30 = "22" + "0123456789" + "840" + "840" + "2" + "840" + "2";
+
+    @Test
+    public void lanesShareOneDownload() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountingCache cache = new CountingCache(new InMemoryPDLTableStore(), release);
+        final List<String> results = new ArrayList<String>();
+
+        List<Thread> lanes = new ArrayList<Thread>();
+        for(int i = 0; i < 4; i++) {
+            lanes.add(new Thread() {
+                public void run() {
+                    try {
+                        String data = cache.getTableData("00066654534", table30("001"), new NtsRequestMessageHeader(), "default");
+                        synchronized(results) {
+                            results.add(data);
+                        }
+                    }
+                    catch(ApiException exc) {
+                        fail(exc.getMessage());
+                    }
+                }
+            });
+        }
+        for(Thread lane: lanes) {
+            lane.start();
+        }
+        Thread.sleep(50);
+        release.countDown();
+        for(Thread lane: lanes) {
+            lane.join();
+        }
+
+        assertEquals(1, cache.downloads.get());
+        assertEquals(4, results.size());
+        for(String result: results) {
+            assertEquals(TABLE_30, result);
+        }
+    }
+
+    @Test
+    public void newVersionsAndUnitsAreDownloaded() throws Exception {
+        CountingCache cache = new CountingCache(new InMemoryPDLTableStore(), null);
+        cache.getTableData("00066654534", table30("001"), null, "default");
+        cache.getTableData("00066654534", table30("001"), null, "default");
+        cache.getTableData("00066654534", table30("002"), null, "default");
+        cache.getTableData("00066654535", table30("002"), null, "default");
+        assertEquals(3, cache.downloads.get());
+    }
+
+    @Test
+    public void storedTablesSurviveARestart() throws Exception {
+        File directory = Files.createTempDirectory("pdl").toFile();
+        IPDLTableStore store = new FilePDLTableStore(directory.getPath());
+
+        CountingCache first = new CountingCache(store, null);
+        first.getTableData("00066654534", table30("001"), null, "default");
+
+        CountingCache second = new CountingCache(new FilePDLTableStore(directory.getPath()), null);
+        EMVPDLTable<EMVPDLTable30> table = second.getEmvTable("00066654534", table30("001"), null);
+        assertEquals(0, second.downloads.get());
+        assertEquals(Integer.valueOf(840), table.getTable().getEmvPdlTerminalCountryCode());
+    }
+
+    @Test
+    public void olderVersionsAreEvicted() throws Exception {
+        File directory = Files.createTempDirectory("pdl").toFile();
+        CountingCache cache = new CountingCache(new FilePDLTableStore(directory.getPath()), null);
+        cache.getTableData("00066654534", table30("001"), null, "default");
+        cache.getTableData("00066654534", table30("002"), null, "default");
+        assertEquals(1, directory.list().length);
+
+        // the older version is downloaded again and not kept
+        cache.getTableData("00066654534", table30("001"), null, "default");
+        cache.getTableData("00066654534", table30("002"), null, "default");
+        assertEquals(3, cache.downloads.get());
+        assertEquals(1, directory.list().length);
+    }
+
+    @Test
+    public void failedWriteLeavesNoTempFile() throws Exception {
+        File directory = Files.createTempDirectory("pdl").toFile();
+        // a non-empty directory in the way of the table file makes the move fail
+        File blocked = new File(directory, "table.pdl");
+        assertTrue(blocked.mkdir());
+        assertTrue(new File(blocked, "entry").createNewFile());
+
+        try {
+            new FilePDLTableStore(directory.getPath()).write("table", TABLE_30);
+            fail("the table was written over a directory");
+        }
+        catch(IOException exc) {
+            // expected
+        }
+        assertArrayEquals(new String[] { "table.pdl" }, directory.list());
+    }
+
+    @Test(expected = ApiException.class)
+    public void table10IsNotCached() throws Exception {
+        NtsPDLData pdlData = table30("   ");
+        pdlData.setTableId(PDLTableID.Table10);
+        new CountingCache(new InMemoryPDLTableStore(), null).getTableData("00066654534", pdlData, null, "default");
+    }
+
+    private static NtsPDLData table30(String version) {
+        NtsPDLData pdlData = new NtsPDLData();
+        pdlData.setParameterType(PDLParameterType.RequestEMVPDL);
+        pdlData.setParameterVersion(version);
+        pdlData.setTableId(PDLTableID.Table30);
+        pdlData.setEmvPDLCardType(EmvPDLCardType.None);
+        return pdlData;
+    }
+
+    private static class CountingCache extends PDLTableCache {
+        private final AtomicInteger downloads = new AtomicInteger();
+        private final CountDownLatch release;
+
+        CountingCache(IPDLTableStore store, CountDownLatch release) {
+            super(store);
+            this.release = release;
+        }
+
+        @Override
+        protected String download(NtsPDLData pdlData, NtsRequestMessageHeader header, String configName) {
+            downloads.incrementAndGet();
+            if(release != null) {
+                try {
+                    release.await();
+                }
+                catch(InterruptedException exc) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return TABLE_30;
+        }
+    }
+}
@@ -0,0 +1,286 @@
+package com.global.api.tests.network;
+
+import com.global.api.builders.AuthorizationBuilder;
+import com.global.api.builders.ManagementBuilder;
+import com.global.api.entities.enums.LogicProcessFlag;
+import com.global.api.entities.enums.PaymentMethodType;
+import com.global.api.entities.enums.PinIndicator;
+import com.global.api.entities.enums.TerminalType;
+import com.global.api.entities.enums.TransactionType;
+import com.global.api.network.entities.NtsObjectParam;
+import com.global.api.network.entities.PriorMessageInformation;
+import com.global.api.network.entities.nts.NtsRequestMessageHeader;
+import com.global.api.paymentMethods.TransactionReference;
+import com.global.api.network.entities.emvpdl.EMVPDLTable;
+import com.global.api.network.entities.emvpdl.EMVPDLTable60;
+import com.global.api.network.entities.emvpdl.IEMVPDLTable;
+import com.global.api.network.entities.mpdl.IMPDLTable;
+import com.global.api.network.entities.mpdl.MPDLTable;
+import com.global.api.network.entities.mpdl.MPDLTable50;
+import com.global.api.entities.enums.DebitAuthorizerCode;
+import com.global.api.entities.enums.NtsHostResponseCode;
+import com.global.api.entities.enums.NtsMessageCode;
+import com.global.api.entities.enums.TransactionCode;
+import com.global.api.network.entities.nts.INtsRequestMessage;
+import com.global.api.network.entities.nts.INtsResponseMessage;
+import com.global.api.network.entities.nts.NtsDebitResponse;
+import com.global.api.network.entities.nts.NtsNetworkMessageHeader;
+import com.global.api.network.entities.nts.NtsPDLResponse;
+import com.global.api.network.entities.nts.NtsPDLResponseData;
+import com.global.api.network.entities.nts.NtsResponseMessageHeader;
+import com.global.api.network.entities.nts.NtsSaleCreditResponseMapper;
+import com.global.api.network.entities.nts.NtsVoidReversalResponse;
+import com.global.api.network.enums.AuthorizerCode;
+import com.global.api.network.enums.CardDataInputCapability;
+import com.global.api.network.enums.NTSCardTypes;
+import com.global.api.network.enums.gnap.GnapFIDS;
+import com.global.api.network.enums.nts.PendingRequestIndicator;
+import com.global.api.network.enums.nts.ServicingHostName;
+import com.global.api.network.enums.nts.EMVPDLKeyStatus;
+import com.global.api.network.enums.nts.PDLEndOfTableFlag;
+import com.global.api.network.enums.nts.PDLTableID;
+import com.global.api.utils.FixedRecordLayout;
+import com.global.api.utils.MessageWriter;
+import com.global.api.utils.RecordLayout;
+import com.global.api.utils.RecordReader;
+import com.global.api.utils.ReverseStringEnumMap;
+import com.global.api.utils.StringUtils;
+import lombok.Getter;
+import lombok.Setter;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class RecordLayoutTests {
+    @Test
+    public void nestedTablesAreDecoded() {
+        String data = "02"
+                + "01" + "02" + "002"
+                + StringUtils.padRight("4000", 19, ' ') + "Y" + StringUtils.padRight("4999", 19, ' ')
+                + StringUtils.padRight("4100", 19, ' ') + "N" + StringUtils.padRight("4199", 19, ' ')
+                + "02" + "03" + "000";
+
+        MPDLTable<MPDLTable50> table = IMPDLTable.parseData(data, PDLTableID.Table50);
+        MPDLTable50 table50 = table.getTable();
+
+        assertEquals(2, table50.getCards().size());
+        assertEquals(NTSCardTypes.Mastercard, table50.getCards().get(0).getHostCardType());
+        assertEquals(2, table50.getCards().get(0).getBinRanges().size());
+        assertEquals("N", table50.getCards().get(0).getBinRanges().get(1).getDebitCapable());
+        assertEquals(NTSCardTypes.Visa, table50.getCards().get(1).getHostCardType());
+        assertTrue(table50.getCards().get(1).getBinRanges().isEmpty());
+    }
+
+    @Test
+    public void conditionalFieldsFollowTheRecord() {
+        String data = "02"
+                + "A000000003" + "01" + "A" + "0004" + "ABCD" + "03" + StringUtils.padRight("", 40, '9')
+                + "A000000004" + "02" + "R";
+
+        EMVPDLTable<EMVPDLTable60> table = IEMVPDLTable.parseData(data, PDLTableID.Table60);
+        EMVPDLTable60 table60 = table.getTable();
+
+        assertEquals(2, table60.getEmvPdlKeys().size());
+        EMVPDLTable60.EmvPdlKey active = table60.getEmvPdlKeys().get(0);
+        assertEquals("ABCD", active.getEmvPdlCertificationAuthorityPublicKeyModulus());
+        assertEquals("03", active.getEmvPdlCertificationAuthorityPublicKeyExponent());
+
+        EMVPDLTable60.EmvPdlKey revoked = table60.getEmvPdlKeys().get(1);
+        assertEquals(EMVPDLKeyStatus.Revoked, revoked.getEmvPdlKeyStatus());
+        assertNull(revoked.getEmvPdlCertificationAuthorityPublicKeyModulus());
+    }
+
+    @Test
+    public void responsesDecodeTheirHeaderAndBody() {
+        NtsPDLResponse response = (NtsPDLResponse)new NtsPDLResponse().setNtsResponseMessage("0010130N005HELLO".getBytes(), false);
+        assertEquals("001", response.getParameterVersionOrTableVersion());
+        assertEquals(Integer.valueOf(1), response.getBlockSequenceNumber());
+        assertEquals(PDLTableID.Table30, response.getTableId());
+        assertEquals(PDLEndOfTableFlag.NotEndOfTable, response.getEndOfTableFlag());
+        assertEquals("005", response.getTableDataBlockLength());
+        assertEquals("HELLO", response.getTableDataBlockData());
+
+        String unitData = "0000" + "1" + "20" + "001" + "01"
+                + "20" + "76" + StringUtils.padRight("STORE", 20, ' ') + StringUtils.padRight("1 MAIN ST", 18, ' ')
+                + StringUtils.padRight("ANYTOWN", 16, ' ') + "GA";
+        NtsPDLResponseData responseData = (NtsPDLResponseData)new NtsPDLResponseData().setNtsResponseMessage(unitData.getBytes(), false);
+        assertNull(responseData.getAccessCode());
+        assertEquals("ANYTOWN         ", responseData.getUnitCity());
+        assertEquals("GA", responseData.getUnitState());
+        assertNull(responseData.getUserData());
+    }
+
+    @Test
+    public void ntsResponseHeaderIsDecoded() {
+        String data = "1" + "045" + "A" + "B" + "00" + "030" + " " + "2" + " " + "ABC" + "01" + "0" + "0" + "02" + "00"
+                + "12345678901" + "07"
+                + "0" + "1019" + "123456" + "1" + "  ";
+
+        NtsResponseMessageHeader header = INtsResponseMessage.getHeader(data.getBytes());
+        NtsNetworkMessageHeader networkHeader = header.getNtsNetworkMessageHeader();
+        assertEquals(1, networkHeader.getMessageType());
+        assertEquals(45, networkHeader.getCompanyNumber());
+        assertEquals(NtsHostResponseCode.Success, networkHeader.getResponseCode());
+        assertEquals(30, networkHeader.getTimeoutValue());
+        assertEquals(CardDataInputCapability.MagStripe, networkHeader.getInputCapabilityCode());
+        assertEquals("ABC", networkHeader.getTerminalDestinationTag());
+        assertEquals(NtsMessageCode.DataCollectOrSale, networkHeader.getNtsMessageCode());
+        assertEquals("12345678901", networkHeader.getUnitNumber());
+        assertEquals(7, networkHeader.getTerminalId());
+
+        assertEquals(PendingRequestIndicator.NoPendingMessage, header.getPendingRequestIndicator());
+        assertEquals("1019", header.getTransactionDate());
+        assertEquals("123456", header.getTransactionTime());
+        assertEquals(ServicingHostName.Reno, header.getServicingHostName());
+        assertEquals("  ", header.getDataCollectResponseCode());
+    }
+
+    @Test
+    public void ntsCreditResponsesDecodeTheHostResponseArea() {
+        String account = StringUtils.padRight("4111", 19, ' ');
+        String sale = "03" + account + "123456" + "B" + "01" + "002" + "Y" + "0005" + "HELLO";
+
+        NtsSaleCreditResponseMapper saleResponse = (NtsSaleCreditResponseMapper)new NtsSaleCreditResponseMapper().setNtsResponseMessage(sale.getBytes(), true);
+        assertEquals(NTSCardTypes.Visa, saleResponse.getCreditMapper().getCardType());
+        assertEquals(account, saleResponse.getCreditMapper().getAccountNumber());
+        assertEquals(AuthorizerCode.Host_Authorized, saleResponse.getCreditMapper().getAuthorizer());
+        assertEquals(1, saleResponse.getBatchNumber());
+        assertEquals(2, saleResponse.getSequenceNumber());
+        assertEquals("Y", saleResponse.getCreditMapper().getExpandedUserData());
+        assertEquals(5, saleResponse.getCreditMapper().getHostResponseLength());
+        assertEquals("HELLO", saleResponse.getCreditMapper().getHostResponseArea());
+
+        // the host response area of a void is only read from longer messages
+        String original = "00" + "1019" + "123456" + "03" + account + "123456" + "01" + "002";
+        NtsVoidReversalResponse shortVoid = (NtsVoidReversalResponse)new NtsVoidReversalResponse().setNtsResponseMessage(original.getBytes(), false);
+        assertEquals("1019", shortVoid.getOriginalTransactionDate());
+        assertEquals(Integer.valueOf(2), shortVoid.getSequenceNumber());
+        assertNull(shortVoid.getCreditMapper().getHostResponseArea());
+
+        String area = StringUtils.padRight("AREA", 40, ' ');
+        NtsVoidReversalResponse longVoid = (NtsVoidReversalResponse)new NtsVoidReversalResponse().setNtsResponseMessage((original + "040" + area).getBytes(), false);
+        assertEquals(40, longVoid.getCreditMapper().getHostResponseLength());
+        assertEquals(area, longVoid.getCreditMapper().getHostResponseArea());
+    }
+
+    @Test
+    public void ntsDebitResponseReadsABlankAmountAsZero() {
+        String data = "03" + "03" + "CHK" + "123456" + "00" + "000001";
+
+        NtsDebitResponse response = (NtsDebitResponse)new NtsDebitResponse().setNtsResponseMessage((data + "   1250").getBytes(), false);
+        assertEquals(TransactionCode.Purchase, response.getTransactionCode());
+        assertEquals("123456", response.getCode());
+        assertEquals(DebitAuthorizerCode.NonPinDebitCard, response.getAuthorizerCode());
+        assertEquals(1250, response.getAmount());
+
+        response = (NtsDebitResponse)new NtsDebitResponse().setNtsResponseMessage((data + "       ").getBytes(), false);
+        assertEquals(0, response.getAmount());
+    }
+
+    @Test
+    public void encodeMatchesTheMessageWriter() {
+        FixedRecordLayout<Sample> layout = FixedRecordLayout.<Sample>builder()
+                .string("Name", 5, Sample::getName, Sample::setName)
+                .integer("Count", 3, Sample::getCount, Sample::setCount)
+                .constant("Table", 2, PDLTableID.class, Sample::getTableId, Sample::setTableId)
+                .string("Optional", 4, Sample::getOptional, Sample::setOptional)
+                .build();
+
+        Sample sample = new Sample();
+        sample.setName("ABCDEFG");
+        sample.setCount(7);
+        sample.setTableId(PDLTableID.Table60);
+
+        MessageWriter writer = new MessageWriter();
+        layout.encode(sample, writer);
+        assertEquals("ABCDE00760", writer.getMessageRequest().toString());
+
+        Sample decoded = layout.decode(writer.getMessageRequest().toString().getBytes(), new Sample());
+        assertEquals("ABCDE", decoded.getName());
+        assertEquals(Integer.valueOf(7), decoded.getCount());
+        assertEquals(PDLTableID.Table60, decoded.getTableId());
+        assertNull(decoded.getOptional());
+    }
+
+    @Test
+    public void requestHeaderIsEncodedThroughItsLayout() {
+        NtsRequestMessageHeader header = new NtsRequestMessageHeader();
+        header.setTerminalDestinationTag("478");
+        header.setPinIndicator(PinIndicator.WithoutPin);
+        header.setNtsMessageCode(NtsMessageCode.AuthorizationOrBalanceInquiry);
+        header.setTransactionDate("0615");
+        header.setTransactionTime("101530");
+        PriorMessageInformation prior = new PriorMessageInformation();
+        prior.setResponseTime("42");
+        prior.setConnectTime("007");
+        prior.setMessageReasonCode("01");
+        header.setPriorMessageInformation(prior);
+
+        NtsObjectParam params = new NtsObjectParam();
+        params.setBinTerminalId(" ");
+        params.setBinTerminalType(" ");
+        params.setInputCapabilityCode(CardDataInputCapability.MagStripe);
+        params.setSoftwareVersion("01");
+        params.setLogicProcessFlag(LogicProcessFlag.Capable);
+        params.setTerminalType(TerminalType.VerifoneRuby2Ci);
+        params.setUnitNumber("00001234567");
+        params.setTerminalId("21");
+
+        String common = "9045    015 2 47801" + PinIndicator.WithoutPin.getValue() + "P" + "01"
+                + TerminalType.VerifoneRuby2Ci.getValue() + "0000123456721";
+
+        params.setNtsBuilder(new AuthorizationBuilder(TransactionType.Sale).withNtsRequestMessageHeader(header));
+        assertEquals(common + "0615101530" + "042007" + "01", INtsRequestMessage.prepareHeader(params).getMessageRequest().toString());
+
+        // follow-ups send the date and time of the original transaction
+        TransactionReference reference = new TransactionReference();
+        reference.setPaymentMethodType(PaymentMethodType.Debit);
+        reference.setOriginalTransactionDate("0614");
+        reference.setOriginalTransactionTime("235959");
+        params.setNtsBuilder(new ManagementBuilder(TransactionType.Reversal).withPaymentMethod(reference).withNtsRequestMessageHeader(header));
+        params.setNtsCardType(NTSCardTypes.PinDebit);
+        params.setTimeout(30);
+        assertEquals((common + "0614235959" + "042007" + "01").replace("    015 ", "    030 "), INtsRequestMessage.prepareHeader(params).getMessageRequest().toString());
+
+        // without a transaction reference a reversal sends neither
+        params.setNtsBuilder(new ManagementBuilder(TransactionType.Reversal).withNtsRequestMessageHeader(header));
+        assertEquals((common + "042007" + "01").replace("    015 ", "    030 "), INtsRequestMessage.prepareHeader(params).getMessageRequest().toString());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void fixedLayoutsNeedAGetterForEveryField() {
+        FixedRecordLayout.<Sample>builder()
+                .string("Name", 5, Sample::getName, Sample::setName)
+                .integer("Count", 3, null, Sample::setCount)
+                .build();
+    }
+
+    @Test
+    public void readerMatchesTheStringParser() {
+        RecordReader reader = new RecordReader("0042 12X\u001CA\u001C".getBytes());
+        assertEquals(Integer.valueOf(42), reader.readInt(4));
+        try {
+            reader.readInt(3);
+            fail("non digits were read as a number");
+        }
+        catch(NumberFormatException exc) {
+            // same as Integer.parseInt, and the field is still consumed
+        }
+        assertEquals("X", reader.readTo((byte)0x1C));
+        assertEquals("A", reader.readTo((byte)0x1C));
+        assertFalse(reader.hasRemaining());
+        assertNull(reader.readString(1));
+
+        assertEquals(GnapFIDS.FID_B, ReverseStringEnumMap.forType(GnapFIDS.class).get('B'));
+        assertNull(ReverseStringEnumMap.forType(GnapFIDS.class).get('#'));
+    }
+
+    @Getter
+    @Setter
+    public static class Sample {
+        private String name;
+        private Integer count;
+        private PDLTableID tableId;
+        private String optional;
+    }
+}
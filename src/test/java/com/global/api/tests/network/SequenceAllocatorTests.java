@@ -0,0 +1,109 @@
+package com.global.api.tests.network;
+
+import com.global.api.entities.exceptions.BatchFullException;
+import com.global.api.network.abstractions.IStanProvider;
+import com.global.api.network.providers.FileSequenceStore;
+import com.global.api.network.providers.InMemorySequenceStore;
+import com.global.api.network.providers.SequenceAllocator;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class SequenceAllocatorTests {
+    @Test
+    public void stanWrapsAfterSixDigits() {
+        InMemorySequenceStore store = new InMemorySequenceStore();
+        store.write("stan-lane1", 999998L);
+
+        IStanProvider provider = SequenceAllocator.forStan(store).getStanProvider("lane1");
+        assertEquals(999999, provider.generateStan());
+        assertEquals(1, provider.generateStan());
+        assertEquals(2, provider.generateStan());
+    }
+
+    @Test
+    public void restartSkipsLeasedBlock() throws Exception {
+        File dir = Files.createTempDirectory("stan").toFile();
+
+        IStanProvider first = SequenceAllocator.forStan(new FileSequenceStore(dir.getPath())).getStanProvider("001");
+        assertEquals(1, first.generateStan());
+        assertEquals(2, first.generateStan());
+
+        // simulated restart: new allocator over the same directory
+        IStanProvider second = SequenceAllocator.forStan(new FileSequenceStore(dir.getPath())).getStanProvider("001");
+        int stan = second.generateStan();
+        assertTrue(stan > 2);
+    }
+
+    @Test
+    public void similarKeysUseSeparateFiles() throws Exception {
+        File dir = Files.createTempDirectory("stan").toFile();
+        FileSequenceStore store = new FileSequenceStore(dir.getPath());
+
+        store.write("a.b", 10L);
+        store.write("a_b", 20L);
+        store.write("a/b", 30L);
+        store.write("a%2Eb", 40L);
+
+        assertEquals(10L, store.read("a.b"));
+        assertEquals(20L, store.read("a_b"));
+        assertEquals(30L, store.read("a/b"));
+        assertEquals(40L, store.read("a%2Eb"));
+        assertEquals(4, dir.listFiles().length);
+    }
+
+    @Test
+    public void lanesAreIndependent() {
+        SequenceAllocator allocator = SequenceAllocator.forStan(new InMemorySequenceStore());
+        assertEquals(1, allocator.getStanProvider("a").generateStan());
+        assertEquals(1, allocator.getStanProvider("b").generateStan());
+        assertEquals(2, allocator.getStanProvider("a").generateStan());
+    }
+
+    @Test
+    public void concurrentAllocationIsUnique() throws Exception {
+        final IStanProvider provider = SequenceAllocator.forStan(new InMemorySequenceStore()).getStanProvider("lane");
+        final Set<Integer> seen = Collections.synchronizedSet(new HashSet<Integer>());
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        for(int i = 0; i < 8; i++) {
+            pool.submit(new Runnable() {
+                public void run() {
+                    for(int j = 0; j < 5000; j++) {
+                        seen.add(provider.generateStan());
+                    }
+                }
+            });
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(30, TimeUnit.SECONDS));
+        assertEquals(40000, seen.size());
+    }
+
+    @Test
+    public void batchSequenceFullAndReset() throws Exception {
+        SequenceAllocator allocator = SequenceAllocator.forBatchSequence(new InMemorySequenceStore(), 3);
+        assertEquals(1, allocator.next("lane"));
+        assertEquals(2, allocator.next("lane"));
+        assertEquals(3, allocator.next("lane"));
+        try {
+            allocator.next("lane");
+            fail("Expected BatchFullException");
+        }
+        catch(BatchFullException exc) {
+            // expected
+        }
+
+        allocator.reset("lane");
+        assertEquals(1, allocator.next("lane"));
+    }
+}
@@ -0,0 +1,150 @@
+package com.global.api.tests.services;
+
+import com.global.api.builders.BaseBuilder;
+import com.global.api.entities.Transaction;
+import com.global.api.entities.exceptions.ApiException;
+import com.global.api.entities.exceptions.GatewayException;
+import com.global.api.services.BatchExecutor;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class BatchExecutorTests {
+    @Test
+    public void failuresDontStopTheBatch() throws Exception {
+        Calls calls = new Calls(0L);
+        List<FakeBuilder> builders = new ArrayList<FakeBuilder>();
+        for(int i = 0; i < 20; i++) {
+            builders.add(new FakeBuilder(calls, i, i % 5 == 3));
+        }
+
+        List<BatchExecutor.BatchResult> results = new BatchExecutor().setMaxConcurrency(4).executeAll(builders, "default");
+
+        assertEquals(20, results.size());
+        for(int i = 0; i < 20; i++) {
+            BatchExecutor.BatchResult result = results.get(i);
+            assertEquals(i, result.getIndex());
+            assertSame(builders.get(i), result.getBuilder());
+            if(i % 5 == 3) {
+                assertFalse(result.isSuccessful());
+                assertEquals("declined " + i, result.getException().getMessage());
+            }
+            else {
+                assertTrue(result.isSuccessful());
+                assertEquals(String.valueOf(i), result.getTransaction().getTransactionId());
+            }
+        }
+    }
+
+    @Test
+    public void concurrencyIsBoundedAndTheFirstCallRunsAlone() throws Exception {
+        final Calls calls = new Calls(20L);
+        final AtomicInteger firstOverlap = new AtomicInteger(-1);
+        Iterable<BaseBuilder<Transaction>> builders = builders(calls, 30, firstOverlap);
+
+        final AtomicInteger handled = new AtomicInteger();
+        final AtomicInteger handlersRunning = new AtomicInteger();
+        new BatchExecutor().setMaxConcurrency(3).executeAll(builders, "default", result -> {
+            assertEquals(1, handlersRunning.incrementAndGet());
+            handled.incrementAndGet();
+            handlersRunning.decrementAndGet();
+        });
+
+        assertEquals(30, handled.get());
+        assertEquals(3, calls.maxRunning.get());
+        assertEquals(1, firstOverlap.get());
+        // builders are read lazily, never more than the in-flight limit ahead
+        assertTrue(calls.maxCreatedAhead.get() <= 4);
+    }
+
+    @Test
+    public void callsAreRateLimited() throws Exception {
+        Calls calls = new Calls(0L);
+        List<FakeBuilder> builders = new ArrayList<FakeBuilder>();
+        for(int i = 0; i < 11; i++) {
+            builders.add(new FakeBuilder(calls, i, false));
+        }
+
+        long start = System.nanoTime();
+        new BatchExecutor().setMaxConcurrency(8).setMaxRequestsPerSecond(100).executeAll(builders, "batch-rate-limit");
+        long elapsedMillis = (System.nanoTime() - start) / 1000000L;
+
+        // eleven calls at 100 per second take at least 100ms
+        assertTrue("took " + elapsedMillis + "ms", elapsedMillis >= 95L);
+    }
+
+    private static Iterable<BaseBuilder<Transaction>> builders(final Calls calls, final int count, final AtomicInteger firstOverlap) {
+        return () -> new Iterator<BaseBuilder<Transaction>>() {
+            private int created;
+
+            public boolean hasNext() {
+                return created < count;
+            }
+
+            public BaseBuilder<Transaction> next() {
+                calls.maxCreatedAhead.accumulateAndGet(created - calls.finished.get(), Math::max);
+                if(created == 1) {
+                    firstOverlap.set(calls.finished.get());
+                }
+                return new FakeBuilder(calls, created++, false);
+            }
+        };
+    }
+
+    private static class Calls {
+        private final long duration;
+        private final AtomicInteger running = new AtomicInteger();
+        private final AtomicInteger maxRunning = new AtomicInteger();
+        private final AtomicInteger finished = new AtomicInteger();
+        private final AtomicInteger maxCreatedAhead = new AtomicInteger();
+
+        Calls(long duration) {
+            this.duration = duration;
+        }
+    }
+
+    private static class FakeBuilder extends BaseBuilder<Transaction> {
+        private final Calls calls;
+        private final int id;
+        private final boolean decline;
+
+        FakeBuilder(Calls calls, int id, boolean decline) {
+            this.calls = calls;
+            this.id = id;
+            this.decline = decline;
+        }
+
+        @Override
+        public Transaction execute(String configName) throws ApiException {
+            calls.maxRunning.accumulateAndGet(calls.running.incrementAndGet(), Math::max);
+            try {
+                if(calls.duration > 0) {
+                    Thread.sleep(calls.duration);
+                }
+                if(decline) {
+                    throw new GatewayException("declined " + id);
+                }
+
+                Transaction rvalue = new Transaction();
+                rvalue.setTransactionId(String.valueOf(id));
+                return rvalue;
+            }
+            catch(InterruptedException exc) {
+                throw new ApiException("interrupted", exc);
+            }
+            finally {
+                calls.running.decrementAndGet();
+                calls.finished.incrementAndGet();
+            }
+        }
+
+        @Override
+        public void setupValidations() {
+        }
+    }
+}
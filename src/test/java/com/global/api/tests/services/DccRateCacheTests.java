@@ -0,0 +1,164 @@
+package com.global.api.tests.services;
+
+import com.global.api.entities.DccRateData;
+import com.global.api.entities.enums.DccProcessor;
+import com.global.api.entities.enums.DccRateType;
+import com.global.api.paymentMethods.CreditCardData;
+import com.global.api.paymentMethods.IPaymentMethod;
+import com.global.api.paymentMethods.RecurringPaymentMethod;
+import com.global.api.services.DccRateCache;
+import org.joda.time.DateTime;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.*;
+
+public class DccRateCacheTests {
+    @Test
+    public void quotesAreSharedWithinAnAmountBand() throws Exception {
+        CountingCache cache = new CountingCache(null);
+
+        DccRateData first = cache.getRate(card("4006097467207025"), new BigDecimal("12.00"), "EUR");
+        DccRateData second = cache.getRate(card("4006097400000000"), new BigDecimal("15.00"), "EUR");
+        assertEquals(1, cache.lookups);
+        assertEquals(new BigDecimal("18.00"), first.getCardHolderAmount());
+        assertEquals(new BigDecimal("22.50"), second.getCardHolderAmount());
+        assertEquals(new BigDecimal("15.00"), second.getMerchantAmount());
+        assertEquals("USD", second.getCardHolderCurrency());
+
+        // a different band, merchant currency and config each need their own quote
+        cache.getRate(card("4006097467207025"), new BigDecimal("25.00"), "EUR");
+        cache.getRate(card("4006097467207025"), new BigDecimal("12.00"), "GBP");
+        cache.getRate(card("4006097467207025"), new BigDecimal("12.00"), "EUR", DccRateType.None, DccProcessor.None, "kiosk");
+        assertEquals(4, cache.lookups);
+    }
+
+    @Test
+    public void quotesNearTheEndOfTheirValidityAreNotUsed() throws Exception {
+        CountingCache cache = new CountingCache(null);
+        cache.setValidityPeriod(10000L).setMinimumValidity(2000L).setRefreshAhead(0L);
+
+        cache.getRate(card("4006097467207025"), new BigDecimal("12.00"), "EUR");
+        cache.now += 7999L;
+        cache.getRate(card("4006097467207025"), new BigDecimal("12.00"), "EUR");
+        assertEquals(1, cache.lookups);
+
+        cache.now += 1L;
+        cache.getRate(card("4006097467207025"), new BigDecimal("12.00"), "EUR");
+        assertEquals(2, cache.lookups);
+    }
+
+    @Test
+    public void theRateSourceTimestampLimitsValidity() throws Exception {
+        CountingCache cache = new CountingCache(null);
+        cache.setSourceValidityPeriod(5000L).setMinimumValidity(0L).setRefreshAhead(0L);
+        cache.sourceTimestamp = new DateTime(cache.now - 4000L);
+
+        cache.getRate(card("4006097467207025"), new BigDecimal("12.00"), "EUR");
+        cache.now += 1000L;
+        cache.getRate(card("4006097467207025"), new BigDecimal("12.00"), "EUR");
+        assertEquals(2, cache.lookups);
+    }
+
+    @Test
+    public void storedCardQuotesAreRefreshedInTheBackground() throws Exception {
+        final List<Runnable> queued = new ArrayList<Runnable>();
+        CountingCache cache = new CountingCache(queued::add);
+        cache.setValidityPeriod(10000L).setMinimumValidity(1000L).setRefreshAhead(3000L);
+
+        cache.getRate(storedCard(), new BigDecimal("12.00"), "EUR");
+        cache.now += 8000L;
+        cache.rate = "1.6";
+        assertEquals("1.5", cache.getRate(storedCard(), new BigDecimal("12.00"), "EUR").getCardHolderRate());
+        cache.getRate(storedCard(), new BigDecimal("12.00"), "EUR");
+        assertEquals(1, queued.size());
+        assertEquals(1, cache.lookups);
+
+        queued.get(0).run();
+        assertEquals(2, cache.lookups);
+        assertEquals("1.6", cache.getRate(storedCard(), new BigDecimal("12.00"), "EUR").getCardHolderRate());
+    }
+
+    @Test
+    public void cardQuotesAreRefreshedWithoutQueueingTheCard() throws Exception {
+        final List<Runnable> queued = new ArrayList<Runnable>();
+        CountingCache cache = new CountingCache(queued::add);
+        cache.setValidityPeriod(10000L).setMinimumValidity(1000L).setRefreshAhead(3000L);
+
+        cache.getRate(card("4006097467207025"), new BigDecimal("12.00"), "EUR");
+        cache.now += 8000L;
+        cache.rate = "1.6";
+        assertEquals("1.6", cache.getRate(card("4006097467207025"), new BigDecimal("12.00"), "EUR").getCardHolderRate());
+        assertEquals("1.6", cache.getRate(card("4006097400000000"), new BigDecimal("12.00"), "EUR").getCardHolderRate());
+        assertTrue(queued.isEmpty());
+        assertEquals(2, cache.lookups);
+    }
+
+    @Test
+    public void quotesWithAnIdAreNotReused() throws Exception {
+        CountingCache cache = new CountingCache(null);
+        cache.dccId = "RATE_123";
+
+        cache.getRate(card("4006097467207025"), new BigDecimal("12.00"), "EUR");
+        DccRateData second = cache.getRate(card("4006097400000000"), new BigDecimal("12.00"), "EUR");
+        assertEquals(2, cache.lookups);
+        assertEquals("RATE_123", second.getDccId());
+        assertEquals(0, cache.size());
+
+        cache.dccId = null;
+        cache.orderId = "ORDER_1";
+        DccRateData third = cache.getRate(card("4006097467207025"), new BigDecimal("12.00"), "EUR");
+        cache.getRate(card("4006097467207025"), new BigDecimal("12.00"), "EUR");
+        assertEquals(4, cache.lookups);
+        assertEquals("ORDER_1", third.getOrderId());
+        assertEquals(0, cache.size());
+    }
+
+    private static CreditCardData card(String number) {
+        CreditCardData card = new CreditCardData();
+        card.setNumber(number);
+        return card;
+    }
+
+    private static RecurringPaymentMethod storedCard() {
+        return new RecurringPaymentMethod("customer-1", "card-1");
+    }
+
+    private static class CountingCache extends DccRateCache {
+        private int lookups;
+        private long now = 1000000L;
+        private String rate = "1.5";
+        private String dccId;
+        private String orderId;
+        private DateTime sourceTimestamp;
+
+        CountingCache(Executor executor) {
+            if(executor != null) {
+                setExecutor(executor);
+            }
+        }
+
+        @Override
+        protected DccRateData lookup(IPaymentMethod paymentMethod, BigDecimal amount, String currency, DccRateType rateType, DccProcessor processor, String configName) {
+            lookups++;
+            return new DccRateData()
+                    .setMerchantAmount(amount)
+                    .setMerchantCurrency(currency)
+                    .setCardHolderCurrency("USD")
+                    .setCardHolderRate(rate)
+                    .setCardHolderAmount(amount.multiply(new BigDecimal(rate)).setScale(2))
+                    .setExchangeRateSourceTimestamp(sourceTimestamp)
+                    .setDccId(dccId)
+                    .setOrderId(orderId);
+        }
+
+        @Override
+        protected long currentTimeMillis() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,291 @@
+package com.global.api.tests.services;
+
+import com.global.api.entities.TransactionSummary;
+import com.global.api.entities.reporting.DepositSummary;
+import com.global.api.entities.reporting.DisputeSummary;
+import com.global.api.entities.reporting.ReconciliationEvent;
+import com.global.api.entities.reporting.ReconciliationEventType;
+import com.global.api.entities.reporting.ReconciliationRecord;
+import com.global.api.services.SettlementReconciler;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class SettlementReconcilerTests {
+    private static final long DAY = TimeUnit.DAYS.toMillis(1);
+    private static final Date DAY_1 = new Date(1700006400000L);
+    private static final Date DAY_2 = new Date(DAY_1.getTime() + DAY);
+
+    @Test
+    public void transactionsBatchesAndDepositsAreJoined() throws Exception {
+        FakeReconciler reconciler = new FakeReconciler();
+        reconciler.record(DAY_1, "TRN_1", "B1", "10.00");
+        reconciler.record(DAY_1, "TRN_2", "B1", "20.00");
+        reconciler.record(DAY_1, "TRN_3", "B1", "-5.00");
+        reconciler.record(DAY_1, "TRN_4", "B1", "7.00");
+        reconciler.settlement(DAY_1, "TRN_1", "B1", "DEP_1", "SALE", "10.00");
+        reconciler.settlement(DAY_1, "TRN_2", "B1", "DEP_1", "SALE", "21.00");
+        reconciler.settlement(DAY_1, "TRN_3", "B1", "DEP_1", "REFUND", "5.00");
+        reconciler.settlement(DAY_1, "TRN_9", "B1", "DEP_1", "SALE", "4.00");
+        reconciler.dispute(DAY_1, "DEP_1", "3.00");
+        reconciler.deposit(DAY_1, "DEP_1", "35.00", "5.00", "3.00");
+        reconciler.setPageSize(2);
+
+        reconciler.reconcile(DAY_1, DAY_1);
+
+        Map<String, ReconciliationEvent> events = reconciler.eventsById();
+        assertEquals(ReconciliationEventType.Matched, events.get("TRN_1").getType());
+        assertEquals(ReconciliationEventType.AmountMismatch, events.get("TRN_2").getType());
+        assertEquals(new BigDecimal("20.00"), events.get("TRN_2").getExpectedAmount());
+        assertEquals(new BigDecimal("21.00"), events.get("TRN_2").getSettledAmount());
+        assertEquals(ReconciliationEventType.Matched, events.get("TRN_3").getType());
+        assertEquals(ReconciliationEventType.UnmatchedRecord, events.get("TRN_4").getType());
+        assertEquals(ReconciliationEventType.UnmatchedSettlement, events.get("TRN_9").getType());
+
+        // records 32.00, settled 30.00
+        assertEquals(ReconciliationEventType.BatchMismatch, events.get("B1").getType());
+        assertEquals(new BigDecimal("32.00"), events.get("B1").getExpectedAmount());
+        assertEquals(new BigDecimal("30.00"), events.get("B1").getSettledAmount());
+
+        // 35.00 - 5.00 - 3.00 deposited against 30.00 settled less a 3.00 dispute
+        assertEquals(ReconciliationEventType.DepositMatched, events.get("DEP_1").getType());
+        assertEquals(new BigDecimal("27.00"), events.get("DEP_1").getSettledAmount());
+        assertEquals(7, reconciler.events.size());
+    }
+
+    @Test
+    public void depositsWithoutAReportAreUnmatched() throws Exception {
+        FakeReconciler reconciler = new FakeReconciler();
+        reconciler.record(DAY_1, "TRN_1", "B1", "10.00");
+        reconciler.settlement(DAY_1, "TRN_1", "B1", "DEP_1", "SALE", "10.00");
+        reconciler.deposit(DAY_1, "DEP_2", "5.00", null, null);
+
+        reconciler.reconcile(DAY_1, DAY_1);
+
+        Map<String, ReconciliationEvent> events = reconciler.eventsById();
+        assertEquals(ReconciliationEventType.UnmatchedDeposit, events.get("DEP_1").getType());
+        assertEquals(ReconciliationEventType.DepositMismatch, events.get("DEP_2").getType());
+        assertEquals(ReconciliationEventType.BatchMatched, events.get("B1").getType());
+    }
+
+    @Test
+    public void partitionsRunInParallel() throws Exception {
+        FakeReconciler reconciler = new FakeReconciler();
+        for(int i = 0; i < 5000; i++) {
+            Date day = i % 2 == 0 ? DAY_1 : DAY_2;
+            reconciler.record(day, "TRN_" + i, "B" + (i % 2), "1.00");
+            reconciler.settlement(day, "TRN_" + i, "B" + (i % 2), "DEP_" + (i % 2), "SALE", i == 4999 ? "2.00" : "1.00");
+        }
+        reconciler.setParallelism(2).setPageSize(500);
+
+        reconciler.reconcile(DAY_1, new Date(DAY_2.getTime() + DAY - 1));
+
+        int matched = 0;
+        int mismatched = 0;
+        for(ReconciliationEvent event: reconciler.events) {
+            if(event.getType() == ReconciliationEventType.Matched) {
+                matched++;
+            }
+            else if(event.getType() == ReconciliationEventType.AmountMismatch) {
+                mismatched++;
+                assertEquals("TRN_4999", event.getId());
+            }
+        }
+        assertEquals(4999, matched);
+        assertEquals(1, mismatched);
+        assertEquals(2, reconciler.partitions.size());
+    }
+
+    @Test
+    public void partitionsStartAtMidnight() throws Exception {
+        FakeReconciler reconciler = daysOfSettlements(DAY_1, 3);
+
+        // noon on the first day to noon on the last
+        reconciler.reconcile(new Date(DAY_1.getTime() + DAY / 2), new Date(DAY_1.getTime() + 2 * DAY + DAY / 2));
+
+        assertEachDayReconciledOnce(reconciler, 3);
+    }
+
+    @Test
+    public void partitionsFollowDaylightSavingChanges() throws Exception {
+        TimeZone original = TimeZone.getDefault();
+        TimeZone.setDefault(TimeZone.getTimeZone("America/New_York"));
+        try {
+            // clocks go back on 2023-11-05, which is 25 hours long
+            Calendar calendar = Calendar.getInstance();
+            calendar.clear();
+            calendar.set(2023, Calendar.NOVEMBER, 4);
+            Date first = calendar.getTime();
+            calendar.set(2023, Calendar.NOVEMBER, 7);
+            Date last = calendar.getTime();
+
+            FakeReconciler reconciler = daysOfSettlements(first, 4);
+            reconciler.reconcile(first, last);
+            assertEachDayReconciledOnce(reconciler, 4);
+
+            // and forward on 2024-03-10, which is 23 hours long
+            calendar.set(2024, Calendar.MARCH, 9);
+            first = calendar.getTime();
+            calendar.set(2024, Calendar.MARCH, 12);
+            last = calendar.getTime();
+
+            reconciler = daysOfSettlements(first, 4);
+            reconciler.setPartitionDays(2);
+            reconciler.reconcile(first, last);
+            assertEachDayReconciledOnce(reconciler, 2);
+        }
+        finally {
+            TimeZone.setDefault(original);
+        }
+    }
+
+    // one record, settlement and deposit on each of the days
+    private static FakeReconciler daysOfSettlements(Date first, int days) {
+        FakeReconciler reconciler = new FakeReconciler();
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTime(first);
+        for(int i = 0; i < days; i++) {
+            Date day = calendar.getTime();
+            reconciler.record(day, "TRN_" + i, "B" + i, "10.00");
+            reconciler.settlement(day, "TRN_" + i, "B" + i, "DEP_" + i, "SALE", "10.00");
+            reconciler.deposit(day, "DEP_" + i, "10.00", null, null);
+            calendar.add(Calendar.DAY_OF_MONTH, 1);
+        }
+        return reconciler;
+    }
+
+    private static void assertEachDayReconciledOnce(FakeReconciler reconciler, int partitions) {
+        Map<String, ReconciliationEvent> events = reconciler.eventsById();
+        for(ReconciliationEvent event: events.values()) {
+            assertTrue(event.getId() + " " + event.getType(), event.getType() == ReconciliationEventType.Matched
+                    || event.getType() == ReconciliationEventType.BatchMatched
+                    || event.getType() == ReconciliationEventType.DepositMatched);
+        }
+        assertEquals(reconciler.settlements.size() * 3, events.size());
+        assertEquals(partitions, reconciler.partitions.size());
+
+        Calendar calendar = Calendar.getInstance();
+        for(Date start: reconciler.partitions) {
+            calendar.setTime(start);
+            assertEquals(0, calendar.get(Calendar.HOUR_OF_DAY));
+            assertEquals(0, calendar.get(Calendar.MINUTE));
+        }
+    }
+
+    private static class FakeReconciler extends SettlementReconciler {
+        private final List<ReconciliationEvent> events;
+        // by deposit date, which is all the reporting filters look at
+        private final TreeMap<String, List<ReconciliationRecord>> records;
+        private final TreeMap<String, List<TransactionSummary>> settlements = new TreeMap<String, List<TransactionSummary>>();
+        private final TreeMap<String, List<DisputeSummary>> disputes = new TreeMap<String, List<DisputeSummary>>();
+        private final TreeMap<String, List<DepositSummary>> deposits = new TreeMap<String, List<DepositSummary>>();
+        private final List<Date> partitions = Collections.synchronizedList(new ArrayList<Date>());
+
+        FakeReconciler() {
+            this(new ArrayList<ReconciliationEvent>(), new TreeMap<String, List<ReconciliationRecord>>());
+        }
+
+        private FakeReconciler(List<ReconciliationEvent> events, TreeMap<String, List<ReconciliationRecord>> records) {
+            super((start, end) -> between(records, start, end).iterator(), events::add);
+            this.events = events;
+            this.records = records;
+        }
+
+        void record(Date day, String transactionId, String batchId, String amount) {
+            listFor(records, day).add(new ReconciliationRecord()
+                    .setTransactionId(transactionId)
+                    .setBatchId(batchId)
+                    .setAmount(new BigDecimal(amount)));
+        }
+
+        void settlement(Date day, String transactionId, String batchId, String depositId, String type, String amount) {
+            TransactionSummary summary = new TransactionSummary();
+            summary.setTransactionId(transactionId);
+            summary.setBatchSequenceNumber(batchId);
+            summary.setDepositReference(depositId);
+            summary.setTransactionType(type);
+            summary.setAmount(new BigDecimal(amount));
+            listFor(settlements, day).add(summary);
+        }
+
+        void dispute(Date day, String depositId, String amount) {
+            DisputeSummary summary = new DisputeSummary();
+            summary.setDepositReference(depositId);
+            summary.setCaseAmount(new BigDecimal(amount));
+            listFor(disputes, day).add(summary);
+        }
+
+        void deposit(Date day, String depositId, String sales, String refunds, String chargebacks) {
+            DepositSummary summary = new DepositSummary();
+            summary.setDepositId(depositId);
+            summary.setSalesTotalAmount(new BigDecimal(sales));
+            summary.setRefundsTotalAmount(refunds == null ? null : new BigDecimal(refunds));
+            summary.setChargebackTotalAmount(chargebacks == null ? null : new BigDecimal(chargebacks));
+            listFor(deposits, day).add(summary);
+        }
+
+        Map<String, ReconciliationEvent> eventsById() {
+            Map<String, ReconciliationEvent> rvalue = new HashMap<String, ReconciliationEvent>();
+            for(ReconciliationEvent event: events) {
+                assertNull("two events for " + event.getId(), rvalue.put(event.getId(), event));
+            }
+            return rvalue;
+        }
+
+        @Override
+        protected List<TransactionSummary> getSettlementTransactions(Date start, Date end, int page) {
+            if(page == 1) {
+                partitions.add(start);
+            }
+            return page(between(settlements, start, end), page);
+        }
+
+        @Override
+        protected List<DisputeSummary> getDisputes(Date start, Date end, int page) {
+            return page(between(disputes, start, end), page);
+        }
+
+        @Override
+        protected List<DepositSummary> getDeposits(Date start, Date end, int page) {
+            return page(between(deposits, start, end), page);
+        }
+
+        private <T> List<T> page(List<T> values, int page) {
+            int from = Math.min((page - 1) * getPageSize(), values.size());
+            return new ArrayList<T>(values.subList(from, Math.min(from + getPageSize(), values.size())));
+        }
+
+        private static <T> List<T> listFor(TreeMap<String, List<T>> values, Date day) {
+            String date = new SimpleDateFormat("yyyy-MM-dd").format(day);
+            List<T> rvalue = values.get(date);
+            if(rvalue == null) {
+                rvalue = new ArrayList<T>();
+                values.put(date, rvalue);
+            }
+            return rvalue;
+        }
+
+        // the dates the gateway would be sent for the filters, inclusive
+        private static synchronized <T> List<T> between(TreeMap<String, List<T>> values, Date start, Date end) {
+            SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd");
+            List<T> rvalue = new ArrayList<T>();
+            for(List<T> day: values.subMap(format.format(start), true, format.format(end), true).values()) {
+                rvalue.addAll(day);
+            }
+            return rvalue;
+        }
+    }
+}
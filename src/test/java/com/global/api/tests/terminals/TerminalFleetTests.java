@@ -0,0 +1,197 @@
+package com.global.api.tests.terminals;
+
+import com.global.api.entities.enums.ConnectionModes;
+import com.global.api.entities.enums.DeviceType;
+import com.global.api.entities.exceptions.ApiException;
+import com.global.api.entities.exceptions.MessageException;
+import com.global.api.terminals.ConnectionConfig;
+import com.global.api.terminals.FleetResponse;
+import com.global.api.terminals.TerminalFleet;
+import com.global.api.terminals.abstractions.IDeviceCommand;
+import com.global.api.terminals.abstractions.IDeviceHealthCheck;
+import com.global.api.terminals.abstractions.IDeviceInterface;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+public class TerminalFleetTests {
+    private TerminalFleet fleet;
+
+    @Before
+    public void setUp() throws ApiException {
+        fleet = new TerminalFleet(8);
+        for(int i = 1; i <= 4; i++) {
+            ConnectionConfig config = new ConnectionConfig();
+            config.setDeviceType(DeviceType.UPA_DEVICE);
+            config.setConnectionMode(ConnectionModes.TCP_IP);
+            config.setIpAddress("127.0.0.1");
+            config.setPort(9000 + i);
+            fleet.addDevice("lane-" + i, config);
+        }
+    }
+
+    @After
+    public void tearDown() {
+        fleet.dispose();
+    }
+
+    @Test
+    public void commandsAreSerializedPerDevice() throws Exception {
+        final Map<IDeviceInterface, AtomicInteger> active = new ConcurrentHashMap<IDeviceInterface, AtomicInteger>();
+        final AtomicInteger overlap = new AtomicInteger();
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+
+        IDeviceCommand<Integer> command = new IDeviceCommand<Integer>() {
+            public Integer execute(IDeviceInterface device) throws ApiException {
+                active.putIfAbsent(device, new AtomicInteger());
+                if(active.get(device).incrementAndGet() > 1) {
+                    overlap.incrementAndGet();
+                }
+                int now = running.incrementAndGet();
+                maxRunning.accumulateAndGet(now, Math::max);
+                try {
+                    Thread.sleep(5);
+                }
+                catch(InterruptedException exc) {
+                    Thread.currentThread().interrupt();
+                }
+                running.decrementAndGet();
+                return active.get(device).getAndDecrement();
+            }
+        };
+
+        List<Future<Integer>> futures = new ArrayList<Future<Integer>>();
+        for(int round = 0; round < 10; round++) {
+            for(String deviceId: fleet.getDeviceIds()) {
+                futures.add(fleet.submit(deviceId, command));
+            }
+        }
+        for(Future<Integer> future: futures) {
+            assertEquals(Integer.valueOf(1), future.get());
+        }
+
+        assertEquals(0, overlap.get());
+        assertTrue(maxRunning.get() > 1);
+    }
+
+    @Test
+    public void unhealthyDeviceFailsOverToBackup() throws Exception {
+        final AtomicInteger failedChecks = new AtomicInteger();
+        fleet.setFailureThreshold(2);
+        fleet.setBackupDevice("lane-1", "lane-2");
+        fleet.setHealthCheck(new IDeviceHealthCheck() {
+            public void check(String deviceId, IDeviceInterface device) throws ApiException {
+                if(deviceId.equals("lane-1")) {
+                    failedChecks.incrementAndGet();
+                    throw new MessageException("Unable to connect with device.");
+                }
+            }
+        });
+
+        // a device with a heartbeat still pending is skipped, so keep checking until it fails twice
+        for(int i = 0; i < 200 && fleet.isHealthy("lane-1"); i++) {
+            fleet.checkHealth();
+            Thread.sleep(10);
+        }
+        assertEquals(2, failedChecks.get());
+        assertFalse(fleet.isHealthy("lane-1"));
+        assertTrue(fleet.isHealthy("lane-2"));
+        assertEquals(1, fleet.getUnhealthyDevices().size());
+        assertEquals("Unable to connect with device.", fleet.getLastError("lane-1").getMessage());
+
+        IDeviceInterface target = fleet.execute("lane-1", new IDeviceCommand<IDeviceInterface>() {
+            public IDeviceInterface execute(IDeviceInterface device) {
+                return device;
+            }
+        });
+        assertSame(fleet.getDeviceController("lane-2").configureInterface(), target);
+    }
+
+    @Test
+    public void executeAllAggregatesResults() {
+        FleetResponse<String> response = fleet.executeAll(new IDeviceCommand<String>() {
+            public String execute(IDeviceInterface device) throws ApiException {
+                if(device == fleet.getDeviceController("lane-3").configureInterface()) {
+                    throw new MessageException("Device is busy");
+                }
+                return "OK";
+            }
+        });
+
+        assertFalse(response.isSuccessful());
+        assertEquals(3, response.getSuccessCount());
+        assertEquals(1, response.getFailureCount());
+        assertEquals("Device is busy", response.getError("lane-3").getMessage());
+        assertEquals("OK", response.getResponse("lane-4"));
+    }
+
+    @Test
+    public void disposeCancelsQueuedCommands() throws Exception {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        IDeviceCommand<String> blocking = new IDeviceCommand<String>() {
+            public String execute(IDeviceInterface device) {
+                started.countDown();
+                // ignores interrupts, like a read that only ends when the device answers
+                while(release.getCount() > 0) {
+                    try {
+                        release.await();
+                    }
+                    catch(InterruptedException exc) {
+                        // keep waiting
+                    }
+                }
+                return "OK";
+            }
+        };
+        IDeviceCommand<String> queuedCommand = new IDeviceCommand<String>() {
+            public String execute(IDeviceInterface device) {
+                return "OK";
+            }
+        };
+
+        Future<String> running = fleet.submit("lane-1", blocking);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        Future<String> queued = fleet.submit("lane-1", queuedCommand);
+
+        final AtomicReference<Exception> waiterError = new AtomicReference<Exception>();
+        Thread waiter = new Thread() {
+            public void run() {
+                try {
+                    fleet.execute("lane-1", queuedCommand);
+                }
+                catch(Exception exc) {
+                    waiterError.set(exc);
+                }
+            }
+        };
+        waiter.start();
+        Thread.sleep(50);
+
+        try {
+            fleet.dispose();
+
+            waiter.join(5000);
+            assertFalse(waiter.isAlive());
+            assertTrue(waiterError.get() instanceof ApiException);
+            assertTrue(queued.isCancelled());
+            assertTrue(running.isDone());
+        }
+        finally {
+            release.countDown();
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.global.api.tests.terminals.hpa;
+
+import com.global.api.entities.enums.ConnectionModes;
+import com.global.api.entities.enums.DeviceType;
+import com.global.api.entities.enums.SendFileType;
+import com.global.api.entities.exceptions.ApiException;
+import com.global.api.terminals.ConnectionConfig;
+import com.global.api.terminals.abstractions.IDeviceInterface;
+import com.global.api.terminals.abstractions.IDeviceResponse;
+import com.global.api.utils.Element;
+import com.global.api.utils.ElementTree;
+import org.apache.commons.codec.binary.Hex;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.Assert.*;
+
+public class HpaFileUploadTests {
+    // 47 / 5 gives parts of 9 hex characters, so most parts end half way through a byte
+    private static final int MAX_DATA_SIZE = 47;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private ServerSocket server;
+    private IDeviceInterface device;
+    private final List<String> fileParts = new CopyOnWriteArrayList<String>();
+    private final List<String> multipleMessages = new CopyOnWriteArrayList<String>();
+
+    @Before
+    public void setUp() throws Exception {
+        server = new ServerSocket(0);
+        Thread terminal = new Thread() {
+            public void run() {
+                try {
+                    while(true) {
+                        serve(server.accept());
+                    }
+                }
+                catch(IOException exc) {
+                    // server closed
+                }
+            }
+        };
+        terminal.setDaemon(true);
+        terminal.start();
+
+        ConnectionConfig config = new ConnectionConfig();
+        config.setDeviceType(DeviceType.HPA_ISC250);
+        config.setConnectionMode(ConnectionModes.TCP_IP);
+        config.setIpAddress("127.0.0.1");
+        config.setPort(server.getLocalPort());
+        config.setTimeout(2000);
+        device = config.createDeviceController().configureInterface();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        device.dispose();
+        server.close();
+    }
+
+    @Test
+    public void sendFileStreamsHexParts() throws Exception {
+        byte[] image = new byte[1000];
+        new Random(7).nextBytes(image);
+        File file = writeFile("banner.jpg", image);
+
+        IDeviceResponse response = device.sendFile(SendFileType.Banner, file.getPath());
+        assertEquals("00", response.getDeviceResponseCode());
+
+        StringBuilder received = new StringBuilder();
+        for(String part: fileParts) {
+            assertTrue(part.length() <= MAX_DATA_SIZE / 5);
+            received.append(part);
+        }
+        assertEquals(Hex.encodeHexString(image).toUpperCase(), received.toString());
+        assertEquals((2000 + 8) / 9, fileParts.size());
+
+        // only the last part ends the upload
+        for(int i = 0; i < multipleMessages.size() - 1; i++) {
+            assertEquals("1", multipleMessages.get(i));
+        }
+        assertEquals("0", multipleMessages.get(multipleMessages.size() - 1));
+    }
+
+    @Test
+    public void repeatedPartsDoNotEndTheUploadEarly() throws Exception {
+        // every part has the same content, which used to mark the first part as the last
+        File file = writeFile("idlelogo.jpg", new byte[45]);
+
+        device.sendFile(SendFileType.Logo, file.getPath());
+        assertEquals(10, fileParts.size());
+        assertEquals(1, Collections.frequency(multipleMessages, "0"));
+        assertEquals("0", multipleMessages.get(9));
+    }
+
+    @Test(expected = ApiException.class)
+    public void emptyFileIsRejected() throws Exception {
+        device.sendFile(SendFileType.Banner, writeFile("banner.jpg", new byte[0]).getPath());
+    }
+
+    private File writeFile(String name, byte[] content) throws IOException {
+        File file = new File(folder.getRoot(), name);
+        try(FileOutputStream out = new FileOutputStream(file)) {
+            out.write(content);
+        }
+        return file;
+    }
+
+    private void serve(Socket socket) throws IOException {
+        DataInputStream in = new DataInputStream(socket.getInputStream());
+        OutputStream out = socket.getOutputStream();
+        try {
+            while(true) {
+                byte[] buffer = new byte[in.readUnsignedShort()];
+                in.readFully(buffer);
+
+                Element request = ElementTree.parse(buffer).get("SIP");
+                String fileData = request.getString("FileData");
+                if(fileData == null) {
+                    out.write(frame(String.format("<SIP><Version>1.0</Version><Response>SendFile</Response><MultipleMessage>0</MultipleMessage><Result>0</Result><MaxDataSize>%s</MaxDataSize></SIP>", MAX_DATA_SIZE)));
+                }
+                else {
+                    fileParts.add(fileData);
+                    multipleMessages.add(request.getString("MultipleMessage"));
+                    if(request.getString("MultipleMessage").equals("0")) {
+                        out.write(frame("<SIP><Version>1.0</Version><Response>SendFile</Response><MultipleMessage>0</MultipleMessage><Result>0</Result></SIP>"));
+                    }
+                }
+                out.flush();
+            }
+        }
+        catch(Exception exc) {
+            // connection closed, or a message the test does not expect
+            socket.close();
+        }
+    }
+
+    private static byte[] frame(String message) {
+        byte[] body = message.getBytes(StandardCharsets.UTF_8);
+        byte[] rvalue = new byte[body.length + 2];
+        rvalue[0] = (byte)(body.length >>> 8);
+        rvalue[1] = (byte)body.length;
+        System.arraycopy(body, 0, rvalue, 2, body.length);
+        return rvalue;
+    }
+}
@@ -0,0 +1,231 @@
+package com.global.api.tests.terminals.hpa;
+
+import com.global.api.entities.enums.ConnectionModes;
+import com.global.api.entities.enums.DeviceType;
+import com.global.api.entities.exceptions.MessageException;
+import com.global.api.terminals.ConnectionConfig;
+import com.global.api.terminals.DeviceIoExecutor;
+import com.global.api.terminals.DeviceMessage;
+import com.global.api.terminals.hpa.interfaces.HpaTcpInterface;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.*;
+
+public class HpaTcpInterfaceTests {
+    private static final String FIRST = "<SIP><Version>1.0</Version><Response>GetAppInfoReport</Response><MultipleMessage>1</MultipleMessage></SIP>";
+    private static final String LAST = "<SIP><Version>1.0</Version><Response>GetAppInfoReport</Response><MultipleMessage>0</MultipleMessage></SIP>";
+
+    private ServerSocket server;
+    private HpaTcpInterface hpaInterface;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new ServerSocket(0);
+        Thread device = new Thread() {
+            public void run() {
+                try {
+                    while(true) {
+                        serve(server.accept());
+                    }
+                }
+                catch(IOException exc) {
+                    // server closed
+                }
+            }
+        };
+        device.setDaemon(true);
+        device.start();
+
+        ConnectionConfig config = new ConnectionConfig();
+        config.setDeviceType(DeviceType.HPA_ISC250);
+        config.setConnectionMode(ConnectionModes.TCP_IP);
+        config.setIpAddress("127.0.0.1");
+        config.setPort(server.getLocalPort());
+        config.setTimeout(2000);
+        hpaInterface = new HpaTcpInterface(config);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        hpaInterface.disconnect();
+        server.close();
+    }
+
+    @Test
+    public void multipleMessageResponse() throws Exception {
+        byte[] response = hpaInterface.send(buildMessage(false));
+        assertEquals(FIRST + "\r" + LAST, new String(response, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void reconnectsReuseReaderThreads() throws Exception {
+        // readers left by other tests may still be open
+        int activeBefore = DeviceIoExecutor.getActiveCount();
+        for(int i = 0; i < 20; i++) {
+            byte[] response = hpaInterface.send(buildMessage(true));
+            assertEquals(FIRST + "\r" + LAST, new String(response, StandardCharsets.UTF_8));
+        }
+
+        // every disconnect hands the reader's thread back to the pool
+        long deadline = System.currentTimeMillis() + 2000;
+        while(DeviceIoExecutor.getActiveCount() > activeBefore && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(DeviceIoExecutor.getActiveCount() <= activeBefore);
+    }
+
+    @Test
+    public void moreThan64OpenConnections() throws Exception {
+        final ServerSocket lanes = new ServerSocket(0, 256);
+        final List<Socket> accepted = Collections.synchronizedList(new ArrayList<Socket>());
+        Thread acceptor = new Thread() {
+            public void run() {
+                try {
+                    while(true) {
+                        accepted.add(lanes.accept());
+                    }
+                }
+                catch(IOException exc) {
+                    // server closed
+                }
+            }
+        };
+        acceptor.setDaemon(true);
+        acceptor.start();
+
+        List<HpaTcpInterface> interfaces = new ArrayList<HpaTcpInterface>();
+        int activeBefore = DeviceIoExecutor.getActiveCount();
+        try {
+            for(int i = 0; i < 100; i++) {
+                ConnectionConfig config = new ConnectionConfig();
+                config.setDeviceType(DeviceType.HPA_ISC250);
+                config.setConnectionMode(ConnectionModes.TCP_IP);
+                config.setIpAddress("127.0.0.1");
+                config.setPort(lanes.getLocalPort());
+                config.setTimeout(2000);
+
+                HpaTcpInterface lane = new HpaTcpInterface(config);
+                interfaces.add(lane);
+                lane.connect();
+            }
+
+            // every open connection holds a reader
+            assertTrue(DeviceIoExecutor.getActiveCount() >= activeBefore + 100);
+        }
+        finally {
+            for(HpaTcpInterface lane : interfaces) {
+                lane.disconnect();
+            }
+            lanes.close();
+            synchronized (accepted) {
+                for(Socket socket : accepted) {
+                    socket.close();
+                }
+            }
+        }
+    }
+
+    @Test
+    public void connectionsBeyondTheLimitAreRefused() throws Exception {
+        // readers left by other tests may still be open
+        long deadline = System.currentTimeMillis() + 2000;
+        while(DeviceIoExecutor.getActiveCount() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        final CountDownLatch release = new CountDownLatch(1);
+        Runnable blocking = new Runnable() {
+            public void run() {
+                try {
+                    release.await();
+                }
+                catch(InterruptedException exc) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+
+        assertEquals(DeviceIoExecutor.DEFAULT_MAX_THREADS, DeviceIoExecutor.getMaxThreads());
+        int limit = DeviceIoExecutor.getActiveCount() + 2;
+        DeviceIoExecutor.setMaxThreads(limit);
+        try {
+            // idle threads above the new limit exit
+            deadline = System.currentTimeMillis() + 2000;
+            while(DeviceIoExecutor.getThreadCount() > limit && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+
+            DeviceIoExecutor.submit(blocking);
+            DeviceIoExecutor.submit(blocking);
+            try {
+                DeviceIoExecutor.submit(blocking);
+                fail("Expected the third reader to be refused.");
+            }
+            catch(MessageException exc) {
+                assertTrue(exc.getMessage().contains("connections are already open"));
+            }
+        }
+        finally {
+            release.countDown();
+            DeviceIoExecutor.setMaxThreads(DeviceIoExecutor.DEFAULT_MAX_THREADS);
+        }
+    }
+
+    private static DeviceMessage buildMessage(boolean keepAlive) {
+        byte[] body = "<SIP><Version>1.0</Version><ECRId>1004</ECRId><Request>GetAppInfoReport</Request><RequestId>1</RequestId></SIP>".getBytes(StandardCharsets.UTF_8);
+        byte[] buffer = new byte[body.length + 2];
+        buffer[0] = (byte)(body.length >>> 8);
+        buffer[1] = (byte)body.length;
+        System.arraycopy(body, 0, buffer, 2, body.length);
+
+        DeviceMessage message = new DeviceMessage(buffer);
+        message.setAwaitResponse(true);
+        message.setKeepAlive(keepAlive);
+        return message;
+    }
+
+    private static void serve(Socket socket) throws IOException {
+        DataInputStream in = new DataInputStream(socket.getInputStream());
+        OutputStream out = socket.getOutputStream();
+        try {
+            while(true) {
+                int length = in.readUnsignedShort();
+                in.readFully(new byte[length]);
+
+                // the second message is split across writes
+                byte[] first = frame(FIRST);
+                byte[] last = frame(LAST);
+                out.write(first);
+                out.write(last, 0, 5);
+                out.flush();
+                out.write(last, 5, last.length - 5);
+                out.flush();
+            }
+        }
+        catch(IOException exc) {
+            socket.close();
+        }
+    }
+
+    private static byte[] frame(String message) {
+        byte[] body = message.getBytes(StandardCharsets.UTF_8);
+        byte[] rvalue = new byte[body.length + 2];
+        rvalue[0] = (byte)(body.length >>> 8);
+        rvalue[1] = (byte)body.length;
+        System.arraycopy(body, 0, rvalue, 2, body.length);
+        return rvalue;
+    }
+}
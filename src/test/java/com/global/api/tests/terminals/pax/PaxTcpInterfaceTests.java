@@ -0,0 +1,119 @@
+package com.global.api.tests.terminals.pax;
+
+import com.global.api.entities.enums.ConnectionModes;
+import com.global.api.entities.enums.ControlCodes;
+import com.global.api.entities.enums.DeviceType;
+import com.global.api.entities.enums.MessageFormat;
+import com.global.api.entities.exceptions.MessageException;
+import com.global.api.terminals.ConnectionConfig;
+import com.global.api.terminals.DeviceMessage;
+import com.global.api.terminals.TerminalUtilities;
+import com.global.api.terminals.pax.interfaces.PaxTcpInterface;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+
+import static org.junit.Assert.*;
+
+public class PaxTcpInterfaceTests {
+    private ServerSocket server;
+    private PaxTcpInterface paxInterface;
+    private volatile boolean sendEot;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new ServerSocket(0);
+        Thread device = new Thread() {
+            public void run() {
+                try {
+                    while(true) {
+                        serve(server.accept());
+                    }
+                }
+                catch(IOException exc) {
+                    // server closed
+                }
+            }
+        };
+        device.setDaemon(true);
+        device.start();
+
+        ConnectionConfig config = new ConnectionConfig();
+        config.setDeviceType(DeviceType.PAX_DEVICE);
+        config.setConnectionMode(ConnectionModes.TCP_IP);
+        config.setIpAddress("127.0.0.1");
+        config.setPort(server.getLocalPort());
+        config.setTimeout(2000);
+        paxInterface = new PaxTcpInterface(config);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        server.close();
+    }
+
+    @Test
+    public void ackAndResponseInOnePacket() throws Exception {
+        byte[] response = paxInterface.send(TerminalUtilities.buildRequest("A14[1c]1.35", MessageFormat.Visa2nd));
+
+        assertEquals(ControlCodes.STX.getByte(), response[0]);
+        assertEquals(ControlCodes.ETX.getByte(), response[response.length - 2]);
+        assertEquals(TerminalUtilities.calculateLRC(response), response[response.length - 1]);
+        assertEquals("0", new String(response, 1, 1));
+    }
+
+    @Test
+    public void eotFailsTheRequest() {
+        sendEot = true;
+        try {
+            paxInterface.send(TerminalUtilities.buildRequest("A14[1c]1.35", MessageFormat.Visa2nd));
+            fail("Expected the EOT to fail the request");
+        }
+        catch(MessageException exc) {
+            assertEquals("Terminal returned EOT for the current message", exc.getMessage());
+        }
+    }
+
+    private void serve(Socket socket) throws IOException {
+        InputStream in = socket.getInputStream();
+        OutputStream out = socket.getOutputStream();
+        try {
+            // read the request through its LRC
+            int value;
+            while((value = in.read()) != -1 && value != ControlCodes.ETX.getByte()) {
+            }
+            in.read();
+
+            if(sendEot) {
+                out.write(ControlCodes.EOT.getByte());
+                out.flush();
+                in.read();
+                return;
+            }
+
+            ByteArrayOutputStream response = new ByteArrayOutputStream();
+            response.write(ControlCodes.STX.getByte());
+            response.write("0\u001cA15\u001c1.35\u001c000000\u001cOK".getBytes());
+            response.write(ControlCodes.ETX.getByte());
+            byte[] frame = response.toByteArray();
+
+            // the ACK and the response arrive together
+            out.write(ControlCodes.ACK.getByte());
+            out.write(frame);
+            out.write(TerminalUtilities.calculateLRC(frame));
+            out.flush();
+
+            in.read(); // ACK
+        }
+        finally {
+            socket.close();
+        }
+    }
+}
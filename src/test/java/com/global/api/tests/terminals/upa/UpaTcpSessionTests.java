@@ -0,0 +1,204 @@
+package com.global.api.tests.terminals.upa;
+
+import com.global.api.entities.enums.ConnectionModes;
+import com.global.api.entities.enums.DeviceType;
+import com.global.api.entities.exceptions.MessageException;
+import com.global.api.terminals.ConnectionConfig;
+import com.global.api.terminals.TerminalUtilities;
+import com.global.api.terminals.upa.Entities.Enums.UpaMessageId;
+import com.global.api.terminals.upa.interfaces.UpaMessageFramer;
+import com.global.api.terminals.upa.interfaces.UpaTcpSession;
+import com.global.api.utils.JsonDoc;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class UpaTcpSessionTests {
+    private ServerSocket server;
+    private FakeDevice device;
+    private UpaTcpSession session;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new ServerSocket(0);
+        device = new FakeDevice(server);
+        device.start();
+
+        ConnectionConfig config = new ConnectionConfig();
+        config.setDeviceType(DeviceType.UPA_DEVICE);
+        config.setConnectionMode(ConnectionModes.TCP_IP);
+        config.setIpAddress("127.0.0.1");
+        config.setPort(server.getLocalPort());
+        config.setPersistentConnection(true);
+        config.setTimeout(2000);
+        session = new UpaTcpSession(config);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        session.disconnect();
+        server.close();
+    }
+
+    @Test
+    public void framerHandlesSplitAndJoinedPackets() {
+        byte[] first = frame("{\"message\":\"ACK\"}");
+        byte[] second = frame("{\"message\":\"READY\"}");
+        byte[] stream = new byte[first.length + second.length];
+        System.arraycopy(first, 0, stream, 0, first.length);
+        System.arraycopy(second, 0, stream, first.length, second.length);
+
+        UpaMessageFramer framer = new UpaMessageFramer(8);
+        List<String> payloads = new ArrayList<String>();
+        for(int i = 0; i < stream.length; i += 5) {
+            for(byte[] payload: framer.append(stream, i, Math.min(5, stream.length - i))) {
+                payloads.add(new String(payload, StandardCharsets.UTF_8));
+            }
+        }
+
+        assertEquals(2, payloads.size());
+        assertEquals("{\"message\":\"ACK\"}", payloads.get(0));
+        assertEquals("{\"message\":\"READY\"}", payloads.get(1));
+        assertEquals(0, framer.getPendingLength());
+    }
+
+    @Test
+    public void commandsShareOneConnection() throws Exception {
+        for(int i = 1; i <= 3; i++) {
+            byte[] response = session.send(TerminalUtilities.buildMessage(UpaMessageId.Ping, String.valueOf(i), null));
+
+            JsonDoc data = JsonDoc.parse(new String(response, StandardCharsets.UTF_8)).get("data");
+            assertEquals(String.valueOf(i), data.getString("requestId"));
+        }
+
+        assertEquals(1, device.connections.get());
+        assertEquals(3, device.acks.get());
+    }
+
+    @Test
+    public void staleResponseIsIgnored() throws Exception {
+        device.staleResponseFirst = true;
+
+        byte[] response = session.send(TerminalUtilities.buildMessage(UpaMessageId.Ping, "42", null));
+
+        JsonDoc data = JsonDoc.parse(new String(response, StandardCharsets.UTF_8)).get("data");
+        assertEquals("42", data.getString("requestId"));
+    }
+
+    @Test
+    public void timeoutWhenDeviceIsSilent() {
+        device.silent = true;
+        try {
+            session.send(TerminalUtilities.buildMessage(UpaMessageId.Ping, "7", null));
+            fail("Expected a timeout");
+        }
+        catch(MessageException exc) {
+            assertEquals("Terminal did not respond in the given timeout.", exc.getMessage());
+        }
+    }
+
+    private static byte[] frame(String body) {
+        return TerminalUtilities.compileMessage(body).getSendBuffer();
+    }
+
+    private static class FakeDevice extends Thread {
+        private final ServerSocket server;
+        private final AtomicInteger connections = new AtomicInteger();
+        private final AtomicInteger acks = new AtomicInteger();
+        private volatile boolean silent;
+        private volatile boolean staleResponseFirst;
+
+        private FakeDevice(ServerSocket server) {
+            this.server = server;
+            setDaemon(true);
+        }
+
+        public void run() {
+            try {
+                while(true) {
+                    Socket socket = server.accept();
+                    connections.incrementAndGet();
+                    serve(socket);
+                }
+            }
+            catch(IOException exc) {
+                // server closed
+            }
+        }
+
+        private void serve(Socket socket) throws IOException {
+            InputStream in = socket.getInputStream();
+            OutputStream out = socket.getOutputStream();
+            UpaMessageFramer framer = new UpaMessageFramer();
+            byte[] buffer = new byte[1024];
+            int bytesRead;
+            while((bytesRead = in.read(buffer)) != -1) {
+                for(byte[] payload: framer.append(buffer, 0, bytesRead)) {
+                    JsonDoc request = JsonDoc.parse(new String(payload, StandardCharsets.UTF_8));
+                    if("ACK".equals(request.getString("message"))) {
+                        acks.incrementAndGet();
+                        continue;
+                    }
+                    if(silent) {
+                        continue;
+                    }
+
+                    String requestId = request.get("data").getString("requestId");
+                    List<byte[]> replies = new ArrayList<byte[]>();
+                    replies.add(frame("{\"message\":\"ACK\",\"data\":\"\"}"));
+                    if(staleResponseFirst) {
+                        replies.add(frame(response("1")));
+                    }
+                    replies.add(frame(response(requestId)));
+                    replies.add(frame("{\"message\":\"READY\",\"data\":\"\"}"));
+                    writeInPieces(out, replies);
+                }
+            }
+        }
+
+        private static String response(String requestId) {
+            return "{\"message\":\"MSG\",\"data\":{\"response\":\"Ping\",\"EcrId\":\"13\",\"requestId\":\"" + requestId + "\",\"cmdResult\":{\"result\":\"Success\"}}}";
+        }
+
+        // packets split across writes and joined in one, the way a device's TCP stack delivers them
+        private static void writeInPieces(OutputStream out, List<byte[]> replies) throws IOException {
+            int total = 0;
+            for(byte[] reply: replies) {
+                total += reply.length;
+            }
+            byte[] stream = new byte[total];
+            int position = 0;
+            for(byte[] reply: replies) {
+                System.arraycopy(reply, 0, stream, position, reply.length);
+                position += reply.length;
+            }
+
+            List<Integer> cuts = new ArrayList<Integer>();
+            for(int cut = 7; cut < total; cut += 23) {
+                cuts.add(cut);
+            }
+            cuts.add(total);
+            Collections.sort(cuts);
+
+            int start = 0;
+            for(int cut: cuts) {
+                out.write(stream, start, cut - start);
+                out.flush();
+                start = cut;
+            }
+        }
+    }
+}